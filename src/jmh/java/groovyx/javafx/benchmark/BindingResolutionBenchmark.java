@@ -0,0 +1,119 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovyx.javafx.binding.BindingHolder;
+import groovyx.javafx.binding.Util;
+import javafx.beans.property.Property;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code bind(target, 'name').to(source, 'name')} per second, the way the {@code bind} node
+ * builds it, and the property lookups underneath.
+ *
+ * <p>The source is either a bean with a JavaFX {@code nameProperty()} accessor or a plain
+ * JavaBean, which needs an adapter property. Each bind is undone before the next one, so
+ * listeners do not pile up. No FX toolkit is needed.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingResolutionBenchmark {
+
+    public static class FxBean {
+        private final StringProperty name = new SimpleStringProperty(this, "name", "fx");
+
+        public StringProperty nameProperty() {
+            return name;
+        }
+    }
+
+    public static class PlainBean {
+        private String name = "plain";
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private FxBean target;
+    private FxBean fxSource;
+    private PlainBean plainSource;
+
+    @Setup
+    public void setup() {
+        target = new FxBean();
+        fxSource = new FxBean();
+        plainSource = new PlainBean();
+    }
+
+    @Benchmark
+    public Object bindToFxProperty() {
+        return bindAndUndo(fxSource);
+    }
+
+    @Benchmark
+    public Object bindToJavaBean() {
+        return bindAndUndo(plainSource);
+    }
+
+    @Benchmark
+    public ReadOnlyProperty<?> resolveFxProperty() {
+        return Util.getJavaFXProperty(fxSource, "name");
+    }
+
+    @Benchmark
+    public ReadOnlyProperty<?> resolveMissingFxProperty() {
+        return Util.getJavaFXProperty(plainSource, "name");
+    }
+
+    @Benchmark
+    public ReadOnlyProperty<?> resolveJavaBeanAdapter() throws NoSuchMethodException {
+        return Util.getJavaBeanFXProperty(plainSource, "name");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object bindAndUndo(Object source) {
+        BindingHolder holder = new BindingHolder(Arrays.asList(target, "name")).to(source, "name");
+        Property targetProperty = (Property) holder.getObservable();
+        targetProperty.unbindBidirectional(holder.getBindTo().getObservable());
+        return targetProperty.getValue();
+    }
+}
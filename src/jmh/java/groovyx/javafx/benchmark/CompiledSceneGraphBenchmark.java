@@ -0,0 +1,96 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovy.lang.GroovyClassLoader;
+import groovyx.javafx.SceneGraphBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Builds a grid of 100 rows x 10 cells with the dynamic builder and with the same DSL
+ * compiled under {@code @CompileSceneGraph}.
+ *
+ * <p>The DSL source is compiled at setup time, once with and once without the annotation.
+ * Shapes and layout panes are used so the benchmark runs without a started FX toolkit.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledSceneGraphBenchmark {
+
+    private static final String CELL =
+            "rectangle(width: 8, height: 8, arcWidth: 2, arcHeight: 2, fill: 'steelblue', stroke: 'white')\n";
+
+    private Function<SceneGraphBuilder, Object> dynamicGrid;
+    private Function<SceneGraphBuilder, Object> compiledGrid;
+    private SceneGraphBuilder builder;
+
+    @Setup
+    public void setup() throws Exception {
+        dynamicGrid = load("");
+        compiledGrid = load("@groovyx.javafx.CompileSceneGraph");
+        builder = new SceneGraphBuilder();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<SceneGraphBuilder, Object> load(String annotation) throws Exception {
+        StringBuilder row = new StringBuilder("hbox(spacing: 1, padding: 1) {\n");
+        for (int i = 0; i < 10; i++) {
+            row.append(CELL);
+        }
+        row.append("}\n");
+        String source = annotation + "\n"
+                + "class Grid implements java.util.function.Function<groovyx.javafx.SceneGraphBuilder, Object> {\n"
+                + "  Object apply(groovyx.javafx.SceneGraphBuilder sg) {\n"
+                + "    sg.vbox(spacing: 1) {\n"
+                + "      for (int i = 0; i < 100; i++) {\n"
+                + row
+                + "      }\n"
+                + "    }\n"
+                + "  }\n"
+                + "}\n";
+        try (GroovyClassLoader loader = new GroovyClassLoader(CompiledSceneGraphBenchmark.class.getClassLoader())) {
+            return (Function<SceneGraphBuilder, Object>) loader.parseClass(source).getDeclaredConstructor().newInstance();
+        }
+    }
+
+    @Benchmark
+    public Object dynamic() {
+        return dynamicGrid.apply(builder);
+    }
+
+    @Benchmark
+    public Object compiled() {
+        return compiledGrid.apply(builder);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovy.lang.Closure;
+import groovyx.javafx.factory.ConverterPropertyValueFactory;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long scroll through a {@code tableColumn(property:, converter:)} column: each operation
+ * moves a 40-row viewport three rows down a 100,000-row table, wrapping at the end, and asks
+ * the converter value factory for the rows that came into view, as recycled cells do.
+ *
+ * <p>The {@code listeners} counter is the number of listeners on all row properties and
+ * {@code cachedRows} the converted values kept; both should level off instead of growing
+ * with the number of operations. Run with {@code -prof gc} to see the heap churn per
+ * scroll. No FX toolkit is needed.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ConverterScrollBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int VIEWPORT = 40;
+    private static final int STEP = 3;
+
+    static long liveListeners;
+
+    public static final class Row {
+        private final StringProperty amount;
+
+        Row(int id) {
+            amount = new CountingStringProperty(this, "amount", Integer.toString(id));
+        }
+
+        public StringProperty amountProperty() {
+            return amount;
+        }
+    }
+
+    static final class CountingStringProperty extends SimpleStringProperty {
+        CountingStringProperty(Object bean, String name, String value) {
+            super(bean, name, value);
+        }
+
+        @Override
+        public void addListener(InvalidationListener listener) {
+            liveListeners++;
+            super.addListener(listener);
+        }
+
+        @Override
+        public void removeListener(InvalidationListener listener) {
+            liveListeners--;
+            super.removeListener(listener);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long listeners;
+        public long cachedRows;
+    }
+
+    private Row[] rows;
+    private ConverterPropertyValueFactory factory;
+    private int top;
+
+    @Setup
+    public void setup() {
+        rows = new Row[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Row(i);
+        }
+        factory = new ConverterPropertyValueFactory("amount", new Closure<String>(this) {
+            public String doCall(Object value) {
+                return "$" + value;
+            }
+        });
+        liveListeners = 0;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int scroll(Footprint footprint) {
+        top += STEP;
+        if (top > ROWS - VIEWPORT) {
+            top = 0;
+        }
+        int length = 0;
+        for (int i = top + VIEWPORT - STEP; i < top + VIEWPORT; i++) {
+            ObservableValue<String> value = factory.call(new TableColumn.CellDataFeatures(null, null, rows[i]));
+            length += value.getValue().length();
+        }
+        footprint.listeners = liveListeners;
+        footprint.cachedRows = factory.getCachedRows();
+        return length;
+    }
+}
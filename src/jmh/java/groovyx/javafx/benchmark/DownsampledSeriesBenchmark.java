@@ -0,0 +1,118 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovyx.javafx.chart.DownsampledSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending to and redrawing a {@link DownsampledSeries} holding ten million points.
+ *
+ * <p>{@code append} measures the cost per raw point. {@code frame} appends the thousand
+ * points that arrive between two pulses at 60k points per second and then recomputes the
+ * points shown, which is the work a live chart does each frame. {@code zoom} moves the shown
+ * range to a random window of half the points, which rebuilds the summary from the raw points.
+ * Updates run on the calling thread and the series is not in a chart, so no FX toolkit is
+ * needed.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class DownsampledSeriesBenchmark {
+
+    private static final int POINTS = 10_000_000;
+    private static final int FRAME = 1_000;
+
+    @Param({"MIN_MAX", "LTTB"})
+    public DownsampledSeries.Mode mode;
+
+    private DownsampledSeries series;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private double x;
+    private double y;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        series = new DownsampledSeries(POINTS);
+        series.setFxExecutor(work -> { });
+        series.setMode(mode);
+        for (int i = 0; i < POINTS; i++) {
+            next();
+        }
+        series.update();
+    }
+
+    @Setup(Level.Iteration)
+    public void follow() {
+        series.showAll();
+        series.update();
+    }
+
+    private void next() {
+        x += 1;
+        y += random.nextDouble() - 0.5;
+        series.getBuffer().append(x, y);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int append() {
+        for (int i = 0; i < FRAME; i++) {
+            next();
+        }
+        return series.getBuffer().size();
+    }
+
+    @Benchmark
+    public int frame() {
+        for (int i = 0; i < FRAME; i++) {
+            next();
+        }
+        series.update();
+        return series.getPointCount();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int zoom() {
+        double oldest = series.getBuffer().x(series.getBuffer().getFirstSequence());
+        double lower = oldest + random.nextInt(POINTS / 2);
+        series.showRange(lower, lower + POINTS / 2);
+        series.update();
+        return series.getPointCount();
+    }
+}
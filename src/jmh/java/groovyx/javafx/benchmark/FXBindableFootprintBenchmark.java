@@ -0,0 +1,106 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovy.lang.GroovyShell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Heap footprint of {@code @FXBindable} model objects, eager and {@code lazy = true}.
+ *
+ * <p>Run with {@code -prof gc}. Each operation creates one 20-property row and sets every
+ * property, as a table model does, so {@code gc.alloc.rate.norm} is the size of a row in bytes.
+ * {@code lazyObservedOnce} also asks for one property, as a single bound cell would. The row
+ * classes are compiled with {@link GroovyShell}, because this source set is Java.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FXBindableFootprintBenchmark {
+
+    private static final String SCRIPT = String.join("\n",
+        "import groovyx.javafx.beans.FXBindable",
+        "import groovy.transform.CompileStatic",
+        "import java.util.function.IntFunction",
+        "@FXBindable(lazy = LAZY)",
+        "class Row {",
+        "    String symbol; String name; String venue; String currency; String sector",
+        "    double bid; double ask; double last; double open; double close",
+        "    double high; double low; long volume; long trades; int bidSize",
+        "    int askSize; int lotSize; boolean halted; boolean shortable; Date updated",
+        "}",
+        "@CompileStatic",
+        "class Rows implements IntFunction<Object> {",
+        "    private final Date now = new Date()",
+        "    Object apply(int i) {",
+        "        Row row = new Row()",
+        "        row.symbol = 'SYM'; row.name = 'Name'; row.venue = 'XLON'; row.currency = 'GBP'; row.sector = 'Tech'",
+        "        row.bid = i; row.ask = i + 1; row.last = i; row.open = i; row.close = i",
+        "        row.high = i; row.low = i; row.volume = i; row.trades = i; row.bidSize = i",
+        "        row.askSize = i; row.lotSize = 100; row.halted = false; row.shortable = true; row.updated = now",
+        "        return row",
+        "    }",
+        "}",
+        "new Rows()");
+
+    private IntFunction<Object> eager;
+    private IntFunction<Object> lazy;
+    private int i;
+
+    @SuppressWarnings("unchecked")
+    private static IntFunction<Object> rows(boolean lazy) {
+        return (IntFunction<Object>) new GroovyShell().evaluate(SCRIPT.replace("LAZY", Boolean.toString(lazy)));
+    }
+
+    @Setup
+    public void setup() {
+        eager = rows(false);
+        lazy = rows(true);
+    }
+
+    @Benchmark
+    public Object eagerRow() {
+        return eager.apply(i++);
+    }
+
+    @Benchmark
+    public Object lazyRow() {
+        return lazy.apply(i++);
+    }
+
+    @Benchmark
+    public Object lazyObservedOnce() {
+        Object row = lazy.apply(i++);
+        return ((groovy.lang.GroovyObject) row).invokeMethod("lastProperty", null);
+    }
+}
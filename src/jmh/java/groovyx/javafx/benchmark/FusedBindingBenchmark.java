@@ -0,0 +1,120 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovyx.javafx.binding.FusedDoubleBinding;
+import javafx.beans.InvalidationListener;
+import javafx.beans.binding.NumberBinding;
+import javafx.beans.binding.NumberExpression;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.value.ObservableNumberValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmetic expressions over {@code depth + 1} double properties, built as one
+ * {@link FusedDoubleBinding} or as the chain of JavaFX bindings the operators used to build.
+ *
+ * <p>{@code build} creates, observes and reads an expression; run it with {@code -prof gc} and
+ * compare {@code gc.alloc.rate.norm} for the bytes each takes. {@code invalidate} changes the
+ * first property of an observed expression and reads the result again, which is the latency
+ * from a change to the new value. No FX toolkit is needed.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FusedBindingBenchmark {
+
+    private static final InvalidationListener IGNORE = observable -> { };
+
+    @Param({"4", "16", "64"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean fused;
+
+    private DoubleProperty[] leaves;
+    private NumberBinding observed;
+    private double next;
+
+    @Setup
+    public void setup() {
+        leaves = new DoubleProperty[depth + 1];
+        for (int i = 0; i < leaves.length; i++) {
+            leaves[i] = new SimpleDoubleProperty(i + 1);
+        }
+        observed = expression();
+        observed.addListener(IGNORE);
+    }
+
+    // Cycles through + - * / so no operator dominates
+    private NumberBinding expression() {
+        NumberBinding result = combine(0, leaves[0], leaves[1]);
+        for (int i = 2; i < leaves.length; i++) {
+            result = combine(i % 4, result, leaves[i]);
+        }
+        return result;
+    }
+
+    private NumberBinding combine(int op, ObservableNumberValue left, ObservableNumberValue right) {
+        if (fused) {
+            return FusedDoubleBinding.combine(op, left, right);
+        }
+        NumberExpression base = (NumberExpression) left;
+        switch (op) {
+            case FusedDoubleBinding.ADD:
+                return base.add(right);
+            case FusedDoubleBinding.SUBTRACT:
+                return base.subtract(right);
+            case FusedDoubleBinding.MULTIPLY:
+                return base.multiply(right);
+            default:
+                return base.divide(right);
+        }
+    }
+
+    @Benchmark
+    public double build() {
+        NumberBinding binding = expression();
+        binding.addListener(IGNORE);
+        double value = binding.doubleValue();
+        binding.dispose();
+        return value;
+    }
+
+    @Benchmark
+    public double invalidate() {
+        leaves[0].set(next++);
+        return observed.doubleValue();
+    }
+}
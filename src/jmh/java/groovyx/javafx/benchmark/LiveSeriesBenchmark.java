@@ -0,0 +1,97 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovyx.javafx.chart.LiveSeries;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three threads appending to a {@link LiveSeries} while a fourth applies the points the way
+ * the FX thread does on each pulse.
+ *
+ * <p>{@code append} is the cost of one append under contention; {@code pulse} is one flush,
+ * which takes whatever was appended since the last one, evicts down to the capacity and
+ * calls {@code setAll}. The counters report how many points were dropped because the
+ * pending ring was full and how many reached the series. The series is not in a chart, so
+ * no FX toolkit is needed.</p>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiveSeriesBenchmark {
+
+    private static final int CAPACITY = 100_000;
+
+    private LiveSeries series;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Points {
+        public long dropped;
+        public long applied;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            dropped = 0;
+            applied = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        series = new LiveSeries(CAPACITY);
+        series.setFxExecutor(work -> { });
+    }
+
+    @Benchmark
+    @Group("live")
+    @GroupThreads(3)
+    public boolean append() {
+        return series.append(System.nanoTime(), 1.0);
+    }
+
+    @Benchmark
+    @Group("live")
+    @GroupThreads(1)
+    public int pulse(Points points) {
+        series.flush();
+        Map<String, Long> stats = series.statistics();
+        points.dropped = stats.get("dropped");
+        points.applied = stats.get("applied");
+        return series.size();
+    }
+}
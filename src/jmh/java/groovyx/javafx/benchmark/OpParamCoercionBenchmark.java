@@ -0,0 +1,108 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovyx.javafx.binding.BindingHolder;
+import groovyx.javafx.canvas.SetLineWidthOperation;
+import javafx.beans.property.SimpleDoubleProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@code OpParamCoercion} helpers canvas operations use to read their parameters.
+ *
+ * <p>Parameters come as plain numbers, JavaFX properties, {@code bind()} holders and builder
+ * attribute maps. The trait is exercised through {@link SetLineWidthOperation}; no FX toolkit
+ * is needed.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpParamCoercionBenchmark {
+
+    private static final List<String> KEYS = Arrays.asList("lw", "lineWidth", "width", "value");
+
+    private SetLineWidthOperation op;
+    private Object number;
+    private Object property;
+    private Object holder;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setup() {
+        op = new SetLineWidthOperation();
+        number = 2.5d;
+        SimpleDoubleProperty width = new SimpleDoubleProperty(2.5d);
+        property = width;
+        holder = new BindingHolder(width);
+        params = new LinkedHashMap<>();
+        params.put("lineWidth", holder);
+    }
+
+    @Benchmark
+    public Object pick() {
+        return op.pick(params, KEYS);
+    }
+
+    @Benchmark
+    public Object unwrapProperty() {
+        return op.unwrap(property);
+    }
+
+    @Benchmark
+    public Object unwrapBindingHolder() {
+        return op.unwrap(holder);
+    }
+
+    @Benchmark
+    public Double coerceNumber() {
+        return op.coerce(number, Double.class);
+    }
+
+    @Benchmark
+    public Double coerceBindingHolder() {
+        return op.coerce(holder, Double.class);
+    }
+
+    @Benchmark
+    public double coerceDoubleProperty() {
+        return op.coerceDouble(property, 0d);
+    }
+
+    @Benchmark
+    public double coerceDoubleFromParams() {
+        return op.coerceDouble(op.pick(params, KEYS), 0d);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovyx.javafx.SceneGraphBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code new SceneGraphBuilder()}.
+ *
+ * <p>{@code perInstanceRegistry} runs with {@code -Dgroovyfx.sharedRegistry=false}, i.e. every
+ * builder instantiates and registers all built-in factories itself (the behaviour before the
+ * shared registry); {@code sharedRegistry} is the default.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SceneGraphBuilderConstructionBenchmark {
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dgroovyfx.sharedRegistry=false")
+    public SceneGraphBuilder perInstanceRegistry() {
+        return new SceneGraphBuilder();
+    }
+
+    @Benchmark
+    @Fork(1)
+    public SceneGraphBuilder sharedRegistry() {
+        return new SceneGraphBuilder();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovy.lang.Closure;
+import groovyx.javafx.Store;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber notifications per second for a {@link Store} receiving bursts of updates.
+ *
+ * <p>Each operation applies {@value #UPDATES} updates, one at a time or inside one
+ * {@code batch}. The {@code notifications} counter is the number of subscriber calls, so it
+ * shows what batching saves at each subscriber count. No FX toolkit is needed.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreBenchmark {
+
+    static final int UPDATES = 100;
+
+    @Param({"1", "10", "100"})
+    public int subscribers;
+
+    private Store<Integer> store;
+    private Closure<Integer> increment;
+    private Closure<Object> burst;
+    private long received;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Notifications {
+        public long notifications;
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        store = new Store<>(0);
+        increment = new Closure<Integer>(this) {
+            public Integer doCall(Integer value) {
+                return value + 1;
+            }
+        };
+        burst = new Closure<Object>(this) {
+            public Object doCall(Object ignored) {
+                for (int i = 0; i < UPDATES; i++) {
+                    store.update(increment);
+                }
+                return null;
+            }
+        };
+        for (int i = 0; i < subscribers; i++) {
+            store.subscribe(new Closure<Object>(this) {
+                public Object doCall(Object value) {
+                    received++;
+                    return null;
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public Integer unbatched(Notifications counter) {
+        long before = received;
+        burst.call(store);
+        counter.notifications += received - before;
+        return store.getState();
+    }
+
+    @Benchmark
+    public Integer batched(Notifications counter) {
+        long before = received;
+        store.batch(burst);
+        counter.notifications += received - before;
+        return store.getState();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovy.lang.Closure;
+import groovyx.javafx.Store;
+import groovyx.javafx.collections.PersistentMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory cost of {@link Store} undo history for 10k updates to a 100k-entry map.
+ *
+ * <p>Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per
+ * operation. One operation makes {@value #UPDATES} updates to a store that keeps all of them
+ * for undo. {@code persistentMap} updates a {@link PersistentMap}. {@code copiedHashMap} copies
+ * a {@link HashMap} for each update, which is what history needs for mutable state. It keeps
+ * only the last {@value #COPIED_HISTORY} copies, because keeping all of them would not fit in
+ * a normal heap.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StoreHistoryBenchmark {
+
+    static final int ENTRIES = 100_000;
+    static final int UPDATES = 10_000;
+    static final int COPIED_HISTORY = 100;
+
+    private PersistentMap<Integer, Integer> persistent;
+    private Map<Integer, Integer> plain;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        plain = new HashMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            plain.put(i, i);
+        }
+        persistent = PersistentMap.of(plain);
+    }
+
+    @Benchmark
+    public Object persistentMap() {
+        Store<PersistentMap<Integer, Integer>> store = new Store<>(persistent, UPDATES);
+        for (int i = 0; i < UPDATES; i++) {
+            final int key = (i * 7919) % ENTRIES;
+            store.update(new Closure<PersistentMap<Integer, Integer>>(this) {
+                public PersistentMap<Integer, Integer> doCall(PersistentMap<Integer, Integer> state) {
+                    return state.plus(key, -key);
+                }
+            });
+        }
+        return store;
+    }
+
+    @Benchmark
+    public Object copiedHashMap() {
+        Store<Map<Integer, Integer>> store = new Store<>(plain, COPIED_HISTORY);
+        for (int i = 0; i < UPDATES; i++) {
+            final int key = (i * 7919) % ENTRIES;
+            store.update(new Closure<Map<Integer, Integer>>(this) {
+                public Map<Integer, Integer> doCall(Map<Integer, Integer> state) {
+                    Map<Integer, Integer> copy = new HashMap<>(state);
+                    copy.put(key, -key);
+                    return copy;
+                }
+            });
+        }
+        return store;
+    }
+}
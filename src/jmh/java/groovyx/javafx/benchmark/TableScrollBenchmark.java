@@ -0,0 +1,138 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.benchmark;
+
+import groovyx.javafx.collections.RowProvider;
+import groovyx.javafx.collections.TableDataSource;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrolling a {@link TableDataSource} over ten million generated rows, unsorted or sorted
+ * descending by a column.
+ *
+ * <p>Both benchmarks read a 40-row viewport the way a {@code TableView} does on a scroll.
+ * {@code jump} moves it to a random position, so the page is almost never cached and the
+ * time includes fetching it; {@code scroll} moves it three rows down, which is served from
+ * the cache. Fetches run on the calling thread, so each time is the latency from the scroll
+ * until every visible row is loaded. No FX toolkit is needed.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TableScrollBenchmark {
+
+    private static final int ROWS = 10_000_000;
+    private static final int VIEWPORT = 40;
+    private static final Executor DIRECT = Runnable::run;
+
+    @Param({"false", "true"})
+    public boolean sorted;
+
+    private ObservableList<Row> rows;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int top;
+
+    public static final class Row {
+        private final int id;
+        private final int value;
+
+        Row(int id) {
+            this.id = id;
+            this.value = (int) ((id * 2654435761L) & 0xFFFF);
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
+    static final class GeneratedRows implements RowProvider<Row> {
+        @Override
+        public int getRowCount() {
+            return ROWS;
+        }
+
+        @Override
+        public List<Row> fetch(int offset, int count) {
+            List<Row> page = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                page.add(new Row(offset + i));
+            }
+            return page;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        TableDataSource<Row> source = new TableDataSource<>(new GeneratedRows());
+        source.setExecutor(DIRECT);
+        source.setFxExecutor(DIRECT);
+        if (sorted) {
+            source.sortBy(Collections.singletonList(new TableDataSource.SortKey("value", false)));
+        }
+        rows = source.getRows();
+    }
+
+    @Benchmark
+    public int jump() {
+        top = random.nextInt(ROWS - VIEWPORT);
+        return viewport();
+    }
+
+    @Benchmark
+    public int scroll() {
+        top += 3;
+        if (top > ROWS - VIEWPORT) {
+            top = 0;
+        }
+        return viewport();
+    }
+
+    private int viewport() {
+        int sum = 0;
+        for (int i = top; i < top + VIEWPORT; i++) {
+            sum += rows.get(i).getId();
+        }
+        return sum;
+    }
+}
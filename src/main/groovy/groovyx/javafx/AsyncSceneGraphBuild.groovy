@@ -0,0 +1,78 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx
+
+import groovy.transform.CompileStatic
+
+/**
+ * State of a single {@link SceneGraphBuilder#buildAsync(Map, Closure)} run.
+ *
+ * <p>While the build closure runs on the worker thread, anything JavaFX only allows on the
+ * FX Application Thread is queued here instead of being executed: {@code defer { }} blocks,
+ * window nodes and the nodes listed in {@link #FX_THREAD_NODES}. The queue is replayed, in
+ * order, by {@link #attach()} from the one {@code Platform.runLater} that hands the finished
+ * subtree to the FX thread.</p>
+ */
+@CompileStatic
+final class AsyncSceneGraphBuild {
+
+    /** Window nodes; the whole call, children included, runs on the FX thread at attach time. */
+    static final Set<String> WINDOW_NODES = Collections.unmodifiableSet(
+            ['stage', 'primaryStage', 'popup'] as LinkedHashSet<String>)
+
+    /** Nodes that can only be constructed on the FX thread; a StackPane holds their place. */
+    static final Set<String> FX_THREAD_NODES = Collections.unmodifiableSet(
+            ['webView', 'htmlEditor'] as LinkedHashSet<String>)
+
+    /** Attributes consumed by the parent's layout; they stay with the placeholder. */
+    static final Set<String> LAYOUT_CONSTRAINTS = Collections.unmodifiableSet([
+            'halignment', 'valignment', 'column', 'columnIndex', 'col', 'row', 'rowIndex',
+            'columnSpan', 'colSpan', 'colspan', 'cols', 'rowSpan', 'rowspan', 'rows', 'span',
+            'hgrow', 'vgrow', 'margin',
+            'topAnchor', 'bottomAnchor', 'leftAnchor', 'rightAnchor'
+    ] as LinkedHashSet<String>)
+
+    private final Thread worker
+    private final List<Runnable> pending = new ArrayList<Runnable>()
+
+    AsyncSceneGraphBuild(Thread worker) {
+        this.worker = worker
+    }
+
+    /** True when called from the thread running the build closure. */
+    boolean isOnWorkerThread() {
+        return Thread.currentThread().is(worker)
+    }
+
+    /** Queues work for the FX thread; it runs when the subtree is attached. */
+    void defer(Runnable work) {
+        pending.add(work)
+    }
+
+    int getPendingCount() {
+        return pending.size()
+    }
+
+    /** Runs the queued work, in the order it was queued. Must be called on the FX thread. */
+    void attach() {
+        for (Runnable work : pending) {
+            work.run()
+        }
+        pending.clear()
+    }
+}
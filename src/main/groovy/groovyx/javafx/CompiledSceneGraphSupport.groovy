@@ -0,0 +1,42 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.factory.FXHelper
+import org.codehaus.groovy.runtime.InvokerHelper
+
+/**
+ * Runtime support for code generated by {@link CompileSceneGraph}.
+ */
+@CompileStatic
+final class CompiledSceneGraphSupport {
+
+    private CompiledSceneGraphSupport() {}
+
+    /**
+     * Sets an attribute whose value did not match the setter type at runtime, the same way
+     * the dynamic builder does: FXHelper coercions (paints, insets, enums, bindings, event
+     * handlers, ...) first, plain property assignment otherwise.
+     */
+    static void apply(Object node, String name, Object value) {
+        if (!FXHelper.fxAttribute(node, name, value)) {
+            InvokerHelper.setProperty(node, name, value)
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx
+
+import groovy.transform.CompileStatic
+import javafx.animation.AnimationTimer
+import javafx.application.Platform
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Batches work for the JavaFX Application Thread.
+ *
+ * <p>Any thread may {@link #dispatch(Runnable)} work; it is appended to a lock-free queue
+ * that an {@link AnimationTimer} drains once per pulse, so a burst of updates costs one
+ * pass on the FX thread instead of one {@code Platform.runLater} each. The timer only runs
+ * while there is work: the first dispatch after an idle period arms it with a single
+ * {@code runLater}, and it stops itself after a pulse that leaves the queue empty.</p>
+ *
+ * <p>{@link #dispatch(Object, Runnable)} coalesces by key: if work for the key is still
+ * waiting, it is replaced, so only the latest update for the key runs. The work runs at the
+ * queue position of the first pending dispatch for that key.</p>
+ *
+ * <p>Each drain runs at most the work that was queued when it started; anything added
+ * meanwhile waits for the next pulse, so producers cannot keep the FX thread busy forever.</p>
+ */
+@CompileStatic
+final class FxDispatcher {
+
+    private static final FxDispatcher DEFAULT = new FxDispatcher()
+
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<Object>()
+    private final ConcurrentHashMap<Object, Runnable> latest = new ConcurrentHashMap<Object, Runnable>()
+    private final AtomicInteger depth = new AtomicInteger()
+    private final AtomicBoolean armed = new AtomicBoolean()
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        void handle(long now) {
+            onPulse()
+        }
+    }
+
+    private final LongAdder dispatched = new LongAdder()
+    private final LongAdder coalesced = new LongAdder()
+    private final LongAdder executed = new LongAdder()
+    private final LongAdder drains = new LongAdder()
+    private final LongAdder drainNanos = new LongAdder()
+    private volatile long maxDrainNanos
+    private volatile int maxDepth
+
+    /** The dispatcher used by {@code defer}, {@code onSelect} and {@link GroovyFX#runOnFxThread}. */
+    static FxDispatcher getDefault() {
+        return DEFAULT
+    }
+
+    /** Runs the work on the FX thread during the next pulse. */
+    void dispatch(Runnable work) {
+        dispatched.increment()
+        enqueue(work)
+    }
+
+    /**
+     * Runs the work on the FX thread during the next pulse, replacing any work for the same
+     * key that has not run yet.
+     */
+    void dispatch(Object key, Runnable work) {
+        dispatched.increment()
+        if (latest.put(key, work) == null) {
+            enqueue(new Keyed(key))
+        } else {
+            coalesced.increment()
+        }
+    }
+
+    /** Like {@link #dispatch(Runnable)}, with a future that completes once the work has run. */
+    CompletableFuture<Void> submit(Runnable work) {
+        CompletableFuture<Void> done = new CompletableFuture<Void>()
+        dispatch {
+            try {
+                work.run()
+                done.complete(null)
+            } catch (Throwable t) {
+                done.completeExceptionally(t)
+            }
+        }
+        return done
+    }
+
+    /** Work waiting to run; coalesced keys count once. */
+    int getQueueDepth() {
+        return depth.get()
+    }
+
+    /**
+     * Counters since the last {@link #resetStatistics()}: {@code dispatched}, {@code coalesced},
+     * {@code executed}, {@code drains}, {@code queueDepth}, {@code maxQueueDepth},
+     * {@code drainNanos} (total), {@code maxDrainNanos} and {@code averageDrainNanos}.
+     */
+    Map<String, Long> statistics() {
+        long drainCount = drains.sum()
+        long totalNanos = drainNanos.sum()
+        Map<String, Long> stats = new LinkedHashMap<String, Long>()
+        stats.put('dispatched', dispatched.sum())
+        stats.put('coalesced', coalesced.sum())
+        stats.put('executed', executed.sum())
+        stats.put('drains', drainCount)
+        stats.put('queueDepth', (long) depth.get())
+        stats.put('maxQueueDepth', (long) maxDepth)
+        stats.put('drainNanos', totalNanos)
+        stats.put('maxDrainNanos', maxDrainNanos)
+        stats.put('averageDrainNanos', drainCount == 0L ? 0L : totalNanos.intdiv(drainCount).longValue())
+        return stats
+    }
+
+    void resetStatistics() {
+        dispatched.reset()
+        coalesced.reset()
+        executed.reset()
+        drains.reset()
+        drainNanos.reset()
+        maxDrainNanos = 0L
+        maxDepth = depth.get()
+    }
+
+    private void enqueue(Object entry) {
+        queue.offer(entry)
+        int size = depth.incrementAndGet()
+        if (size > maxDepth) maxDepth = size
+        arm()
+    }
+
+    private void arm() {
+        if (!armed.compareAndSet(false, true)) return
+        if (Platform.isFxApplicationThread()) {
+            timer.start()
+        } else {
+            Platform.runLater { timer.start() }
+        }
+    }
+
+    private void onPulse() {
+        drain()
+        if (!queue.isEmpty()) return
+
+        timer.stop()
+        armed.set(false)
+        // A producer may have enqueued between the check and the reset
+        if (!queue.isEmpty()) arm()
+    }
+
+    private void drain() {
+        long start = System.nanoTime()
+        int budget = depth.get()
+        for (int i = 0; i < budget; i++) {
+            Object entry = queue.poll()
+            if (entry == null) break
+            depth.decrementAndGet()
+
+            Runnable work = entry instanceof Keyed ? latest.remove(((Keyed) entry).key) : (Runnable) entry
+            if (work == null) continue
+            try {
+                work.run()
+            } catch (Throwable t) {
+                Thread thread = Thread.currentThread()
+                thread.uncaughtExceptionHandler.uncaughtException(thread, t)
+            }
+            executed.increment()
+        }
+        long elapsed = System.nanoTime() - start
+        drains.increment()
+        drainNanos.add(elapsed)
+        if (elapsed > maxDrainNanos) maxDrainNanos = elapsed
+    }
+
+    private static final class Keyed {
+        final Object key
+
+        Keyed(Object key) {
+            this.key = key
+        }
+    }
+}
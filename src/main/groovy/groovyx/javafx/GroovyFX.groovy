@@ -24,7 +24,7 @@ import javafx.application.Platform;
 import javafx.stage.Stage;
 import org.codehaus.groovy.runtime.InvokerHelper;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -161,7 +161,8 @@ public class GroovyFX extends Application {
      *
      * <p>If the JavaFX toolkit has not been started, this method initializes it via
      * {@link #initJavaFX()} first. The runnable is executed synchronously: this method
-     * only returns after the runnable has completed.</p>
+     * only returns after the runnable has completed. Calls from other threads are batched
+     * by the {@link FxDispatcher} and run on the next pulse.</p>
      *
      * @param r the runnable to execute on the JavaFX thread
      */
@@ -173,20 +174,30 @@ public class GroovyFX extends Application {
             return;
         }
 
-        CountDownLatch latch = new CountDownLatch(1);
-        Platform.runLater(() -> {
-            try {
-                r.run();
-            } finally {
-                latch.countDown();
-            }
-        });
-
         try {
-            latch.await();
+            FxDispatcher.getDefault().submit(r).get();
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
             throw new RuntimeException(ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
         }
     }
+
+    /**
+     * Runs the given {@link Runnable} on the JavaFX Application Thread without waiting.
+     *
+     * <p>Work for the same {@code key} that has not run yet is replaced, so bursts of updates
+     * (e.g. from a feed thread) only apply the latest one.</p>
+     *
+     * @param key identifies updates that supersede each other
+     * @param r   the runnable to execute on the JavaFX thread
+     */
+    public static void runLaterOnFxThread(Object key, Runnable r) {
+        initJavaFX();
+        FxDispatcher.getDefault().dispatch(key, r);
+    }
 }
@@ -63,8 +63,14 @@ import javafx.scene.web.WebView
 import javafx.stage.Stage
 import javafx.stage.Window
 import javafx.util.Duration
+import org.codehaus.groovy.runtime.InvokerHelper
 import org.codehaus.groovy.runtime.MethodClosure
 
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicReference
 import java.util.function.Consumer
 import java.util.logging.Logger
 
@@ -87,6 +93,11 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
 
     static final String CONTEXT_SCENE_KEY = "CurrentScene"
     static final String CONTEXT_DIVIDER_KEY = "CurrentDividers"
+    static final String CONTEXT_KEY_FRAMES_KEY = "CurrentKeyFrames"
+    static final String CONTEXT_FXML_LOADER_KEY = "CurrentFXMLLoader"
+
+    /** System property that disables the shared factory registry (every builder registers its own factories). */
+    static final String SHARED_REGISTRY_PROPERTY = "groovyfx.sharedRegistry"
 
     private static final Logger LOG = Logger.getLogger(SceneGraphBuilder.name)
     private static final Random random = new Random()
@@ -96,19 +107,33 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
     // Prevent re-registering factories if initialize() is called more than once
     private boolean factoriesRegistered = false
 
+    // Shared built-in factories; null when this builder registers them itself
+    private SceneGraphRegistry registry
+
+    // The buildAsync run currently executing on a worker thread, if any
+    private final AtomicReference<AsyncSceneGraphBuild> asyncBuild = new AtomicReference<AsyncSceneGraphBuild>()
+
+    private static final Executor DEFAULT_BUILD_EXECUTOR = { Runnable r ->
+        Thread.ofVirtual().name("groovyfx-build").start(r)
+    } as Executor
+
     static {
         enhanceClasses()
     }
 
+    /**
+     * @param init when true, public no-arg {@code registerXxx()} methods declared by a
+     *             subclass are auto-registered (as {@link FactoryBuilderSupport} does)
+     */
     SceneGraphBuilder(boolean init = true) {
-        super(init)
-        initialize()
+        this((Stage) null, init)
     }
 
     SceneGraphBuilder(Stage primaryStage, boolean init = true) {
-        super(init)
+        // Built-in factories come from the shared registry; see initialize()
+        super(false)
         this.variables.primaryStage = primaryStage
-        initialize()
+        initialize(init)
     }
 
     // ---- IDE-friendly explicit DSL entrypoint (works with registered PrimaryStageFactory) ----
@@ -128,20 +153,157 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
     Scene getCurrentScene() { return currentScene }
     void setCurrentScene(Scene scene) { this.currentScene = scene }
 
+    /**
+     * Runs the closure on the FX thread. Deferred closures are batched by the
+     * {@link FxDispatcher} and run together on the next pulse.
+     */
     SceneGraphBuilder defer(Closure c) {
         if (!(c instanceof MethodClosure)) {
             c = c.curry([this])
         }
-        Platform.runLater(c)
+        AsyncSceneGraphBuild async = asyncBuild.get()
+        if (async != null && async.onWorkerThread) {
+            async.defer(c)
+        } else {
+            FxDispatcher.default.dispatch(c)
+        }
         return this
     }
 
-    private void loadAddons() {
-        ServiceLoader.load(SceneGraphAddon, this.class.classLoader).each { addon ->
+    /**
+     * Like {@link #defer(Closure)}, but only the most recent closure deferred for the key
+     * runs if several are deferred before the next pulse.
+     */
+    SceneGraphBuilder defer(Object key, Closure c) {
+        if (!(c instanceof MethodClosure)) {
+            c = c.curry([this])
+        }
+        AsyncSceneGraphBuild async = asyncBuild.get()
+        if (async != null && async.onWorkerThread) {
+            async.defer(c)
+        } else {
+            FxDispatcher.default.dispatch(key, c)
+        }
+        return this
+    }
+
+    /**
+     * Runs the closure on a worker thread and attaches the result on the FX thread.
+     *
+     * @see #buildAsync(Map, Closure)
+     */
+    CompletableFuture<Node> buildAsync(@DelegatesTo(value = SceneGraphBuilder, strategy = Closure.DELEGATE_FIRST) Closure c) {
+        return buildAsync([:], c)
+    }
+
+    /**
+     * Builds a detached node tree off the FX Application Thread.
+     *
+     * <p>The closure runs like {@link #build(Closure)}, but on a worker thread. Work that JavaFX
+     * only allows on the FX thread is held back until the tree is finished: {@code defer { }}
+     * blocks, windows ({@code stage}, {@code primaryStage}, {@code popup}, which are built
+     * there in full, including {@code show}) and {@code webView}/{@code htmlEditor}, which get a
+     * {@link StackPane} placeholder carrying their layout constraints. All of it then runs in a
+     * single {@code Platform.runLater}, followed by the optional attach, and the future completes
+     * on the FX thread.</p>
+     *
+     * <p>Options:</p>
+     * <ul>
+     *   <li>{@code executor} - runs the build; defaults to a new virtual thread</li>
+     *   <li>{@code into} - a {@code Pane}/{@code Group} whose children receive the node, or a
+     *   closure called with it</li>
+     * </ul>
+     *
+     * @return a future for the root node (null when the closure's result is a window)
+     */
+    CompletableFuture<Node> buildAsync(Map options,
+                                       @DelegatesTo(value = SceneGraphBuilder, strategy = Closure.DELEGATE_FIRST) Closure c) {
+        Executor executor = (Executor) options?.executor ?: DEFAULT_BUILD_EXECUTOR
+        Object into = options?.into
+        CompletableFuture<Node> result = new CompletableFuture<Node>()
+        // Local copy: closures cannot reach private fields when this is a subclass instance
+        AtomicReference<AsyncSceneGraphBuild> current = asyncBuild
+        executor.execute {
+            AsyncSceneGraphBuild async = new AsyncSceneGraphBuild(Thread.currentThread())
+            if (!current.compareAndSet(null, async)) {
+                result.completeExceptionally(new IllegalStateException("An async build is already running on this builder"))
+                return
+            }
+            Object node
             try {
+                node = build(c)
+            } catch (Throwable t) {
+                result.completeExceptionally(t)
+                return
+            } finally {
+                current.set(null)
+            }
+            if (node != null && !(node instanceof Node)) {
+                result.completeExceptionally(new IllegalArgumentException(
+                        "buildAsync closure must return a Node, got ${node.getClass().name}"))
+                return
+            }
+            Platform.runLater {
+                try {
+                    async.attach()
+                    if (node != null && into instanceof Closure) {
+                        ((Closure) into).call(node)
+                    } else if (node != null && into != null) {
+                        into.children.add(node)
+                    }
+                    result.complete((Node) node)
+                } catch (Throwable t) {
+                    result.completeExceptionally(t)
+                }
+            }
+        }
+        return result
+    }
+
+    /**
+     * During an async build, holds back the nodes that must be created on the FX thread;
+     * see {@link #buildAsync(Map, Closure)}.
+     */
+    @Override
+    protected Object dispatchNodeCall(Object name, Object args) {
+        AsyncSceneGraphBuild async = asyncBuild.get()
+        if (async == null || !async.onWorkerThread) {
+            return super.dispatchNodeCall(name, args)
+        }
+        String nodeName = String.valueOf(name)
+        if (AsyncSceneGraphBuild.WINDOW_NODES.contains(nodeName)) {
+            async.defer { dispatchNodeCall(name, args) }
+            return null
+        }
+        if (!AsyncSceneGraphBuild.FX_THREAD_NODES.contains(nodeName)) {
+            return super.dispatchNodeCall(name, args)
+        }
+
+        // Constraints go to the placeholder, which takes the node's place in its parent
+        Map constraints = [:]
+        List replayArgs = InvokerHelper.asList(args).collect { arg ->
+            if (!(arg instanceof Map)) return arg
+            Map attributes = new LinkedHashMap((Map) arg)
+            AsyncSceneGraphBuild.LAYOUT_CONSTRAINTS.each { String key ->
+                if (attributes.containsKey(key)) constraints.put(key, attributes.remove(key))
+            }
+            return attributes
+        }
+        StackPane placeholder = (StackPane) super.dispatchNodeCall("stackPane", [constraints] as Object[])
+        async.defer {
+            placeholder.children.setAll((Node) dispatchNodeCall(name, replayArgs as Object[]))
+        }
+        return placeholder
+    }
+
+    protected void loadAddons() {
+        for (ServiceLoader.Provider<SceneGraphAddon> provider : ADDON_PROVIDERS.get(getClass())) {
+            SceneGraphAddon addon = null
+            try {
+                addon = provider.get()
                 addon.apply(this)
             } catch (Throwable t) {
-                LOG.warning("Failed to load SceneGraphAddon ${addon?.class?.name}: ${t.message}")
+                LOG.warning("Failed to load SceneGraphAddon ${addon?.class?.name ?: provider.type().name}: ${t.message}")
             }
         }
     }
@@ -201,15 +363,65 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
         if (parent != null && parent instanceof AbstractFXBeanFactory) {
             factory = parent.resolveFactory(name, attributes, value)
         }
-        if (factory) {
-            // This is actually done in super.resolveFactory; do it here for child factory path.
-            getProxyBuilder().getContext().put(CHILD_BUILDER, getProxyBuilder())
-        } else {
-            factory = super.resolveFactory(name, attributes, value)
+        // This is what super.resolveFactory does before its lookup.
+        FactoryBuilderSupport proxy = getProxyBuilder()
+        proxy.getContext().put(CHILD_BUILDER, proxy)
+        if (!factory) {
+            // Builder-local registrations shadow the shared built-ins.
+            factory = proxy.getLocalFactories().get(name)
+            if (factory == null) {
+                SceneGraphRegistry shared = proxy instanceof SceneGraphBuilder ? ((SceneGraphBuilder) proxy).registry : registry
+                factory = shared?.getFactory(String.valueOf(name))
+            }
         }
         return factory
     }
 
+    /**
+     * Sets the attributes left over after the attribute delegates and the factory have run.
+     * Plain values go straight through {@link AttributeSetterCache}; anything needing Groovy's
+     * coercion is set as a property, as before.
+     */
+    @Override
+    @CompileStatic
+    protected void setNodeAttributes(Object node, Map attributes) {
+        for (Map.Entry entry : (Set<Map.Entry>) attributes.entrySet()) {
+            String property = entry.key.toString()
+            if (!AttributeSetterCache.set(node, property, entry.value)) {
+                InvokerHelper.setProperty(node, property, entry.value)
+            }
+        }
+    }
+
+    /** All factories visible to this builder: the shared built-ins overlaid with local registrations. */
+    @Override
+    Map<String, Factory> getFactories() {
+        if (registry == null) return super.getFactories()
+        Map<String, Factory> all = new HashMap<String, Factory>(registry.factories)
+        all.putAll(getLocalFactories())
+        return Collections.unmodifiableMap(all)
+    }
+
+    @Override
+    Set<String> getRegistrationGroups() {
+        if (registry == null) return super.getRegistrationGroups()
+        Set<String> groups = new LinkedHashSet<String>(registry.registrationGroups.keySet())
+        groups.addAll(super.getRegistrationGroups())
+        return Collections.unmodifiableSet(groups)
+    }
+
+    @Override
+    Set<String> getRegistrationGroupItems(String group) {
+        Set<String> shared = registry?.registrationGroups?.get(group)
+        if (shared == null) return super.getRegistrationGroupItems(group)
+        Set<String> items = new LinkedHashSet<String>(shared)
+        items.addAll(super.getRegistrationGroupItems(group))
+        return Collections.unmodifiableSet(items)
+    }
+
+    /** The shared registry backing this builder, or null if it registers its own built-ins. */
+    SceneGraphRegistry getRegistry() { return registry }
+
     SceneGraphBuilder submit(WebView wv, Closure c) {
         def submitClosure = {
             if (wv.engine.loadWorker.state == Worker.State.SUCCEEDED) {
@@ -484,6 +696,7 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
         cf.registerFactory "clearRect", new CanvasOperationFactory(ClearRectOperation)
         cf.registerFactory "clip", new CanvasOperationFactory(ClipOperation)
         cf.registerFactory "closePath", new CanvasOperationFactory(ClosePathOperation)
+        cf.registerFactory "displayList", new CanvasOperationFactory(DisplayList)
         cf.registerFactory "drawImage", new CanvasOperationFactory(DrawImageOperation)
         cf.registerFactory "effect", new CanvasOperationFactory(SetEffectOperation)
         cf.registerFactory "fillPath", new CanvasOperationFactory(FillOperation)
@@ -530,6 +743,10 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
         DrawFactory df = new DrawFactory()
         registerFactory "draw", df
         df.childFactories = cf.childFactories
+
+        TiledCanvasFactory tcf = new TiledCanvasFactory()
+        registerFactory "tiledCanvas", tcf
+        tcf.childFactories = cf.childFactories
     }
 
     void registerBinding() {
@@ -615,6 +832,7 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
         registerFactory "numberAxis", new AxisFactory(NumberAxis)
         registerFactory "categoryAxis", new AxisFactory(CategoryAxis)
         registerFactory "series", new XYSeriesFactory(XYChart.Series)
+        registerFactory "liveSeries", new LiveSeriesFactory()
     }
 
     void registerTransforms() {
@@ -704,6 +922,7 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
 
         registerFactory "treeView", new ControlFactory(TreeView)
         registerFactory "treeItem", new TreeItemFactory(TreeItem)
+        registerFactory "lazyTreeItem", new LazyTreeItemFactory()
 
         registerFactory "tableView", new TableFactory(TableView)
         registerFactory "tableColumn", new TableFactory(TableColumn)
@@ -846,43 +1065,81 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
         }
     }
 
-    private void initialize() {
-        if (factoriesRegistered) return
-        factoriesRegistered = true
+    // Built-in registration groups, in registration order. "Threading" is not listed:
+    // its explicit methods are bound to the builder instance and registered per builder.
+    private static final List<String> BUILT_IN_GROUPS = [
+            "Stages", "Nodes", "Containers", "Shapes", "Transforms", "Effects", "Charts",
+            "Controls", "Menus", "Media", "Web", "EventHandlers", "Binding", "Canvas", "Transition"
+    ].asImmutable()
+
+    // Service providers are discovered once per builder class (and so per class loader);
+    // each builder still gets fresh addon instances.
+    private static final ClassValue<List<ServiceLoader.Provider<SceneGraphAddon>>> ADDON_PROVIDERS =
+            new ClassValue<List<ServiceLoader.Provider<SceneGraphAddon>>>() {
+                @Override
+                protected List<ServiceLoader.Provider<SceneGraphAddon>> computeValue(Class<?> type) {
+                    try {
+                        return ServiceLoader.load(SceneGraphAddon, type.classLoader).stream().toList()
+                    } catch (ServiceConfigurationError e) {
+                        LOG.warning("Failed to discover SceneGraphAddons: ${e.message}")
+                        return Collections.emptyList()
+                    }
+                }
+            }
 
-        this[DELEGATE_PROPERTY_OBJECT_ID] = DEFAULT_DELEGATE_PROPERTY_OBJECT_ID
-        this[DELEGATE_PROPERTY_OBJECT_FILL] = DEFAULT_DELEGATE_PROPERTY_OBJECT_FILL
-        this[DELEGATE_PROPERTY_OBJECT_STROKE] = DEFAULT_DELEGATE_PROPERTY_OBJECT_STROKE
+    // True for subclasses that override one of the built-in registerXxx() methods;
+    // those cannot use the shared registry.
+    private static final ClassValue<Boolean> OVERRIDES_BUILT_INS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class c = type; c != null && c != SceneGraphBuilder; c = c.superclass) {
+                for (Method m : c.declaredMethods) {
+                    if (m.parameterCount == 0 && m.name.startsWith("register") &&
+                            BUILT_IN_GROUPS.contains(m.name.substring("register".length()))) {
+                        return true
+                    }
+                }
+            }
+            return false
+        }
+    }
 
-        addPostNodeCompletionDelegate(postCompletionDelegate)
-        addAttributeDelegate(NodeFactory.attributeDelegate)
-        addAttributeDelegate(idDelegate)
+    /** Lazily captures the built-in registry, once per class loader. */
+    private static final class SharedRegistryHolder {
+        static final SceneGraphRegistry INSTANCE =
+                SceneGraphRegistry.capture(new RegistryTemplate(), createDefaultVariables())
+    }
 
-        // register DSL factories (PER INSTANCE)
-        def registrations = [
-                this.&registerStages,
-                this.&registerNodes,
-                this.&registerContainers,
-                this.&registerShapes,
-                this.&registerTransforms,
-                this.&registerEffects,
-                this.&registerCharts,
-                this.&registerControls,
-                this.&registerMenus,
-                this.&registerMedia,
-                this.&registerWeb,
-                this.&registerEventHandlers,
-                this.&registerBinding,
-                this.&registerThreading,
-                this.&registerCanvas,
-                this.&registerTransition
-        ]
+    /** Builder that registers the built-ins locally so they can be captured. */
+    private static final class RegistryTemplate extends SceneGraphBuilder {
+        RegistryTemplate() {
+            super(false)
+        }
+
+        @Override
+        protected SceneGraphRegistry sharedRegistry() { return null }
 
-        registrations.each { Closure c -> c.call() }
+        @Override
+        protected void loadAddons() { }
+    }
+
+    /**
+     * The registry whose built-in factories and variables this builder shares, or null to
+     * register every built-in factory on this instance (the pre-registry behaviour).
+     * Subclasses that override a built-in {@code registerXxx()} method get null.
+     */
+    protected SceneGraphRegistry sharedRegistry() {
+        if (!Boolean.parseBoolean(System.getProperty(SHARED_REGISTRY_PROPERTY, "true"))) return null
+        if (OVERRIDES_BUILT_INS.get(getClass())) return null
+        return SharedRegistryHolder.INSTANCE
+    }
+
+    private static Map<String, Object> createDefaultVariables() {
+        Map<String, Object> vars = new LinkedHashMap<String, Object>()
 
         // Public API: define any special/legacy colors as variables
-        setVariable("groovyblue", Color.rgb(99, 152, 170))
-        setVariable("GROOVYBLUE", Color.rgb(99, 152, 170))
+        vars.put("groovyblue", Color.rgb(99, 152, 170))
+        vars.put("GROOVYBLUE", Color.rgb(99, 152, 170))
 
         // Optional: common CSS color names
         def commonColorNames = [
@@ -893,14 +1150,97 @@ class SceneGraphBuilder extends FactoryBuilderSupport {
         commonColorNames.each { n ->
             try {
                 def c = Color.web(n)
-                setVariable(n, c)
-                setVariable(n.toUpperCase(), c)
+                vars.put(n, c)
+                vars.put(n.toUpperCase(), c)
             } catch (ignored) {
                 // ignore if not recognized in this JavaFX version
             }
         }
 
-        propertyMap.each { name, value -> setVariable(name, value) }
+        vars.putAll(propertyMap)
+        return vars
+    }
+
+    @CompileStatic
+    private void registerBuiltIns() {
+        Map<String, Closure> registrations = [
+                Stages       : this.&registerStages,
+                Nodes        : this.&registerNodes,
+                Containers   : this.&registerContainers,
+                Shapes       : this.&registerShapes,
+                Transforms   : this.&registerTransforms,
+                Effects      : this.&registerEffects,
+                Charts       : this.&registerCharts,
+                Controls     : this.&registerControls,
+                Menus        : this.&registerMenus,
+                Media        : this.&registerMedia,
+                Web          : this.&registerWeb,
+                EventHandlers: this.&registerEventHandlers,
+                Binding      : this.&registerBinding,
+                Canvas       : this.&registerCanvas,
+                Transition   : this.&registerTransition
+        ] as Map<String, Closure>
+        for (String group : BUILT_IN_GROUPS) {
+            registerInGroup(group, registrations.get(group))
+        }
+    }
+
+    // Mirrors FactoryBuilderSupport.autoRegisterNodes() for registerXxx() methods that
+    // subclasses add on top of the built-ins.
+    @CompileStatic
+    private void autoRegisterSubclassNodes() {
+        List<Class> hierarchy = []
+        for (Class c = getClass(); c != null && c != SceneGraphBuilder; c = c.superclass) {
+            hierarchy.add(0, c)
+        }
+        for (Class c : hierarchy) {
+            for (Method m : c.declaredMethods.sort(false) { Method method -> method.name }) {
+                String group = m.name.startsWith("register") ? m.name.substring("register".length()) : null
+                if (group && m.parameterCount == 0 && !m.synthetic &&
+                        Modifier.isPublic(m.modifiers) && !BUILT_IN_GROUPS.contains(group)) {
+                    registerInGroup(group) { m.invoke(this) }
+                }
+            }
+        }
+    }
+
+    @CompileStatic
+    private void registerInGroup(String group, Closure registration) {
+        String previousGroup = registrationGroupName
+        registrationGroupName = group
+        try {
+            registration.call()
+        } finally {
+            registrationGroupName = previousGroup
+        }
+    }
+
+    private void initialize(boolean init) {
+        if (factoriesRegistered) return
+        factoriesRegistered = true
+
+        this[DELEGATE_PROPERTY_OBJECT_ID] = DEFAULT_DELEGATE_PROPERTY_OBJECT_ID
+        this[DELEGATE_PROPERTY_OBJECT_FILL] = DEFAULT_DELEGATE_PROPERTY_OBJECT_FILL
+        this[DELEGATE_PROPERTY_OBJECT_STROKE] = DEFAULT_DELEGATE_PROPERTY_OBJECT_STROKE
+
+        addPostNodeCompletionDelegate(postCompletionDelegate)
+        addAttributeDelegate(NodeFactory.attributeDelegate)
+        addAttributeDelegate(idDelegate)
+
+        // register DSL factories: shared per class loader, or per instance as a fallback
+        registry = sharedRegistry()
+        if (registry != null) {
+            getVariables().putAll(registry.variables)
+        } else {
+            registerBuiltIns()
+            getVariables().putAll(createDefaultVariables())
+        }
+
+        registerInGroup("Threading", this.&registerThreading)
+
+        if (init) {
+            autoRegisterSubclassNodes()
+        }
 
         // Discover external component libraries (SPI)
         loadAddons()
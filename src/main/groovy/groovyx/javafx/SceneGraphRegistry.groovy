@@ -0,0 +1,66 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx
+
+import groovy.transform.CompileStatic
+
+/**
+ * Immutable snapshot of the built-in factories, registration groups and default
+ * variables of a {@link SceneGraphBuilder}.
+ *
+ * <p>The snapshot is captured once per class loader and shared by every builder
+ * instance, so constructing a builder no longer re-creates the ~300 built-in
+ * factories. Registrations made on an individual builder (via {@code register(...)},
+ * {@code registerComponentNode(...)} or an addon) are kept by that builder and
+ * shadow the shared entries.</p>
+ */
+@CompileStatic
+final class SceneGraphRegistry {
+
+    final Map<String, Factory> factories
+    final Map<String, Set<String>> registrationGroups
+    final Map<String, Object> variables
+
+    SceneGraphRegistry(Map<String, Factory> factories,
+                       Map<String, Set<String>> registrationGroups,
+                       Map<String, Object> variables) {
+        this.factories = Collections.unmodifiableMap(new HashMap<String, Factory>(factories))
+        Map<String, Set<String>> groups = new LinkedHashMap<String, Set<String>>()
+        registrationGroups.each { String group, Set<String> names ->
+            groups.put(group, Collections.unmodifiableSet(new LinkedHashSet<String>(names)))
+        }
+        this.registrationGroups = Collections.unmodifiableMap(groups)
+        this.variables = Collections.unmodifiableMap(new LinkedHashMap<String, Object>(variables))
+    }
+
+    /**
+     * Captures the factories and registration groups that were registered locally on
+     * {@code template}, together with the supplied default variables.
+     */
+    static SceneGraphRegistry capture(FactoryBuilderSupport template, Map<String, Object> variables) {
+        Map<String, Set<String>> groups = new LinkedHashMap<String, Set<String>>()
+        for (String group : template.getRegistrationGroups()) {
+            groups.put(group, template.getRegistrationGroupItems(group))
+        }
+        return new SceneGraphRegistry(template.getLocalFactories(), groups, variables)
+    }
+
+    Factory getFactory(String name) {
+        return factories.get(name)
+    }
+}
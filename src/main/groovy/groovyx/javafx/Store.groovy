@@ -17,34 +17,332 @@
  */
 package groovyx.javafx
 
+import groovy.transform.CompileStatic
 import javafx.beans.property.Property
 import javafx.beans.property.SimpleObjectProperty
+import javafx.beans.value.ObservableValue
 import javafx.util.Subscription
 
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.locks.ReentrantLock
+import java.util.function.Consumer
+import java.util.function.Function
+
 /**
  * A reactive state store inspired by Vuex/Pinia.
+ *
+ * <p>Changes made inside {@link #batch(Closure)} or {@link #transaction(Closure)} are published
+ * to subscribers once, when the outermost one ends. Other threads wait while a batch runs.
+ * {@link #dispatch(Closure)} may be called from any thread. It queues the update for the FX
+ * thread, and all updates queued before the next pulse are applied in one batch.</p>
+ *
+ * <p>Subscribers are called after the store's lock is released, so they may wait on other
+ * threads that update the store. While one thread is calling subscribers, changes committed by
+ * other threads are left for it to publish, latest state first, and their calls return without
+ * waiting.</p>
+ *
+ * <p>With a history limit, each published change records the previous state for
+ * {@link #undo()} and {@link #redo()}; a batch is one step. The states are kept by reference,
+ * so updates must produce new state objects rather than change the current one.</p>
  */
+@CompileStatic
 class Store<T> {
     private final Property<T> state = new SimpleObjectProperty<>()
+    private final ReentrantLock lock = new ReentrantLock()
+    private final ConcurrentLinkedQueue<Closure<T>> dispatched = new ConcurrentLinkedQueue<Closure<T>>()
+    private final Runnable drainDispatched = { applyDispatched() } as Runnable
+
+    // Written under lock; the state subscribers are told about once the lock is released
+    private volatile T committed
+    // Set while a thread calls subscribers
+    private final AtomicBoolean publishing = new AtomicBoolean()
+
+    // Guarded by lock: the state a running batch will publish
+    private int batchDepth
+    private T pending
+    private boolean pendingChanged
+
+    // Guarded by lock: states before and after the current one, oldest first
+    private final History undoStates = new History()
+    private final History redoStates = new History()
+    private int historyLimit
 
     Store(T initialState) {
+        committed = initialState
         state.set(initialState)
     }
 
-    T getState() { state.get() }
-    void setState(T newState) { state.set(newState) }
+    /**
+     * A store that remembers up to {@code historyLimit} earlier states for {@link #undo()}.
+     * History keeps references, so it is cheap when the state is immutable and shares
+     * structure between versions, as {@link groovyx.javafx.collections.PersistentMap} and
+     * {@link groovyx.javafx.collections.PersistentVector} do.
+     */
+    Store(T initialState, int historyLimit) {
+        this(initialState)
+        setHistoryLimit(historyLimit)
+    }
+
+    /** The current state; inside a batch, on its thread, the state it will publish. */
+    T getState() {
+        if (lock.heldByCurrentThread && batchDepth > 0) return pending
+        return committed
+    }
+
+    void setState(T newState) {
+        lock.lock()
+        try {
+            if (batchDepth > 0) {
+                pending = newState
+                pendingChanged = true
+            } else {
+                commit(newState)
+            }
+        } finally {
+            unlock()
+        }
+    }
 
     /**
      * Update the state using a transformation closure.
      */
     void update(Closure<T> updater) {
-        state.set(updater.call(state.get()))
+        lock.lock()
+        try {
+            setState(updater.call(getState()))
+        } finally {
+            unlock()
+        }
+    }
+
+    /**
+     * Runs the closure, which receives this store, and publishes the state it leaves once at the
+     * end. If the closure throws, the changes it made before that are still published.
+     */
+    def <R> R batch(Closure<R> work) {
+        return runBatch(work, false)
+    }
+
+    /**
+     * Like {@link #batch(Closure)}, except that if the closure throws, the changes it made are
+     * discarded and nothing is published for them.
+     */
+    def <R> R transaction(Closure<R> work) {
+        return runBatch(work, true)
+    }
+
+    /**
+     * Applies the update on the FX thread. Updates dispatched before the next pulse, from any
+     * thread, are applied in order in a single batch.
+     */
+    void dispatch(Closure<T> updater) {
+        dispatched.offer(updater)
+        FxDispatcher.default.dispatch(this, drainDispatched)
+    }
+
+    /**
+     * A view of part of the state. The selector runs when the state changes, and only while the
+     * view is observed. Change listeners and subscribers are told only when the selected value
+     * changes by {@code equals}.
+     */
+    def <S> ObservableValue<S> select(Closure<S> selector) {
+        return state.map({ T value -> selector.call(value) } as Function<T, S>)
+    }
+
+    /**
+     * The number of earlier states kept for {@link #undo()}; 0, the default, keeps none. When
+     * the limit is reached, the oldest state is dropped.
+     */
+    int getHistoryLimit() {
+        return historyLimit
+    }
+
+    void setHistoryLimit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("historyLimit must not be negative: ${limit}".toString())
+        lock.lock()
+        try {
+            historyLimit = limit
+            undoStates.resize(limit)
+            redoStates.resize(limit)
+        } finally {
+            lock.unlock()
+        }
+    }
+
+    boolean canUndo() {
+        lock.lock()
+        try {
+            return undoStates.size > 0
+        } finally {
+            lock.unlock()
+        }
+    }
+
+    boolean canRedo() {
+        lock.lock()
+        try {
+            return redoStates.size > 0
+        } finally {
+            lock.unlock()
+        }
+    }
+
+    /** Goes back to the state before the last change. Returns false if there is none. */
+    boolean undo() {
+        return travel(undoStates, redoStates)
+    }
+
+    /** Reapplies the last change undone. Returns false if there is none. */
+    boolean redo() {
+        return travel(redoStates, undoStates)
+    }
+
+    void clearHistory() {
+        lock.lock()
+        try {
+            undoStates.clear()
+            redoStates.clear()
+        } finally {
+            lock.unlock()
+        }
+    }
+
+    private boolean travel(History from, History to) {
+        lock.lock()
+        try {
+            if (batchDepth > 0) throw new IllegalStateException('Cannot undo or redo inside a batch')
+            if (from.size == 0) return false
+            T target = (T) from.pop()
+            to.push(committed)
+            committed = target
+            return true
+        } finally {
+            unlock()
+        }
     }
 
     /**
      * Subscribe to state changes.
      */
     Subscription subscribe(Closure subscriber) {
-        return state.subscribe { val -> subscriber.call(val) }
+        return state.subscribe({ T val -> subscriber.call(val) } as Consumer<T>)
+    }
+
+    private <R> R runBatch(Closure<R> work, boolean rollback) {
+        lock.lock()
+        if (batchDepth++ == 0) {
+            pending = committed
+            pendingChanged = false
+        }
+        T before = pending
+        boolean changedBefore = pendingChanged
+        boolean completed = false
+        try {
+            R result = work.maximumNumberOfParameters == 0 ? work.call() : work.call(this)
+            completed = true
+            return result
+        } finally {
+            if (!completed && rollback) {
+                pending = before
+                pendingChanged = changedBefore
+            }
+            try {
+                if (--batchDepth == 0) publish()
+            } finally {
+                unlock()
+            }
+        }
+    }
+
+    private void publish() {
+        T value = pending
+        boolean changed = pendingChanged
+        pending = null
+        pendingChanged = false
+        if (changed) commit(value)
+    }
+
+    // Every published change goes through here, so history sees batches as one step
+    private void commit(T value) {
+        T current = committed
+        if (historyLimit > 0 && !value.is(current)) {
+            undoStates.push(current)
+            redoStates.clear()
+        }
+        committed = value
+    }
+
+    // Subscribers run outside the lock, so one waiting on a thread that updates the store
+    // cannot deadlock with it
+    private void unlock() {
+        lock.unlock()
+        if (!lock.heldByCurrentThread) notifySubscribers()
+    }
+
+    // One thread at a time sets the property; a thread that finds another one doing so leaves
+    // its change to that thread, which checks for newer states before it stops
+    private void notifySubscribers() {
+        while (publishing.compareAndSet(false, true)) {
+            T value = committed
+            try {
+                state.set(value)
+            } finally {
+                publishing.set(false)
+            }
+            if (committed.is(value)) return
+        }
+    }
+
+    private void applyDispatched() {
+        batch {
+            Closure<T> updater
+            while ((updater = dispatched.poll()) != null) {
+                update(updater)
+            }
+        }
+    }
+
+    /** A ring buffer of states; pushing onto a full one drops the oldest. */
+    private static final class History {
+        private Object[] states = new Object[0]
+        private int head
+        int size
+
+        void push(Object value) {
+            if (states.length == 0) return
+            states[(head + size) % states.length] = value
+            if (size < states.length) {
+                size++
+            } else {
+                head = (head + 1) % states.length
+            }
+        }
+
+        Object pop() {
+            int i = (head + size - 1) % states.length
+            Object value = states[i]
+            states[i] = null
+            size--
+            return value
+        }
+
+        void clear() {
+            Arrays.fill(states, null)
+            head = 0
+            size = 0
+        }
+
+        // Keeps the newest states that fit
+        void resize(int capacity) {
+            int kept = Math.min(size, capacity)
+            Object[] resized = new Object[capacity]
+            for (int i = 0; i < kept; i++) {
+                resized[i] = states[(head + size - kept + i) % states.length]
+            }
+            states = resized
+            head = 0
+            size = kept
+        }
     }
 }
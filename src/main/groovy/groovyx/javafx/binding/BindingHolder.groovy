@@ -88,10 +88,11 @@ class BindingHolder {
     
     public BindingHolder unbind() {
         if(boundValue) {
+            // bind() binds the observable, so that is what is unbound
             if(boundValue instanceof Property) {
-                binding.unbindBidirectional(boundValue);
+                observable.unbindBidirectional(boundValue);
             }else {
-                binding.unbind();
+                observable.unbind();
             }
             boundValue = null;
         }
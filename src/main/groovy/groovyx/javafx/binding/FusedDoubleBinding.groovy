@@ -0,0 +1,271 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.binding
+
+import groovy.transform.CompileStatic
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
+import javafx.beans.binding.DoubleBinding
+import javafx.beans.value.ChangeListener
+import javafx.beans.value.ObservableNumberValue
+import javafx.collections.FXCollections
+import javafx.collections.ObservableList
+
+/**
+ * A {@link DoubleBinding} for a whole arithmetic expression over numeric observables.
+ *
+ * <p>The arithmetic and unary {@code -} operators of the number extensions build one of these,
+ * and any operator applied to it builds a new one holding the combined expression instead of a
+ * binding on top of it. So {@code a * 2 + b / c - d} ends in a
+ * single binding that depends on each observable once, and computes the expression in one
+ * pass with primitive doubles, rather than in a chain of bindings that invalidate each
+ * other.</p>
+ *
+ * <p>A fused binding only listens to its dependencies once it is observed or read, so the
+ * intermediate bindings of an expression never register listeners. Set {@link #enabled} to
+ * false, or the {@code groovyx.javafx.binding.fusion} system property to {@code false}, to have
+ * the operators build plain JavaFX bindings again.</p>
+ */
+@CompileStatic
+class FusedDoubleBinding extends DoubleBinding {
+
+    /** Whether the number extensions build fused bindings. */
+    static volatile boolean enabled = Boolean.parseBoolean(System.getProperty('groovyx.javafx.binding.fusion', 'true'))
+
+    static final int ADD = 0
+    static final int SUBTRACT = 1
+    static final int MULTIPLY = 2
+    static final int DIVIDE = 3
+
+    private final Expr expr
+    // Null until something listens to or reads this binding
+    private Observable[] dependencies
+
+    private FusedDoubleBinding(Expr expr) {
+        this.expr = expr
+    }
+
+    /**
+     * The binding for {@code left <op> right}.
+     *
+     * @param op    one of {@link #ADD}, {@link #SUBTRACT}, {@link #MULTIPLY} and {@link #DIVIDE}
+     * @param left  a number or a numeric observable
+     * @param right a number or a numeric observable
+     */
+    static FusedDoubleBinding combine(int op, Object left, Object right) {
+        return new FusedDoubleBinding(new Operation(op, operand(left), operand(right)))
+    }
+
+    /** The binding for {@code -value}. */
+    static FusedDoubleBinding negative(ObservableNumberValue value) {
+        return new FusedDoubleBinding(new Negation(operand(value)))
+    }
+
+    private static Expr operand(Object value) {
+        if (value instanceof FusedDoubleBinding) return ((FusedDoubleBinding) value).expr
+        if (value instanceof ObservableNumberValue) return new Dependency((ObservableNumberValue) value)
+        if (value instanceof Number) return new Constant(((Number) value).doubleValue())
+        throw new IllegalArgumentException("Not a number or a numeric observable: ${value?.getClass()?.name}")
+    }
+
+    @Override
+    protected double computeValue() {
+        bindDependencies()
+        return expr.evaluate()
+    }
+
+    @Override
+    void addListener(InvalidationListener listener) {
+        bindDependencies()
+        super.addListener(listener)
+    }
+
+    @Override
+    void addListener(ChangeListener<? super Number> listener) {
+        bindDependencies()
+        super.addListener(listener)
+    }
+
+    @Override
+    ObservableList<?> getDependencies() {
+        return FXCollections.unmodifiableObservableList(FXCollections.observableArrayList(collectDependencies()))
+    }
+
+    @Override
+    void dispose() {
+        if (dependencies != null) {
+            unbind(dependencies)
+            dependencies = null
+        }
+    }
+
+    private void bindDependencies() {
+        if (dependencies != null) return
+        dependencies = collectDependencies()
+        bind(dependencies)
+    }
+
+    private Observable[] collectDependencies() {
+        Set<Observable> found = Collections.newSetFromMap(new IdentityHashMap<Observable, Boolean>())
+        List<Observable> ordered = []
+        expr.collect(found, ordered)
+        return ordered.toArray(new Observable[ordered.size()])
+    }
+
+    // DoubleExpression's operators, so chains continue to fuse whichever method they go through
+
+    @Override
+    DoubleBinding negate() { negative(this) }
+
+    @Override
+    DoubleBinding add(ObservableNumberValue other) { combine(ADD, this, other) }
+
+    @Override
+    DoubleBinding add(double other) { combine(ADD, this, other) }
+
+    @Override
+    DoubleBinding add(float other) { combine(ADD, this, other) }
+
+    @Override
+    DoubleBinding add(long other) { combine(ADD, this, other) }
+
+    @Override
+    DoubleBinding add(int other) { combine(ADD, this, other) }
+
+    @Override
+    DoubleBinding subtract(ObservableNumberValue other) { combine(SUBTRACT, this, other) }
+
+    @Override
+    DoubleBinding subtract(double other) { combine(SUBTRACT, this, other) }
+
+    @Override
+    DoubleBinding subtract(float other) { combine(SUBTRACT, this, other) }
+
+    @Override
+    DoubleBinding subtract(long other) { combine(SUBTRACT, this, other) }
+
+    @Override
+    DoubleBinding subtract(int other) { combine(SUBTRACT, this, other) }
+
+    @Override
+    DoubleBinding multiply(ObservableNumberValue other) { combine(MULTIPLY, this, other) }
+
+    @Override
+    DoubleBinding multiply(double other) { combine(MULTIPLY, this, other) }
+
+    @Override
+    DoubleBinding multiply(float other) { combine(MULTIPLY, this, other) }
+
+    @Override
+    DoubleBinding multiply(long other) { combine(MULTIPLY, this, other) }
+
+    @Override
+    DoubleBinding multiply(int other) { combine(MULTIPLY, this, other) }
+
+    @Override
+    DoubleBinding divide(ObservableNumberValue other) { combine(DIVIDE, this, other) }
+
+    @Override
+    DoubleBinding divide(double other) { combine(DIVIDE, this, other) }
+
+    @Override
+    DoubleBinding divide(float other) { combine(DIVIDE, this, other) }
+
+    @Override
+    DoubleBinding divide(long other) { combine(DIVIDE, this, other) }
+
+    @Override
+    DoubleBinding divide(int other) { combine(DIVIDE, this, other) }
+
+    /** A node of the expression; nodes are immutable, so expressions share them. */
+    private abstract static class Expr {
+        abstract double evaluate()
+
+        abstract void collect(Set<Observable> found, List<Observable> ordered)
+    }
+
+    private static final class Constant extends Expr {
+        private final double value
+
+        Constant(double value) { this.value = value }
+
+        @Override
+        double evaluate() { value }
+
+        @Override
+        void collect(Set<Observable> found, List<Observable> ordered) {}
+    }
+
+    private static final class Dependency extends Expr {
+        private final ObservableNumberValue value
+
+        Dependency(ObservableNumberValue value) { this.value = value }
+
+        @Override
+        double evaluate() { value.doubleValue() }
+
+        @Override
+        void collect(Set<Observable> found, List<Observable> ordered) {
+            if (found.add(value)) ordered << (Observable) value
+        }
+    }
+
+    private static final class Negation extends Expr {
+        private final Expr operand
+
+        Negation(Expr operand) { this.operand = operand }
+
+        @Override
+        double evaluate() { -operand.evaluate() }
+
+        @Override
+        void collect(Set<Observable> found, List<Observable> ordered) {
+            operand.collect(found, ordered)
+        }
+    }
+
+    private static final class Operation extends Expr {
+        private final int op
+        private final Expr left
+        private final Expr right
+
+        Operation(int op, Expr left, Expr right) {
+            this.op = op
+            this.left = left
+            this.right = right
+        }
+
+        @Override
+        double evaluate() {
+            double l = left.evaluate()
+            double r = right.evaluate()
+            switch (op) {
+                case ADD: return l + r
+                case SUBTRACT: return l - r
+                case MULTIPLY: return l * r
+                default: return l / r
+            }
+        }
+
+        @Override
+        void collect(Set<Observable> found, List<Observable> ordered) {
+            left.collect(found, ordered)
+            right.collect(found, ordered)
+        }
+    }
+}
@@ -38,6 +38,7 @@ package groovyx.javafx.binding;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObjectSupport;
 import groovy.lang.Reference;
+import groovy.transform.CompileStatic;
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
 import javafx.beans.property.ReadOnlyProperty;
@@ -49,6 +50,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
 /**
  * A JavaFX {@link ReadOnlyProperty} implementation that uses a Groovy Closure as its value supplier,
@@ -66,18 +69,53 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
      * Special object returned from method invocations while snooping. Any attempt to bind to
      * a property of such a return value results in a {@link DeadEndException}.
      */
-    private final DeadEndObject deadEnd = new DeadEndObject();
+    private static final DeadEndObject DEAD_END = new DeadEndObject();
+
+    /**
+     * The dependency paths snooped from each closure class. Snooping only looks at the class (it
+     * runs a copy of the closure wired to {@link Snooper}s), so every instance of a class shares
+     * them and only has to resolve the path roots against its own captured variables.
+     */
+    private static final ClassValue<List<BindShape>> SHAPES = new ClassValue<List<BindShape>>() {
+        @Override
+        protected List<BindShape> computeValue(Class<?> type) {
+            return snoop(type);
+        }
+    };
+
+    private static final LongAdder BINDINGS = new LongAdder();
+    private static final LongAdder SNOOPS = new LongAdder();
+    private static final LongAdder SNOOP_NANOS = new LongAdder();
+    private static volatile long maxSnoopNanos;
+    private static volatile BiConsumer<Class<?>, Long> snoopHook;
 
     private Closure<?> closure;
     private Object bean;
     private String name;
 
+    // The kind of the last result, so primitive results are compared and read without unboxing
+    private static final int KIND_NONE = 0;
+    private static final int KIND_OBJECT = 1;
+    private static final int KIND_DOUBLE = 2;
+    private static final int KIND_INT = 3;
+    private static final int KIND_LONG = 4;
+    private static final int KIND_BOOLEAN = 5;
+
+    private static final ChangeListener[] NO_CHANGE_LISTENERS = new ChangeListener[0];
+    private static final InvalidationListener[] NO_INVALIDATION_LISTENERS = new InvalidationListener[0];
+
     private Object oldValue = null;
     private Object newValue = null;
     private boolean valueDirty = true;
 
-    private final List<ChangeListener<? super Object>> changeListeners = new ArrayList<>();
-    private final List<InvalidationListener> invalidationListeners = new ArrayList<>();
+    private int kind = KIND_NONE;
+    private double doubleResult;
+    private long longResult;
+    private boolean booleanResult;
+
+    // Copy-on-write, so firing an event iterates a snapshot without copying it
+    private volatile ChangeListener[] changeListeners = NO_CHANGE_LISTENERS;
+    private volatile InvalidationListener[] invalidationListeners = NO_INVALIDATION_LISTENERS;
 
     public GroovyClosureProperty() {
     }
@@ -109,30 +147,46 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
     }
 
     @Override
-    public void addListener(ChangeListener<? super Object> listener) {
-        if (listener != null && !changeListeners.contains(listener)) {
-            changeListeners.add(listener);
+    @CompileStatic
+    public synchronized void addListener(ChangeListener<? super Object> listener) {
+        // Validate first, as JavaFX's ExpressionHelper does: an invalid value is not invalidated
+        // again, and lazy dependencies only notify again once they have been read.
+        if (valueDirty) {
+            update();
+        }
+        if (listener != null && indexOf(changeListeners, listener) < 0) {
+            changeListeners = (ChangeListener[]) appended(changeListeners, listener);
         }
     }
 
     @Override
-    public void removeListener(ChangeListener<? super Object> listener) {
-        changeListeners.remove(listener);
+    @CompileStatic
+    public synchronized void removeListener(ChangeListener<? super Object> listener) {
+        int i = indexOf(changeListeners, listener);
+        if (i >= 0) {
+            changeListeners = (ChangeListener[]) removed(changeListeners, i, NO_CHANGE_LISTENERS);
+        }
     }
 
     @Override
-    public void addListener(InvalidationListener listener) {
-        if (listener != null && !invalidationListeners.contains(listener)) {
-            invalidationListeners.add(listener);
+    @CompileStatic
+    public synchronized void addListener(InvalidationListener listener) {
+        if (listener != null && indexOf(invalidationListeners, listener) < 0) {
+            invalidationListeners = (InvalidationListener[]) appended(invalidationListeners, listener);
         }
     }
 
     @Override
-    public void removeListener(InvalidationListener listener) {
-        invalidationListeners.remove(listener);
+    @CompileStatic
+    public synchronized void removeListener(InvalidationListener listener) {
+        int i = indexOf(invalidationListeners, listener);
+        if (i >= 0) {
+            invalidationListeners = (InvalidationListener[]) removed(invalidationListeners, i, NO_INVALIDATION_LISTENERS);
+        }
     }
 
     @Override
+    @CompileStatic
     public Object getValue() {
         if (valueDirty) {
             update();
@@ -140,39 +194,159 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
         return newValue;
     }
 
+    /** The value as a double, without boxing when the closure returned a number. */
+    @CompileStatic
+    public double doubleValue() {
+        if (valueDirty) update();
+        switch (kind) {
+            case KIND_DOUBLE: return doubleResult;
+            case KIND_INT:
+            case KIND_LONG: return (double) longResult;
+            default: return newValue instanceof Number ? ((Number) newValue).doubleValue() : 0d;
+        }
+    }
+
+    /** The value as an int, without boxing when the closure returned a number. */
+    @CompileStatic
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    /** The value as a long, without boxing when the closure returned a number. */
+    @CompileStatic
+    public long longValue() {
+        if (valueDirty) update();
+        switch (kind) {
+            case KIND_INT:
+            case KIND_LONG: return longResult;
+            case KIND_DOUBLE: return (long) doubleResult;
+            default: return newValue instanceof Number ? ((Number) newValue).longValue() : 0L;
+        }
+    }
+
+    /** The value as a boolean; false unless the closure returned {@code true}. */
+    @CompileStatic
+    public boolean booleanValue() {
+        if (valueDirty) update();
+        return kind == KIND_BOOLEAN && booleanResult;
+    }
+
     /**
-     * Calculates a new value by evaluating the closure.
+     * Calculates a new value by evaluating the closure. Listeners are only told about results
+     * that differ, by value, from the last one.
      */
+    @CompileStatic
     private void update() {
-        oldValue = newValue;
         valueDirty = false;
+        if (closure == null) {
+            return;
+        }
 
-        if (closure != null) {
-            try {
-                newValue = closure.call();
-            } catch (DeadEndException e) {
-                // ignore dead-end exceptions from snooping
-            } catch (Exception e) {
-                // ignore errors from binding evaluation; keep previous value
-            }
+        Object result;
+        try {
+            result = closure.call();
+        } catch (Exception ignored) {
+            // ignore errors (and dead ends) from binding evaluation; keep previous value
+            return;
         }
 
-        if (oldValue != newValue) {
+        if (record(result)) {
+            oldValue = newValue;
+            newValue = result;
             fireValueChangedEvent();
         }
     }
 
+    // Keeps primitive results unboxed; returns false when the result equals the last one
+    @CompileStatic
+    private boolean record(Object result) {
+        if (result instanceof Double || result instanceof Float) {
+            double d = ((Number) result).doubleValue();
+            if (kind == KIND_DOUBLE && Double.doubleToLongBits(d) == Double.doubleToLongBits(doubleResult)) return false;
+            kind = KIND_DOUBLE;
+            doubleResult = d;
+            return true;
+        }
+        if (result instanceof Integer || result instanceof Short || result instanceof Byte || result instanceof Long) {
+            int resultKind = result instanceof Long ? KIND_LONG : KIND_INT;
+            long l = ((Number) result).longValue();
+            if (kind == resultKind && l == longResult) return false;
+            kind = resultKind;
+            longResult = l;
+            return true;
+        }
+        if (result instanceof Boolean) {
+            boolean b = ((Boolean) result).booleanValue();
+            if (kind == KIND_BOOLEAN && b == booleanResult) return false;
+            kind = KIND_BOOLEAN;
+            booleanResult = b;
+            return true;
+        }
+        boolean changed = kind != KIND_OBJECT || !Objects.equals(result, newValue);
+        kind = KIND_OBJECT;
+        return changed;
+    }
+
     /**
-     * Builds dependency bindings for the given closure by snooping which properties it touches.
+     * Builds dependency bindings for the given closure from the paths snooped for its class.
      *
      * @param closure the closure to analyze
      */
     private void createBindings(Closure<?> closure) {
+        BINDINGS.increment();
+        for (BindShape shape : SHAPES.get(closure.getClass())) {
+            BindPath bp = new BindPath(shape);
+            bp.setCurrentObject(closure);
+            bp.bind();
+        }
+
+        update();
+    }
+
+    /**
+     * Counters since the last {@link #resetBindingStatistics()}: {@code bindings} (closure
+     * bindings created), {@code snoops} (closure classes snooped, the rest reused cached paths),
+     * {@code snoopNanos} (total) and {@code maxSnoopNanos}.
+     */
+    @CompileStatic
+    static Map<String, Long> bindingStatistics() {
+        Map<String, Long> stats = new LinkedHashMap<String, Long>();
+        stats.put('bindings', BINDINGS.sum());
+        stats.put('snoops', SNOOPS.sum());
+        stats.put('snoopNanos', SNOOP_NANOS.sum());
+        stats.put('maxSnoopNanos', maxSnoopNanos);
+        return stats;
+    }
+
+    @CompileStatic
+    static void resetBindingStatistics() {
+        BINDINGS.reset();
+        SNOOPS.reset();
+        SNOOP_NANOS.reset();
+        maxSnoopNanos = 0L;
+    }
+
+    /** Called with the closure class and the nanoseconds spent each time a closure class is snooped. */
+    @CompileStatic
+    static void setSnoopHook(BiConsumer<Class<?>, Long> hook) {
+        snoopHook = hook;
+    }
+
+    /** Drops the cached paths of a closure class, so its next binding snoops it again. */
+    @CompileStatic
+    static void forgetBindingShape(Class<?> closureClass) {
+        SHAPES.remove(closureClass);
+    }
+
+    /**
+     * Finds the properties a closure class touches by running a copy of it whose delegate and
+     * captured variables are {@link Snooper}s.
+     */
+    private static List<BindShape> snoop(Class<?> closureClass) {
+        long start = System.nanoTime();
         final Snooper delegate = new Snooper();
 
         try {
-            final Class<?> closureClass = closure.getClass();
-
             // Clone closure instance with a special delegate and per-field Snooper references.
             final Closure<?> closureLocalCopy;
             try {
@@ -235,40 +409,47 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
             );
         }
 
-        List<BindPath> rootPaths = new ArrayList<>();
+        List<BindShape> shapes = new ArrayList<>();
         for (Map.Entry<String, Snooper> entry : delegate.getFields().entrySet()) {
-            BindPath bp = new BindPath(entry.getKey(), entry.getValue());
-            bp.setCurrentObject(closure);
-            bp.bind();
-            rootPaths.add(bp);
+            shapes.add(new BindShape(entry.getKey(), entry.getValue()));
         }
 
-        update();
+        long elapsed = System.nanoTime() - start;
+        SNOOPS.increment();
+        SNOOP_NANOS.add(elapsed);
+        if (elapsed > maxSnoopNanos) maxSnoopNanos = elapsed;
+        BiConsumer<Class<?>, Long> hook = snoopHook;
+        if (hook != null) hook.accept(closureClass, elapsed);
+        return Collections.unmodifiableList(shapes);
     }
 
     /**
      * Fires a change event to any listeners.
      */
+    @CompileStatic
     private void fireValueChangedEvent() {
-        if (!changeListeners.isEmpty()) {
-            ChangeListener<? super Object>[] listeners =
-                    changeListeners.toArray(new ChangeListener[0]);
-            for (ChangeListener<? super Object> l : listeners) {
-                l.changed(this, oldValue, newValue);
-            }
+        ChangeListener[] listeners = changeListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i].changed(this, oldValue, newValue);
         }
     }
 
     /**
-     * Marks value dirty and notifies invalidation listeners.
+     * Marks value dirty and notifies invalidation listeners. Nothing is recomputed unless a change
+     * listener needs the new value; an already invalid value is not invalidated again.
      */
+    @CompileStatic
     private void fireInvalidated() {
+        if (valueDirty) {
+            return;
+        }
         valueDirty = true;
-        if (!invalidationListeners.isEmpty()) {
-            InvalidationListener[] listeners = invalidationListeners.toArray(new InvalidationListener[0]);
-            for (InvalidationListener l : listeners) {
-                l.invalidated(this);
-            }
+        InvalidationListener[] listeners = invalidationListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i].invalidated(this);
+        }
+        if (changeListeners.length > 0) {
+            update();
         }
     }
 
@@ -282,10 +463,33 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
         fireInvalidated();
     }
 
+    @CompileStatic
+    private static int indexOf(Object[] listeners, Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) return i;
+        }
+        return -1;
+    }
+
+    @CompileStatic
+    private static Object[] appended(Object[] listeners, Object listener) {
+        Object[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        return copy;
+    }
+
+    @CompileStatic
+    private static Object[] removed(Object[] listeners, int index, Object[] empty) {
+        if (listeners.length == 1) return empty;
+        Object[] copy = Arrays.copyOf(listeners, listeners.length - 1);
+        System.arraycopy(listeners, index + 1, copy, index, listeners.length - index - 1);
+        return copy;
+    }
+
     /**
      * Records property access during closure snooping.
      */
-    class Snooper extends GroovyObjectSupport {
+    static class Snooper extends GroovyObjectSupport {
         private final Map<String, Snooper> fields = new HashMap<>();
 
         @Override
@@ -304,7 +508,7 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
         @Override
         public Object invokeMethod(String name, Object args) {
             // method invocation while snooping returns a dead-end object so deeper binding fails fast
-            return deadEnd;
+            return DEAD_END;
         }
 
         public Map<String, Snooper> getFields() {
@@ -315,7 +519,7 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
     /**
      * Raised when attempting to bind through a dead-end (e.g. method return during snooping).
      */
-    class DeadEndException extends RuntimeException {
+    static class DeadEndException extends RuntimeException {
         public DeadEndException() {
             super("Dead end");
         }
@@ -324,15 +528,32 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
     /**
      * Returned from method calls during snooping to prevent illegal binding chains.
      */
-    class DeadEndObject {
+    static class DeadEndObject {
         @Override
         public String toString() {
             return "<DeadEnd>";
         }
     }
 
+    /**
+     * A property path found by snooping, without any object to resolve it against.
+     */
+    static class BindShape {
+        final String propertyName;
+        final List<BindShape> children;
+
+        BindShape(String propertyName, Snooper snooper) {
+            this.propertyName = propertyName;
+            List<BindShape> list = new ArrayList<>();
+            for (Map.Entry<String, Snooper> entry : snooper.getFields().entrySet()) {
+                list.add(new BindShape(entry.getKey(), entry.getValue()));
+            }
+            this.children = Collections.unmodifiableList(list);
+        }
+    }
+
     // ------------------------------------------------------------------------
-    // BindPath implementation (unchanged)
+    // BindPath implementation
     // ------------------------------------------------------------------------
 
     class BindPath {
@@ -347,6 +568,13 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
             this.propertyName = propertyName;
         }
 
+        public BindPath(BindShape shape) {
+            this.propertyName = shape.propertyName;
+            for (BindShape child : shape.children) {
+                children.add(new BindPath(child));
+            }
+        }
+
         public BindPath(String propertyName, Snooper snooper) {
             this.propertyName = propertyName;
             if (snooper != null) {
@@ -401,16 +629,9 @@ public class GroovyClosureProperty implements ReadOnlyProperty<Object>,
                 return;
             }
 
-            // If we got a JavaFX Property/ObservableValue, attach listeners and continue down the chain.
+            // If we got a JavaFX Property/ObservableValue, attach a listener and continue down the chain.
+            // Only an invalidation listener: a change listener would make the dependency recompute eagerly.
             if (property instanceof ReadOnlyProperty || property instanceof ObservableValue) {
-                try {
-                    @SuppressWarnings("unchecked")
-                    ObservableValue<Object> ov = (ObservableValue<Object>) property;
-                    ov.addListener((ChangeListener<? super Object>) GroovyClosureProperty.this);
-                } catch (ClassCastException ignored) {
-                    // ignore
-                }
-
                 if (property instanceof Observable) {
                     ((Observable) property).addListener((InvalidationListener) GroovyClosureProperty.this);
                 }
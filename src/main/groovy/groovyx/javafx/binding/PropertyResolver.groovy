@@ -0,0 +1,230 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.binding
+
+import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
+import javafx.beans.property.ReadOnlyProperty
+import org.codehaus.groovy.runtime.InvokerHelper
+
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Finds the {@code xxxProperty()} accessors used by {@link Util#getJavaFXProperty}, and pools
+ * the JavaBean adapter properties made by {@link Util#getJavaBeanFXProperty}.
+ *
+ * <p>Accessors are resolved once per class and property name, including the answer that a
+ * class has none, so the metaclass is only consulted the first time. A public method is then
+ * called through its {@link Method}, which is backed by a method handle, and only accessors
+ * the metaclass alone knows about are invoked dynamically. Accessors added to a class through
+ * metaprogramming after it was first asked about need {@link #forget(Class)}.</p>
+ *
+ * <p>JavaBean adapters are expensive, reflective objects. While a read-only adapter for a bean
+ * and property is in use, asking for it again returns the same one. Writable adapters are not
+ * pooled, since each can only be bound to one value. The pool refers to beans and adapters
+ * weakly, and compares beans by identity.</p>
+ */
+@CompileStatic
+final class PropertyResolver {
+
+    private static final ClassValue<ConcurrentHashMap<String, Accessor>> ACCESSORS =
+            new ClassValue<ConcurrentHashMap<String, Accessor>>() {
+                @Override
+                protected ConcurrentHashMap<String, Accessor> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<String, Accessor>()
+                }
+            }
+
+    private static final Accessor NONE = new Accessor()
+
+    private static final ReferenceQueue<Object> COLLECTED = new ReferenceQueue<Object>()
+    private static final ConcurrentHashMap<BeanKey, ConcurrentHashMap<String, WeakReference<ReadOnlyProperty<?>>>> ADAPTERS =
+            new ConcurrentHashMap<BeanKey, ConcurrentHashMap<String, WeakReference<ReadOnlyProperty<?>>>>()
+
+    private static final LongAdder accessorHits = new LongAdder()
+    private static final LongAdder accessorMisses = new LongAdder()
+    private static final LongAdder adaptersCreated = new LongAdder()
+    private static final LongAdder adaptersReused = new LongAdder()
+
+    private PropertyResolver() {}
+
+    /**
+     * The JavaFX property returned by the instance's {@code <propertyName>Property()}, or
+     * {@code null} if it has no such accessor.
+     */
+    static ReadOnlyProperty<?> fxProperty(Object instance, String propertyName) {
+        if (instance == null) return null
+        ConcurrentHashMap<String, Accessor> accessors = ACCESSORS.get(instance.getClass())
+        Accessor accessor = accessors.get(propertyName)
+        if (accessor == null) {
+            accessorMisses.increment()
+            accessor = resolve(instance, propertyName + 'Property')
+            Accessor raced = accessors.putIfAbsent(propertyName, accessor)
+            if (raced != null) accessor = raced
+        } else {
+            accessorHits.increment()
+        }
+        return accessor.get(instance)
+    }
+
+    /** The adapter pooled for the bean and property, if one is still in use. */
+    static ReadOnlyProperty<?> pooledAdapter(Object bean, String propertyName) {
+        expunge()
+        Map<String, WeakReference<ReadOnlyProperty<?>>> adapters = ADAPTERS.get(new BeanKey(bean, null))
+        WeakReference<ReadOnlyProperty<?>> ref = adapters == null ? null : adapters.get(propertyName)
+        ReadOnlyProperty<?> adapter = ref == null ? null : ref.get()
+        if (adapter != null) adaptersReused.increment()
+        return adapter
+    }
+
+    /**
+     * Pools a new read-only adapter for the bean and property.
+     *
+     * @return the adapter in the pool, which is another one if a different thread pooled it first
+     */
+    static ReadOnlyProperty<?> poolAdapter(Object bean, String propertyName, ReadOnlyProperty<?> adapter) {
+        adaptersCreated.increment()
+        ConcurrentHashMap<String, WeakReference<ReadOnlyProperty<?>>> adapters = ADAPTERS.get(new BeanKey(bean, null))
+        if (adapters == null) {
+            adapters = new ConcurrentHashMap<String, WeakReference<ReadOnlyProperty<?>>>()
+            def raced = ADAPTERS.putIfAbsent(new BeanKey(bean, COLLECTED), adapters)
+            if (raced != null) adapters = raced
+        }
+        WeakReference<ReadOnlyProperty<?>> ref = new WeakReference<ReadOnlyProperty<?>>(adapter)
+        while (true) {
+            WeakReference<ReadOnlyProperty<?>> current = adapters.putIfAbsent(propertyName, ref)
+            if (current == null) return adapter
+            ReadOnlyProperty<?> existing = current.get()
+            if (existing != null) return existing
+            if (adapters.replace(propertyName, current, ref)) return adapter
+        }
+    }
+
+    /** Drops the accessors resolved for the class, after methods were added to it at runtime. */
+    static void forget(Class<?> type) {
+        ACCESSORS.remove(type)
+    }
+
+    /**
+     * Counters since the last {@link #resetStatistics()}: {@code accessorHits},
+     * {@code accessorMisses}, {@code adaptersCreated}, {@code adaptersReused} and
+     * {@code pooledBeans}.
+     */
+    static Map<String, Long> statistics() {
+        expunge()
+        Map<String, Long> stats = new LinkedHashMap<String, Long>()
+        stats.put('accessorHits', accessorHits.sum())
+        stats.put('accessorMisses', accessorMisses.sum())
+        stats.put('adaptersCreated', adaptersCreated.sum())
+        stats.put('adaptersReused', adaptersReused.sum())
+        stats.put('pooledBeans', (long) ADAPTERS.size())
+        return stats
+    }
+
+    static void resetStatistics() {
+        accessorHits.reset()
+        accessorMisses.reset()
+        adaptersCreated.reset()
+        adaptersReused.reset()
+    }
+
+    @PackageScope
+    static Accessor resolve(Object instance, String accessorName) {
+        Class<?> type = instance.getClass()
+        try {
+            Method method = type.getMethod(accessorName)
+            // Only callable reflectively when declared on a public type in an exported package
+            if (!Modifier.isStatic(method.modifiers) && method.returnType != Void.TYPE && method.canAccess(instance)) {
+                return new MethodAccessor(method)
+            }
+        } catch (NoSuchMethodException ignored) {
+            // may still be known to the metaclass
+        }
+        if (!InvokerHelper.getMetaClass(instance).respondsTo(instance, accessorName, (Object[]) null).isEmpty()) {
+            return new DynamicAccessor(accessorName)
+        }
+        return NONE
+    }
+
+    private static void expunge() {
+        for (def ref = COLLECTED.poll(); ref != null; ref = COLLECTED.poll()) {
+            ADAPTERS.remove(ref)
+        }
+    }
+
+    /** Has no accessor. */
+    @PackageScope
+    static class Accessor {
+        ReadOnlyProperty<?> get(Object instance) { null }
+    }
+
+    private static final class MethodAccessor extends Accessor {
+        private final Method method
+
+        MethodAccessor(Method method) { this.method = method }
+
+        @Override
+        ReadOnlyProperty<?> get(Object instance) {
+            try {
+                return (ReadOnlyProperty<?>) method.invoke(instance)
+            } catch (InvocationTargetException e) {
+                throw e.cause
+            }
+        }
+    }
+
+    private static final class DynamicAccessor extends Accessor {
+        private final String name
+
+        DynamicAccessor(String name) { this.name = name }
+
+        // The method may come from the metaclass of one instance only
+        @Override
+        ReadOnlyProperty<?> get(Object instance) {
+            if (InvokerHelper.getMetaClass(instance).respondsTo(instance, name, (Object[]) null).isEmpty()) return null
+            return (ReadOnlyProperty<?>) InvokerHelper.invokeMethod(instance, name, (Object[]) null)
+        }
+    }
+
+    // Beans are compared by identity, and the entry goes once the bean is collected
+    private static final class BeanKey extends WeakReference<Object> {
+        private final int hash
+
+        BeanKey(Object bean, ReferenceQueue<Object> queue) {
+            super(bean, queue)
+            hash = System.identityHashCode(bean)
+        }
+
+        @Override
+        int hashCode() { hash }
+
+        @Override
+        boolean equals(Object other) {
+            if (other.is(this)) return true
+            if (!(other instanceof BeanKey)) return false
+            Object bean = get()
+            return bean != null && bean.is(((BeanKey) other).get())
+        }
+    }
+}
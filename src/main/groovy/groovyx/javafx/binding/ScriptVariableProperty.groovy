@@ -3,6 +3,8 @@ package groovyx.javafx.binding;
 import groovy.lang.Binding;
 import groovy.lang.Script
 import groovy.transform.CompileStatic;
+import groovyx.javafx.FxDispatcher
+import javafx.application.Platform
 import javafx.beans.property.Property;
 import javafx.collections.FXCollections;
 import javafx.collections.MapChangeListener;
@@ -10,18 +12,23 @@ import javafx.collections.ObservableMap;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.Function
 
 /**
  * Provides JavaFX {@link Property} wrappers for Groovy {@link Script} variables.
  *
- * <p>This class maintains a per-script cache of properties so that repeated requests
- * for the same script variable return the same JavaFX property instance.</p>
+ * <p>Repeated requests for the same script variable return the same JavaFX property instance.
+ * The properties are kept by the script's binding rather than in a global map, so they are
+ * collected together with the script; they refer to the script as their bean, so no map
+ * keyed by script could let it go. Properties may be requested from any thread.</p>
  *
  * <p>The script's {@link Binding} variables map is wrapped in an {@link ObservableMap}
  * so that changes to script variables can be observed and propagated to the cached
- * JavaFX properties.</p>
+ * JavaFX properties. Changes made off the FX Application Thread reach the properties on it,
+ * through {@link FxDispatcher}, so a variable changed many times between two pulses updates
+ * its property once, with its latest value.</p>
  *
  * @author jimclarke
  */
@@ -31,12 +38,6 @@ public class ScriptVariableProperty implements MapChangeListener<String, Object>
     private static final ScriptVariableProperty INSTANCE = new ScriptVariableProperty();
     private static final String SCRIPT_VAR = "__script__";
 
-    /**
-     * Stores JavaFX properties for each script instance.
-     * Keyed first by script instance, then by variable name.
-     */
-    private static final Map<Script, Map<String, Property<?>>> propertyMap = new HashMap<>();
-
     /**
      * Returns a JavaFX {@link Property} that reflects the value of the given script variable.
      *
@@ -51,50 +52,52 @@ public class ScriptVariableProperty implements MapChangeListener<String, Object>
      * @return a JavaFX property reflecting the script variable
      */
     public static Property<?> getProperty(Script script, String propertyName) {
-        Map<String, Property<?>> instanceMap = propertyMap.get(script);
-        if (instanceMap == null) {
-            instanceMap = new HashMap<>();
-            propertyMap.put(script, instanceMap);
+        return observe(script).properties.computeIfAbsent(propertyName,
+                { String name -> createProperty(script, name) } as Function<String, Property<?>>);
+    }
+
+    // Wraps the binding the first time; the lock only guards against two threads wrapping it
+    private static PropertyBinding observe(Script script) {
+        Binding binding = script.getBinding();
+        if (binding instanceof PropertyBinding) return (PropertyBinding) binding;
+        synchronized (script) {
+            binding = script.getBinding();
+            if (binding instanceof PropertyBinding) return (PropertyBinding) binding;
 
             // Binding.getVariables() is raw in Groovy; we wrap it carefully.
             @SuppressWarnings(["unchecked", "rawtypes"])
-            Map<String, Object> originalVMap = (Map) script.getBinding().getVariables();
+            Map<String, Object> originalVMap = (Map) binding.getVariables();
 
             originalVMap.put(SCRIPT_VAR, script);
 
             ObservableMap<String, Object> obsVariables = FXCollections.observableMap(originalVMap);
             obsVariables.addListener(INSTANCE);
 
-            Binding newBinding = new Binding(obsVariables);
+            PropertyBinding newBinding = new PropertyBinding(obsVariables);
             script.setBinding(newBinding);
+            return newBinding;
         }
+    }
 
-        Property<?> property = instanceMap.get(propertyName);
-        if (property == null) {
-            Object value = script.getProperty(propertyName);
-            Class<?> type = (value != null) ? value.getClass() : Object.class;
-
-            // Script values are always boxed types (never primitives), so no *.TYPE checks needed.
-            if (type == Boolean.class) {
-                property = new ScriptVariableBooleanProperty(script, propertyName);
-            } else if (type == BigDecimal.class || type == Double.class) {
-                property = new ScriptVariableDoubleProperty(script, propertyName);
-            } else if (type == Float.class) {
-                property = new ScriptVariableFloatProperty(script, propertyName);
-            } else if (type == Byte.class || type == Short.class || type == Integer.class) {
-                property = new ScriptVariableIntegerProperty(script, propertyName);
-            } else if (type == BigInteger.class || type == Long.class) {
-                property = new ScriptVariableLongProperty(script, propertyName);
-            } else if (type == String.class) {
-                property = new ScriptVariableStringProperty(script, propertyName);
-            } else {
-                property = new ScriptVariableObjectProperty<>(script, propertyName);
-            }
-
-            instanceMap.put(propertyName, property);
+    private static Property<?> createProperty(Script script, String propertyName) {
+        Object value = script.getProperty(propertyName);
+        Class<?> type = (value != null) ? value.getClass() : Object.class;
+
+        // Script values are always boxed types (never primitives), so no *.TYPE checks needed.
+        if (type == Boolean.class) {
+            return new ScriptVariableBooleanProperty(script, propertyName);
+        } else if (type == BigDecimal.class || type == Double.class) {
+            return new ScriptVariableDoubleProperty(script, propertyName);
+        } else if (type == Float.class) {
+            return new ScriptVariableFloatProperty(script, propertyName);
+        } else if (type == Byte.class || type == Short.class || type == Integer.class) {
+            return new ScriptVariableIntegerProperty(script, propertyName);
+        } else if (type == BigInteger.class || type == Long.class) {
+            return new ScriptVariableLongProperty(script, propertyName);
+        } else if (type == String.class) {
+            return new ScriptVariableStringProperty(script, propertyName);
         }
-
-        return property;
+        return new ScriptVariableObjectProperty<>(script, propertyName);
     }
 
     /**
@@ -119,16 +122,33 @@ public class ScriptVariableProperty implements MapChangeListener<String, Object>
         Script script = (Script) map.get(SCRIPT_VAR);
         if (script == null) return;
 
-        Map<String, Property<?>> instanceMap = propertyMap.get(script);
-        if (instanceMap == null) return;
+        Binding binding = script.getBinding();
+        if (!(binding instanceof PropertyBinding)) return;
 
         String variable = change.getKey();
-        Property<?> property = instanceMap.get(variable);
+        Property<?> property = ((PropertyBinding) binding).properties.get(variable);
         if (property == null) return;
 
         // Script variables are dynamic (Object). Bridge wildcard capture via a single controlled cast.
         @SuppressWarnings(["rawtypes", "unchecked"])
         Property raw = (Property) property;
-        raw.setValue(map.get(variable));
+        if (Platform.isFxApplicationThread()) {
+            raw.setValue(map.get(variable));
+        } else {
+            // Keyed by property: only the latest value of a burst is written
+            FxDispatcher.default.dispatch(raw, { raw.setValue(map.get(variable)) } as Runnable);
+        }
+    }
+
+    /**
+     * The binding a script gets once one of its variables is wrapped; it keeps the script's
+     * properties, so they live exactly as long as the script uses this binding.
+     */
+    private static final class PropertyBinding extends Binding {
+        final Map<String, Property<?>> properties = new ConcurrentHashMap<>();
+
+        PropertyBinding(Map variables) {
+            super(variables);
+        }
     }
 }
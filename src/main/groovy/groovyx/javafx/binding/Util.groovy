@@ -66,17 +66,15 @@ public final class Util {
      * Attempts to resolve a JavaFX property accessor named {@code <propertyName>Property}
      * (e.g. {@code textProperty}) on the given instance.
      *
+     * <p>How the accessor is found is resolved once per class and property name, see
+     * {@link PropertyResolver}.</p>
+     *
      * @param instance     object that may expose a JavaFX property accessor
      * @param propertyName base property name (without "Property" suffix)
      * @return the resolved JavaFX property, or {@code null} if no accessor exists
      */
     public static ReadOnlyProperty<?> getJavaFXProperty(Object instance, String propertyName) {
-        MetaClass mc = InvokerHelper.getMetaClass(instance);
-        String fxPropertyAccessor = propertyName + "Property";
-        if (!mc.respondsTo(instance, fxPropertyAccessor, (Object[]) null).isEmpty()) {
-            return (ReadOnlyProperty<?>) InvokerHelper.invokeMethod(instance, fxPropertyAccessor, (Object[]) null);
-        }
-        return null;
+        return PropertyResolver.fxProperty(instance, propertyName);
     }
 
     /**
@@ -139,6 +137,11 @@ public final class Util {
     /**
      * Creates a JavaFX adapter property for a JavaBean-style property on the given instance.
      *
+     * <p>While a read-only adapter for the instance and property is in use, the same adapter is
+     * returned instead of building a new one, see {@link PropertyResolver}. Writable adapters are
+     * always new: a property can only be bound to one value, so callers that bind them must not
+     * share them.</p>
+     *
      * @param instance     the target object (or {@link Script})
      * @param propertyName the property name
      * @return a read-only or writable JavaFX adapter property, or {@code null} if it cannot be created
@@ -148,7 +151,12 @@ public final class Util {
         if (isJavaBeanPropertyWritable(instance, propertyName)) {
             return getJavaBeanFXWritableProperty(instance, propertyName);
         }
-        return getJavaBeanFXReadOnlyProperty(instance, propertyName);
+        ReadOnlyProperty<?> pooled = PropertyResolver.pooledAdapter(instance, propertyName);
+        if (pooled != null) {
+            return pooled;
+        }
+        ReadOnlyProperty<?> adapter = getJavaBeanFXReadOnlyProperty(instance, propertyName);
+        return adapter == null ? null : PropertyResolver.poolAdapter(instance, propertyName, adapter);
     }
 
     /**
@@ -0,0 +1,35 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.canvas
+
+import javafx.geometry.Bounds
+
+/**
+ * A canvas operation that only paints inside a known rectangle.
+ *
+ * <p>{@link RetainedCanvasRenderer} uses the bounds to repaint only the parts of the canvas
+ * affected by a change. The bounds are in the coordinates passed to the operation; the
+ * renderer adds the stroke width and anti-aliasing margin itself.</p>
+ *
+ * @see RetainedCanvasRenderer
+ */
+public interface BoundedOperation extends CanvasOperation {
+
+    /** The area this operation paints, or null if it cannot tell. */
+    public Bounds getBounds();
+}
@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class ClearRectOperation implements CanvasOperation {
+class ClearRectOperation implements BoundedOperation {
     double x; 
     double y;
     double w;
@@ -41,5 +42,8 @@ class ClearRectOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.clearRect(x, y, w, h);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x, y, w, h)
+    }
+}
@@ -0,0 +1,732 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.canvas
+
+import groovy.transform.CompileStatic
+import javafx.geometry.VPos
+import javafx.scene.canvas.GraphicsContext
+import javafx.scene.effect.BlendMode
+import javafx.scene.effect.Effect
+import javafx.scene.image.Image
+import javafx.scene.paint.Color
+import javafx.scene.paint.LinearGradient
+import javafx.scene.paint.Paint
+import javafx.scene.paint.RadialGradient
+import javafx.scene.shape.ArcType
+import javafx.scene.shape.FillRule
+import javafx.scene.shape.StrokeLineCap
+import javafx.scene.shape.StrokeLineJoin
+import javafx.scene.text.Font
+import javafx.scene.text.TextAlignment
+import javafx.scene.transform.Affine
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * A packed list of canvas drawing commands.
+ *
+ * <p>Every command is an opcode in an {@code int[]}; its numeric arguments follow each other in
+ * one {@code double[]}, and the few non-numeric ones (paints, fonts, text, images, effects) go to
+ * an object table. Enum arguments are stored as ordinals. A 100k-command drawing therefore costs
+ * three arrays instead of 100k {@code @FXBindable} operations with a JavaFX property per field,
+ * and {@link #execute(GraphicsContext)} replays it without allocating.</p>
+ *
+ * <p>Commands are recorded with the methods named after their {@link GraphicsContext}
+ * counterparts, or converted from existing operations with {@link #of(Iterable)} and
+ * {@link #add(CanvasOperation)}. Operations without a packed form, such as
+ * {@code operation { gc -> }} closures, are kept as they are and invoked in order.</p>
+ *
+ * <p>{@link #save(Path)} and {@link #load(Path)} write and read the list as a file, so a rendered
+ * diagram can be cached between runs. Colors, gradients, fonts, text and images loaded from a URL
+ * can be saved; effects, image patterns and kept operations cannot.</p>
+ *
+ * <p>A display list is a {@link CanvasOperation} itself, so it can be drawn by
+ * {@link DrawOperations} or placed in a {@code canvas { displayList(...) }}. It is not
+ * thread-safe.</p>
+ */
+@CompileStatic
+class DisplayList implements CanvasOperation {
+
+    static final int SAVE = 0
+    static final int RESTORE = 1
+    static final int BEGIN_PATH = 2
+    static final int CLOSE_PATH = 3
+    static final int FILL = 4
+    static final int STROKE = 5
+    static final int CLIP = 6
+    static final int MOVE_TO = 7
+    static final int LINE_TO = 8
+    static final int QUADRATIC_CURVE_TO = 9
+    static final int BEZIER_CURVE_TO = 10
+    static final int ARC_TO = 11
+    static final int ARC = 12
+    static final int RECT = 13
+    static final int APPEND_SVG_PATH = 14
+    static final int FILL_RECT = 15
+    static final int STROKE_RECT = 16
+    static final int CLEAR_RECT = 17
+    static final int FILL_OVAL = 18
+    static final int STROKE_OVAL = 19
+    static final int FILL_ROUND_RECT = 20
+    static final int STROKE_ROUND_RECT = 21
+    static final int FILL_ARC = 22
+    static final int STROKE_ARC = 23
+    static final int STROKE_LINE = 24
+    static final int FILL_POLYGON = 25
+    static final int STROKE_POLYGON = 26
+    static final int STROKE_POLYLINE = 27
+    static final int FILL_TEXT = 28
+    static final int STROKE_TEXT = 29
+    static final int DRAW_IMAGE = 30
+    static final int SET_FILL = 31
+    static final int SET_STROKE = 32
+    static final int SET_LINE_WIDTH = 33
+    static final int SET_LINE_CAP = 34
+    static final int SET_LINE_JOIN = 35
+    static final int SET_MITER_LIMIT = 36
+    static final int SET_FONT = 37
+    static final int SET_GLOBAL_ALPHA = 38
+    static final int SET_GLOBAL_BLEND_MODE = 39
+    static final int SET_FILL_RULE = 40
+    static final int SET_TEXT_ALIGN = 41
+    static final int SET_TEXT_BASELINE = 42
+    static final int TRANSLATE = 43
+    static final int SCALE = 44
+    static final int ROTATE = 45
+    static final int TRANSFORM = 46
+    static final int SET_TRANSFORM = 47
+    static final int SET_EFFECT = 48
+    static final int APPLY_EFFECT = 49
+    static final int INVOKE = 50
+
+    // "GFXD"
+    private static final int MAGIC = 0x47465844
+    private static final int VERSION = 1
+    private static final int HEADER_BYTES = 6 * Integer.BYTES
+
+    private static final byte REF_NULL = (byte) 0
+    private static final byte REF_STRING = (byte) 1
+    private static final byte REF_PAINT = (byte) 2
+    private static final byte REF_FONT = (byte) 3
+    private static final byte REF_IMAGE = (byte) 4
+
+    // values() clones its array on every call
+    private static final ArcType[] ARC_TYPES = ArcType.values()
+    private static final StrokeLineCap[] LINE_CAPS = StrokeLineCap.values()
+    private static final StrokeLineJoin[] LINE_JOINS = StrokeLineJoin.values()
+    private static final BlendMode[] BLEND_MODES = BlendMode.values()
+    private static final FillRule[] FILL_RULES = FillRule.values()
+    private static final TextAlignment[] TEXT_ALIGNMENTS = TextAlignment.values()
+    private static final VPos[] VPOSITIONS = VPos.values()
+
+    private int[] ops
+    private int opCount
+    private double[] args
+    private int argCount
+    private Object[] refs
+    private int refCount
+
+    // Reused point buffers for polygons, grown on demand
+    private double[] xScratch = new double[0]
+    private double[] yScratch = new double[0]
+
+    DisplayList() {
+        this(64)
+    }
+
+    DisplayList(int expectedOps) {
+        int capacity = Math.max(expectedOps, 8)
+        ops = new int[capacity]
+        args = new double[capacity * 4]
+        refs = new Object[8]
+    }
+
+    /** Packs the given operations, in order, into a new display list. */
+    static DisplayList of(Iterable<? extends CanvasOperation> operations) {
+        int expected = operations instanceof Collection ? ((Collection) operations).size() : 64
+        DisplayList list = new DisplayList(expected)
+        if (operations != null) {
+            for (CanvasOperation op : operations) {
+                list.add(op)
+            }
+        }
+        return list
+    }
+
+    /** Number of recorded commands. */
+    int size() { opCount }
+
+    boolean isEmpty() { opCount == 0 }
+
+    /** Removes all commands, keeping the allocated capacity. */
+    void clear() {
+        Arrays.fill(refs, 0, refCount, null)
+        opCount = 0
+        argCount = 0
+        refCount = 0
+    }
+
+    /** Shrinks the backing arrays to the recorded size. */
+    void trimToSize() {
+        ops = Arrays.copyOf(ops, opCount)
+        args = Arrays.copyOf(args, argCount)
+        refs = Arrays.copyOf(refs, refCount)
+    }
+
+    /** Bytes held by the backing arrays, not counting the objects they refer to. */
+    long getFootprint() {
+        return (long) ops.length * Integer.BYTES + (long) args.length * Double.BYTES +
+                (long) refs.length * 8L + (long) xScratch.length * Double.BYTES * 2
+    }
+
+    /**
+     * Appends the packed form of an operation. Operations without one, and unknown
+     * {@link CanvasOperation} implementations, are kept and invoked as they are.
+     */
+    DisplayList add(CanvasOperation op) {
+        if (op == null) return this
+        if (op instanceof DisplayList) return append((DisplayList) op)
+        if (op instanceof FillRectOperation) return fillRect(op.x, op.y, op.w, op.h)
+        if (op instanceof StrokeRectOperation) return strokeRect(op.x, op.y, op.w, op.h)
+        if (op instanceof ClearRectOperation) return clearRect(op.x, op.y, op.w, op.h)
+        if (op instanceof FillOvalOperation) return fillOval(op.x, op.y, op.w, op.h)
+        if (op instanceof StrokeOvalOperation) return strokeOval(op.x, op.y, op.w, op.h)
+        if (op instanceof FillRoundRectOperation) return fillRoundRect(op.x, op.y, op.w, op.h, op.arcWidth, op.arcHeight)
+        if (op instanceof StrokeRoundRectOperation) return strokeRoundRect(op.x, op.y, op.w, op.h, op.arcWidth, op.arcHeight)
+        if (op instanceof FillArcOperation) return fillArc(op.x, op.y, op.w, op.h, op.startAngle, op.arcExtent, op.closure)
+        if (op instanceof StrokeArcOperation) return strokeArc(op.x, op.y, op.w, op.h, op.startAngle, op.arcExtent, op.closure)
+        if (op instanceof StrokeLineOperation) return strokeLine(op.x1, op.y1, op.x2, op.y2)
+        if (op instanceof FillPolygonOperation) return fillPolygon(op.xPoints, op.yPoints, op.nPoints)
+        if (op instanceof StrokePolygonOperation) return strokePolygon(op.xPoints, op.yPoints, op.nPoints)
+        if (op instanceof StrokePolylineOperation) return strokePolyline(op.xPoints, op.yPoints, op.nPoints)
+        if (op instanceof FillTextOperation) return fillText(op.text, op.x, op.y)
+        if (op instanceof StrokeTextOperation) return strokeText(op.text, op.x, op.y)
+        if (op instanceof DrawImageOperation) return drawImage(op.img, op.x, op.y)
+        if (op instanceof SaveOperation) return save()
+        if (op instanceof RestoreOperation) return restore()
+        if (op instanceof BeginPathOperation) return beginPath()
+        if (op instanceof ClosePathOperation) return closePath()
+        if (op instanceof FillOperation) return fill()
+        if (op instanceof StrokeOperation) return stroke()
+        if (op instanceof ClipOperation) return clip()
+        if (op instanceof MoveToOperation) return moveTo(op.x, op.y)
+        if (op instanceof LineToOperation) return lineTo(op.x, op.y)
+        if (op instanceof QuadraticCurveToOperation) return quadraticCurveTo(op.xc, op.yc, op.x1, op.y1)
+        if (op instanceof BezierCurveToOperation) return bezierCurveTo(op.xc1, op.yc1, op.xc2, op.yc2, op.x1, op.y1)
+        if (op instanceof ArcToOperation) return arcTo(op.x1, op.y1, op.x2, op.y2, op.radius)
+        if (op instanceof ArcOperation) return arc(op.centerX, op.centerY, op.radiusX, op.radiusY, op.startAngle, op.length)
+        if (op instanceof RectOperation) return rect(op.x, op.y, op.w, op.h)
+        if (op instanceof AppendSVGPathOperation) return appendSVGPath(op.svgpath)
+        if (op instanceof SetFillOperation) return setFill(op.fill)
+        if (op instanceof SetStrokeOperation) return setStroke(op.stroke)
+        if (op instanceof SetLineWidthOperation) return setLineWidth(op.lw)
+        if (op instanceof SetLineCapOperation) return setLineCap(op.cap)
+        if (op instanceof SetLineJoinOperation) return setLineJoin(op.join)
+        if (op instanceof SetMiterLimitOperation) return setMiterLimit(op.ml)
+        if (op instanceof SetFontOperation) return setFont(op.f)
+        if (op instanceof SetGlobalAlphaOperation) return setGlobalAlpha(op.alpha)
+        if (op instanceof SetGlobalBlendModeOperation) return setGlobalBlendMode(op.mode)
+        if (op instanceof SetFillRuleOperation) return setFillRule(op.fillRule)
+        if (op instanceof SetTextAlignOperation) return setTextAlign(op.align)
+        if (op instanceof SetTextBaselineOperation) return setTextBaseline(op.baseline)
+        if (op instanceof TranslateOperation) return translate(op.x, op.y)
+        if (op instanceof ScaleOperation) return scale(op.x, op.y)
+        if (op instanceof RotateOperation) return rotate(op.degrees)
+        if (op instanceof TransformOperation) {
+            return op.xform != null ? transform(op.xform) : transform(op.mxx, op.myx, op.mxy, op.myy, op.mxt, op.myt)
+        }
+        if (op instanceof SetTransformOperation) {
+            return op.xform != null ? setTransform(op.xform) : setTransform(op.mxx, op.myx, op.mxy, op.myy, op.mxt, op.myt)
+        }
+        if (op instanceof SetEffectOperation) return setEffect(op.effect)
+        if (op instanceof ApplyEffectOperation) return applyEffect(op.effect)
+        return invoke(op)
+    }
+
+    /** Appends all commands of another display list. */
+    DisplayList append(DisplayList other) {
+        int ops0 = other.opCount, args0 = other.argCount, refs0 = other.refCount
+        ensureOps(ops0)
+        ensureArgs(args0)
+        ensureRefs(refs0)
+        System.arraycopy(other.ops, 0, ops, opCount, ops0)
+        System.arraycopy(other.args, 0, args, argCount, args0)
+        System.arraycopy(other.refs, 0, refs, refCount, refs0)
+        opCount += ops0
+        argCount += args0
+        refCount += refs0
+        return this
+    }
+
+    DisplayList save() { op(SAVE) }
+
+    DisplayList restore() { op(RESTORE) }
+
+    DisplayList beginPath() { op(BEGIN_PATH) }
+
+    DisplayList closePath() { op(CLOSE_PATH) }
+
+    DisplayList fill() { op(FILL) }
+
+    DisplayList stroke() { op(STROKE) }
+
+    DisplayList clip() { op(CLIP) }
+
+    DisplayList moveTo(double x, double y) { op(MOVE_TO, x, y) }
+
+    DisplayList lineTo(double x, double y) { op(LINE_TO, x, y) }
+
+    DisplayList quadraticCurveTo(double xc, double yc, double x1, double y1) {
+        op(QUADRATIC_CURVE_TO, xc, yc, x1, y1)
+    }
+
+    DisplayList bezierCurveTo(double xc1, double yc1, double xc2, double yc2, double x1, double y1) {
+        op(BEZIER_CURVE_TO, xc1, yc1, xc2, yc2)
+        return arg(x1, y1)
+    }
+
+    DisplayList arcTo(double x1, double y1, double x2, double y2, double radius) {
+        op(ARC_TO, x1, y1, x2, y2)
+        return arg(radius)
+    }
+
+    DisplayList arc(double centerX, double centerY, double radiusX, double radiusY, double startAngle, double length) {
+        op(ARC, centerX, centerY, radiusX, radiusY)
+        return arg(startAngle, length)
+    }
+
+    DisplayList rect(double x, double y, double w, double h) { op(RECT, x, y, w, h) }
+
+    DisplayList appendSVGPath(String svgpath) { op(APPEND_SVG_PATH).ref(svgpath) }
+
+    DisplayList fillRect(double x, double y, double w, double h) { op(FILL_RECT, x, y, w, h) }
+
+    DisplayList strokeRect(double x, double y, double w, double h) { op(STROKE_RECT, x, y, w, h) }
+
+    DisplayList clearRect(double x, double y, double w, double h) { op(CLEAR_RECT, x, y, w, h) }
+
+    DisplayList fillOval(double x, double y, double w, double h) { op(FILL_OVAL, x, y, w, h) }
+
+    DisplayList strokeOval(double x, double y, double w, double h) { op(STROKE_OVAL, x, y, w, h) }
+
+    DisplayList fillRoundRect(double x, double y, double w, double h, double arcWidth, double arcHeight) {
+        op(FILL_ROUND_RECT, x, y, w, h)
+        return arg(arcWidth, arcHeight)
+    }
+
+    DisplayList strokeRoundRect(double x, double y, double w, double h, double arcWidth, double arcHeight) {
+        op(STROKE_ROUND_RECT, x, y, w, h)
+        return arg(arcWidth, arcHeight)
+    }
+
+    DisplayList fillArc(double x, double y, double w, double h, double startAngle, double arcExtent, ArcType closure) {
+        op(FILL_ARC, x, y, w, h)
+        arg(startAngle, arcExtent)
+        return arg(ordinal(closure))
+    }
+
+    DisplayList strokeArc(double x, double y, double w, double h, double startAngle, double arcExtent, ArcType closure) {
+        op(STROKE_ARC, x, y, w, h)
+        arg(startAngle, arcExtent)
+        return arg(ordinal(closure))
+    }
+
+    DisplayList strokeLine(double x1, double y1, double x2, double y2) { op(STROKE_LINE, x1, y1, x2, y2) }
+
+    DisplayList fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        return points(FILL_POLYGON, xPoints, yPoints, nPoints)
+    }
+
+    DisplayList strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        return points(STROKE_POLYGON, xPoints, yPoints, nPoints)
+    }
+
+    DisplayList strokePolyline(double[] xPoints, double[] yPoints, int nPoints) {
+        return points(STROKE_POLYLINE, xPoints, yPoints, nPoints)
+    }
+
+    DisplayList fillText(String text, double x, double y) { op(FILL_TEXT, x, y).ref(text) }
+
+    DisplayList strokeText(String text, double x, double y) { op(STROKE_TEXT, x, y).ref(text) }
+
+    DisplayList drawImage(Image img, double x, double y) { op(DRAW_IMAGE, x, y).ref(img) }
+
+    DisplayList setFill(Paint p) { op(SET_FILL).ref(p) }
+
+    DisplayList setStroke(Paint p) { op(SET_STROKE).ref(p) }
+
+    DisplayList setLineWidth(double lw) { op(SET_LINE_WIDTH).arg(lw) }
+
+    DisplayList setLineCap(StrokeLineCap cap) { op(SET_LINE_CAP).arg(ordinal(cap)) }
+
+    DisplayList setLineJoin(StrokeLineJoin join) { op(SET_LINE_JOIN).arg(ordinal(join)) }
+
+    DisplayList setMiterLimit(double ml) { op(SET_MITER_LIMIT).arg(ml) }
+
+    DisplayList setFont(Font f) { op(SET_FONT).ref(f) }
+
+    DisplayList setGlobalAlpha(double alpha) { op(SET_GLOBAL_ALPHA).arg(alpha) }
+
+    DisplayList setGlobalBlendMode(BlendMode mode) { op(SET_GLOBAL_BLEND_MODE).arg(ordinal(mode)) }
+
+    DisplayList setFillRule(FillRule fillRule) { op(SET_FILL_RULE).arg(ordinal(fillRule)) }
+
+    DisplayList setTextAlign(TextAlignment align) { op(SET_TEXT_ALIGN).arg(ordinal(align)) }
+
+    DisplayList setTextBaseline(VPos baseline) { op(SET_TEXT_BASELINE).arg(ordinal(baseline)) }
+
+    DisplayList translate(double x, double y) { op(TRANSLATE, x, y) }
+
+    DisplayList scale(double x, double y) { op(SCALE, x, y) }
+
+    DisplayList rotate(double degrees) { op(ROTATE).arg(degrees) }
+
+    DisplayList transform(double mxx, double myx, double mxy, double myy, double mxt, double myt) {
+        op(TRANSFORM, mxx, myx, mxy, myy)
+        return arg(mxt, myt)
+    }
+
+    DisplayList transform(Affine xform) {
+        return transform(xform.mxx, xform.myx, xform.mxy, xform.myy, xform.tx, xform.ty)
+    }
+
+    DisplayList setTransform(double mxx, double myx, double mxy, double myy, double mxt, double myt) {
+        op(SET_TRANSFORM, mxx, myx, mxy, myy)
+        return arg(mxt, myt)
+    }
+
+    DisplayList setTransform(Affine xform) {
+        return setTransform(xform.mxx, xform.myx, xform.mxy, xform.myy, xform.tx, xform.ty)
+    }
+
+    DisplayList setEffect(Effect effect) { op(SET_EFFECT).ref(effect) }
+
+    DisplayList applyEffect(Effect effect) { op(APPLY_EFFECT).ref(effect) }
+
+    /** Records an operation that is executed as it is. */
+    DisplayList invoke(CanvasOperation operation) { op(INVOKE).ref(operation) }
+
+    /**
+     * Accepts another display list, a {@link Path} or {@link File} saved with {@link #save(Path)},
+     * or a list of operations to pack, either directly or as the {@code value} of a map.
+     */
+    void initParams(Object params) {
+        Object value = params instanceof Map ? ((Map) params).get('value') : params
+        // the factory hands an existing list back as the node itself
+        if (value.is(this)) return
+        if (value instanceof DisplayList) {
+            append((DisplayList) value)
+        } else if (value instanceof Path) {
+            append(load((Path) value))
+        } else if (value instanceof File) {
+            append(load(((File) value).toPath()))
+        } else if (value instanceof Iterable) {
+            for (Object op : (Iterable) value) {
+                add((CanvasOperation) op)
+            }
+        } else if (value != null) {
+            throw new IllegalArgumentException("displayList expects a DisplayList, Path, File or list of operations, got: $value")
+        }
+    }
+
+    /** Replays all commands on the given context. */
+    void execute(GraphicsContext gc) {
+        final int[] ops = this.ops
+        final double[] a = this.args
+        final Object[] r = this.refs
+        final int n = opCount
+        int ai = 0
+        int ri = 0
+        for (int i = 0; i < n; i++) {
+            switch (ops[i]) {
+                case SAVE: gc.save(); break
+                case RESTORE: gc.restore(); break
+                case BEGIN_PATH: gc.beginPath(); break
+                case CLOSE_PATH: gc.closePath(); break
+                case FILL: gc.fill(); break
+                case STROKE: gc.stroke(); break
+                case CLIP: gc.clip(); break
+                case MOVE_TO: gc.moveTo(a[ai], a[ai + 1]); ai += 2; break
+                case LINE_TO: gc.lineTo(a[ai], a[ai + 1]); ai += 2; break
+                case QUADRATIC_CURVE_TO: gc.quadraticCurveTo(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case BEZIER_CURVE_TO:
+                    gc.bezierCurveTo(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5]); ai += 6; break
+                case ARC_TO: gc.arcTo(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4]); ai += 5; break
+                case ARC: gc.arc(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5]); ai += 6; break
+                case RECT: gc.rect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case APPEND_SVG_PATH: gc.appendSVGPath((String) r[ri++]); break
+                case FILL_RECT: gc.fillRect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case STROKE_RECT: gc.strokeRect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case CLEAR_RECT: gc.clearRect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case FILL_OVAL: gc.fillOval(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case STROKE_OVAL: gc.strokeOval(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case FILL_ROUND_RECT:
+                    gc.fillRoundRect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5]); ai += 6; break
+                case STROKE_ROUND_RECT:
+                    gc.strokeRoundRect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5]); ai += 6; break
+                case FILL_ARC:
+                    gc.fillArc(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5], constant(ARC_TYPES, a[ai + 6]))
+                    ai += 7
+                    break
+                case STROKE_ARC:
+                    gc.strokeArc(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5], constant(ARC_TYPES, a[ai + 6]))
+                    ai += 7
+                    break
+                case STROKE_LINE: gc.strokeLine(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]); ai += 4; break
+                case FILL_POLYGON:
+                case STROKE_POLYGON:
+                case STROKE_POLYLINE:
+                    ai = polygon(gc, ops[i], a, ai)
+                    break
+                case FILL_TEXT: gc.fillText((String) r[ri++], a[ai], a[ai + 1]); ai += 2; break
+                case STROKE_TEXT: gc.strokeText((String) r[ri++], a[ai], a[ai + 1]); ai += 2; break
+                case DRAW_IMAGE: gc.drawImage((Image) r[ri++], a[ai], a[ai + 1]); ai += 2; break
+                case SET_FILL: gc.setFill((Paint) r[ri++]); break
+                case SET_STROKE: gc.setStroke((Paint) r[ri++]); break
+                case SET_LINE_WIDTH: gc.setLineWidth(a[ai++]); break
+                case SET_LINE_CAP: gc.setLineCap(constant(LINE_CAPS, a[ai++])); break
+                case SET_LINE_JOIN: gc.setLineJoin(constant(LINE_JOINS, a[ai++])); break
+                case SET_MITER_LIMIT: gc.setMiterLimit(a[ai++]); break
+                case SET_FONT: gc.setFont((Font) r[ri++]); break
+                case SET_GLOBAL_ALPHA: gc.setGlobalAlpha(a[ai++]); break
+                case SET_GLOBAL_BLEND_MODE: gc.setGlobalBlendMode(constant(BLEND_MODES, a[ai++])); break
+                case SET_FILL_RULE: gc.setFillRule(constant(FILL_RULES, a[ai++])); break
+                case SET_TEXT_ALIGN: gc.setTextAlign(constant(TEXT_ALIGNMENTS, a[ai++])); break
+                case SET_TEXT_BASELINE: gc.setTextBaseline(constant(VPOSITIONS, a[ai++])); break
+                case TRANSLATE: gc.translate(a[ai], a[ai + 1]); ai += 2; break
+                case SCALE: gc.scale(a[ai], a[ai + 1]); ai += 2; break
+                case ROTATE: gc.rotate(a[ai++]); break
+                case TRANSFORM:
+                    gc.transform(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5]); ai += 6; break
+                case SET_TRANSFORM:
+                    gc.setTransform(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], a[ai + 4], a[ai + 5]); ai += 6; break
+                case SET_EFFECT: gc.setEffect((Effect) r[ri++]); break
+                case APPLY_EFFECT: gc.applyEffect((Effect) r[ri++]); break
+                case INVOKE: ((CanvasOperation) r[ri++]).execute(gc); break
+                default:
+                    throw new IllegalStateException("Unknown display list opcode ${ops[i]} at $i")
+            }
+        }
+    }
+
+    /**
+     * Writes the list to a file.
+     *
+     * @throws IllegalStateException if the list refers to something that cannot be saved
+     */
+    void save(Path file) throws IOException {
+        ByteArrayOutputStream refBytes = new ByteArrayOutputStream()
+        DataOutputStream out = new DataOutputStream(refBytes)
+        for (int i = 0; i < refCount; i++) {
+            writeRef(out, refs[i])
+        }
+        out.flush()
+
+        long size = HEADER_BYTES + (long) opCount * Integer.BYTES + (long) argCount * Double.BYTES + refBytes.size()
+        // A heap buffer rather than a mapping: a mapped file stays locked on Windows until the
+        // buffer is collected, so it could not be saved over again.
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size))
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)
+        try {
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(opCount).putInt(argCount).putInt(refCount).putInt(refBytes.size())
+            buffer.asIntBuffer().put(ops, 0, opCount)
+            buffer.position(buffer.position() + opCount * Integer.BYTES)
+            buffer.asDoubleBuffer().put(args, 0, argCount)
+            buffer.position(buffer.position() + argCount * Double.BYTES)
+            buffer.put(refBytes.toByteArray())
+            buffer.flip()
+            while (buffer.hasRemaining()) {
+                channel.write(buffer)
+            }
+        } finally {
+            channel.close()
+        }
+    }
+
+    /** Reads a list written by {@link #save(Path)}. */
+    static DisplayList load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file))
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("$file is not a display list")
+        }
+        int version = buffer.getInt()
+        if (version != VERSION) {
+            throw new IOException("$file has display list version $version, expected $VERSION")
+        }
+        int opCount = buffer.getInt()
+        int argCount = buffer.getInt()
+        int refCount = buffer.getInt()
+        int refLength = buffer.getInt()
+
+        DisplayList list = new DisplayList(0)
+        list.ops = new int[opCount]
+        list.args = new double[argCount]
+        list.refs = new Object[refCount]
+        buffer.asIntBuffer().get(list.ops)
+        buffer.position(buffer.position() + opCount * Integer.BYTES)
+        buffer.asDoubleBuffer().get(list.args)
+        buffer.position(buffer.position() + argCount * Double.BYTES)
+        byte[] refBytes = new byte[refLength]
+        buffer.get(refBytes)
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(refBytes))
+        for (int i = 0; i < refCount; i++) {
+            list.refs[i] = readRef(input)
+        }
+        list.opCount = opCount
+        list.argCount = argCount
+        list.refCount = refCount
+        return list
+    }
+
+    private DisplayList op(int code) {
+        ensureOps(1)
+        ops[opCount++] = code
+        return this
+    }
+
+    private DisplayList op(int code, double a0, double a1) {
+        op(code)
+        return arg(a0, a1)
+    }
+
+    private DisplayList op(int code, double a0, double a1, double a2, double a3) {
+        op(code)
+        ensureArgs(4)
+        args[argCount++] = a0
+        args[argCount++] = a1
+        args[argCount++] = a2
+        args[argCount++] = a3
+        return this
+    }
+
+    private DisplayList arg(double a0) {
+        ensureArgs(1)
+        args[argCount++] = a0
+        return this
+    }
+
+    private DisplayList arg(double a0, double a1) {
+        ensureArgs(2)
+        args[argCount++] = a0
+        args[argCount++] = a1
+        return this
+    }
+
+    private DisplayList ref(Object value) {
+        ensureRefs(1)
+        refs[refCount++] = value
+        return this
+    }
+
+    // Layout: count, count x values, count y values
+    private DisplayList points(int code, double[] xPoints, double[] yPoints, int nPoints) {
+        int n = xPoints == null || yPoints == null ? 0 : Math.max(0, Math.min(nPoints, Math.min(xPoints.length, yPoints.length)))
+        op(code)
+        ensureArgs(1 + 2 * n)
+        args[argCount++] = n
+        if (n > 0) {
+            System.arraycopy(xPoints, 0, args, argCount, n)
+            argCount += n
+            System.arraycopy(yPoints, 0, args, argCount, n)
+            argCount += n
+        }
+        return this
+    }
+
+    private int polygon(GraphicsContext gc, int code, double[] a, int ai) {
+        int n = (int) a[ai++]
+        if (xScratch.length < n) {
+            xScratch = new double[n]
+            yScratch = new double[n]
+        }
+        System.arraycopy(a, ai, xScratch, 0, n)
+        System.arraycopy(a, ai + n, yScratch, 0, n)
+        if (code == FILL_POLYGON) {
+            gc.fillPolygon(xScratch, yScratch, n)
+        } else if (code == STROKE_POLYGON) {
+            gc.strokePolygon(xScratch, yScratch, n)
+        } else {
+            gc.strokePolyline(xScratch, yScratch, n)
+        }
+        return ai + 2 * n
+    }
+
+    private void ensureOps(int extra) {
+        if (opCount + extra > ops.length) ops = Arrays.copyOf(ops, Math.max(ops.length * 2, opCount + extra))
+    }
+
+    private void ensureArgs(int extra) {
+        if (argCount + extra > args.length) args = Arrays.copyOf(args, Math.max(args.length * 2, argCount + extra))
+    }
+
+    private void ensureRefs(int extra) {
+        if (refCount + extra > refs.length) refs = Arrays.copyOf(refs, Math.max(refs.length * 2, refCount + extra))
+    }
+
+    // null is stored as -1; GraphicsContext ignores null for every enum setter
+    private static double ordinal(Enum value) {
+        return value == null ? -1d : (double) value.ordinal()
+    }
+
+    private static <E> E constant(E[] values, double ordinal) {
+        return ordinal < 0d ? null : values[(int) ordinal]
+    }
+
+    private static void writeRef(DataOutputStream out, Object value) {
+        if (value == null) {
+            out.writeByte(REF_NULL)
+        } else if (value instanceof String) {
+            out.writeByte(REF_STRING)
+            out.writeUTF((String) value)
+        } else if (value instanceof Color || value instanceof LinearGradient || value instanceof RadialGradient) {
+            // Paint.valueOf parses what these print
+            out.writeByte(REF_PAINT)
+            out.writeUTF(value.toString())
+        } else if (value instanceof Font) {
+            Font font = (Font) value
+            out.writeByte(REF_FONT)
+            out.writeUTF(font.name)
+            out.writeDouble(font.size)
+        } else if (value instanceof Image && ((Image) value).url != null) {
+            out.writeByte(REF_IMAGE)
+            out.writeUTF(((Image) value).url)
+        } else {
+            throw new IllegalStateException("Cannot save a display list containing ${value.getClass().name}")
+        }
+    }
+
+    private static Object readRef(DataInputStream input) {
+        byte type = input.readByte()
+        switch (type) {
+            case REF_NULL: return null
+            case REF_STRING: return input.readUTF()
+            case REF_PAINT: return Paint.valueOf(input.readUTF())
+            case REF_FONT:
+                String name = input.readUTF()
+                return new Font(name, input.readDouble())
+            case REF_IMAGE: return new Image(input.readUTF())
+            default:
+                throw new IOException("Unknown display list entry type $type")
+        }
+    }
+}
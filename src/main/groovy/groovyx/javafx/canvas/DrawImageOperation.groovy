@@ -20,13 +20,14 @@ package groovyx.javafx.canvas
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext
 import javafx.scene.image.Image
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class DrawImageOperation implements CanvasOperation {
+class DrawImageOperation implements BoundedOperation {
     Image img;
     double x;
     double y;
@@ -40,5 +41,9 @@ class DrawImageOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.drawImage(img, x, y);
     }
-}
 
+    Bounds getBounds() {
+        // An image that is still loading has no size yet
+        img == null || img.progress < 1d ? null : RetainedCanvasRenderer.rectBounds(x, y, img.width, img.height)
+    }
+}
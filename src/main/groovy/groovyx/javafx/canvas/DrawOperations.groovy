@@ -26,6 +26,7 @@ import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.Canvas
 import javafx.scene.canvas.GraphicsContext
 import javafx.collections.FXCollections
+import javafx.collections.ObservableList
 
 /**
  *
@@ -34,14 +35,23 @@ import javafx.collections.FXCollections
 @FXBindable
 class DrawOperations implements CanvasOperation {
     private List<CanvasOperation> operations = [];
+    private RetainedCanvasRenderer renderer
     Canvas canvas
     
     public void setOperations(List ops)
     {
         this.operations = FXCollections.observableArrayList(ops)
+        if (renderer != null) {
+            renderer.dispose()
+            renderer = new RetainedCanvasRenderer(canvas, (ObservableList) operations)
+        }
+    }
+
+    public List<CanvasOperation> getOperations() {
+        return operations
     }
 
-    public void add(CanvasOperation opertion) {
+    public void add(CanvasOperation operation) {
         operations << operation;
     }
     
@@ -60,6 +70,35 @@ class DrawOperations implements CanvasOperation {
         this.canvas = canvas;
         draw();
     }
+
+    /**
+     * Switches to retained mode: draws the operations once and from then on repaints only
+     * the parts of the canvas affected by changes to the list or to individual operations.
+     */
+    public RetainedCanvasRenderer retain() {
+        if (renderer == null) {
+            if (!(operations instanceof ObservableList)) {
+                operations = FXCollections.observableArrayList(operations)
+            }
+            renderer = new RetainedCanvasRenderer(canvas, (ObservableList) operations)
+        }
+        return renderer
+    }
+
+    /**
+     * Packs the operations into a single {@link DisplayList}, which then replaces them.
+     * Changes to the original operation objects are no longer seen.
+     */
+    public DisplayList compact() {
+        DisplayList displayList = DisplayList.of(operations)
+        setOperations([displayList])
+        return displayList
+    }
+
+    /** The retained-mode renderer, or null if {@link #retain()} has not been called. */
+    public RetainedCanvasRenderer getRenderer() {
+        return renderer
+    }
     
     public void initParams(Object obj){
         if(obj instanceof Canvas) {
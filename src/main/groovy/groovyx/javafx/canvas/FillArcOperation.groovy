@@ -20,13 +20,14 @@ package groovyx.javafx.canvas
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext
 import javafx.scene.shape.ArcType
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class FillArcOperation implements CanvasOperation {
+class FillArcOperation implements BoundedOperation {
     double x;
     double y;
     double w;
@@ -53,5 +54,8 @@ class FillArcOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.fillArc(x, y, w, h, startAngle, arcExtent, closure);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x, y, w, h)
+    }
+}
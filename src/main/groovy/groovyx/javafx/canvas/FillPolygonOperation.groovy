@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class FillPolygonOperation implements CanvasOperation {
+class FillPolygonOperation implements BoundedOperation {
     double[] xPoints;
     double[] yPoints;
     int nPoints
@@ -52,5 +53,8 @@ class FillPolygonOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.fillPolygon(xPoints, yPoints, nPoints);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.pointBounds(xPoints, yPoints, nPoints)
+    }
+}
@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class FillRectOperation implements CanvasOperation {
+class FillRectOperation implements BoundedOperation {
     double x;
     double y;
     double w;
@@ -41,5 +42,8 @@ class FillRectOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.fillRect(x, y, w, h);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x, y, w, h)
+    }
+}
@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class FillRoundRectOperation implements CanvasOperation {
+class FillRoundRectOperation implements BoundedOperation {
     double x;
     double y;
     double w;
@@ -45,5 +46,8 @@ class FillRoundRectOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.fillRoundRect(x, y, w, h, arcWidth, arcHeight);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x, y, w, h)
+    }
+}
@@ -1,7 +1,8 @@
 package groovyx.javafx.canvas
 
-import javafx.beans.value.ObservableValue
+import groovy.transform.CompileStatic
 
+@CompileStatic
 trait OpParamCoercion {
 
     /** Extract value from scalar or a map with expected key(s). */
@@ -20,76 +21,8 @@ trait OpParamCoercion {
 
     /** Best-effort "binding unwrap" (BindingHolder / Closure / ObservableValue, etc.). */
     Object unwrap(Object v) {
-        if (v == null) return null
-
-        // Keep unwrapping until stable (prevents holder->value->Observable->value chains)
-        Object cur = v
-        while (true) {
-            if (cur == null) return null
-
-            // 1) GroovyFX bind { ... } returns a BindingHolder
-            //    We avoid a hard compile-time dependency by checking class name.
-            if (cur.getClass().name == 'groovyx.javafx.binding.BindingHolder') {
-                def inner = null
-                def mc = cur.metaClass
-
-                try {
-                    // Common BindingHolder shapes (depending on GroovyFX version)
-                    if (mc.respondsTo(cur, 'getValue')) {
-                        inner = cur.getValue()
-                    } else if (mc.hasProperty(cur, 'value')) {
-                        inner = cur.value
-                    } else if (mc.hasProperty(cur, 'binding')) {
-                        inner = cur.binding
-                    } else if (mc.hasProperty(cur, 'closure')) {
-                        inner = cur.closure
-                    }
-                } catch (Throwable ignored) {
-                    inner = null
-                }
-
-                // If holder wraps a closure, evaluate it
-                if (inner instanceof Closure) {
-                    inner = (inner as Closure).call()
-                }
-
-                // continue unwrapping whatever we found
-                cur = inner
-                continue
-            }
-
-            // 2) JavaFX ObservableValue (Property/Binding/etc.)
-            if (cur instanceof ObservableValue) {
-                cur = (cur as ObservableValue).getValue()
-                continue
-            }
-
-            // 3) Lazy closures (builder sometimes passes Closure directly)
-            if (cur instanceof Closure) {
-                cur = (cur as Closure).call()
-                continue
-            }
-
-            // 4) Generic "holder" patterns: getValue()/value (but don't loop forever)
-            def mc = cur.metaClass
-            if (mc.respondsTo(cur, 'getValue')) {
-                def next = cur.getValue()
-                if (!java.util.Objects.equals(next, cur)) {
-                    cur = next
-                    continue
-                }
-            }
-            if (mc.hasProperty(cur, 'value')) {
-                def next = cur.value
-                if (!java.util.Objects.equals(next, cur)) {
-                    cur = next
-                    continue
-                }
-            }
-
-            // Stable value reached
-            return cur
-        }
+        // How each class unwraps is resolved once and cached, see ParamUnwrapper
+        return ParamUnwrapper.unwrap(v)
     }
 
     /** Safe-ish coercion to Double/Float/Integer/etc. */
@@ -97,20 +30,36 @@ trait OpParamCoercion {
         v = unwrap(v)
         if (v == null) return null
 
-        if (target == Double) {
-            if (v instanceof Number) return (T) ((Number) v).doubleValue()
-            return (T) Double.valueOf(v.toString())
-        }
-        if (target == Float) {
-            if (v instanceof Number) return (T) ((Number) v).floatValue()
-            return (T) Float.valueOf(v.toString())
-        }
-        if (target == Integer) {
-            if (v instanceof Number) return (T) ((Number) v).intValue()
-            return (T) Integer.valueOf(v.toString())
-        }
+        if (target == Double) return (T) (Object) ParamUnwrapper.toDouble(v, 0d)
+        if (target == Float) return (T) (Object) ParamUnwrapper.toFloat(v, 0f)
+        if (target == Integer) return (T) (Object) ParamUnwrapper.toInt(v, 0)
 
         // Key fix: variable Class<T> needs asType(Class), not `as <type literal>`
         return (T) v.asType(target)
     }
+
+    /** Unboxed coercion for double parameters; {@code defaultValue} if the value is null. */
+    double coerceDouble(Object v, double defaultValue) {
+        return ParamUnwrapper.toDouble(v, defaultValue)
+    }
+
+    /** Unboxed coercion for float parameters; {@code defaultValue} if the value is null. */
+    float coerceFloat(Object v, float defaultValue) {
+        return ParamUnwrapper.toFloat(v, defaultValue)
+    }
+
+    /** Unboxed coercion for int parameters; {@code defaultValue} if the value is null. */
+    int coerceInt(Object v, int defaultValue) {
+        return ParamUnwrapper.toInt(v, defaultValue)
+    }
+
+    /** The value as a list if it is a List or an array, otherwise null. */
+    List asListish(Object v) {
+        if (v instanceof List) return (List) v
+        if (v instanceof Object[]) return Arrays.asList((Object[]) v)
+        if (v instanceof double[]) return ((double[]) v).toList()
+        if (v instanceof float[]) return ((float[]) v).toList()
+        if (v instanceof int[]) return ((int[]) v).toList()
+        return null
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.canvas
+
+import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
+import groovyx.javafx.binding.BindingHolder
+import javafx.beans.value.ObservableNumberValue
+import javafx.beans.value.ObservableValue
+import org.codehaus.groovy.runtime.InvokerHelper
+
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+
+/**
+ * Unwraps builder parameters (bind holders, JavaFX observables, closures, value holders) to
+ * plain values, and converts them to numbers without boxing.
+ *
+ * <p>How to unwrap a value is decided once per runtime class and cached, so the metaclass is
+ * only consulted for classes that are none of the known shapes, and only the first time one
+ * is seen. Numbers, strings, booleans, enums, maps and collections are returned as they are.</p>
+ */
+@CompileStatic
+final class ParamUnwrapper {
+
+    // Guards against holders that keep returning new holders
+    private static final int MAX_DEPTH = 16
+
+    private static final ClassValue<Unwrap> UNWRAPS = new ClassValue<Unwrap>() {
+        @Override
+        protected Unwrap computeValue(Class<?> type) {
+            return resolve(type)
+        }
+    }
+
+    private ParamUnwrapper() {}
+
+    /** Unwraps {@code v} until it reaches a value that holds nothing else. */
+    static Object unwrap(Object v) {
+        Object cur = v
+        for (int depth = 0; cur != null && depth < MAX_DEPTH; depth++) {
+            Object next = UNWRAPS.get(cur.getClass()).apply(cur)
+            if (next.is(cur)) return cur
+            cur = next
+        }
+        return cur
+    }
+
+    /** {@code v} as a double, or {@code defaultValue} if it unwraps to null. */
+    static double toDouble(Object v, double defaultValue) {
+        if (v instanceof Number) return ((Number) v).doubleValue()
+        if (v instanceof ObservableNumberValue) return ((ObservableNumberValue) v).doubleValue()
+        Object u = unwrap(v)
+        if (u == null) return defaultValue
+        if (u instanceof Number) return ((Number) u).doubleValue()
+        return Double.parseDouble(u.toString().trim())
+    }
+
+    /** {@code v} as a float, or {@code defaultValue} if it unwraps to null. */
+    static float toFloat(Object v, float defaultValue) {
+        if (v instanceof Number) return ((Number) v).floatValue()
+        if (v instanceof ObservableNumberValue) return ((ObservableNumberValue) v).floatValue()
+        Object u = unwrap(v)
+        if (u == null) return defaultValue
+        if (u instanceof Number) return ((Number) u).floatValue()
+        return Float.parseFloat(u.toString().trim())
+    }
+
+    /** {@code v} as an int, or {@code defaultValue} if it unwraps to null. */
+    static int toInt(Object v, int defaultValue) {
+        if (v instanceof Number) return ((Number) v).intValue()
+        if (v instanceof ObservableNumberValue) return ((ObservableNumberValue) v).intValue()
+        Object u = unwrap(v)
+        if (u == null) return defaultValue
+        if (u instanceof Number) return ((Number) u).intValue()
+        return Integer.parseInt(u.toString().trim())
+    }
+
+    @PackageScope
+    static Unwrap resolve(Class<?> type) {
+        if (BindingHolder.isAssignableFrom(type)) return new BindingHolderUnwrap()
+        if (ObservableValue.isAssignableFrom(type)) return new ObservableUnwrap()
+        if (Closure.isAssignableFrom(type)) return new ClosureUnwrap()
+        if (Number.isAssignableFrom(type) || CharSequence.isAssignableFrom(type) || type == Boolean ||
+                type == Character || Enum.isAssignableFrom(type) || Map.isAssignableFrom(type) ||
+                Collection.isAssignableFrom(type) || type.isArray()) {
+            return new Unwrap()
+        }
+        Method getter = publicGetter(type)
+        if (getter != null) return new GetterUnwrap(getter)
+        if (InvokerHelper.getMetaClass(type).getMetaProperty('value') != null) return new PropertyUnwrap()
+        return new Unwrap()
+    }
+
+    private static Method publicGetter(Class<?> type) {
+        try {
+            Method m = type.getMethod('getValue')
+            if (Modifier.isStatic(m.modifiers) || m.returnType == Void.TYPE) return null
+            // Only callable reflectively when declared on a public type
+            return Modifier.isPublic(m.declaringClass.modifiers) ? m : null
+        } catch (NoSuchMethodException ignored) {
+            return null
+        }
+    }
+
+    /** Returns the value itself. */
+    @PackageScope
+    static class Unwrap {
+        Object apply(Object v) { v }
+    }
+
+    private static class BindingHolderUnwrap extends Unwrap {
+        @Override
+        Object apply(Object v) { ((BindingHolder) v).binding }
+    }
+
+    private static class ObservableUnwrap extends Unwrap {
+        @Override
+        Object apply(Object v) { ((ObservableValue) v).value }
+    }
+
+    private static class ClosureUnwrap extends Unwrap {
+        @Override
+        Object apply(Object v) { ((Closure) v).call() }
+    }
+
+    // Holders whose next value is equal to themselves are treated as plain values
+    private static class GetterUnwrap extends Unwrap {
+        private final Method getter
+
+        GetterUnwrap(Method getter) { this.getter = getter }
+
+        @Override
+        Object apply(Object v) {
+            Object next = getter.invoke(v)
+            return Objects.equals(next, v) ? v : next
+        }
+    }
+
+    private static class PropertyUnwrap extends Unwrap {
+        @Override
+        Object apply(Object v) {
+            Object next = InvokerHelper.getProperty(v, 'value')
+            return Objects.equals(next, v) ? v : next
+        }
+    }
+}
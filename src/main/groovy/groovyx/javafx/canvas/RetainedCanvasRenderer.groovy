@@ -0,0 +1,341 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.canvas
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.FxDispatcher
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
+import javafx.beans.value.ChangeListener
+import javafx.beans.value.ObservableValue
+import javafx.collections.ListChangeListener
+import javafx.collections.ObservableList
+import javafx.geometry.BoundingBox
+import javafx.geometry.Bounds
+import javafx.scene.canvas.Canvas
+import javafx.scene.canvas.GraphicsContext
+
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+
+/**
+ * Keeps a canvas in sync with a list of {@link CanvasOperation}s, repainting only what changed.
+ *
+ * <p>The renderer listens to the operations list and to the JavaFX properties of every
+ * operation (the ones {@code @FXBindable} generates). Adding, removing or changing a
+ * {@link BoundedOperation} marks its old and new bounds dirty; at most once per pulse the
+ * union of the dirty rectangles is cleared and every operation that can paint into it is
+ * replayed, clipped to that rectangle.</p>
+ *
+ * <p>Anything whose effect is not limited to its own bounds repaints the whole canvas: changes
+ * to state operations (fill, line width, font, ...), to path and text operations, and any change
+ * at all while the list contains transforms, effects or closures, since bounds can no longer be
+ * mapped to canvas coordinates. Canvas resizes repaint everything too.</p>
+ *
+ * <p>All methods must be called on the FX Application Thread.</p>
+ */
+@CompileStatic
+class RetainedCanvasRenderer {
+
+    // Extra pixels around every dirty rectangle for anti-aliasing
+    private static final double AA_MARGIN = 1d
+
+    // Operations that only change GraphicsContext state or paint what a later fill/stroke
+    // does; they are replayed on every redraw, and changing them repaints everything.
+    private static final Set<Class> STATE_OPERATIONS = Collections.unmodifiableSet([
+            SetFillOperation, SetStrokeOperation, SetLineWidthOperation, SetLineCapOperation,
+            SetLineJoinOperation, SetMiterLimitOperation, SetFontOperation, SetGlobalAlphaOperation,
+            SetGlobalBlendModeOperation, SetFillRuleOperation, SetTextAlignOperation,
+            SetTextBaselineOperation, SaveOperation, RestoreOperation, ClipOperation,
+            BeginPathOperation, ClosePathOperation, MoveToOperation, LineToOperation, ArcToOperation,
+            ArcOperation, BezierCurveToOperation, QuadraticCurveToOperation, RectOperation,
+            AppendSVGPathOperation, FillOperation, StrokeOperation, FillTextOperation, StrokeTextOperation
+    ] as LinkedHashSet<Class>)
+
+    private static final ClassValue<List<Method>> PROPERTY_ACCESSORS = new ClassValue<List<Method>>() {
+        @Override
+        protected List<Method> computeValue(Class<?> type) {
+            List<Method> accessors = []
+            for (Method m : type.methods) {
+                if (m.parameterCount == 0 && !Modifier.isStatic(m.modifiers) && m.name.endsWith('Property')
+                        && !m.name.startsWith('get') && ObservableValue.isAssignableFrom(m.returnType)) {
+                    accessors << m
+                }
+            }
+            return Collections.unmodifiableList(accessors)
+        }
+    }
+
+    final Canvas canvas
+    private final ObservableList<CanvasOperation> operations
+
+    // Last known bounds of every BoundedOperation, to know what to repaint when it moves
+    private final Map<CanvasOperation, Bounds> knownBounds = new IdentityHashMap<CanvasOperation, Bounds>()
+    private final Map<CanvasOperation, List<ObservableValue>> watched = new IdentityHashMap<CanvasOperation, List<ObservableValue>>()
+    // How often each watched operation occurs in the list
+    private final Map<CanvasOperation, Integer> occurrences = new IdentityHashMap<CanvasOperation, Integer>()
+    private final Map<ObservableValue, CanvasOperation> owners = new IdentityHashMap<ObservableValue, CanvasOperation>()
+
+    private final ChangeListener<Object> propertyListener = { ObservableValue p, Object o, Object n ->
+        operationChanged(owners.get(p))
+    } as ChangeListener<Object>
+    private final ListChangeListener<CanvasOperation> listListener = { ListChangeListener.Change<? extends CanvasOperation> c ->
+        operationsChanged(c)
+    } as ListChangeListener<CanvasOperation>
+    private final InvalidationListener sizeListener = { Observable o -> invalidateAll() } as InvalidationListener
+
+    private int untrackedCount
+    private double padding
+    private boolean fullDirty
+    private double dirtyMinX = Double.POSITIVE_INFINITY
+    private double dirtyMinY = Double.POSITIVE_INFINITY
+    private double dirtyMaxX = Double.NEGATIVE_INFINITY
+    private double dirtyMaxY = Double.NEGATIVE_INFINITY
+
+    private long redrawCount
+    private long partialRedrawCount
+    private Bounds lastRedrawRegion
+
+    RetainedCanvasRenderer(Canvas canvas, ObservableList<CanvasOperation> operations) {
+        this.canvas = canvas
+        this.operations = operations
+        for (CanvasOperation op : operations) {
+            watch(op)
+        }
+        operations.addListener(listListener)
+        canvas.widthProperty().addListener(sizeListener)
+        canvas.heightProperty().addListener(sizeListener)
+        fullDirty = true
+        flush()
+    }
+
+    /** Repaints the whole canvas on the next pulse. */
+    void invalidateAll() {
+        fullDirty = true
+        schedule()
+    }
+
+    /** Repaints the given canvas area on the next pulse. */
+    void invalidate(Bounds area) {
+        markDirty(area)
+        schedule()
+    }
+
+    /** Repaints the dirty region now instead of waiting for the next pulse. */
+    void flush() {
+        if (!fullDirty && dirtyMinX > dirtyMaxX) return
+
+        double width = canvas.width
+        double height = canvas.height
+        boolean full = fullDirty
+        double x = 0d, y = 0d, w = width, h = height
+        if (full) {
+            // Line widths only change through state operations, which always repaint everything
+            padding = strokePadding(operations)
+        } else {
+            x = Math.max(0d, dirtyMinX - padding)
+            y = Math.max(0d, dirtyMinY - padding)
+            w = Math.min(width, dirtyMaxX + padding) - x
+            h = Math.min(height, dirtyMaxY + padding) - y
+        }
+        resetDirty()
+        if (w <= 0d || h <= 0d) return
+
+        Bounds region = new BoundingBox(x, y, w, h)
+        GraphicsContext gc = canvas.graphicsContext2D
+        gc.save()
+        if (!full) {
+            gc.beginPath()
+            gc.rect(x, y, w, h)
+            gc.clip()
+            gc.beginPath()
+        }
+        gc.clearRect(x, y, w, h)
+        for (CanvasOperation op : operations) {
+            if (!full && op instanceof BoundedOperation) {
+                Bounds b = knownBounds.get(op)
+                if (b != null && !intersects(b, region, padding)) continue
+            }
+            op.execute(gc)
+        }
+        gc.restore()
+
+        redrawCount++
+        if (!full) partialRedrawCount++
+        lastRedrawRegion = region
+    }
+
+    /** Stops listening to the canvas, the list and the operations. */
+    void dispose() {
+        operations.removeListener(listListener)
+        canvas.widthProperty().removeListener(sizeListener)
+        canvas.heightProperty().removeListener(sizeListener)
+        for (List<ObservableValue> properties : watched.values()) {
+            for (ObservableValue property : properties) {
+                property.removeListener(propertyListener)
+            }
+        }
+        watched.clear()
+        owners.clear()
+        occurrences.clear()
+        knownBounds.clear()
+        untrackedCount = 0
+    }
+
+    /** Number of redraws so far, full or partial. */
+    long getRedrawCount() { redrawCount }
+
+    /** Number of redraws that were clipped to a dirty region. */
+    long getPartialRedrawCount() { partialRedrawCount }
+
+    /** The canvas area repainted by the most recent redraw. */
+    Bounds getLastRedrawRegion() { lastRedrawRegion }
+
+    /** Normalized bounds of a rectangle given by origin and (possibly negative) size. */
+    static Bounds rectBounds(double x, double y, double w, double h) {
+        return new BoundingBox(Math.min(x, x + w), Math.min(y, y + h), Math.abs(w), Math.abs(h))
+    }
+
+    /** Bounds of the first {@code n} points, or null if there are none. */
+    static Bounds pointBounds(double[] xs, double[] ys, int n) {
+        if (xs == null || ys == null) return null
+        int count = Math.min(n, Math.min(xs.length, ys.length))
+        if (count <= 0) return null
+        double minX = xs[0], maxX = xs[0], minY = ys[0], maxY = ys[0]
+        for (int i = 1; i < count; i++) {
+            minX = Math.min(minX, xs[i])
+            maxX = Math.max(maxX, xs[i])
+            minY = Math.min(minY, ys[i])
+            maxY = Math.max(maxY, ys[i])
+        }
+        return new BoundingBox(minX, minY, maxX - minX, maxY - minY)
+    }
+
+    /** How far strokes can reach outside the operations' bounds: half the widest line, times the miter limit. */
+    static double strokePadding(Iterable<? extends CanvasOperation> operations) {
+        double lineWidth = 1d
+        double miterLimit = 10d
+        for (CanvasOperation op : operations) {
+            if (op instanceof SetLineWidthOperation) {
+                lineWidth = Math.max(lineWidth, ((SetLineWidthOperation) op).lw)
+            } else if (op instanceof SetMiterLimitOperation) {
+                miterLimit = Math.max(miterLimit, ((SetMiterLimitOperation) op).ml)
+            }
+        }
+        return lineWidth / 2d * miterLimit + AA_MARGIN
+    }
+
+    private void operationsChanged(ListChangeListener.Change<? extends CanvasOperation> c) {
+        while (c.next()) {
+            if (c.wasPermutated()) {
+                fullDirty = true
+                continue
+            }
+            for (CanvasOperation op : c.removed) {
+                if (isPartial(op)) markDirty(knownBounds.get(op)) else fullDirty = true
+                unwatch(op)
+            }
+            for (CanvasOperation op : c.addedSubList) {
+                watch(op)
+                if (isPartial(op)) markDirty(knownBounds.get(op)) else fullDirty = true
+            }
+        }
+        schedule()
+    }
+
+    private void operationChanged(CanvasOperation op) {
+        if (op == null) return
+        if (isPartial(op)) {
+            markDirty(knownBounds.get(op))
+            Bounds current = ((BoundedOperation) op).bounds
+            knownBounds.put(op, current)
+            markDirty(current)
+        } else {
+            fullDirty = true
+        }
+        schedule()
+    }
+
+    // Whether a change to op can be repainted through its bounds alone
+    private boolean isPartial(CanvasOperation op) {
+        return op instanceof BoundedOperation && untrackedCount == 0
+    }
+
+    private void watch(CanvasOperation op) {
+        Integer count = occurrences.get(op)
+        occurrences.put(op, count == null ? 1 : count + 1)
+        if (count != null) return
+        if (!(op instanceof BoundedOperation) && !STATE_OPERATIONS.contains(op.getClass())) untrackedCount++
+        if (op instanceof BoundedOperation) knownBounds.put(op, ((BoundedOperation) op).bounds)
+
+        List<ObservableValue> properties = []
+        for (Method accessor : PROPERTY_ACCESSORS.get(op.getClass())) {
+            ObservableValue property = (ObservableValue) accessor.invoke(op)
+            if (property == null) continue
+            property.addListener(propertyListener)
+            owners.put(property, op)
+            properties << property
+        }
+        watched.put(op, properties)
+    }
+
+    private void unwatch(CanvasOperation op) {
+        Integer count = occurrences.get(op)
+        if (count == null) return
+        if (count > 1) {
+            occurrences.put(op, count - 1)
+            return
+        }
+        occurrences.remove(op)
+        List<ObservableValue> properties = watched.remove(op)
+        for (ObservableValue property : properties) {
+            property.removeListener(propertyListener)
+            owners.remove(property)
+        }
+        knownBounds.remove(op)
+        if (!(op instanceof BoundedOperation) && !STATE_OPERATIONS.contains(op.getClass())) untrackedCount--
+    }
+
+    private void markDirty(Bounds b) {
+        if (b == null) {
+            fullDirty = true
+            return
+        }
+        dirtyMinX = Math.min(dirtyMinX, b.minX)
+        dirtyMinY = Math.min(dirtyMinY, b.minY)
+        dirtyMaxX = Math.max(dirtyMaxX, b.maxX)
+        dirtyMaxY = Math.max(dirtyMaxY, b.maxY)
+    }
+
+    private void resetDirty() {
+        fullDirty = false
+        dirtyMinX = Double.POSITIVE_INFINITY
+        dirtyMinY = Double.POSITIVE_INFINITY
+        dirtyMaxX = Double.NEGATIVE_INFINITY
+        dirtyMaxY = Double.NEGATIVE_INFINITY
+    }
+
+    private void schedule() {
+        FxDispatcher.default.dispatch(this, { flush() } as Runnable)
+    }
+
+    private static boolean intersects(Bounds b, Bounds region, double pad) {
+        return b.maxX + pad >= region.minX && b.minX - pad <= region.maxX &&
+                b.maxY + pad >= region.minY && b.minY - pad <= region.maxY
+    }
+}
@@ -30,7 +30,7 @@ class RotateOperation implements CanvasOperation, OpParamCoercion {
 
     void initParams(Object params) {
         def raw = pick(params, ['angle','theta','deg','value'])
-        angle = coerce(raw, Double)
+        degrees = coerceDouble(raw, 0d)
     }
 
     public void execute(GraphicsContext gc) {
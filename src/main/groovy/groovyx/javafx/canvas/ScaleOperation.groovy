@@ -36,21 +36,21 @@ class ScaleOperation implements CanvasOperation, OpParamCoercion {
             def xVal = coerce(mx, Double)
             def yVal = coerce(my, Double)
             if (xVal != null && yVal == null) yVal = xVal
-            scaleX = xVal
-            scaleY = yVal
+            x = xVal != null ? xVal : 1d
+            y = yVal != null ? yVal : 1d
             return
         }
 
         def list = asListish(unwrap(params))
         if (list && list.size() >= 2) {
-            scaleX = coerce(list[0], Double)
-            scaleY = coerce(list[1], Double)
+            x = coerceDouble(list[0], 1d)
+            y = coerceDouble(list[1], 1d)
             return
         }
 
-        def v = coerce(params, Double)
-        scaleX = v
-        scaleY = v
+        double v = coerceDouble(params, 1d)
+        x = v
+        y = v
     }
 
     public void execute(GraphicsContext gc) {
@@ -32,7 +32,7 @@ class SetGlobalAlphaOperation implements CanvasOperation, OpParamCoercion {
 
     void initParams(Object params) {
         def raw = pick(params, ['alpha', 'a', 'value'])
-        globalAlpha = coerce(raw, Double)
+        alpha = coerceDouble(raw, 1d)
     }
 
     public void execute(GraphicsContext gc) {
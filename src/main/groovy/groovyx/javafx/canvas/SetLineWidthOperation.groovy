@@ -17,8 +17,8 @@ class SetLineWidthOperation implements CanvasOperation, OpParamCoercion {
 
     void initParams(Object params) {
         def raw = pick(params, ['lw','lineWidth','width','value'])
-        def v = coerce(raw, Double)
-        if (v == null) throw new IllegalArgumentException("lineWidth requires a value (got null)")
+        double v = coerceDouble(raw, Double.NaN)
+        if (Double.isNaN(v)) throw new IllegalArgumentException("lineWidth requires a value (got null)")
         lw = v
     }
     void execute(GraphicsContext gc) {
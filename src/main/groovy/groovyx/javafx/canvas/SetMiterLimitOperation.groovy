@@ -31,7 +31,7 @@ class SetMiterLimitOperation implements CanvasOperation, OpParamCoercion {
 
     void initParams(Object params) {
         def raw = pick(params, ['miterLimit','limit','ml','value'])
-        miterLimit = coerce(raw, Double)
+        ml = coerceDouble(raw, 10d)
     }
 
     public void execute(GraphicsContext gc) {
@@ -42,26 +42,26 @@ class SetTransformOperation implements CanvasOperation, OpParamCoercion {
         raw = unwrap(raw)
 
         if (raw instanceof Transform) {
-            transform = (raw instanceof Affine) ? (Affine) raw : new Affine(raw)
+            xform = (raw instanceof Affine) ? (Affine) raw : new Affine(raw)
             return
         }
 
         if (params instanceof Map) {
-            def mxx = coerce(pick(params, ['mxx']), Double)
-            def mxy = coerce(pick(params, ['mxy']), Double)
-            def myx = coerce(pick(params, ['myx']), Double)
-            def myy = coerce(pick(params, ['myy']), Double)
-            def tx  = coerce(pick(params, ['tx','x']), Double)
-            def ty  = coerce(pick(params, ['ty','y']), Double)
-            transform = new Affine(mxx, mxy, tx, myx, myy, ty)
+            double mxx = coerceDouble(pick(params, ['mxx']), 1d)
+            double mxy = coerceDouble(pick(params, ['mxy']), 0d)
+            double myx = coerceDouble(pick(params, ['myx']), 0d)
+            double myy = coerceDouble(pick(params, ['myy']), 1d)
+            double tx  = coerceDouble(pick(params, ['tx','x']), 0d)
+            double ty  = coerceDouble(pick(params, ['ty','y']), 0d)
+            xform = new Affine(mxx, mxy, tx, myx, myy, ty)
             return
         }
 
         def list = asListish(raw)
         if (list && list.size() >= 6) {
-            transform = new Affine(
-                    coerce(list[0], Double), coerce(list[2], Double), coerce(list[4], Double),
-                    coerce(list[1], Double), coerce(list[3], Double), coerce(list[5], Double)
+            xform = new Affine(
+                    coerceDouble(list[0], 1d), coerceDouble(list[2], 0d), coerceDouble(list[4], 0d),
+                    coerceDouble(list[1], 0d), coerceDouble(list[3], 1d), coerceDouble(list[5], 0d)
             )
             return
         }
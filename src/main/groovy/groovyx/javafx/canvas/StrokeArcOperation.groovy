@@ -20,13 +20,14 @@ package groovyx.javafx.canvas
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext
 import javafx.scene.shape.ArcType
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class StrokeArcOperation implements CanvasOperation {
+class StrokeArcOperation implements BoundedOperation {
     double x;
     double y;
     double w;
@@ -52,5 +53,8 @@ class StrokeArcOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.strokeArc(x, y, w, h, startAngle, arcExtent, closure);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x, y, w, h)
+    }
+}
@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class StrokeLineOperation implements CanvasOperation {
+class StrokeLineOperation implements BoundedOperation {
     double x1
     double y1
     double x2
@@ -41,5 +42,8 @@ class StrokeLineOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.strokeLine(x1, y1, x2, y2);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x1, y1, x2 - x1, y2 - y1)
+    }
+}
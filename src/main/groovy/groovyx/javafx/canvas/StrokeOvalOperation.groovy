@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class StrokeOvalOperation implements CanvasOperation {
+class StrokeOvalOperation implements BoundedOperation {
     double x
     double y
     double w
@@ -41,5 +42,8 @@ class StrokeOvalOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.strokeOval(x, y, w, h);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x, y, w, h)
+    }
+}
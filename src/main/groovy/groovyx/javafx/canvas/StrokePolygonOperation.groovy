@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class StrokePolygonOperation implements CanvasOperation {
+class StrokePolygonOperation implements BoundedOperation {
     double[] xPoints
     double[] yPoints
     int nPoints
@@ -53,5 +54,8 @@ class StrokePolygonOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.strokePolygon(xPoints, yPoints, nPoints);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.pointBounds(xPoints, yPoints, nPoints)
+    }
+}
@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class StrokePolylineOperation implements CanvasOperation {
+class StrokePolylineOperation implements BoundedOperation {
     double[] xPoints
     double[] yPoints
     int nPoints
@@ -53,5 +54,8 @@ class StrokePolylineOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.strokePolyline(xPoints, yPoints, nPoints);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.pointBounds(xPoints, yPoints, nPoints)
+    }
+}
@@ -19,13 +19,14 @@ package groovyx.javafx.canvas
 
 import groovyx.javafx.beans.FXBindable
 import javafx.scene.canvas.GraphicsContext;
+import javafx.geometry.Bounds
 
 /**
  *
  * @author jimclarke
  */
 @FXBindable
-class StrokeRectOperation implements CanvasOperation {
+class StrokeRectOperation implements BoundedOperation {
     double x
     double y
     double w
@@ -41,5 +42,8 @@ class StrokeRectOperation implements CanvasOperation {
     public void execute(GraphicsContext gc) {
         gc.strokeRect(x, y, w, h);
     }
-}
 
+    Bounds getBounds() {
+        RetainedCanvasRenderer.rectBounds(x, y, w, h)
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.canvas
+
+import groovy.transform.CompileStatic
+import groovy.util.logging.Slf4j
+import javafx.geometry.Bounds
+import javafx.geometry.VPos
+import javafx.scene.image.Image
+import javafx.scene.paint.Color
+import javafx.scene.paint.LinearGradient
+import javafx.scene.paint.Paint
+import javafx.scene.paint.RadialGradient
+import javafx.scene.shape.ArcType
+import javafx.scene.shape.FillRule
+import javafx.scene.shape.StrokeLineCap
+import javafx.scene.shape.StrokeLineJoin
+import javafx.scene.text.Font
+import javafx.scene.text.TextAlignment
+
+import java.awt.AlphaComposite
+import java.awt.BasicStroke
+import java.awt.Composite
+import java.awt.FontMetrics
+import java.awt.Graphics2D
+import java.awt.RenderingHints
+import java.awt.Shape
+import java.awt.geom.AffineTransform
+import java.awt.geom.Arc2D
+import java.awt.geom.Ellipse2D
+import java.awt.geom.Line2D
+import java.awt.geom.NoninvertibleTransformException
+import java.awt.geom.Path2D
+import java.awt.geom.Point2D
+import java.awt.geom.Rectangle2D
+import java.awt.geom.RoundRectangle2D
+import java.awt.image.BufferedImage
+import java.awt.image.DataBufferInt
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Rasterizes canvas operations into one premultiplied ARGB tile with Java2D, off the FX thread.
+ *
+ * <p>Each tile gets its own rasterizer and {@link Graphics2D}, so tiles can be drawn in
+ * parallel. The operations keep {@link javafx.scene.canvas.GraphicsContext} semantics: the
+ * same default state, {@code save}/{@code restore}, paths that are transformed as they are
+ * built, text alignment and baselines.</p>
+ *
+ * <p>Supported: rectangles, ovals, arcs, round rectangles, lines, polygons, polylines, text,
+ * images, paths (except SVG paths), clipping, transforms, line and font state, global alpha
+ * and the fill rule. Paints other than {@link Color} are drawn with their first stop.
+ * Closures, effects, blend modes, SVG paths and display lists are skipped, with one warning
+ * per operation class.</p>
+ *
+ * @see TiledCanvas
+ */
+@Slf4j
+@CompileStatic
+class TileRasterizer {
+
+    private static final Set<Class> WARNED = ConcurrentHashMap.newKeySet()
+
+    private final Graphics2D g
+    private final AffineTransform base
+    private final Map<Image, BufferedImage> images
+    private final Deque<State> saved = new ArrayDeque<State>()
+    private State state = new State()
+    // Current path in canvas coordinates, like GraphicsContext
+    private Path2D.Double path = new Path2D.Double()
+
+    private TileRasterizer(Graphics2D g, Map<Image, BufferedImage> images) {
+        this.g = g
+        this.base = g.transform
+        this.images = images
+    }
+
+    /**
+     * Draws the operations that can reach the tile and returns its pixels, row by row.
+     *
+     * @param bounds the bounds of each operation, or null entries for operations that may
+     *        paint anywhere; the whole array may be null to draw every operation
+     * @param padding how far outside its bounds an operation may paint
+     * @param images AWT copies of the images drawn by the operations
+     */
+    static int[] rasterize(List<CanvasOperation> operations, Bounds[] bounds, double padding,
+                           Map<Image, BufferedImage> images, int x, int y, int w, int h) {
+        BufferedImage tile = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE)
+        Graphics2D g = tile.createGraphics()
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON)
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON)
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE)
+            g.translate(-x, -y)
+            TileRasterizer rasterizer = new TileRasterizer(g, images)
+            rasterizer.applyStroke()
+            for (int i = 0; i < operations.size(); i++) {
+                Bounds b = bounds == null ? null : bounds[i]
+                if (b != null && (b.maxX + padding < x || b.minX - padding > x + w ||
+                        b.maxY + padding < y || b.minY - padding > y + h)) {
+                    continue
+                }
+                rasterizer.paint(operations.get(i))
+            }
+        } finally {
+            g.dispose()
+        }
+        return ((DataBufferInt) tile.raster.dataBuffer).data
+    }
+
+    /** AWT copy of an FX color; other paints are reduced to their first stop. */
+    static java.awt.Color awtColor(Paint paint) {
+        Color c = Color.BLACK
+        if (paint instanceof Color) {
+            c = (Color) paint
+        } else if (paint instanceof LinearGradient && !((LinearGradient) paint).stops.isEmpty()) {
+            c = ((LinearGradient) paint).stops[0].color
+        } else if (paint instanceof RadialGradient && !((RadialGradient) paint).stops.isEmpty()) {
+            c = ((RadialGradient) paint).stops[0].color
+        } else if (paint == null) {
+            return null
+        }
+        return new java.awt.Color((float) c.red, (float) c.green, (float) c.blue, (float) c.opacity)
+    }
+
+    private void paint(CanvasOperation op) {
+        if (op instanceof FillRectOperation) fill(new Rectangle2D.Double(op.x, op.y, op.w, op.h))
+        else if (op instanceof StrokeRectOperation) draw(new Rectangle2D.Double(op.x, op.y, op.w, op.h))
+        else if (op instanceof ClearRectOperation) clear(new Rectangle2D.Double(op.x, op.y, op.w, op.h))
+        else if (op instanceof FillOvalOperation) fill(new Ellipse2D.Double(op.x, op.y, op.w, op.h))
+        else if (op instanceof StrokeOvalOperation) draw(new Ellipse2D.Double(op.x, op.y, op.w, op.h))
+        else if (op instanceof FillRoundRectOperation) fill(new RoundRectangle2D.Double(op.x, op.y, op.w, op.h, op.arcWidth, op.arcHeight))
+        else if (op instanceof StrokeRoundRectOperation) draw(new RoundRectangle2D.Double(op.x, op.y, op.w, op.h, op.arcWidth, op.arcHeight))
+        else if (op instanceof FillArcOperation) fill(new Arc2D.Double(op.x, op.y, op.w, op.h, op.startAngle, op.arcExtent, arcType(op.closure)))
+        else if (op instanceof StrokeArcOperation) draw(new Arc2D.Double(op.x, op.y, op.w, op.h, op.startAngle, op.arcExtent, arcType(op.closure)))
+        else if (op instanceof StrokeLineOperation) draw(new Line2D.Double(op.x1, op.y1, op.x2, op.y2))
+        else if (op instanceof FillPolygonOperation) fill(polygon(op.xPoints, op.yPoints, op.nPoints, true))
+        else if (op instanceof StrokePolygonOperation) draw(polygon(op.xPoints, op.yPoints, op.nPoints, true))
+        else if (op instanceof StrokePolylineOperation) draw(polygon(op.xPoints, op.yPoints, op.nPoints, false))
+        else if (op instanceof FillTextOperation) text(op.text, op.x, op.y, true)
+        else if (op instanceof StrokeTextOperation) text(op.text, op.x, op.y, false)
+        else if (op instanceof DrawImageOperation) image(op.img, op.x, op.y)
+        else if (op instanceof SetFillOperation) state.fill = op.fill
+        else if (op instanceof SetStrokeOperation) state.stroke = op.stroke
+        else if (op instanceof SetLineWidthOperation) { state.lineWidth = op.lw; applyStroke() }
+        else if (op instanceof SetLineCapOperation) { if (op.cap != null) state.lineCap = op.cap; applyStroke() }
+        else if (op instanceof SetLineJoinOperation) { if (op.join != null) state.lineJoin = op.join; applyStroke() }
+        else if (op instanceof SetMiterLimitOperation) { state.miterLimit = op.ml; applyStroke() }
+        else if (op instanceof SetFontOperation) { if (op.f != null) state.font = op.f }
+        else if (op instanceof SetGlobalAlphaOperation) state.alpha = op.alpha
+        else if (op instanceof SetFillRuleOperation) { if (op.fillRule != null) state.fillRule = op.fillRule }
+        else if (op instanceof SetTextAlignOperation) { if (op.align != null) state.textAlign = op.align }
+        else if (op instanceof SetTextBaselineOperation) { if (op.baseline != null) state.baseline = op.baseline }
+        else if (op instanceof TranslateOperation) g.translate(op.x, op.y)
+        else if (op instanceof ScaleOperation) g.scale(op.x, op.y)
+        else if (op instanceof RotateOperation) g.rotate(Math.toRadians(op.degrees))
+        else if (op instanceof TransformOperation) g.transform(affine(op.xform, op.mxx, op.myx, op.mxy, op.myy, op.mxt, op.myt))
+        else if (op instanceof SetTransformOperation) {
+            AffineTransform t = new AffineTransform(base)
+            t.concatenate(affine(op.xform, op.mxx, op.myx, op.mxy, op.myy, op.mxt, op.myt))
+            g.transform = t
+        }
+        else if (op instanceof SaveOperation) save()
+        else if (op instanceof RestoreOperation) restore()
+        else if (op instanceof BeginPathOperation) path = new Path2D.Double()
+        else if (op instanceof ClosePathOperation) { if (path.currentPoint != null) path.closePath() }
+        else if (op instanceof MoveToOperation) moveTo(op.x, op.y)
+        else if (op instanceof LineToOperation) lineTo(op.x, op.y)
+        else if (op instanceof QuadraticCurveToOperation) quadTo(op.xc, op.yc, op.x1, op.y1)
+        else if (op instanceof BezierCurveToOperation) curveTo(op.xc1, op.yc1, op.xc2, op.yc2, op.x1, op.y1)
+        else if (op instanceof ArcToOperation) arcTo(op.x1, op.y1, op.x2, op.y2, op.radius)
+        else if (op instanceof ArcOperation) {
+            Arc2D arc = new Arc2D.Double(op.centerX - op.radiusX, op.centerY - op.radiusY,
+                    op.radiusX * 2d, op.radiusY * 2d, op.startAngle, op.length, Arc2D.OPEN)
+            path.append(canvasTransform().createTransformedShape(arc), path.currentPoint != null)
+        }
+        else if (op instanceof RectOperation) {
+            path.append(canvasTransform().createTransformedShape(new Rectangle2D.Double(op.x, op.y, op.w, op.h)), false)
+        }
+        else if (op instanceof FillOperation) fill(userPath())
+        else if (op instanceof StrokeOperation) draw(userPath())
+        else if (op instanceof ClipOperation) g.clip(userPath())
+        else unsupported(op)
+    }
+
+    private void fill(Shape shape) {
+        if (shape == null) return
+        java.awt.Color c = awtColor(state.fill)
+        if (c == null) return
+        Composite composite = g.composite
+        g.composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) state.alpha)
+        g.color = c
+        g.fill(shape)
+        g.composite = composite
+    }
+
+    private void draw(Shape shape) {
+        if (shape == null) return
+        java.awt.Color c = awtColor(state.stroke)
+        if (c == null) return
+        Composite composite = g.composite
+        g.composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) state.alpha)
+        g.color = c
+        g.draw(shape)
+        g.composite = composite
+    }
+
+    private void clear(Shape shape) {
+        Composite composite = g.composite
+        g.composite = AlphaComposite.Clear
+        g.fill(shape)
+        g.composite = composite
+    }
+
+    private void text(String text, double x, double y, boolean fill) {
+        if (text == null || text.isEmpty()) return
+        java.awt.Font font = awtFont(state.font)
+        FontMetrics metrics = g.getFontMetrics(font)
+        double tx = x
+        if (state.textAlign == TextAlignment.CENTER) tx -= metrics.stringWidth(text) / 2d
+        else if (state.textAlign == TextAlignment.RIGHT) tx -= metrics.stringWidth(text)
+        double ty = y
+        if (state.baseline == VPos.TOP) ty += metrics.ascent
+        else if (state.baseline == VPos.CENTER) ty += (metrics.ascent - metrics.descent) / 2d
+        else if (state.baseline == VPos.BOTTOM) ty -= metrics.descent
+        Shape outline = font.createGlyphVector(g.fontRenderContext, text).getOutline((float) tx, (float) ty)
+        if (fill) fill(outline) else draw(outline)
+    }
+
+    private void image(Image img, double x, double y) {
+        BufferedImage awt = img == null ? null : images.get(img)
+        if (awt == null) return
+        Composite composite = g.composite
+        g.composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) state.alpha)
+        g.drawImage(awt, AffineTransform.getTranslateInstance(x, y), null)
+        g.composite = composite
+    }
+
+    private void save() {
+        State copy = state.copy()
+        copy.transform = g.transform
+        copy.clip = g.clip
+        saved.push(state)
+        state = copy
+    }
+
+    private void restore() {
+        if (saved.isEmpty()) return
+        State current = state
+        state = saved.pop()
+        g.transform = current.transform
+        g.clip = current.clip
+        applyStroke()
+    }
+
+    private void moveTo(double x, double y) {
+        Point2D p = canvasTransform().transform(new Point2D.Double(x, y), null)
+        path.moveTo(p.x, p.y)
+    }
+
+    private void lineTo(double x, double y) {
+        Point2D p = canvasTransform().transform(new Point2D.Double(x, y), null)
+        if (path.currentPoint == null) path.moveTo(p.x, p.y) else path.lineTo(p.x, p.y)
+    }
+
+    private void quadTo(double xc, double yc, double x1, double y1) {
+        AffineTransform t = canvasTransform()
+        Point2D c = t.transform(new Point2D.Double(xc, yc), null)
+        Point2D p = t.transform(new Point2D.Double(x1, y1), null)
+        if (path.currentPoint == null) path.moveTo(c.x, c.y)
+        path.quadTo(c.x, c.y, p.x, p.y)
+    }
+
+    private void curveTo(double xc1, double yc1, double xc2, double yc2, double x1, double y1) {
+        AffineTransform t = canvasTransform()
+        Point2D c1 = t.transform(new Point2D.Double(xc1, yc1), null)
+        Point2D c2 = t.transform(new Point2D.Double(xc2, yc2), null)
+        Point2D p = t.transform(new Point2D.Double(x1, y1), null)
+        if (path.currentPoint == null) path.moveTo(c1.x, c1.y)
+        path.curveTo(c1.x, c1.y, c2.x, c2.y, p.x, p.y)
+    }
+
+    // Tangent arc as in GraphicsContext.arcTo, approximated with one cubic curve
+    private void arcTo(double x1, double y1, double x2, double y2, double radius) {
+        Point2D current = path.currentPoint
+        if (current == null) {
+            moveTo(x1, y1)
+            return
+        }
+        Point2D p0
+        try {
+            p0 = canvasTransform().inverseTransform(current, null)
+        } catch (NoninvertibleTransformException ignored) {
+            return
+        }
+        double ax = p0.x - x1, ay = p0.y - y1
+        double bx = x2 - x1, by = y2 - y1
+        double la = Math.hypot(ax, ay), lb = Math.hypot(bx, by)
+        double cross = ax * by - ay * bx
+        if (la == 0d || lb == 0d || radius <= 0d || Math.abs(cross) < 1e-9) {
+            lineTo(x1, y1)
+            return
+        }
+        ax /= la; ay /= la; bx /= lb; by /= lb
+        double angle = Math.acos(Math.max(-1d, Math.min(1d, ax * bx + ay * by)))
+        double dist = radius / Math.tan(angle / 2d)
+        double t1x = x1 + ax * dist, t1y = y1 + ay * dist
+        double t2x = x1 + bx * dist, t2y = y1 + by * dist
+        double k = 4d / 3d * Math.tan((Math.PI - angle) / 4d) * radius
+        lineTo(t1x, t1y)
+        curveTo(t1x - ax * k, t1y - ay * k, t2x - bx * k, t2y - by * k, t2x, t2y)
+    }
+
+    // The current path in user space, so fills and strokes use the current transform
+    private Shape userPath() {
+        Path2D.Double p = new Path2D.Double(path)
+        p.windingRule = state.fillRule == FillRule.EVEN_ODD ? Path2D.WIND_EVEN_ODD : Path2D.WIND_NON_ZERO
+        try {
+            return canvasTransform().createInverse().createTransformedShape(p)
+        } catch (NoninvertibleTransformException ignored) {
+            return null
+        }
+    }
+
+    // The transform relative to the canvas, without the tile offset
+    private AffineTransform canvasTransform() {
+        AffineTransform t
+        try {
+            t = base.createInverse()
+        } catch (NoninvertibleTransformException ignored) {
+            t = new AffineTransform()
+        }
+        t.concatenate(g.transform)
+        return t
+    }
+
+    private void applyStroke() {
+        int cap = state.lineCap == StrokeLineCap.BUTT ? BasicStroke.CAP_BUTT :
+                state.lineCap == StrokeLineCap.ROUND ? BasicStroke.CAP_ROUND : BasicStroke.CAP_SQUARE
+        int join = state.lineJoin == StrokeLineJoin.BEVEL ? BasicStroke.JOIN_BEVEL :
+                state.lineJoin == StrokeLineJoin.ROUND ? BasicStroke.JOIN_ROUND : BasicStroke.JOIN_MITER
+        g.stroke = new BasicStroke((float) Math.max(0d, state.lineWidth), cap, join, (float) Math.max(1d, state.miterLimit))
+    }
+
+    private static Shape polygon(double[] xs, double[] ys, int n, boolean close) {
+        if (xs == null || ys == null) return null
+        int count = Math.min(n, Math.min(xs.length, ys.length))
+        if (count <= 0) return null
+        Path2D.Double p = new Path2D.Double()
+        p.moveTo(xs[0], ys[0])
+        for (int i = 1; i < count; i++) {
+            p.lineTo(xs[i], ys[i])
+        }
+        if (close) p.closePath()
+        return p
+    }
+
+    private static AffineTransform affine(javafx.scene.transform.Affine xform,
+                                          double mxx, double myx, double mxy, double myy, double mxt, double myt) {
+        if (xform != null) {
+            return new AffineTransform(xform.mxx, xform.myx, xform.mxy, xform.myy, xform.tx, xform.ty)
+        }
+        return new AffineTransform(mxx, myx, mxy, myy, mxt, myt)
+    }
+
+    private static int arcType(ArcType type) {
+        return type == ArcType.ROUND ? Arc2D.PIE : type == ArcType.CHORD ? Arc2D.CHORD : Arc2D.OPEN
+    }
+
+    private static java.awt.Font awtFont(Font font) {
+        if (font == null) return new java.awt.Font(java.awt.Font.SANS_SERIF, java.awt.Font.PLAIN, 12)
+        String style = font.style == null ? '' : font.style.toLowerCase()
+        int awtStyle = (style.contains('bold') ? java.awt.Font.BOLD : 0) |
+                (style.contains('italic') || style.contains('oblique') ? java.awt.Font.ITALIC : 0)
+        return new java.awt.Font(font.family, awtStyle, 1).deriveFont((float) font.size)
+    }
+
+    private static void unsupported(CanvasOperation op) {
+        if (op != null && WARNED.add(op.getClass())) {
+            log.warn('tiledCanvas cannot rasterize {}; it is skipped', op.getClass().simpleName)
+        }
+    }
+
+    // GraphicsContext state that Graphics2D does not keep itself
+    private static class State {
+        Paint fill = Color.BLACK
+        Paint stroke = Color.BLACK
+        double lineWidth = 1d
+        StrokeLineCap lineCap = StrokeLineCap.SQUARE
+        StrokeLineJoin lineJoin = StrokeLineJoin.MITER
+        double miterLimit = 10d
+        Font font
+        double alpha = 1d
+        FillRule fillRule = FillRule.NON_ZERO
+        TextAlignment textAlign = TextAlignment.LEFT
+        VPos baseline = VPos.BASELINE
+        // Graphics2D state to go back to on restore
+        AffineTransform transform
+        Shape clip
+
+        State copy() {
+            new State(fill: fill, stroke: stroke, lineWidth: lineWidth, lineCap: lineCap, lineJoin: lineJoin,
+                    miterLimit: miterLimit, font: font, alpha: alpha, fillRule: fillRule,
+                    textAlign: textAlign, baseline: baseline)
+        }
+    }
+}
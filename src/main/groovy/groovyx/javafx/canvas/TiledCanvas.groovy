@@ -0,0 +1,161 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.canvas
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.FxDispatcher
+import javafx.collections.FXCollections
+import javafx.collections.ObservableList
+import javafx.embed.swing.SwingFXUtils
+import javafx.geometry.Bounds
+import javafx.scene.image.Image
+import javafx.scene.image.ImageView
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.PixelWriter
+import javafx.scene.image.WritableImage
+
+import java.awt.image.BufferedImage
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ForkJoinPool
+import java.util.function.Consumer
+import java.util.function.Function
+import java.util.function.Supplier
+
+/**
+ * A canvas for large drawings that rasterizes its operations on several threads.
+ *
+ * <p>{@link #render()} splits the area into square tiles and draws each tile on its own
+ * {@link ForkJoinPool} task with {@link TileRasterizer}. Tiles only replay the operations whose
+ * bounds reach them, unless the list contains transforms or closures. Finished tiles are
+ * written into a {@link WritableImage}, shown by this view, with one
+ * {@link PixelWriter#setPixels} each, batched through {@link FxDispatcher}.</p>
+ *
+ * <p>Not every operation can be rasterized off the FX thread; see {@link TileRasterizer} for
+ * what is drawn. Operations must not change while a render is running.
+ * {@link #render()} must be called on the FX Application Thread.</p>
+ */
+@CompileStatic
+class TiledCanvas extends ImageView {
+
+    static final int DEFAULT_TILE_SIZE = 256
+
+    private final ObservableList<CanvasOperation> operations = FXCollections.observableArrayList()
+    private WritableImage target
+    // Bumped by every render so tiles of an older one are not written over newer ones
+    private long generation
+
+    double width
+    double height
+    int tileSize = DEFAULT_TILE_SIZE
+    ForkJoinPool pool = ForkJoinPool.commonPool()
+
+    TiledCanvas() {
+    }
+
+    TiledCanvas(double width, double height) {
+        this.width = width
+        this.height = height
+    }
+
+    /** The operations drawn by {@link #render()}, in order. */
+    ObservableList<CanvasOperation> getOperations() {
+        return operations
+    }
+
+    void setOperations(List<? extends CanvasOperation> ops) {
+        operations.setAll(ops)
+    }
+
+    /**
+     * Rasterizes the operations in parallel and writes the tiles into the image as they finish.
+     *
+     * @return completes on the FX thread with the image, once every tile has been written
+     */
+    CompletableFuture<WritableImage> render() {
+        int w = (int) Math.ceil(width)
+        int h = (int) Math.ceil(height)
+        if (w <= 0 || h <= 0) return CompletableFuture.completedFuture((WritableImage) null)
+        if (target == null || (int) target.width != w || (int) target.height != h) {
+            target = new WritableImage(w, h)
+            image = target
+        }
+        long current = ++generation
+
+        List<CanvasOperation> ops = Collections.unmodifiableList(new ArrayList<CanvasOperation>(operations))
+        Bounds[] bounds = tileBounds(ops)
+        double padding = RetainedCanvasRenderer.strokePadding(ops)
+        Map<Image, BufferedImage> images = awtImages(ops)
+        int size = Math.max(16, tileSize)
+
+        List<CompletableFuture<Void>> tiles = []
+        for (int y = 0; y < h; y += size) {
+            for (int x = 0; x < w; x += size) {
+                tiles << renderTile(current, ops, bounds, padding, images, x, y, Math.min(size, w - x), Math.min(size, h - y))
+            }
+        }
+        WritableImage rendered = target
+        CompletableFuture<Void> drawn = CompletableFuture.allOf(tiles.toArray(new CompletableFuture[tiles.size()]))
+        // Tile writes are queued on the dispatcher before this barrier
+        return drawn.thenCompose({ Void ignored -> FxDispatcher.default.submit({} as Runnable) } as Function<Void, CompletableFuture<Void>>)
+                .thenApply({ Void ignored -> rendered } as Function<Void, WritableImage>)
+    }
+
+    private CompletableFuture<Void> renderTile(long gen, List<CanvasOperation> ops, Bounds[] bounds, double padding,
+                                               Map<Image, BufferedImage> images, int x, int y, int w, int h) {
+        PixelWriter writer = target.pixelWriter
+        return CompletableFuture.supplyAsync({ ->
+            TileRasterizer.rasterize(ops, bounds, padding, images, x, y, w, h)
+        } as Supplier<int[]>, pool).thenAccept({ int[] pixels ->
+            // Keyed per tile: a newer render of the same tile replaces a pending write
+            FxDispatcher.default.dispatch([this, x, y], {
+                if (gen == generation) {
+                    writer.setPixels(x, y, w, h, PixelFormat.intArgbPreInstance, pixels, 0, w)
+                }
+            } as Runnable)
+        } as Consumer<int[]>)
+    }
+
+    // Bounds let tiles skip operations, but only while they are in canvas coordinates
+    private static Bounds[] tileBounds(List<CanvasOperation> ops) {
+        Bounds[] bounds = new Bounds[ops.size()]
+        for (int i = 0; i < ops.size(); i++) {
+            CanvasOperation op = ops.get(i)
+            if (op instanceof TranslateOperation || op instanceof ScaleOperation || op instanceof RotateOperation ||
+                    op instanceof TransformOperation || op instanceof SetTransformOperation ||
+                    op instanceof ClosureOperation || op instanceof DisplayList) {
+                return null
+            }
+            if (op instanceof BoundedOperation) bounds[i] = ((BoundedOperation) op).bounds
+        }
+        return bounds
+    }
+
+    // Image pixels are read here, on the calling thread, once per image
+    private static Map<Image, BufferedImage> awtImages(List<CanvasOperation> ops) {
+        Map<Image, BufferedImage> images = new IdentityHashMap<Image, BufferedImage>()
+        for (CanvasOperation op : ops) {
+            if (op instanceof DrawImageOperation) {
+                Image img = ((DrawImageOperation) op).img
+                if (img != null && img.progress >= 1d && !img.error && !images.containsKey(img)) {
+                    images.put(img, SwingFXUtils.fromFXImage(img, null))
+                }
+            }
+        }
+        return images
+    }
+}
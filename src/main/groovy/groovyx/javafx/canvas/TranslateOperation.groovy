@@ -31,14 +31,14 @@ class TranslateOperation implements CanvasOperation, OpParamCoercion {
 
     void initParams(Object params) {
         if (params instanceof Map) {
-            tx = coerce(pick(params, ['x','tx','dx']), Double)
-            ty = coerce(pick(params, ['y','ty','dy']), Double)
+            x = coerceDouble(pick(params, ['x','tx','dx']), 0d)
+            y = coerceDouble(pick(params, ['y','ty','dy']), 0d)
             return
         }
         def list = asListish(unwrap(params))
         if (list && list.size() >= 2) {
-            tx = coerce(list[0], Double)
-            ty = coerce(list[1], Double)
+            x = coerceDouble(list[0], 0d)
+            y = coerceDouble(list[1], 0d)
             return
         }
         throw new IllegalArgumentException("translate expects (x,y) or map {x:,y:}, got: $params")
@@ -0,0 +1,396 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.chart
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.FxDispatcher
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
+import javafx.collections.ObservableList
+import javafx.scene.chart.ValueAxis
+import javafx.scene.chart.XYChart
+
+import java.util.concurrent.Executor
+
+/**
+ * An {@link XYChart.Series} that shows a few thousand points standing for any number of raw
+ * points held in an {@link XYBuffer}.
+ *
+ * <p>The number of points shown is {@link #maxPoints} or, once the chart is laid out, twice
+ * the width of the x axis in pixels if that is smaller. In {@link Mode#MIN_MAX} the visible x
+ * range is cut into buckets and each bucket shows its lowest and highest point, which keeps
+ * every spike a line chart would draw. Buckets are a power-of-two width wide and aligned to
+ * multiples of it, so an append only folds the new points into the last buckets, evicted
+ * points only redo the first one, and a growing range merges neighbouring buckets instead of
+ * rescanning the raw points. Zooming the x axis rebuilds the buckets from the visible raw
+ * points. {@link Mode#LTTB} picks points by largest triangle three buckets, which follows the
+ * shape of the line more closely but always rescans the visible range.</p>
+ *
+ * <p>The chart is updated at most once per pulse, in place: data items keep their nodes and
+ * only the ones whose values changed are set. Everything runs on the FX thread.</p>
+ */
+@CompileStatic
+class DownsampledSeries {
+
+    enum Mode { MIN_MAX, LTTB }
+
+    static final int DEFAULT_MAX_POINTS = 2000
+
+    final XYBuffer buffer
+    final XYChart.Series<Number, Number> series = new XYChart.Series<Number, Number>()
+
+    /** The most points to show; the chart's pixel width may lower it. */
+    int maxPoints = DEFAULT_MAX_POINTS
+
+    Mode mode = Mode.MIN_MAX
+
+    /** Runs updates on the FX thread. */
+    Executor fxExecutor = { Runnable work -> FxDispatcher.default.dispatch(work) } as Executor
+
+    private ValueAxis<Number> xAxis
+    private boolean scheduled
+    private boolean ranged
+    private double rangeLower
+    private double rangeUpper
+
+    // Min-max buckets: bucket k holds the points with k * bucketWidth <= x < (k + 1) * bucketWidth.
+    // Index i holds bucket firstBucket + i, as the sequences of its lowest and highest point,
+    // or -1 when it has none.
+    private double bucketWidth
+    private long firstBucket
+    private int bucketCount
+    private long[] minSeq = new long[64]
+    private long[] maxSeq = new long[64]
+    private long scanned
+    private int builtBuckets
+    private boolean builtFollowing
+    private double builtLower
+    private double builtUpper
+
+    private double[] viewX = new double[64]
+    private double[] viewY = new double[64]
+
+    DownsampledSeries(int capacity) {
+        this(new XYBuffer(capacity))
+    }
+
+    DownsampledSeries(XYBuffer buffer) {
+        this.buffer = buffer
+    }
+
+    void append(double x, double y) {
+        buffer.append(x, y)
+        schedule()
+    }
+
+    void appendAll(double[] xs, double[] ys) {
+        buffer.appendAll(xs, ys, 0, xs.length)
+        schedule()
+    }
+
+    /** Schedules an update, for points appended to the buffer directly. */
+    void refresh() {
+        schedule()
+    }
+
+    /**
+     * Sizes the points shown to the chart's x axis and follows its zoom: while the axis
+     * ranges automatically every point is summarized, otherwise only those between its bounds.
+     */
+    void attach(XYChart<Number, Number> chart) {
+        if (!(chart.XAxis instanceof ValueAxis)) return
+        xAxis = (ValueAxis<Number>) chart.XAxis
+        InvalidationListener bounds = { Observable o -> if (!xAxis.autoRanging) schedule() } as InvalidationListener
+        InvalidationListener layout = { Observable o -> schedule() } as InvalidationListener
+        xAxis.lowerBoundProperty().addListener(bounds)
+        xAxis.upperBoundProperty().addListener(bounds)
+        xAxis.autoRangingProperty().addListener(layout)
+        xAxis.widthProperty().addListener(layout)
+        schedule()
+    }
+
+    /**
+     * Summarizes only the points between the bounds, for a chart whose x axis ranges
+     * automatically or for a series not in a chart. An axis with fixed bounds overrides it.
+     */
+    void showRange(double lower, double upper) {
+        ranged = true
+        rangeLower = lower
+        rangeUpper = upper
+        schedule()
+    }
+
+    /** Summarizes every point again, undoing {@link #showRange(double, double)}. */
+    void showAll() {
+        ranged = false
+        schedule()
+    }
+
+    /** The number of points the series shows. */
+    int getPointCount() {
+        return series.data.size()
+    }
+
+    /** Recomputes the points shown and applies them to the series. */
+    void update() {
+        scheduled = false
+        if (buffer.size() == 0) {
+            bucketWidth = 0
+            apply(0)
+            return
+        }
+        boolean fixedAxis = xAxis != null && !xAxis.autoRanging
+        boolean following = !fixedAxis && !ranged
+        double lower = fixedAxis ? xAxis.lowerBound : ranged ? rangeLower : buffer.x(buffer.firstSequence)
+        double upper = fixedAxis ? xAxis.upperBound : ranged ? rangeUpper : buffer.x(buffer.endSequence - 1)
+        long from = buffer.sequenceOf(lower)
+        long to = following ? buffer.endSequence : buffer.sequenceOf(Math.nextUp(upper))
+        int target = targetPoints()
+        if (mode == Mode.LTTB) {
+            bucketWidth = 0
+            apply(largestTriangles(from, to, target))
+        } else {
+            summarize(following, lower, upper, from, to, Math.max(1, Math.floorDiv(target, 2)))
+            apply(minMaxPoints())
+        }
+    }
+
+    private void schedule() {
+        if (scheduled) return
+        scheduled = true
+        fxExecutor.execute { update() }
+    }
+
+    private int targetPoints() {
+        int target = Math.max(maxPoints, 4)
+        if (xAxis != null && xAxis.width > 0) {
+            target = Math.min(target, Math.max(4, 2 * (int) Math.ceil(xAxis.width)))
+        }
+        return target
+    }
+
+    private void summarize(boolean following, double lower, double upper, long from, long to, int buckets) {
+        double span = Math.max(upper - lower, Double.MIN_NORMAL)
+        boolean rebuild = bucketWidth == 0 || buckets != builtBuckets || following != builtFollowing ||
+                (!following && (lower != builtLower || upper != builtUpper))
+        if (!rebuild) {
+            dropEvicted()
+            // a jump in x would need more buckets than a rebuild makes
+            rebuild = bucket(upper) - firstBucket > 4L * buckets
+        }
+        if (rebuild) {
+            // one bucket short, as the range rarely starts on a bucket boundary
+            bucketWidth = powerOfTwoAtLeast(span / Math.max(1, buckets - 1))
+            bucketCount = 0
+            builtBuckets = buckets
+            builtFollowing = following
+            builtLower = lower
+            builtUpper = upper
+            fold(from, to)
+        } else {
+            fold(Math.max(scanned, Math.max(from, buffer.firstSequence)), to)
+        }
+        scanned = to
+        while (bucketCount > buckets) {
+            mergePairs()
+        }
+    }
+
+    /** Drops buckets with evicted points and folds their remaining points in again. */
+    private void dropEvicted() {
+        long oldest = buffer.firstSequence
+        int dropped = 0
+        while (dropped < bucketCount && (minSeq[dropped] < oldest || maxSeq[dropped] < oldest)) {
+            dropped++
+        }
+        if (dropped == 0) return
+        long refold = dropped < bucketCount ? buffer.sequenceOf((firstBucket + dropped) * bucketWidth) : scanned
+        System.arraycopy(minSeq, dropped, minSeq, 0, bucketCount - dropped)
+        System.arraycopy(maxSeq, dropped, maxSeq, 0, bucketCount - dropped)
+        bucketCount -= dropped
+        firstBucket += dropped
+        long start = builtFollowing ? oldest : Math.max(oldest, buffer.sequenceOf(builtLower))
+        fold(start, Math.min(refold, scanned))
+    }
+
+    private void fold(long from, long to) {
+        for (long seq = from; seq < to; seq++) {
+            int i = bucketIndex(bucket(buffer.x(seq)))
+            double y = buffer.y(seq)
+            if (minSeq[i] < 0) {
+                minSeq[i] = seq
+                maxSeq[i] = seq
+            } else if (y < buffer.y(minSeq[i])) {
+                minSeq[i] = seq
+            } else if (y > buffer.y(maxSeq[i])) {
+                maxSeq[i] = seq
+            }
+        }
+    }
+
+    private void mergePairs() {
+        long merged = Math.floorDiv(firstBucket, 2L)
+        int count = 0
+        for (int i = 0; i < bucketCount; i++) {
+            int j = (int) (Math.floorDiv(firstBucket + i, 2L) - merged)
+            if (j == count) {
+                minSeq[j] = minSeq[i]
+                maxSeq[j] = maxSeq[i]
+                count++
+            } else if (minSeq[i] >= 0) {
+                if (minSeq[j] < 0) {
+                    minSeq[j] = minSeq[i]
+                    maxSeq[j] = maxSeq[i]
+                } else {
+                    if (buffer.y(minSeq[i]) < buffer.y(minSeq[j])) minSeq[j] = minSeq[i]
+                    if (buffer.y(maxSeq[i]) > buffer.y(maxSeq[j])) maxSeq[j] = maxSeq[i]
+                }
+            }
+        }
+        firstBucket = merged
+        bucketCount = count
+        bucketWidth *= 2
+    }
+
+    /** The index of bucket {@code k}, adding empty buckets before or after as needed. */
+    private int bucketIndex(long k) {
+        if (bucketCount == 0) {
+            firstBucket = k
+        }
+        if (k < firstBucket) {
+            int shift = (int) (firstBucket - k)
+            ensureCapacity(bucketCount + shift)
+            System.arraycopy(minSeq, 0, minSeq, shift, bucketCount)
+            System.arraycopy(maxSeq, 0, maxSeq, shift, bucketCount)
+            Arrays.fill(minSeq, 0, shift, -1L)
+            Arrays.fill(maxSeq, 0, shift, -1L)
+            bucketCount += shift
+            firstBucket = k
+        }
+        int i = (int) (k - firstBucket)
+        if (i >= bucketCount) {
+            ensureCapacity(i + 1)
+            Arrays.fill(minSeq, bucketCount, i + 1, -1L)
+            Arrays.fill(maxSeq, bucketCount, i + 1, -1L)
+            bucketCount = i + 1
+        }
+        return i
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > minSeq.length) {
+            int grown = Math.max(count, minSeq.length * 2)
+            minSeq = Arrays.copyOf(minSeq, grown)
+            maxSeq = Arrays.copyOf(maxSeq, grown)
+        }
+    }
+
+    private long bucket(double x) {
+        return (long) Math.floor(x / bucketWidth)
+    }
+
+    private static double powerOfTwoAtLeast(double value) {
+        double power = Math.scalb(1.0d, Math.getExponent(value))
+        return power < value ? power * 2 : power
+    }
+
+    /** Each bucket's lowest and highest point, in the order they were appended. */
+    private int minMaxPoints() {
+        int count = 0
+        for (int i = 0; i < bucketCount; i++) {
+            long low = minSeq[i]
+            if (low < 0) continue
+            long high = maxSeq[i]
+            count = view(count, Math.min(low, high))
+            if (low != high) count = view(count, Math.max(low, high))
+        }
+        return count
+    }
+
+    /** Largest triangle three buckets over {@code [from, to)}. */
+    private int largestTriangles(long from, long to, int target) {
+        long n = to - from
+        if (n <= target) {
+            int count = 0
+            for (long seq = from; seq < to; seq++) count = view(count, seq)
+            return count
+        }
+        int count = view(0, from)
+        long selected = from
+        double every = (double) (n - 2) / (target - 2)
+        for (int b = 0; b < target - 2; b++) {
+            long start = from + 1 + (long) Math.floor(b * every)
+            long end = from + 1 + (long) Math.floor((b + 1) * every)
+            long nextStart = end
+            long nextEnd = Math.min(to, from + 1 + (long) Math.floor((b + 2) * every))
+            double averageX = 0
+            double averageY = 0
+            for (long seq = nextStart; seq < nextEnd; seq++) {
+                averageX += buffer.x(seq)
+                averageY += buffer.y(seq)
+            }
+            long nextCount = Math.max(1L, nextEnd - nextStart)
+            averageX /= nextCount
+            averageY /= nextCount
+            double ax = buffer.x(selected)
+            double ay = buffer.y(selected)
+            double largest = -1
+            long best = start
+            for (long seq = start; seq < end; seq++) {
+                double area = Math.abs((ax - averageX) * (buffer.y(seq) - ay) - (ax - buffer.x(seq)) * (averageY - ay))
+                if (area > largest) {
+                    largest = area
+                    best = seq
+                }
+            }
+            count = view(count, best)
+            selected = best
+        }
+        return view(count, to - 1)
+    }
+
+    private int view(int count, long seq) {
+        if (count == viewX.length) {
+            viewX = Arrays.copyOf(viewX, count * 2)
+            viewY = Arrays.copyOf(viewY, count * 2)
+        }
+        viewX[count] = buffer.x(seq)
+        viewY[count] = buffer.y(seq)
+        return count + 1
+    }
+
+    /** Makes the series show the first {@code count} view points, reusing its data items. */
+    private void apply(int count) {
+        ObservableList<XYChart.Data<Number, Number>> data = series.data
+        int common = Math.min(count, data.size())
+        for (int i = 0; i < common; i++) {
+            XYChart.Data<Number, Number> item = data.get(i)
+            if (item.XValue.doubleValue() != viewX[i]) item.XValue = viewX[i]
+            if (item.YValue.doubleValue() != viewY[i]) item.YValue = viewY[i]
+        }
+        if (count < data.size()) {
+            data.remove(count, data.size())
+        } else if (count > common) {
+            List<XYChart.Data<Number, Number>> added = new ArrayList<XYChart.Data<Number, Number>>(count - common)
+            for (int i = common; i < count; i++) {
+                added.add(new XYChart.Data<Number, Number>(viewX[i], viewY[i]))
+            }
+            data.addAll(added)
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.chart
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.FxDispatcher
+import javafx.scene.chart.XYChart
+import javafx.util.Duration
+
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * An {@link XYChart.Series} for telemetry: any thread may append points and the chart is
+ * updated at most once per pulse.
+ *
+ * <p>Appends go into a lock-free ring of {@link #getCapacity()} pending points: a writer
+ * claims a slot with a compare-and-set, copies its point in and publishes it. Once per pulse
+ * the FX thread takes every published point, drops in one go the points that fell out of the
+ * window or beyond the capacity, and hands the rest to the chart with a single
+ * {@code setAll}. If the FX thread falls so far behind that the ring is full, new points are
+ * dropped and counted rather than blocking the writer.</p>
+ *
+ * <p>Points should be appended in increasing x order; the window is measured back from the
+ * newest x. {@link #append(double)} uses the current time in milliseconds as x, which matches
+ * a window given as a {@link Duration}.</p>
+ */
+@CompileStatic
+class LiveSeries {
+
+    static final int DEFAULT_CAPACITY = 10_000
+
+    final XYChart.Series<Number, Number> series = new XYChart.Series<Number, Number>()
+
+    /** Runs updates on the FX thread. */
+    Executor fxExecutor = { Runnable work -> FxDispatcher.default.dispatch(work) } as Executor
+
+    private volatile double window
+
+    private final double[] pendingX
+    private final double[] pendingY
+    // slot i holds sequence s once published.get(i) == s + 1
+    private final AtomicLongArray published
+    private final AtomicLong claimed = new AtomicLong()
+    private volatile long drained
+    private final AtomicBoolean scheduled = new AtomicBoolean()
+    private final Runnable flushTask = { flush() } as Runnable
+
+    private final ArrayDeque<XYChart.Data<Number, Number>> points
+    private volatile int shown
+
+    private final LongAdder appended = new LongAdder()
+    private final LongAdder dropped = new LongAdder()
+    private final LongAdder applied = new LongAdder()
+    private final LongAdder evicted = new LongAdder()
+    private final LongAdder flushes = new LongAdder()
+
+    LiveSeries() {
+        this(DEFAULT_CAPACITY)
+    }
+
+    LiveSeries(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive, got $capacity")
+        pendingX = new double[capacity]
+        pendingY = new double[capacity]
+        published = new AtomicLongArray(capacity)
+        points = new ArrayDeque<XYChart.Data<Number, Number>>(Math.min(capacity, 1024))
+    }
+
+    /** The most points shown, and the most points waiting for the next pulse. */
+    int getCapacity() {
+        return pendingX.length
+    }
+
+    String getName() {
+        return series.name
+    }
+
+    void setName(String name) {
+        series.name = name
+    }
+
+    /** How far back from the newest x points are kept, or 0 to keep up to the capacity. */
+    double getWindow() {
+        return window
+    }
+
+    void setWindow(double window) {
+        this.window = window
+    }
+
+    /** Keeps points appended within the duration, for x values in milliseconds. */
+    void setWindow(Duration window) {
+        this.window = window.toMillis()
+    }
+
+    /** Appends a point at the current time in milliseconds. Safe from any thread. */
+    boolean append(double y) {
+        return append((double) System.currentTimeMillis(), y)
+    }
+
+    /**
+     * Appends a point, to be shown on the next pulse. Safe from any thread and never blocks.
+     *
+     * @return false if the point was dropped because {@link #getCapacity()} points are
+     *         already waiting for the FX thread
+     */
+    boolean append(double x, double y) {
+        long sequence
+        while (true) {
+            sequence = claimed.get()
+            if (sequence - drained >= pendingX.length) {
+                dropped.increment()
+                return false
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) break
+        }
+        int slot = (int) (sequence % pendingX.length)
+        pendingX[slot] = x
+        pendingY[slot] = y
+        published.set(slot, sequence + 1)
+        appended.increment()
+        if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+            fxExecutor.execute(flushTask)
+        }
+        return true
+    }
+
+    /** Turns off the chart's animation, which would otherwise run for every point. */
+    void attach(XYChart<Number, Number> chart) {
+        chart.animated = false
+    }
+
+    /** Points shown by the series. */
+    int size() {
+        return series.data.size()
+    }
+
+    /**
+     * Applies the published points to the series. Runs on the FX thread once per pulse
+     * after an append; call it directly only from the FX thread.
+     */
+    void flush() {
+        // cleared first, so a point published after the drain below schedules another flush
+        scheduled.set(false)
+        long sequence = drained
+        long end = claimed.get()
+        int taken = 0
+        while (sequence < end) {
+            int slot = (int) (sequence % pendingX.length)
+            // a writer that claimed this slot has not finished; it schedules the next flush
+            if (published.get(slot) != sequence + 1) break
+            points.addLast(new XYChart.Data<Number, Number>(pendingX[slot], pendingY[slot]))
+            sequence++
+            taken++
+        }
+        drained = sequence
+        if (taken == 0) return
+
+        int removed = 0
+        while (points.size() > pendingX.length) {
+            points.pollFirst()
+            removed++
+        }
+        double span = window
+        if (span > 0) {
+            double oldest = points.peekLast().XValue.doubleValue() - span
+            while (points.peekFirst().XValue.doubleValue() < oldest) {
+                points.pollFirst()
+                removed++
+            }
+        }
+
+        series.data.setAll(points)
+        shown = points.size()
+        applied.add(taken)
+        evicted.add(removed)
+        flushes.increment()
+    }
+
+    /**
+     * Counters since the last {@link #resetStatistics()}: {@code appended}, {@code dropped}
+     * (the pending ring was full), {@code applied} (reached the chart), {@code evicted} (left
+     * the window or the capacity), {@code flushes}, plus the current {@code pending} and
+     * {@code size}.
+     */
+    Map<String, Long> statistics() {
+        Map<String, Long> stats = new LinkedHashMap<String, Long>()
+        stats.put('appended', appended.sum())
+        stats.put('dropped', dropped.sum())
+        stats.put('applied', applied.sum())
+        stats.put('evicted', evicted.sum())
+        stats.put('flushes', flushes.sum())
+        stats.put('pending', claimed.get() - drained)
+        stats.put('size', (long) shown)
+        return stats
+    }
+
+    void resetStatistics() {
+        appended.reset()
+        dropped.reset()
+        applied.reset()
+        evicted.reset()
+        flushes.reset()
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.chart
+
+import groovy.transform.CompileStatic
+
+/**
+ * Points of a series in two primitive {@code double[]} ring buffers.
+ *
+ * <p>Points are addressed by sequence number: the first point ever appended is 0 and
+ * numbers are never reused. Once {@link #getCapacity()} points are held, each append
+ * overwrites the oldest, so the points held are {@link #getFirstSequence()} up to
+ * {@link #getEndSequence()} (exclusive). The x values must not decrease, which lets
+ * {@link #sequenceOf(double)} find a visible range by binary search.</p>
+ *
+ * <p>Not thread safe.</p>
+ */
+@CompileStatic
+class XYBuffer {
+
+    private final double[] xs
+    private final double[] ys
+    private long first
+    private long end
+    private int next
+    private double lastX
+
+    XYBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive, got $capacity")
+        xs = new double[capacity]
+        ys = new double[capacity]
+    }
+
+    int getCapacity() {
+        return xs.length
+    }
+
+    /** The number of points held. */
+    int size() {
+        return (int) (end - first)
+    }
+
+    /** The sequence number of the oldest point held. */
+    long getFirstSequence() {
+        return first
+    }
+
+    /** The sequence number the next point will get. */
+    long getEndSequence() {
+        return end
+    }
+
+    void append(double x, double y) {
+        if (end > first && x < lastX) {
+            throw new IllegalArgumentException("x values must not decrease: $x after $lastX")
+        }
+        int slot = next
+        xs[slot] = x
+        ys[slot] = y
+        next = slot + 1 == xs.length ? 0 : slot + 1
+        lastX = x
+        end++
+        if (end - first > xs.length) first++
+    }
+
+    void appendAll(double[] newXs, double[] newYs, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            append(newXs[i], newYs[i])
+        }
+    }
+
+    /** Drops every point; sequence numbers continue from where they were. */
+    void clear() {
+        first = end
+    }
+
+    double x(long sequence) {
+        return xs[slot(sequence)]
+    }
+
+    double y(long sequence) {
+        return ys[slot(sequence)]
+    }
+
+    /** The first sequence held whose x is at least {@code x}, or the end sequence if none. */
+    long sequenceOf(double x) {
+        long low = first
+        long high = end
+        while (low < high) {
+            long middle = (low + high) >>> 1
+            if (xs[slot(middle)] < x) low = middle + 1
+            else high = middle
+        }
+        return low
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % xs.length)
+    }
+}
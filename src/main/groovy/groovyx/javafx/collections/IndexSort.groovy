@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.collections
+
+import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
+
+/**
+ * Stable sorts of an {@code int[]} of positions by keys, without boxing each position.
+ *
+ * <p>{@link #sort(int[], IndexComparator)} is a merge sort by any comparator.
+ * {@link #sortByInts(int[], Object[])} handles the common single numeric column much faster:
+ * each key and position is packed into one {@code long} and the longs are sorted as
+ * primitives, with ties left in position order.</p>
+ */
+@CompileStatic
+@PackageScope
+final class IndexSort {
+
+    private static final int INSERTION_THRESHOLD = 16
+
+    @FunctionalInterface
+    static interface IndexComparator {
+        int compare(int a, int b)
+    }
+
+    private IndexSort() {}
+
+    static void sort(int[] values, IndexComparator comparator) {
+        if (values.length < 2) return
+        int[] buffer = values.clone()
+        mergeSort(buffer, values, 0, values.length, comparator)
+    }
+
+    /**
+     * Sorts {@code 0 .. positions.length - 1} into {@code positions} by the keys at those
+     * indexes (the array of keys may be longer), in their natural order or reversed, if every key is an {@code Integer},
+     * {@code Short} or {@code Byte}. Returns {@code false}, leaving {@code positions} alone,
+     * otherwise.
+     */
+    static boolean sortByInts(int[] positions, Object[] keys, boolean ascending) {
+        long[] packed = new long[positions.length]
+        for (int i = 0; i < packed.length; i++) {
+            Object key = keys[i]
+            if (!(key instanceof Integer || key instanceof Short || key instanceof Byte)) return false
+            int value = ((Number) key).intValue()
+            packed[i] = ((long) (ascending ? value : ~value)) << 32 | i
+        }
+        Arrays.sort(packed)
+        for (int i = 0; i < packed.length; i++) positions[i] = (int) packed[i]
+        return true
+    }
+
+    /** Sorts {@code source[from..to)} into {@code target[from..to)}; both start out equal. */
+    private static void mergeSort(int[] source, int[] target, int from, int to, IndexComparator comparator) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = target[i]
+                int j = i - 1
+                while (j >= from && comparator.compare(target[j], value) > 0) {
+                    target[j + 1] = target[j]
+                    j--
+                }
+                target[j + 1] = value
+            }
+            return
+        }
+        int middle = (from + to) >>> 1
+        mergeSort(target, source, from, middle, comparator)
+        mergeSort(target, source, middle, to, comparator)
+        if (comparator.compare(source[middle - 1], source[middle]) <= 0) {
+            System.arraycopy(source, from, target, from, to - from)
+            return
+        }
+        int left = from
+        int right = middle
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(source[left], source[right]) <= 0)) {
+                target[i] = source[left++]
+            } else {
+                target[i] = source[right++]
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.collections
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.FxDispatcher
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation
+import javafx.event.EventHandler
+import javafx.scene.control.TreeItem
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+import java.util.function.BiConsumer
+import java.util.function.Supplier
+
+/**
+ * A {@link TreeItem} whose children are loaded the first time it is expanded.
+ *
+ * <p>On {@link TreeItem#branchExpandedEvent()} the item shows a single placeholder child and
+ * calls the loader with itself on the {@link #executor}. The loader returns the children:
+ * {@code TreeItem}s are used as they are, and any other value becomes a new
+ * {@code LazyTreeItem} with the same loader, unless {@link #leaf} says it has no children.
+ * They replace the placeholder in one change on the FX thread. If the loader fails the
+ * placeholder is removed and the next expand tries again. An item whose loader returned no
+ * children is a leaf.</p>
+ *
+ * <p>With {@link #maxLoaded} set, the items created by a tree of lazy items share a budget:
+ * when a branch collapses and more than {@code maxLoaded} children are loaded in the tree,
+ * the branches collapsed longest ago are unloaded, with their subtrees, until the tree is
+ * within budget. They load again on the next expand.</p>
+ */
+@CompileStatic
+class LazyTreeItem<T> extends TreeItem<T> {
+
+    static final String DEFAULT_PLACEHOLDER = 'Loading…'
+
+    /** Called with this item on the {@link #executor}; returns the children. */
+    final Closure<?> loader
+
+    /** Given a child value, true if it has no children and needs no loader. */
+    Closure<?> leaf
+
+    /** The value of the child shown while loading, or null for none. */
+    Object placeholder = DEFAULT_PLACEHOLDER
+
+    /** Runs the loader. */
+    Executor executor = ForkJoinPool.commonPool()
+
+    /** Delivers its result to the FX thread. */
+    Executor fxExecutor = { Runnable work -> FxDispatcher.default.dispatch(work) } as Executor
+
+    private Budget budget
+    private boolean loaded
+    private boolean loading
+    private boolean empty
+    private long generation
+
+    LazyTreeItem(Closure<?> loader) {
+        this(null, loader)
+    }
+
+    LazyTreeItem(T value, Closure<?> loader) {
+        super(value)
+        this.loader = loader
+        addEventHandler(TreeItem.<T>branchExpandedEvent(), { TreeItem.TreeModificationEvent<T> event ->
+            if (event.treeItem.is(this)) expanded()
+        } as EventHandler<TreeItem.TreeModificationEvent<T>>)
+        addEventHandler(TreeItem.<T>branchCollapsedEvent(), { TreeItem.TreeModificationEvent<T> event ->
+            if (event.treeItem.is(this)) collapsed()
+        } as EventHandler<TreeItem.TreeModificationEvent<T>>)
+    }
+
+    @Override
+    boolean isLeaf() {
+        return empty
+    }
+
+    /** True once the children have been loaded, until they are unloaded. */
+    boolean isLoaded() {
+        return loaded
+    }
+
+    /** Keeps at most this many children loaded across the tree, unloading collapsed branches; 0 for no limit. */
+    int getMaxLoaded() {
+        return budget == null ? 0 : budget.maxLoaded
+    }
+
+    void setMaxLoaded(int maxLoaded) {
+        if (budget == null) budget = new Budget()
+        budget.maxLoaded = maxLoaded
+    }
+
+    /** Drops the children and loads them again if the item is expanded. */
+    void refresh() {
+        unload()
+        if (isExpanded()) load()
+    }
+
+    private void expanded() {
+        if (budget != null) budget.collapsed.remove(this)
+        if (!loaded && !loading) load()
+    }
+
+    private void load() {
+        loading = true
+        long requested = ++generation
+        if (placeholder != null) {
+            getChildren().setAll(new TreeItem<T>((T) placeholder))
+        }
+        CompletableFuture.supplyAsync({ children(loader.call(this)) } as Supplier<List<TreeItem<T>>>, executor)
+                .whenComplete({ List<TreeItem<T>> children, Throwable error ->
+                    fxExecutor.execute { attach(requested, children, error) }
+                } as BiConsumer<List<TreeItem<T>>, Throwable>)
+    }
+
+    /** Turns what the loader returned into tree items; runs on the executor. */
+    private List<TreeItem<T>> children(Object result) {
+        Collection<?> values = result == null ? Collections.emptyList() : DefaultTypeTransformation.asCollection(result)
+        List<TreeItem<T>> items = new ArrayList<TreeItem<T>>(values.size())
+        for (Object value : values) {
+            if (value instanceof TreeItem) {
+                items.add((TreeItem<T>) value)
+            } else if (leaf != null && (boolean) leaf.call(value)) {
+                items.add(new TreeItem<T>((T) value))
+            } else {
+                items.add(child((T) value))
+            }
+        }
+        return items
+    }
+
+    private LazyTreeItem<T> child(T value) {
+        LazyTreeItem<T> child = new LazyTreeItem<T>(value, loader)
+        child.leaf = leaf
+        child.placeholder = placeholder
+        child.executor = executor
+        child.fxExecutor = fxExecutor
+        child.budget = budget
+        return child
+    }
+
+    private void attach(long requested, List<TreeItem<T>> children, Throwable error) {
+        if (requested != generation) return
+        loading = false
+        if (error != null) {
+            getChildren().clear()
+            report(error)
+            return
+        }
+        loaded = true
+        empty = children.isEmpty()
+        getChildren().setAll(children)
+        if (budget != null) {
+            budget.loadedCount += children.size()
+            if (!isExpanded()) collapsed()
+        }
+    }
+
+    private void collapsed() {
+        if (budget == null || !loaded) return
+        budget.collapsed.put(this, Boolean.TRUE)
+        Iterator<LazyTreeItem<?>> eldest = budget.collapsed.keySet().iterator()
+        while (budget.maxLoaded > 0 && budget.loadedCount > budget.maxLoaded && eldest.hasNext()) {
+            LazyTreeItem<?> item = eldest.next()
+            eldest.remove()
+            item.unload()
+            eldest = budget.collapsed.keySet().iterator()
+        }
+    }
+
+    private void unload() {
+        generation++
+        loading = false
+        if (loaded) {
+            loaded = false
+            empty = false
+            if (budget != null) {
+                budget.collapsed.remove(this)
+                budget.loadedCount -= getChildren().size()
+            }
+            for (TreeItem<T> child : getChildren()) {
+                if (child instanceof LazyTreeItem) ((LazyTreeItem<T>) child).unload()
+            }
+        }
+        getChildren().clear()
+    }
+
+    private static void report(Throwable error) {
+        Thread thread = Thread.currentThread()
+        thread.uncaughtExceptionHandler.uncaughtException(thread, error)
+    }
+
+    /** The loaded children of a tree of lazy items and its collapsed branches, least recently collapsed first. */
+    @CompileStatic
+    private static final class Budget {
+        int maxLoaded
+        int loadedCount
+        final LinkedHashMap<LazyTreeItem<?>, Boolean> collapsed = new LinkedHashMap<LazyTreeItem<?>, Boolean>()
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.collections
+
+import groovy.transform.CompileStatic
+
+/**
+ * A {@link RowProvider} over a list that is already in memory. Each fetch copies its window,
+ * so the list may be appended to from the FX thread while a fetch runs.
+ */
+@CompileStatic
+class ListRowProvider<T> implements RowProvider<T> {
+
+    final List<T> rows
+
+    ListRowProvider(List<T> rows) {
+        this.rows = rows
+    }
+
+    @Override
+    int getRowCount() {
+        return rows.size()
+    }
+
+    @Override
+    List<T> fetch(int offset, int count) {
+        return new ArrayList<T>(rows.subList(offset, Math.min(offset + count, rows.size())))
+    }
+}
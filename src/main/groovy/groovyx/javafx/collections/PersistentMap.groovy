@@ -0,0 +1,350 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.collections
+
+import groovy.transform.CompileStatic
+
+/**
+ * An immutable map that shares structure between versions.
+ *
+ * <p>Entries live in a hash array mapped trie, 32 ways wide. {@link #plus(Object, Object)} and
+ * {@link #minus(Object)} copy only the path from the root to the changed entry, so a new version
+ * of a map with n entries costs O(log32 n) memory and every older version stays valid. That
+ * makes it cheap to keep as {@link groovyx.javafx.Store} state with undo history.</p>
+ *
+ * <p>The {@link Map} mutators throw {@link UnsupportedOperationException}. Null keys and values
+ * are allowed.</p>
+ */
+@CompileStatic
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final PersistentMap EMPTY = new PersistentMap(null, 0)
+    private static final Object NOT_FOUND = new Object()
+    // Stands in for a null key, because a null key slot marks a child node
+    private static final Object NULL_KEY = new Object()
+
+    private final Node root
+    private final int count
+
+    private PersistentMap(Node root, int count) {
+        this.root = root
+        this.count = count
+    }
+
+    @SuppressWarnings('unchecked')
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY
+    }
+
+    static <K, V> PersistentMap<K, V> of(Map<? extends K, ? extends V> entries) {
+        if (entries instanceof PersistentMap) return (PersistentMap<K, V>) entries
+        return PersistentMap.<K, V> empty().plus(entries)
+    }
+
+    @Override
+    int size() {
+        return count
+    }
+
+    @Override
+    V get(Object key) {
+        if (root == null) return null
+        Object k = mask(key)
+        Object v = root.find(0, hash(k), k)
+        return v.is(NOT_FOUND) ? null : (V) v
+    }
+
+    @Override
+    boolean containsKey(Object key) {
+        if (root == null) return false
+        Object k = mask(key)
+        return !root.find(0, hash(k), k).is(NOT_FOUND)
+    }
+
+    /** This map with {@code key} mapped to {@code value}; this map if it already was. */
+    PersistentMap<K, V> plus(K key, V value) {
+        Object k = mask(key)
+        boolean[] added = new boolean[1]
+        Node start = root == null ? BitmapNode.EMPTY : root
+        Node next = start.assoc(0, hash(k), k, value, added)
+        if (next.is(root)) return this
+        return new PersistentMap<K, V>(next, added[0] ? count + 1 : count)
+    }
+
+    /** This map with all the entries of {@code entries} added. */
+    PersistentMap<K, V> plus(Map<? extends K, ? extends V> entries) {
+        PersistentMap<K, V> result = this
+        for (Map.Entry<? extends K, ? extends V> e : entries.entrySet()) {
+            result = result.plus((K) e.key, (V) e.value)
+        }
+        return result
+    }
+
+    /** This map without {@code key}; this map if it had no such key. */
+    PersistentMap<K, V> minus(Object key) {
+        if (root == null) return this
+        Object k = mask(key)
+        Node next = root.without(0, hash(k), k)
+        if (next.is(root)) return this
+        return next == null ? PersistentMap.<K, V> empty() : new PersistentMap<K, V>(next, count - 1)
+    }
+
+    @Override
+    Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<K, V>(root)
+            }
+
+            @Override
+            int size() {
+                return count
+            }
+        }
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key
+    }
+
+    private static Object unmask(Object key) {
+        return key.is(NULL_KEY) ? null : key
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode()
+        return h ^ (h >>> 16)
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 31)
+    }
+
+    private static Object[] cloneAndSet(Object[] array, int i, Object a) {
+        Object[] copy = Arrays.copyOf(array, array.length)
+        copy[i] = a
+        return copy
+    }
+
+    private static Object[] cloneAndSet(Object[] array, int i, Object a, int j, Object b) {
+        Object[] copy = Arrays.copyOf(array, array.length)
+        copy[i] = a
+        copy[j] = b
+        return copy
+    }
+
+    private static Object[] removePair(Object[] array, int i) {
+        Object[] copy = new Object[array.length - 2]
+        System.arraycopy(array, 0, copy, 0, 2 * i)
+        System.arraycopy(array, 2 * (i + 1), copy, 2 * i, copy.length - 2 * i)
+        return copy
+    }
+
+    private static Node createNode(int shift, Object key1, Object val1, int hash2, Object key2, Object val2) {
+        int hash1 = hash(key1)
+        if (hash1 == hash2) return new CollisionNode(hash1, [key1, val1, key2, val2] as Object[])
+        boolean[] added = new boolean[1]
+        return BitmapNode.EMPTY.assoc(shift, hash1, key1, val1, added).assoc(shift, hash2, key2, val2, added)
+    }
+
+    /** Key and value pairs; in a {@link BitmapNode} a null key means the value is a child node. */
+    private static abstract class Node {
+        final Object[] array
+
+        Node(Object[] array) {
+            this.array = array
+        }
+
+        abstract Object find(int shift, int hash, Object key)
+
+        abstract Node assoc(int shift, int hash, Object key, Object value, boolean[] added)
+
+        /** Null when the node ends up empty. */
+        abstract Node without(int shift, int hash, Object key)
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0])
+
+        final int bitmap
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array)
+            this.bitmap = bitmap
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1))
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift)
+            if ((bitmap & bit) == 0) return NOT_FOUND
+            int i = index(bit)
+            Object k = array[2 * i]
+            Object v = array[2 * i + 1]
+            if (k == null) return ((Node) v).find(shift + 5, hash, key)
+            return k.equals(key) ? v : NOT_FOUND
+        }
+
+        @Override
+        Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bitpos(hash, shift)
+            int i = index(bit)
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * i]
+                Object v = array[2 * i + 1]
+                if (k == null) {
+                    Node child = ((Node) v).assoc(shift + 5, hash, key, value, added)
+                    return child.is(v) ? this : new BitmapNode(bitmap, cloneAndSet(array, 2 * i + 1, child))
+                }
+                if (k.equals(key)) {
+                    return v.is(value) ? this : new BitmapNode(bitmap, cloneAndSet(array, 2 * i + 1, value))
+                }
+                added[0] = true
+                return new BitmapNode(bitmap, cloneAndSet(array, 2 * i, null, 2 * i + 1,
+                        createNode(shift + 5, k, v, hash, key, value)))
+            }
+            Object[] copy = new Object[array.length + 2]
+            System.arraycopy(array, 0, copy, 0, 2 * i)
+            copy[2 * i] = key
+            copy[2 * i + 1] = value
+            System.arraycopy(array, 2 * i, copy, 2 * (i + 1), array.length - 2 * i)
+            added[0] = true
+            return new BitmapNode(bitmap | bit, copy)
+        }
+
+        @Override
+        Node without(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift)
+            if ((bitmap & bit) == 0) return this
+            int i = index(bit)
+            Object k = array[2 * i]
+            Object v = array[2 * i + 1]
+            if (k == null) {
+                Node child = ((Node) v).without(shift + 5, hash, key)
+                if (child.is(v)) return this
+                if (child != null) return new BitmapNode(bitmap, cloneAndSet(array, 2 * i + 1, child))
+            } else if (!k.equals(key)) {
+                return this
+            }
+            return bitmap == bit ? null : new BitmapNode(bitmap ^ bit, removePair(array, i))
+        }
+    }
+
+    // Keys whose full hashes are equal
+    private static final class CollisionNode extends Node {
+        final int hash
+
+        CollisionNode(int hash, Object[] array) {
+            super(array)
+            this.hash = hash
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) return i
+            }
+            return -1
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) return NOT_FOUND
+            int i = indexOf(key)
+            return i < 0 ? NOT_FOUND : array[i + 1]
+        }
+
+        @Override
+        Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                Node parent = new BitmapNode(bitpos(this.hash, shift), [null, this] as Object[])
+                return parent.assoc(shift, hash, key, value, added)
+            }
+            int i = indexOf(key)
+            if (i >= 0) {
+                return array[i + 1].is(value) ? this : new CollisionNode(hash, cloneAndSet(array, i + 1, value))
+            }
+            Object[] copy = Arrays.copyOf(array, array.length + 2)
+            copy[array.length] = key
+            copy[array.length + 1] = value
+            added[0] = true
+            return new CollisionNode(hash, copy)
+        }
+
+        @Override
+        Node without(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1
+            if (i < 0) return this
+            if (array.length == 2) return null
+            return new CollisionNode(hash, removePair(array, i >> 1))
+        }
+    }
+
+    // Depth-first over the trie; a stack of arrays and the position reached in each
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Object[]> arrays = new ArrayDeque<Object[]>()
+        private final Deque<Integer> positions = new ArrayDeque<Integer>()
+        private Map.Entry<K, V> next
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                arrays.push(root.array)
+                positions.push(0)
+            }
+            advance()
+        }
+
+        private void advance() {
+            next = null
+            while (!arrays.isEmpty()) {
+                Object[] array = arrays.peek()
+                int pos = positions.pop()
+                if (pos >= array.length) {
+                    arrays.pop()
+                    continue
+                }
+                positions.push(pos + 2)
+                Object k = array[pos]
+                Object v = array[pos + 1]
+                if (k == null) {
+                    arrays.push(((Node) v).array)
+                    positions.push(0)
+                } else {
+                    next = new AbstractMap.SimpleImmutableEntry<K, V>((K) unmask(k), (V) v)
+                    return
+                }
+            }
+        }
+
+        @Override
+        boolean hasNext() {
+            return next != null
+        }
+
+        @Override
+        Map.Entry<K, V> next() {
+            if (next == null) throw new NoSuchElementException()
+            Map.Entry<K, V> current = next
+            advance()
+            return current
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.collections
+
+import groovy.transform.CompileStatic
+
+/**
+ * An immutable list that shares structure between versions.
+ *
+ * <p>Elements live in a trie of 32-element arrays, with the last (up to) 32 elements in a
+ * separate tail. {@link #plus(Object)}, {@link #replace(int, Object)} and {@link #pop()} copy
+ * only the path to the changed element, so a new version costs O(log32 n) memory and older
+ * versions stay valid. Appending mostly touches only the tail.</p>
+ *
+ * <p>The {@link List} mutators throw {@link UnsupportedOperationException}.</p>
+ */
+@CompileStatic
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final Object[] EMPTY_NODE = new Object[32]
+    private static final PersistentVector EMPTY = new PersistentVector(0, 5, EMPTY_NODE, new Object[0])
+
+    private final int count
+    private final int shift
+    private final Object[] root
+    private final Object[] tail
+
+    private PersistentVector(int count, int shift, Object[] root, Object[] tail) {
+        this.count = count
+        this.shift = shift
+        this.root = root
+        this.tail = tail
+    }
+
+    @SuppressWarnings('unchecked')
+    static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY
+    }
+
+    static <E> PersistentVector<E> of(Iterable<? extends E> elements) {
+        if (elements instanceof PersistentVector) return (PersistentVector<E>) elements
+        return PersistentVector.<E> empty().plus(elements)
+    }
+
+    @Override
+    int size() {
+        return count
+    }
+
+    @Override
+    E get(int index) {
+        return (E) arrayFor(index)[index & 31]
+    }
+
+    /** This vector with {@code value} appended. */
+    PersistentVector<E> plus(E value) {
+        int inTail = count - tailOffset()
+        if (inTail < 32) {
+            Object[] newTail = Arrays.copyOf(tail, inTail + 1)
+            newTail[inTail] = value
+            return new PersistentVector<E>(count + 1, shift, root, newTail)
+        }
+        // The tail is full: move it into the trie
+        Object[] newRoot
+        int newShift = shift
+        if ((count >>> 5) > (1 << shift)) {
+            newRoot = new Object[32]
+            newRoot[0] = root
+            newRoot[1] = newPath(shift, tail)
+            newShift += 5
+        } else {
+            newRoot = pushTail(shift, root, tail)
+        }
+        return new PersistentVector<E>(count + 1, newShift, newRoot, [value] as Object[])
+    }
+
+    /** This vector with all of {@code elements} appended. */
+    PersistentVector<E> plus(Iterable<? extends E> elements) {
+        PersistentVector<E> result = this
+        for (E e : elements) {
+            result = result.plus(e)
+        }
+        return result
+    }
+
+    /** This vector with the element at {@code index} replaced by {@code value}. */
+    PersistentVector<E> replace(int index, E value) {
+        checkIndex(index)
+        if (index >= tailOffset()) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length)
+            newTail[index & 31] = value
+            return new PersistentVector<E>(count, shift, root, newTail)
+        }
+        return new PersistentVector<E>(count, shift, replaced(shift, root, index, value), tail)
+    }
+
+    /** This vector without its last element. */
+    PersistentVector<E> pop() {
+        if (count == 0) throw new IllegalStateException('Cannot pop an empty vector')
+        if (count == 1) return empty()
+        if (count - tailOffset() > 1) {
+            return new PersistentVector<E>(count - 1, shift, root, Arrays.copyOf(tail, tail.length - 1))
+        }
+        // The tail becomes empty: the last leaf of the trie becomes the new tail
+        Object[] newTail = arrayFor(count - 2)
+        Object[] newRoot = popTail(shift, root)
+        int newShift = shift
+        if (newRoot == null) newRoot = EMPTY_NODE
+        if (shift > 5 && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0]
+            newShift -= 5
+        }
+        return new PersistentVector<E>(count - 1, newShift, newRoot, newTail)
+    }
+
+    private int tailOffset() {
+        return count < 32 ? 0 : ((count - 1) >>> 5) << 5
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Index: ${index}, size: ${count}".toString())
+    }
+
+    private Object[] arrayFor(int index) {
+        checkIndex(index)
+        if (index >= tailOffset()) return tail
+        Object[] node = root
+        for (int level = shift; level > 0; level -= 5) {
+            node = (Object[]) node[(index >>> level) & 31]
+        }
+        return node
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int sub = ((count - 1) >>> level) & 31
+        Object[] copy = Arrays.copyOf(parent, parent.length)
+        Object[] insert
+        if (level == 5) {
+            insert = tailNode
+        } else {
+            Object[] child = (Object[]) parent[sub]
+            insert = child != null ? pushTail(level - 5, child, tailNode) : newPath(level - 5, tailNode)
+        }
+        copy[sub] = insert
+        return copy
+    }
+
+    private Object[] popTail(int level, Object[] node) {
+        int sub = ((count - 2) >>> level) & 31
+        if (level > 5) {
+            Object[] child = popTail(level - 5, (Object[]) node[sub])
+            if (child == null && sub == 0) return null
+            Object[] copy = Arrays.copyOf(node, node.length)
+            copy[sub] = child
+            return copy
+        }
+        if (sub == 0) return null
+        Object[] copy = Arrays.copyOf(node, node.length)
+        copy[sub] = null
+        return copy
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) return node
+        Object[] path = new Object[32]
+        path[0] = newPath(level - 5, node)
+        return path
+    }
+
+    private static Object[] replaced(int level, Object[] node, int index, Object value) {
+        Object[] copy = Arrays.copyOf(node, node.length)
+        if (level == 0) {
+            copy[index & 31] = value
+        } else {
+            int sub = (index >>> level) & 31
+            copy[sub] = replaced(level - 5, (Object[]) node[sub], index, value)
+        }
+        return copy
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.collections
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.FxDispatcher
+import javafx.beans.value.ObservableValue
+import javafx.collections.ObservableList
+import javafx.collections.ObservableListBase
+import javafx.scene.control.TableColumn
+import javafx.scene.control.TableView
+import javafx.scene.control.cell.PropertyValueFactory
+import javafx.util.Callback
+import org.codehaus.groovy.runtime.InvokerHelper
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+import java.util.function.BiConsumer
+import java.util.function.Supplier
+
+/**
+ * Table rows fetched a page at a time from a {@link RowProvider}.
+ *
+ * <p>{@link #getRows()} is an {@link ObservableList} with one element per row that never
+ * holds more than {@code maxPages} pages of rows. Reading a row whose page is not loaded
+ * returns {@code null}, which a {@link TableView} shows as an empty row, and asks the
+ * {@link #executor} to fetch the page. The page is put in the cache on the FX thread through
+ * {@link #fxExecutor} and its rows are reported as replaced, so only the rows the table is
+ * showing are ever fetched. Pages are evicted least recently used first.</p>
+ *
+ * <p>{@link #sortBy(List)} and {@link #filter(Closure)} never move rows around: they read
+ * every row once on the background executor, build an array of source row positions and
+ * swap it in on the FX thread in one change. Only the latest sort or filter is applied if
+ * several are running. Pages then hold consecutive rows of the sorted and filtered view and
+ * are fetched with {@link RowProvider#fetchAt(int[])}, so scrolling a sorted table costs no
+ * more fetches than scrolling an unsorted one.</p>
+ *
+ * <p>Apart from {@code fetch}, the filter and the sort comparators, everything runs on the
+ * FX thread.</p>
+ */
+@CompileStatic
+class TableDataSource<T> {
+
+    /** The {@code TableColumn} property that holds the row property a column shows. */
+    static final String PROPERTY_KEY = 'groovyfx.property'
+
+    static final int DEFAULT_PAGE_SIZE = 256
+    static final int DEFAULT_MAX_PAGES = 64
+
+    private static final Comparator<Object> NATURAL =
+            (Comparator<Object>) Comparator.nullsFirst(Comparator.<Comparable>naturalOrder())
+
+    final RowProvider<T> provider
+    final int pageSize
+    final int maxPages
+
+    /** Runs fetches, sorts and filters. */
+    Executor executor = ForkJoinPool.commonPool()
+
+    /** Delivers their results to the FX thread. */
+    Executor fxExecutor = { Runnable work -> FxDispatcher.default.dispatch(work) } as Executor
+
+    private final Rows rows = new Rows()
+    private final Map<Integer, List<T>> pages
+    private final Set<Integer> loading = new HashSet<Integer>()
+    private int sourceSize
+    private View view
+    private long generation
+    private long viewGeneration
+    private Closure<?> rowFilter
+    private List<SortKey> sortKeys = Collections.<SortKey>emptyList()
+
+    TableDataSource(RowProvider<T> provider, int pageSize = DEFAULT_PAGE_SIZE, int maxPages = DEFAULT_MAX_PAGES) {
+        if (pageSize < 1 || maxPages < 1) {
+            throw new IllegalArgumentException("pageSize and maxPages must be positive, got $pageSize and $maxPages")
+        }
+        this.provider = provider
+        this.pageSize = pageSize
+        this.maxPages = maxPages
+        this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages
+            }
+        }
+        this.sourceSize = provider.rowCount
+    }
+
+    /** The rows, in sorted and filtered order. Use it as the items of a {@link TableView}. */
+    ObservableList<T> getRows() {
+        return rows
+    }
+
+    /** The number of rows the provider reported at the last refresh. */
+    int getSourceSize() {
+        return sourceSize
+    }
+
+    /** The number of pages in the cache. */
+    int getCachedPages() {
+        return pages.size()
+    }
+
+    /**
+     * Drops the cached pages and reads the row count again, then reapplies the current sort
+     * and filter. Fetches still running are ignored when they finish.
+     */
+    void refresh() {
+        dropPages()
+        int oldSize = rows.size()
+        sourceSize = provider.rowCount
+        view = null
+        rows.reset(oldSize)
+        updateView()
+    }
+
+    /**
+     * Sorts the rows by the keys, the first key deciding first. An empty list restores the
+     * provider's order.
+     */
+    void sortBy(List<SortKey> keys) {
+        sortKeys = keys == null ? Collections.<SortKey>emptyList() : new ArrayList<SortKey>(keys)
+        updateView()
+    }
+
+    /** Keeps only the rows the closure accepts; {@code null} keeps every row. */
+    void filter(Closure<?> predicate) {
+        rowFilter = predicate
+        updateView()
+    }
+
+    /**
+     * Shows the rows in the table and sorts through this data source when the table's sort
+     * order changes. Columns are sorted by the row property recorded under
+     * {@link #PROPERTY_KEY} or named by their {@link PropertyValueFactory}, using the
+     * column's comparator.
+     */
+    void install(TableView<T> table) {
+        table.items = rows
+        table.sortPolicy = { TableView<T> sorted ->
+            List<SortKey> keys = new ArrayList<SortKey>()
+            for (TableColumn<T, ?> column : sorted.sortOrder) {
+                String property = propertyOf(column)
+                if (property != null) {
+                    // the default column comparator is natural order, which has a faster path
+                    Comparator<?> comparator = column.comparator.is(TableColumn.DEFAULT_COMPARATOR) ?
+                            null : (Comparator<?>) column.comparator
+                    keys.add(new SortKey(property, column.sortType == TableColumn.SortType.ASCENDING, comparator))
+                }
+            }
+            sortBy(keys)
+            return Boolean.TRUE
+        } as Callback<TableView<T>, Boolean>
+    }
+
+    private static String propertyOf(TableColumn<?, ?> column) {
+        Object property = column.properties.get(PROPERTY_KEY)
+        if (property == null && column.cellValueFactory instanceof PropertyValueFactory) {
+            property = ((PropertyValueFactory<?, ?>) column.cellValueFactory).property
+        }
+        return property?.toString()
+    }
+
+    private T rowAt(int index) {
+        int page = Math.floorDiv(index, pageSize)
+        List<T> loaded = pages.get(page)
+        if (loaded == null) {
+            load(page)
+            loaded = pages.get(page)
+            if (loaded == null) return null
+        }
+        return loaded.get(index - page * pageSize)
+    }
+
+    private void load(int page) {
+        if (!loading.add(page)) return
+        long requested = generation
+        int offset = page * pageSize
+        int count = Math.min(pageSize, rows.size() - offset)
+        int[] positions = view == null ? null : Arrays.copyOfRange(view.order, offset, offset + count)
+        Supplier<List<T>> fetch = positions == null ?
+                { provider.fetch(offset, count) } as Supplier<List<T>> :
+                { provider.fetchAt(positions) } as Supplier<List<T>>
+        CompletableFuture.supplyAsync(fetch, executor)
+                .whenComplete({ List<T> fetched, Throwable error ->
+                    fxExecutor.execute { loaded(requested, page, fetched, error) }
+                } as BiConsumer<List<T>, Throwable>)
+    }
+
+    private void loaded(long requested, int page, List<T> fetched, Throwable error) {
+        if (requested != generation) return
+        loading.remove(page)
+        if (error != null) {
+            report(error)
+            return
+        }
+        pages.put(page, fetched)
+        int first = page * pageSize
+        rows.replaced(first, Math.min(first + fetched.size(), rows.size()))
+    }
+
+    private void dropPages() {
+        generation++
+        pages.clear()
+        loading.clear()
+    }
+
+    private void updateView() {
+        long requested = ++viewGeneration
+        Closure<?> predicate = rowFilter
+        List<SortKey> keys = sortKeys
+        int total = sourceSize
+        if (predicate == null && keys.isEmpty()) {
+            applyView(requested, null)
+            return
+        }
+        CompletableFuture.supplyAsync({ computeView(predicate, keys, total) } as Supplier<View>, executor)
+                .whenComplete({ View computed, Throwable error ->
+                    fxExecutor.execute {
+                        if (error != null) report(error)
+                        else applyView(requested, computed)
+                    }
+                } as BiConsumer<View, Throwable>)
+    }
+
+    private void applyView(long requested, View computed) {
+        if (requested != viewGeneration || (computed != null && computed.sourceSize != sourceSize)) return
+        if (computed == null && view == null) return
+        int oldSize = rows.size()
+        dropPages()
+        view = computed
+        rows.reset(oldSize)
+    }
+
+    /** Reads every row once, in windows of several pages, off the FX thread. */
+    private View computeView(Closure<?> predicate, List<SortKey> keys, int total) {
+        int[] matched = new int[predicate == null ? total : Math.min(total, 1024)]
+        Object[][] values = new Object[keys.size()][]
+        for (int k = 0; k < values.length; k++) values[k] = new Object[matched.length]
+        int count = 0
+        int window = pageSize * 16
+        for (int offset = 0; offset < total; offset += window) {
+            List<T> fetched = provider.fetch(offset, Math.min(window, total - offset))
+            for (int i = 0; i < fetched.size(); i++) {
+                T row = fetched.get(i)
+                if (predicate != null && !predicate.call(row)) continue
+                if (count == matched.length) {
+                    int grown = Math.min(total, count * 2)
+                    matched = Arrays.copyOf(matched, grown)
+                    for (int k = 0; k < values.length; k++) values[k] = Arrays.copyOf(values[k], grown)
+                }
+                matched[count] = offset + i
+                for (int k = 0; k < values.length; k++) values[k][count] = keys.get(k).valueOf(row)
+                count++
+            }
+        }
+        int[] order = new int[count]
+        if (keys.isEmpty()) {
+            System.arraycopy(matched, 0, order, 0, count)
+        } else {
+            int[] sorted = new int[count]
+            SortKey only = keys.size() == 1 ? keys.get(0) : null
+            if (only == null || !only.natural || !IndexSort.sortByInts(sorted, values[0], only.ascending)) {
+                for (int i = 0; i < count; i++) sorted[i] = i
+                IndexSort.sort(sorted, new KeyComparator(keys, values))
+            }
+            for (int i = 0; i < count; i++) order[i] = matched[sorted[i]]
+        }
+        return new View(order, total)
+    }
+
+    private static void report(Throwable error) {
+        Thread thread = Thread.currentThread()
+        thread.uncaughtExceptionHandler.uncaughtException(thread, error)
+    }
+
+    /** One column of a sort: a row property, its direction and how its values compare. */
+    @CompileStatic
+    static final class SortKey {
+        final String property
+        final boolean ascending
+        final Comparator<Object> comparator
+
+        SortKey(String property, boolean ascending = true, Comparator<?> comparator = null) {
+            this.property = property
+            this.ascending = ascending
+            this.comparator = comparator == null ? NATURAL : (Comparator<Object>) comparator
+        }
+
+        private volatile Accessor accessor
+
+        /** The property of a map or bean row, unwrapped if it is an observable value. */
+        Object valueOf(Object row) {
+            if (row == null) return null
+            Object value
+            if (row instanceof Map) {
+                value = ((Map) row).get(property)
+            } else {
+                // rows are nearly always of one class, so the lookup is done once per sort
+                Accessor current = accessor
+                if (current == null || current.rowClass != row.getClass()) {
+                    current = accessor = new Accessor(row.getClass(),
+                            InvokerHelper.getMetaClass(row).getMetaProperty(property))
+                }
+                value = current.metaProperty != null ?
+                        current.metaProperty.getProperty(row) : InvokerHelper.getProperty(row, property)
+            }
+            return value instanceof ObservableValue ? ((ObservableValue) value).value : value
+        }
+
+        /** Whether values compare in their natural order, nulls first. */
+        boolean isNatural() {
+            return comparator.is(NATURAL)
+        }
+
+        int compare(Object a, Object b) {
+            int c = comparator.compare(a, b)
+            return ascending ? c : -c
+        }
+    }
+
+    private static final class Accessor {
+        final Class<?> rowClass
+        final MetaProperty metaProperty
+
+        Accessor(Class<?> rowClass, MetaProperty metaProperty) {
+            this.rowClass = rowClass
+            this.metaProperty = metaProperty
+        }
+    }
+
+    /** Compares positions by their values for each sort key in turn. */
+    private static final class KeyComparator implements IndexSort.IndexComparator {
+        private final SortKey[] keys
+        private final Object[][] values
+
+        KeyComparator(List<SortKey> keys, Object[][] values) {
+            this.keys = keys.toArray(new SortKey[0])
+            this.values = values
+        }
+
+        @Override
+        int compare(int a, int b) {
+            for (int k = 0; k < keys.length; k++) {
+                int c = keys[k].compare(values[k][a], values[k][b])
+                if (c != 0) return c
+            }
+            return 0
+        }
+    }
+
+    private static final class View {
+        /** Source position of each row shown. */
+        final int[] order
+        /** The provider's row count the view was computed for. */
+        final int sourceSize
+
+        View(int[] order, int sourceSize) {
+            this.order = order
+            this.sourceSize = sourceSize
+        }
+    }
+
+    private final class Rows extends ObservableListBase<T> {
+
+        @Override
+        T get(int index) {
+            Objects.checkIndex(index, size())
+            return rowAt(index)
+        }
+
+        @Override
+        int size() {
+            return view == null ? sourceSize : view.order.length
+        }
+
+        /** Every row changed, and there were {@code oldSize} of them. */
+        void reset(int oldSize) {
+            beginChange()
+            nextReplace(0, size(), new Placeholders<T>(oldSize))
+            endChange()
+        }
+
+        void replaced(int from, int to) {
+            if (from >= to) return
+            beginChange()
+            nextReplace(from, to, new Placeholders<T>(to - from))
+            endChange()
+        }
+    }
+
+    /** What the replaced rows were: not loaded, so shown as empty. */
+    private static final class Placeholders<E> extends AbstractList<E> {
+        private final int size
+
+        Placeholders(int size) {
+            this.size = size
+        }
+
+        @Override
+        E get(int index) {
+            return null
+        }
+
+        @Override
+        int size() {
+            return size
+        }
+    }
+}
@@ -17,25 +17,64 @@
  */
 package groovyx.javafx.components
 
+import javafx.animation.PauseTransition
+import javafx.application.Platform
+import javafx.beans.property.BooleanProperty
+import javafx.beans.property.DoubleProperty
+import javafx.beans.property.ObjectProperty
+import javafx.beans.property.SimpleBooleanProperty
+import javafx.beans.property.SimpleDoubleProperty
+import javafx.beans.property.SimpleObjectProperty
+import javafx.beans.property.SimpleStringProperty
+import javafx.beans.property.StringProperty
+import javafx.beans.value.ChangeListener
+import javafx.event.EventHandler
+import javafx.scene.Group
+import javafx.scene.image.ImageView
 import javafx.scene.layout.StackPane
 import javafx.scene.paint.Color
 import javafx.scene.paint.Paint
 import javafx.scene.shape.SVGPath
-import javafx.beans.property.StringProperty
-import javafx.beans.property.SimpleStringProperty
-import javafx.beans.property.ObjectProperty
-import javafx.beans.property.SimpleObjectProperty
+import javafx.stage.Screen
+import javafx.util.Duration
+
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * A modern Icon component that supports SVG paths.
+ *
+ * <p>Icons are drawn {@code size} pixels square from paths in a 24-unit square. By default
+ * each icon is shown as an {@link ImageView} viewport into {@link IconAtlas#getDefault()}, so
+ * a path is rasterized once per size, fill and output scale however many icons show it. An
+ * icon whose fill is bound, or with {@code rasterized} false, draws a live {@link SVGPath}
+ * instead. So does an icon whose fill changes more than {@link #ANIMATED_FILL_CHANGES} times
+ * within {@link #ANIMATED_FILL_WINDOW}, as it does when a timeline animates it, until the fill
+ * has kept its value for {@link #SETTLE_DELAY}; then the final fill is rasterized.</p>
  */
 class Icon extends StackPane {
-    private final SVGPath path = new SVGPath()
+    static final int ANIMATED_FILL_CHANGES = 3
+    static final Duration ANIMATED_FILL_WINDOW = Duration.seconds(1)
+    static final Duration SETTLE_DELAY = Duration.millis(500)
+
     private final StringProperty iconName = new SimpleStringProperty(this, "iconName")
     private final ObjectProperty<Paint> fill = new SimpleObjectProperty<>(this, "fill", Color.BLACK)
+    private final DoubleProperty size = new SimpleDoubleProperty(this, "size", IconAtlas.VIEWBOX)
+    private final BooleanProperty rasterized = new SimpleBooleanProperty(this, "rasterized", true)
+
+    private String content
+    private boolean dirty
+    private ImageView view
+    private SVGPath path
+
+    // Fill changes since the last refresh, and how many there were in the current window
+    private volatile boolean fillChanged
+    private long fillWindowStart
+    private int fillChanges
+    private boolean animated
+    private PauseTransition settle
 
-    // A small built-in library of common icons
-    private static final Map<String, String> LIBRARY = [
+    // A small built-in library of common icons; add more with register and registerAll
+    private static final Map<String, String> LIBRARY = new ConcurrentHashMap<String, String>([
         "save": "M17 3H5c-1.11 0-2 .9-2 2v14c0 1.1.89 2 2 2h14c1.1 0 2-.9 2-2V7l-4-4zm-5 16c-1.66 0-3-1.34-3-3s1.34-3 3-3 3 1.34 3 3-1.34 3-3 3zm3-10H5V5h10v4z",
         "edit": "M3 17.25V21h3.75L17.81 9.94l-3.75-3.75L3 17.25zM20.71 7.04c.39-.39.39-1.02 0-1.41l-2.34-2.34c-.39-.39-1.02-.39-1.41 0l-1.83 1.83 3.75 3.75 1.83-1.83z",
         "delete": "M6 19c0 1.1.9 2 2 2h8c1.1 0 2-.9 2-2V7H6v12zM19 4h-3.5l-1-1h-5l-1 1H5v2h14V4z",
@@ -43,17 +82,44 @@ class Icon extends StackPane {
         "info": "M12 2C6.48 2 2 6.48 2 12s4.48 10 10 10 10-4.48 10-10S17.52 2 12 2zm1 15h-2v-6h2v6zm0-8h-2V7h2v2z",
         "warning": "M1 21h22L12 2 1 21zm12-3h-2v-2h2v2zm0-4h-2v-4h2v4z",
         "check": "M9 16.17L4.83 12l-1.42 1.41L9 19 21 7l-1.41-1.41z"
-    ]
+    ])
 
     Icon() {
-        getChildren().add(path)
-        path.fillProperty().bind(fill)
-        
+        ChangeListener changed = { obs, old, value -> invalidateIcon() } as ChangeListener
         iconName.addListener { obs, old, name ->
             if (LIBRARY.containsKey(name)) {
-                path.setContent(LIBRARY[name])
+                content = LIBRARY[name]
+                invalidateIcon()
             }
         }
+        fill.addListener({ obs, old, value ->
+            fillChanged = true
+            invalidateIcon()
+        } as ChangeListener)
+        size.addListener(changed)
+        rasterized.addListener(changed)
+        sceneProperty().addListener(changed)
+    }
+
+    /** Adds an icon, or replaces one, for icons created from now on. */
+    static void register(String name, String svgPath) {
+        LIBRARY.put(name, svgPath)
+    }
+
+    /** Adds a set of icons, named {@code prefix:name} when a prefix is given. */
+    static void registerAll(String prefix = null, Map<String, String> icons) {
+        icons.each { name, svgPath -> LIBRARY.put(prefix ? "$prefix:$name".toString() : name, svgPath) }
+    }
+
+    /** Adds the icons in a properties file of {@code name=path} lines. */
+    static void registerAll(String prefix = null, URL properties) {
+        Properties icons = new Properties()
+        properties.withInputStream { icons.load(it) }
+        registerAll(prefix, (Map<String, String>) icons)
+    }
+
+    static boolean isRegistered(String name) {
+        LIBRARY.containsKey(name)
     }
 
     StringProperty iconNameProperty() { iconName }
@@ -64,7 +130,112 @@ class Icon extends StackPane {
     Paint getFill() { fill.get() }
     void setFill(Paint fill) { this.fill.set(fill) }
 
+    DoubleProperty sizeProperty() { size }
+    double getSize() { size.get() }
+    void setSize(double size) { this.size.set(size) }
+
+    BooleanProperty rasterizedProperty() { rasterized }
+    boolean isRasterized() { rasterized.get() }
+    void setRasterized(boolean rasterized) { this.rasterized.set(rasterized) }
+
     void setContent(String content) {
-        path.setContent(content)
+        this.content = content
+        invalidateIcon()
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        refreshIcon()
+        return super.computePrefWidth(height)
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        refreshIcon()
+        return super.computePrefHeight(width)
+    }
+
+    @Override
+    protected void layoutChildren() {
+        refreshIcon()
+        super.layoutChildren()
+    }
+
+    private void invalidateIcon() {
+        dirty = true
+        requestLayout()
+    }
+
+    /** Shows the current icon; rasterizing needs the FX thread, so elsewhere it waits for layout. */
+    private void refreshIcon() {
+        if (!dirty || !Platform.isFxApplicationThread()) return
+        dirty = false
+        if (fillChanged) {
+            fillChanged = false
+            countFillChange()
+        }
+        if (content == null) {
+            getChildren().clear()
+        } else if (!rasterized.get() || fill.isBound() || animated) {
+            showPath()
+        } else {
+            showRaster()
+        }
+    }
+
+    // A fill that keeps changing is drawn as a path until it settles, rather than rasterizing
+    // every frame of the animation into the atlas
+    private void countFillChange() {
+        long now = System.nanoTime()
+        if (now - fillWindowStart > (long) (ANIMATED_FILL_WINDOW.toMillis() * 1_000_000d)) {
+            fillWindowStart = now
+            fillChanges = 0
+        }
+        if (++fillChanges > ANIMATED_FILL_CHANGES) animated = true
+        if (animated) {
+            if (settle == null) {
+                settle = new PauseTransition(SETTLE_DELAY)
+                settle.onFinished = {
+                    animated = false
+                    fillChanges = 0
+                    invalidateIcon()
+                } as EventHandler
+            }
+            settle.playFromStart()
+        }
+    }
+
+    private void showRaster() {
+        IconAtlas.Entry entry = IconAtlas.default.icon(content, size.get(), fill.get(), outputScale())
+        if (view == null) {
+            view = new ImageView()
+            view.smooth = true
+        }
+        view.image = entry.image
+        view.viewport = entry.viewport
+        view.fitWidth = entry.width
+        view.fitHeight = entry.height
+        if (getChildren().size() != 1 || !getChildren().get(0).is(view)) {
+            getChildren().setAll(view)
+        }
+    }
+
+    private void showPath() {
+        if (path == null) {
+            path = new SVGPath()
+            path.fillProperty().bind(fill)
+        }
+        path.content = content
+        double scale = size.get() / IconAtlas.VIEWBOX
+        path.scaleX = scale
+        path.scaleY = scale
+        if (getChildren().size() != 1 || !(getChildren().get(0) instanceof Group)) {
+            getChildren().setAll(new Group(path))
+        }
+    }
+
+    private double outputScale() {
+        def window = getScene()?.getWindow()
+        return window != null ? window.getOutputScaleX() : Screen.getPrimary().getOutputScaleX()
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.components
+
+import groovy.transform.CompileStatic
+import javafx.geometry.Rectangle2D
+import javafx.scene.Group
+import javafx.scene.SnapshotParameters
+import javafx.scene.image.Image
+import javafx.scene.image.WritableImage
+import javafx.scene.paint.Color
+import javafx.scene.paint.Paint
+import javafx.scene.shape.Rectangle
+import javafx.scene.shape.SVGPath
+import javafx.scene.transform.Scale
+
+/**
+ * Rasterized icons packed into shared {@link WritableImage} pages.
+ *
+ * <p>Each distinct path, size, fill and output scale is drawn once, with a snapshot of the
+ * path over its {@link #VIEWBOX}-unit square, and copied into the current page; an
+ * {@link Icon} then shows it as an {@code ImageView} viewport into that page. Pages are filled
+ * row by row with a pixel of padding between icons. Once {@link #maxPages} pages are full the
+ * atlas starts over; icons already shown keep the pages they use.</p>
+ *
+ * <p>Only used on the FX thread.</p>
+ */
+@CompileStatic
+final class IconAtlas {
+
+    /** The side of the square icon paths are drawn in, as in Material icons. */
+    static final double VIEWBOX = 24d
+    static final int DEFAULT_PAGE_SIZE = 1024
+    static final int DEFAULT_MAX_PAGES = 8
+
+    private static final int PADDING = 1
+    private static final IconAtlas DEFAULT = new IconAtlas()
+
+    final int pageSize
+    final int maxPages
+
+    private final List<WritableImage> pages = new ArrayList<WritableImage>()
+    private final Map<Key, Entry> entries = new HashMap<Key, Entry>()
+    private int cursorX
+    private int cursorY
+    private int rowHeight
+
+    private long hits
+    private long misses
+    private long resets
+
+    IconAtlas() {
+        this(DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES)
+    }
+
+    IconAtlas(int pageSize, int maxPages) {
+        this.pageSize = pageSize
+        this.maxPages = maxPages
+    }
+
+    /** The atlas {@link Icon}s are drawn from. */
+    static IconAtlas getDefault() {
+        return DEFAULT
+    }
+
+    /**
+     * The icon for the path drawn {@code size} units wide with the fill, rasterized for the
+     * output scale if it is not in the atlas yet.
+     */
+    Entry icon(String content, double size, Paint fill, double scale) {
+        Key key = new Key(content, size, fill, scale)
+        Entry entry = entries.get(key)
+        if (entry != null) {
+            hits++
+            return entry
+        }
+        misses++
+        entry = rasterize(key)
+        entries.put(key, entry)
+        return entry
+    }
+
+    /** Drops every icon; views keep the pages they show. */
+    void clear() {
+        entries.clear()
+        pages.clear()
+    }
+
+    /** Counters: {@code hits}, {@code misses} (icons rasterized), {@code resets}, plus the current {@code entries} and {@code pages}. */
+    Map<String, Long> statistics() {
+        Map<String, Long> stats = new LinkedHashMap<String, Long>()
+        stats.put('hits', hits)
+        stats.put('misses', misses)
+        stats.put('resets', resets)
+        stats.put('entries', (long) entries.size())
+        stats.put('pages', (long) pages.size())
+        return stats
+    }
+
+    private Entry rasterize(Key key) {
+        SVGPath path = new SVGPath()
+        path.content = key.content
+        path.fill = key.fill
+        Rectangle box = new Rectangle(VIEWBOX, VIEWBOX, Color.TRANSPARENT)
+        double factor = key.size * key.scale / VIEWBOX
+        SnapshotParameters parameters = new SnapshotParameters()
+        parameters.fill = Color.TRANSPARENT
+        parameters.transform = new Scale(factor, factor)
+        WritableImage raster = new Group(box, path).snapshot(parameters, null)
+        int width = (int) raster.width
+        int height = (int) raster.height
+        double logicalWidth = width / key.scale
+        double logicalHeight = height / key.scale
+        if (width + 2 * PADDING > pageSize || height + 2 * PADDING > pageSize) {
+            return new Entry(raster, new Rectangle2D(0, 0, width, height), logicalWidth, logicalHeight)
+        }
+        WritableImage page = place(width, height)
+        page.pixelWriter.setPixels(cursorX, cursorY, width, height, raster.pixelReader, 0, 0)
+        Entry entry = new Entry(page, new Rectangle2D(cursorX, cursorY, width, height), logicalWidth, logicalHeight)
+        cursorX += width + PADDING
+        rowHeight = Math.max(rowHeight, height)
+        return entry
+    }
+
+    /** The page to draw a {@code width} by {@code height} icon at the cursor in. */
+    private WritableImage place(int width, int height) {
+        if (pages.isEmpty()) newPage()
+        if (cursorX + width + PADDING > pageSize) {
+            cursorX = PADDING
+            cursorY += rowHeight + PADDING
+            rowHeight = 0
+        }
+        if (cursorY + height + PADDING > pageSize) newPage()
+        return pages.get(pages.size() - 1)
+    }
+
+    private void newPage() {
+        if (pages.size() >= maxPages) {
+            clear()
+            resets++
+        }
+        pages.add(new WritableImage(pageSize, pageSize))
+        cursorX = PADDING
+        cursorY = PADDING
+        rowHeight = 0
+    }
+
+    /** Where an icon is: a viewport into {@code image}, shown {@code width} by {@code height}. */
+    static final class Entry {
+        final Image image
+        final Rectangle2D viewport
+        final double width
+        final double height
+
+        Entry(Image image, Rectangle2D viewport, double width, double height) {
+            this.image = image
+            this.viewport = viewport
+            this.width = width
+            this.height = height
+        }
+    }
+
+    private static final class Key {
+        final String content
+        final double size
+        final Paint fill
+        final double scale
+
+        Key(String content, double size, Paint fill, double scale) {
+            this.content = content
+            this.size = size
+            this.fill = fill
+            this.scale = scale
+        }
+
+        @Override
+        boolean equals(Object other) {
+            if (!(other instanceof Key)) return false
+            Key that = (Key) other
+            return content == that.content && size == that.size && scale == that.scale && Objects.equals(fill, that.fill)
+        }
+
+        @Override
+        int hashCode() {
+            return Objects.hash(content, size, fill, scale)
+        }
+    }
+}
@@ -17,6 +17,7 @@
  */
 package groovyx.javafx.extension
 
+import groovyx.javafx.binding.FusedDoubleBinding
 import javafx.beans.InvalidationListener
 import javafx.beans.binding.BooleanBinding
 import javafx.beans.binding.DoubleBinding
@@ -29,30 +30,37 @@ import javafx.beans.value.ObservableNumberValue
  */
 class NumberBindingExtension {
     static NumberBinding plus(NumberBinding self, Number operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.ADD, self, operand)
         self.add(operand.doubleValue())
     }
 
     static NumberBinding plus(NumberBinding self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.ADD, self, operand)
         self.add(operand.doubleValue())
     }
 
     static NumberBinding minus(NumberBinding self, Number operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.SUBTRACT, self, operand)
         self.subtract(operand.doubleValue())
     }
 
     static NumberBinding minus(NumberBinding self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.SUBTRACT, self, operand)
         self.subtract(operand.doubleValue())
     }
 
     static NumberBinding div(NumberBinding self, Number operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.DIVIDE, self, operand)
         self.divide(operand.doubleValue())
     }
 
     static NumberBinding div(NumberBinding self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.DIVIDE, self, operand)
         self.divide(operand.doubleValue())
     }
 
     static NumberBinding negative(NumberBinding self) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.negative(self)
         self.negate()
     }
 
@@ -17,6 +17,7 @@
  */
 package groovyx.javafx.extension
 
+import groovyx.javafx.binding.FusedDoubleBinding
 import javafx.beans.binding.DoubleBinding
 import javafx.beans.property.SimpleDoubleProperty
 import javafx.beans.value.ObservableNumberValue
@@ -42,19 +43,39 @@ class NumberExtension {
         Duration.hours(self.doubleValue())
     }
 
+    static Duration getMillis(Number self) {
+        Duration.millis(self.doubleValue())
+    }
+
+    static Duration getSeconds(Number self) {
+        Duration.seconds(self.doubleValue())
+    }
+
+    static Duration getMinutes(Number self) {
+        Duration.minutes(self.doubleValue())
+    }
+
+    static Duration getHours(Number self) {
+        Duration.hours(self.doubleValue())
+    }
+
     static DoubleBinding plus(Number self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.ADD, self, operand)
         new SimpleDoubleProperty(self.doubleValue()).add(operand)
     }
 
     static DoubleBinding minus(Number self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.SUBTRACT, self, operand)
         new SimpleDoubleProperty(self.doubleValue()).subtract(operand)
     }
 
     static DoubleBinding multiply(Number self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
         new SimpleDoubleProperty(self.doubleValue()).multiply(operand)
     }
 
     static DoubleBinding div(Number self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.DIVIDE, self, operand)
         new SimpleDoubleProperty(self.doubleValue()).divide(operand)
     }
 }
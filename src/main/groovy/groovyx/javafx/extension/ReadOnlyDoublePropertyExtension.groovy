@@ -17,6 +17,8 @@
  */
 package groovyx.javafx.extension
 
+import groovy.transform.CompileStatic
+import groovyx.javafx.binding.FusedDoubleBinding
 import javafx.beans.InvalidationListener
 import javafx.beans.binding.BooleanBinding
 import javafx.beans.binding.DoubleBinding
@@ -29,30 +31,83 @@ import javafx.beans.value.ObservableNumberValue
  */
 class ReadOnlyDoublePropertyExtension {
     static DoubleBinding plus(ReadOnlyDoubleProperty self, Number operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.ADD, self, operand)
         self.add(operand.doubleValue())
     }
 
     static DoubleBinding plus(ReadOnlyDoubleProperty self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.ADD, self, operand)
         self.add(operand.doubleValue())
     }
 
     static DoubleBinding minus(ReadOnlyDoubleProperty self, Number operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.SUBTRACT, self, operand)
         self.subtract(operand.doubleValue())
     }
 
     static DoubleBinding minus(ReadOnlyDoubleProperty self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.SUBTRACT, self, operand)
         self.subtract(operand.doubleValue())
     }
 
+    // DoubleExpression has its own multiply methods, which Groovy's * would otherwise call. These
+    // overloads match operands more closely, so * fuses too. They are compiled statically so that
+    // the fallback reaches DoubleExpression's methods rather than these.
+
+    @CompileStatic
+    static DoubleBinding multiply(ReadOnlyDoubleProperty self, Integer operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
+        self.multiply(operand.doubleValue())
+    }
+
+    @CompileStatic
+    static DoubleBinding multiply(ReadOnlyDoubleProperty self, Long operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
+        self.multiply(operand.doubleValue())
+    }
+
+    @CompileStatic
+    static DoubleBinding multiply(ReadOnlyDoubleProperty self, Float operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
+        self.multiply(operand.doubleValue())
+    }
+
+    @CompileStatic
+    static DoubleBinding multiply(ReadOnlyDoubleProperty self, Double operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
+        self.multiply(operand.doubleValue())
+    }
+
+    @CompileStatic
+    static DoubleBinding multiply(ReadOnlyDoubleProperty self, BigDecimal operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
+        self.multiply(operand.doubleValue())
+    }
+
+    @CompileStatic
+    static DoubleBinding multiply(ReadOnlyDoubleProperty self, Number operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
+        self.multiply(operand.doubleValue())
+    }
+
+    @CompileStatic
+    static DoubleBinding multiply(ReadOnlyDoubleProperty self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.MULTIPLY, self, operand)
+        self.multiply(operand)
+    }
+
     static DoubleBinding div(ReadOnlyDoubleProperty self, Number operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.DIVIDE, self, operand)
         self.divide(operand.doubleValue())
     }
 
     static DoubleBinding div(ReadOnlyDoubleProperty self, ObservableNumberValue operand) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.combine(FusedDoubleBinding.DIVIDE, self, operand)
         self.divide(operand.doubleValue())
     }
 
     static DoubleBinding negative(ReadOnlyDoubleProperty self) {
+        if (FusedDoubleBinding.enabled) return FusedDoubleBinding.negative(self)
         self.negate()
     }
 
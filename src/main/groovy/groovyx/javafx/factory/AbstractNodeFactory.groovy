@@ -157,13 +157,13 @@ public abstract class AbstractNodeFactory extends AbstractFXBeanFactory {
         if (value instanceof Boolean && cls == Priority) {
             return value ? Priority.ALWAYS : Priority.NEVER
         }
-        return Enum.valueOf(cls, value.toString().trim().toUpperCase())
+        return AttributeSetterCache.enumConstant(cls, value)
     }
 
     private static def doInsets = { value ->
         if (value == null) return null
         if (Number.class.isAssignableFrom(value.getClass())) {
-            value = new Insets(value, value, value, value)
+            value = AttributeSetterCache.uniformInsets(value)
         } else if (List.class.isAssignableFrom(value.getClass())) {
             switch (value.size()) {
                 case 0:
@@ -336,9 +336,12 @@ public abstract class AbstractNodeFactory extends AbstractFXBeanFactory {
         }
     }
 
-    private static void tryCall(def target, String method, Object... args) {
+    private static void tryCall(def target, String method, Node node, Object value) {
+        if (AttributeSetterCache.applyConstraint(target, method, node, value)) {
+            return
+        }
         try {
-            target.invokeMethod(method, args)
+            target.invokeMethod(method, [node, value] as Object[])
         } catch (MissingMethodException ignored) {
             // parent doesn't support that constraint, ignore
         }
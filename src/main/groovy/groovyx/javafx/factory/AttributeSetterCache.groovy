@@ -0,0 +1,351 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.factory
+
+import groovy.transform.CompileStatic
+import javafx.geometry.Insets
+import javafx.scene.Node
+import org.codehaus.groovy.runtime.InvokerHelper
+
+import java.lang.invoke.CallSite
+import java.lang.invoke.LambdaMetafactory
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.BiConsumer
+
+/**
+ * Per-class cache of everything the builder resolves when applying attributes: the
+ * {@link MetaProperty} FXHelper coerces through, a generated setter for plain values,
+ * the parent methods used for layout constraints ({@code HBox.setHgrow(...)}, ...),
+ * {@code xxxProperty()} accessors and enum constants parsed from strings.
+ *
+ * <p>Entries are resolved once per (class, name) and kept for the lifetime of the class,
+ * so applying an attribute to the 10,000th node of a class is a map lookup followed by a
+ * direct call. Hit and miss counts are exposed through {@link #getHits()},
+ * {@link #getMisses()} and {@link #statistics()}.</p>
+ */
+@CompileStatic
+final class AttributeSetterCache {
+
+    private static final LongAdder HITS = new LongAdder()
+    private static final LongAdder MISSES = new LongAdder()
+
+    private static final ClassValue<ConcurrentMap<String, Setter>> SETTERS = new Cache<Setter>()
+    private static final ClassValue<ConcurrentMap<String, Constraint>> CONSTRAINTS = new Cache<Constraint>()
+    private static final ClassValue<ConcurrentMap<String, Optional<Method>>> PROPERTIES = new Cache<Optional<Method>>()
+    private static final ClassValue<ConcurrentMap<String, Object>> ENUMS = new Cache<Object>()
+
+    private static final int MAX_CACHED_INSETS = 256
+    private static final ConcurrentMap<Double, Insets> INSETS = new ConcurrentHashMap<Double, Insets>()
+
+    private AttributeSetterCache() {}
+
+    /**
+     * Returns the resolved setter for {@code name} on {@code beanClass}; never {@code null}.
+     */
+    static Setter setter(Class beanClass, String name) {
+        ConcurrentMap<String, Setter> setters = SETTERS.get(beanClass)
+        Setter setter = setters.get(name)
+        if (setter != null) {
+            HITS.increment()
+            return setter
+        }
+        MISSES.increment()
+        setter = Setter.resolve(beanClass, name)
+        Setter previous = setters.putIfAbsent(name, setter)
+        return previous != null ? previous : setter
+    }
+
+    /**
+     * Sets {@code name} on {@code bean} through the cached setter. Returns {@code false} if
+     * the value needs Groovy's property coercion, in which case nothing was set.
+     */
+    static boolean set(Object bean, String name, Object value) {
+        return setter(bean.getClass(), name).set(bean, value)
+    }
+
+    /**
+     * Calls a layout constraint method such as {@code HBox.setHgrow(node, priority)} on
+     * {@code parent}'s class. Returns {@code true} if the call was handled, including the case
+     * where the parent has no such method (the constraint is ignored, as before), and
+     * {@code false} if it must go through dynamic dispatch.
+     */
+    static boolean applyConstraint(Object parent, String method, Node node, Object value) {
+        ConcurrentMap<String, Constraint> constraints = CONSTRAINTS.get(parent.getClass())
+        Constraint constraint = constraints.get(method)
+        if (constraint != null) {
+            HITS.increment()
+        } else {
+            MISSES.increment()
+            constraint = Constraint.resolve(parent.getClass(), method)
+            Constraint previous = constraints.putIfAbsent(method, constraint)
+            if (previous != null) constraint = previous
+        }
+        return constraint.apply(parent, node, value)
+    }
+
+    /**
+     * Returns the public no-arg {@code <name>Property()} method of {@code beanClass}, or
+     * {@code null} if there is none.
+     */
+    static Method propertyAccessor(Class beanClass, String name) {
+        ConcurrentMap<String, Optional<Method>> accessors = PROPERTIES.get(beanClass)
+        Optional<Method> accessor = accessors.get(name)
+        if (accessor != null) {
+            HITS.increment()
+            return accessor.orElse(null)
+        }
+        MISSES.increment()
+        Method method = null
+        try {
+            Method candidate = beanClass.getMethod(name + "Property")
+            if (!Modifier.isStatic(candidate.modifiers)) method = candidate
+        } catch (NoSuchMethodException ignored) {
+            // not a JavaFX property
+        }
+        if (method != null) {
+            try {
+                // public accessors declared by non-public superclasses
+                method.setAccessible(true)
+            } catch (RuntimeException ignored) {
+                // module boundaries; the public method is still callable
+            }
+        }
+        accessors.putIfAbsent(name, Optional.ofNullable(method))
+        return method
+    }
+
+    /**
+     * Parses an enum constant the way the builder always has ({@code trim().toUpperCase()}),
+     * caching the result per enum class and input string.
+     */
+    static Object enumConstant(Class enumClass, Object value) {
+        String text = value.toString()
+        ConcurrentMap<String, Object> constants = ENUMS.get(enumClass)
+        Object constant = constants.get(text)
+        if (constant != null) {
+            HITS.increment()
+            return constant
+        }
+        MISSES.increment()
+        constant = Enum.valueOf(enumClass, text.trim().toUpperCase())
+        constants.putIfAbsent(text, constant)
+        return constant
+    }
+
+    /**
+     * Returns {@code new Insets(value)}, sharing instances for frequently used values.
+     */
+    static Insets uniformInsets(Number value) {
+        Double key = value.doubleValue()
+        Insets insets = INSETS.get(key)
+        if (insets != null) {
+            HITS.increment()
+            return insets
+        }
+        MISSES.increment()
+        insets = new Insets(key)
+        if (INSETS.size() < MAX_CACHED_INSETS) {
+            INSETS.putIfAbsent(key, insets)
+        }
+        return insets
+    }
+
+    static long getHits() {
+        return HITS.sum()
+    }
+
+    static long getMisses() {
+        return MISSES.sum()
+    }
+
+    static Map<String, Long> statistics() {
+        return [hits: HITS.sum(), misses: MISSES.sum()].asImmutable()
+    }
+
+    static void resetStatistics() {
+        HITS.reset()
+        MISSES.reset()
+    }
+
+    private static final class Cache<V> extends ClassValue<ConcurrentMap<String, V>> {
+        @Override
+        protected ConcurrentMap<String, V> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<String, V>()
+        }
+    }
+
+    /**
+     * A resolved attribute of one bean class.
+     */
+    static final class Setter {
+        private static final Map<Class, Class> BOXES = [
+                (Double.TYPE): Double, (Float.TYPE): Float, (Long.TYPE): Long, (Integer.TYPE): Integer,
+                (Short.TYPE): Short, (Byte.TYPE): Byte, (Boolean.TYPE): Boolean, (Character.TYPE): Character
+        ].asImmutable()
+
+        /** The Groovy meta property, or {@code null} if the class has no such property. */
+        final MetaProperty metaProperty
+        private final BiConsumer<Object, Object> writer
+        private final Class valueType
+        private final boolean primitive
+
+        private Setter(MetaProperty metaProperty, BiConsumer<Object, Object> writer, Class parameterType) {
+            this.metaProperty = metaProperty
+            this.writer = writer
+            this.primitive = parameterType != null && parameterType.isPrimitive()
+            this.valueType = parameterType == null ? null : (primitive ? BOXES.get(parameterType) : parameterType)
+        }
+
+        Class getType() {
+            return metaProperty?.getType()
+        }
+
+        boolean set(Object bean, Object value) {
+            if (writer == null) return false
+            if (value == null) {
+                if (primitive) return false
+                writer.accept(bean, null)
+                return true
+            }
+            Object converted = convert(value)
+            if (converted == null) return false
+            writer.accept(bean, converted)
+            return true
+        }
+
+        private Object convert(Object value) {
+            if (valueType.isInstance(value)) return value
+            if (value instanceof GString && valueType == String) return value.toString()
+            if (value instanceof Number) {
+                Number n = (Number) value
+                // only conversions Groovy performs without loss
+                if (valueType == Double) return n.doubleValue()
+                if (valueType == Float) return n.floatValue()
+                boolean integral = n instanceof Integer || n instanceof Short || n instanceof Byte
+                if (valueType == Long && (integral || n instanceof Long)) return n.longValue()
+                if (valueType == Integer && (n instanceof Short || n instanceof Byte)) return n.intValue()
+            }
+            return null
+        }
+
+        static Setter resolve(Class beanClass, String name) {
+            MetaClass metaClass = InvokerHelper.getMetaClass(beanClass)
+            MetaProperty metaProperty = metaClass.getMetaProperty(name)
+            if (metaProperty == null) return new Setter(null, null, null)
+            // custom metaclasses may intercept property writes: always go through them
+            if (metaClass.getClass() != MetaClassImpl) return new Setter(metaProperty, null, null)
+
+            Method method = uniqueSetter(beanClass, name)
+            BiConsumer<Object, Object> writer = method != null ? writer(method) : null
+            return new Setter(metaProperty, writer, writer != null ? method.parameterTypes[0] : null)
+        }
+
+        private static Method uniqueSetter(Class beanClass, String name) {
+            String setterName = "set" + name.capitalize()
+            Method found = null
+            for (Method method : beanClass.getMethods()) {
+                if (method.name != setterName || method.parameterCount != 1
+                        || Modifier.isStatic(method.modifiers) || method.isBridge()) continue
+                if (found != null) return null // overloaded: let Groovy pick by argument type
+                found = method
+            }
+            return found
+        }
+
+        @SuppressWarnings("unchecked")
+        private static BiConsumer<Object, Object> writer(Method method) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup()
+                MethodHandle handle = lookup.unreflect(method)
+                Class parameter = method.parameterTypes[0]
+                MethodType instantiated = MethodType.methodType(Void.TYPE, method.declaringClass,
+                        parameter.isPrimitive() ? BOXES.get(parameter) : parameter)
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer),
+                        MethodType.methodType(Void.TYPE, Object, Object),
+                        handle, instantiated)
+                return (BiConsumer<Object, Object>) site.getTarget().invokeWithArguments()
+            } catch (Throwable ignored) {
+                // not accessible from here (e.g. declared by a non-exported class)
+                return null
+            }
+        }
+    }
+
+    /**
+     * A resolved layout constraint method of one parent class.
+     */
+    private static final class Constraint {
+        static final Constraint MISSING = new Constraint(null, null, false)
+        static final Constraint DYNAMIC = new Constraint(null, null, false)
+
+        private final MethodHandle handle
+        private final Class valueType
+        private final boolean isStatic
+
+        private Constraint(MethodHandle handle, Class valueType, boolean isStatic) {
+            this.handle = handle
+            this.valueType = valueType
+            this.isStatic = isStatic
+        }
+
+        boolean apply(Object parent, Node node, Object value) {
+            if (this.is(MISSING)) return true
+            if (this.is(DYNAMIC)) return false
+            if (value != null && !valueType.isInstance(value)) return false
+            if (isStatic) {
+                handle.invokeWithArguments(node, value)
+            } else {
+                handle.invokeWithArguments(parent, node, value)
+            }
+            return true
+        }
+
+        static Constraint resolve(Class parentClass, String name) {
+            Method found = null
+            int candidates = 0
+            for (Method method : parentClass.getMethods()) {
+                if (method.name != name) continue
+                candidates++
+                if (method.parameterCount == 2 && method.parameterTypes[0].isAssignableFrom(Node)) {
+                    if (found != null) return DYNAMIC
+                    found = method
+                }
+            }
+            if (found == null) {
+                // no two-argument variant: leave anything unusual to dynamic dispatch
+                return candidates == 0 && InvokerHelper.getMetaClass(parentClass).getClass() == MetaClassImpl ? MISSING : DYNAMIC
+            }
+            Class valueType = found.parameterTypes[1]
+            if (valueType.isPrimitive()) return DYNAMIC
+            try {
+                return new Constraint(MethodHandles.publicLookup().unreflect(found), valueType,
+                        Modifier.isStatic(found.modifiers))
+            } catch (IllegalAccessException ignored) {
+                return DYNAMIC
+            }
+        }
+    }
+}
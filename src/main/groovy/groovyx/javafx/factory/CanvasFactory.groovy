@@ -39,6 +39,8 @@ import javafx.scene.canvas.Canvas
 class CanvasFactory extends AbstractNodeFactory {
 
     private static final String CANVAS_OPERATIONS_LIST_PROPERTY = "__canvasOperationsList"
+    private static final String CANVAS_RETAINED_PROPERTY = "__canvasRetained"
+    private static final String CANVAS_COMPACT_PROPERTY = "__canvasCompact"
 
     CanvasFactory() {
         super(Canvas)
@@ -48,6 +50,21 @@ class CanvasFactory extends AbstractNodeFactory {
         super(beanClass)
     }
 
+    @Override
+    boolean onHandleNodeAttributes(FactoryBuilderSupport builder, Object node, Map attributes) {
+        // retained: true keeps the operations live, see RetainedCanvasRenderer
+        def retained = attributes.remove("retained")
+        if (retained != null) {
+            builder.context.put(CANVAS_RETAINED_PROPERTY, retained as boolean)
+        }
+        // compact: true packs the operations into a DisplayList
+        def compact = attributes.remove("compact")
+        if (compact != null) {
+            builder.context.put(CANVAS_COMPACT_PROPERTY, compact as boolean)
+        }
+        return super.onHandleNodeAttributes(builder, node, attributes)
+    }
+
     @Override
     void setChild(FactoryBuilderSupport builder, Object parent, Object child) {
         if (child instanceof CanvasOperation) {
@@ -77,7 +94,14 @@ class CanvasFactory extends AbstractNodeFactory {
                 : FXCollections.observableArrayList()
 
         def dop = new DrawOperations(operations: operations, canvas: node)
-        dop.draw()
+        if (builder.context.remove(CANVAS_COMPACT_PROPERTY)) {
+            dop.compact()
+        }
+        if (builder.context.remove(CANVAS_RETAINED_PROPERTY)) {
+            dop.retain()
+        } else {
+            dop.draw()
+        }
         node.userData = dop
 
         super.onNodeCompleted(builder, parent, node)
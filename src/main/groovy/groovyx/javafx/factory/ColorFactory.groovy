@@ -19,6 +19,7 @@ package groovyx.javafx.factory
 
 import groovy.transform.CompileStatic
 import groovyx.javafx.binding.BindingHolder
+import groovyx.javafx.canvas.ParamUnwrapper
 import javafx.beans.value.ObservableValue
 import javafx.css.CssParser
 import javafx.css.Stylesheet
@@ -102,28 +103,10 @@ class ColorFactory {
             return v
         }
 
-        // BindingHolder from groovyx.javafx.binding
-        if (v instanceof BindingHolder) {
-            BindingHolder bh = (BindingHolder) v
-            // Common shapes: bh.value, bh.binding, bh.observable, etc. (varies across forks)
-            // We try a few safe unwrapping options without assuming one exact API.
-            def candidate = null
-            try { candidate = bh.hasProperty('value') ? bh.getProperty('value') : null } catch (ignored) {}
-            if (candidate != null) return unwrap(candidate)
-
-            try { candidate = bh.hasProperty('binding') ? bh.getProperty('binding') : null } catch (ignored) {}
-            if (candidate != null) return unwrap(candidate)
-
-            try { candidate = bh.hasProperty('observable') ? bh.getProperty('observable') : null } catch (ignored) {}
-            if (candidate != null) return unwrap(candidate)
-
-            // last resort: leave as-is (caller may handle)
-            return v
-        }
-
-        // ObservableValue (JavaFX property/binding)
-        if (v instanceof ObservableValue) {
-            return unwrap(((ObservableValue) v).value)
+        // BindingHolder / ObservableValue; how each class unwraps is cached by ParamUnwrapper
+        if (v instanceof BindingHolder || v instanceof ObservableValue) {
+            Object inner = ParamUnwrapper.unwrap(v)
+            return inner instanceof Map ? unwrap(inner) : inner
         }
 
         return v
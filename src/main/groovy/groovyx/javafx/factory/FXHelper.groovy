@@ -19,6 +19,8 @@ package groovyx.javafx.factory
 
 import groovyx.javafx.binding.BindingHolder
 import groovyx.javafx.binding.Util
+import groovyx.javafx.image.ImageCache
+import groovyx.javafx.image.ImageKey
 import javafx.beans.property.Property
 import javafx.beans.value.ObservableValue
 import javafx.collections.FXCollections
@@ -47,6 +49,8 @@ import javafx.beans.value.ChangeListener
 import javafx.beans.InvalidationListener
 import javafx.beans.Observable
 
+import java.lang.reflect.Method
+
 /**
  *
  * @author jimclarke
@@ -241,7 +245,7 @@ class FXHelper {
     private static def doInsets = { delegate, metaProperty, value ->
         value = getValue(value);
         if (Number.class.isAssignableFrom(value.getClass())) {
-            value = new Insets(value, value, value, value)
+            value = AttributeSetterCache.uniformInsets(value)
         } else if(List.class.isAssignableFrom(value.getClass())) {
             switch (value.size()) {
                 case 0:
@@ -316,7 +320,7 @@ class FXHelper {
     private static def doImage = { delegate, metaProperty, value ->
         value = getValue(value);
         if (!Image.class.isAssignableFrom(value.getClass())) {
-            value = new Image(value.toString());
+            value = ImageCache.default.image(new ImageKey(value.toString()));
         }
         metaProperty.setProperty(delegate, value);
                 
@@ -376,7 +380,7 @@ class FXHelper {
     private static def doEnum  = { delegate, metaProperty, value ->
         value = getValue(value);
         if(!value.getClass().isEnum()) {
-            value = Enum.valueOf(metaProperty.getType(),value.toString().trim().toUpperCase())
+            value = AttributeSetterCache.enumConstant(metaProperty.getType(), value)
         }
         metaProperty.setProperty(delegate, value);
         return true;
@@ -385,7 +389,7 @@ class FXHelper {
     private static def doHPos = { delegate, metaProperty, value ->
         value = getValue(value);
         if(!value.getClass().isEnum()) {
-            value = Enum.valueOf(metaProperty.getType(),value.toString().trim().toUpperCase())
+            value = AttributeSetterCache.enumConstant(metaProperty.getType(), value)
         }else if(value instanceof Pos) {
             value = value.hpos
         }
@@ -395,7 +399,7 @@ class FXHelper {
     private static def doVPos = { delegate, metaProperty, value ->
         value = getValue(value);
         if(!value.getClass().isEnum()) {
-            value = Enum.valueOf(metaProperty.getType(),value.toString().trim().toUpperCase())
+            value = AttributeSetterCache.enumConstant(metaProperty.getType(), value)
         }else if(value instanceof Pos) {
             value = value.vpos
         }
@@ -405,7 +409,7 @@ class FXHelper {
     private static def doPos = { delegate, metaProperty, value ->
         value = getValue(value);
         if(!value.getClass().isEnum()) {
-            value = Enum.valueOf(metaProperty.getType(),value.toString().trim().toUpperCase())
+            value = AttributeSetterCache.enumConstant(metaProperty.getType(), value)
         }else if(value instanceof VPos) {
             if(value == VPos.TOP) {
                  value = Pos.TOP_CENTER;
@@ -511,6 +515,20 @@ class FXHelper {
         (BindingHolder.class): doBind,
     ];
 
+    // the classMap entry, or the first matching supertype handler, per property type
+    private static final ClassValue<Closure> coercions = new ClassValue<Closure>() {
+        @Override
+        protected Closure computeValue(Class type) {
+            def closure = classMap.get(type)
+            if (closure != null) return closure
+            if (type.isEnum()) return doEnum
+            def supertypes = [Paint, Font, ObservableList, Sequence, Insets, BoundingBox, Dimension2D, Point2D,
+                              Point3D, Rectangle2D, Image, Cursor, Orientation, EventHandler, ToggleGroup, BindingHolder]
+            def match = supertypes.find { it.isAssignableFrom(type) }
+            return match != null ? classMap.get(match) : doNothing
+        }
+    }
+
     public static boolean fxAttribute(delegate, key, value) {
         if (key == 'anchor') {
             switch (value) {
@@ -537,55 +555,14 @@ class FXHelper {
             return true
         }
 
-        def metaProperty = delegate.getClass().metaClass.getMetaProperty(key);
+        def metaProperty = AttributeSetterCache.setter(delegate.getClass(), key.toString()).metaProperty
         
         if(metaProperty) {
             // first do quick check from map
             if(value instanceof BindingHolder) {
                   return doBind(delegate, metaProperty, value);     
             }
-            def closure = classMap.get(metaProperty.getType());
-            if(closure != null) {
-                return closure(delegate, metaProperty, value);
-            }
-            // if not in map we need to see if it is a subclass.
-            if(metaProperty.getType().isEnum()) {
-                return doEnum(delegate, metaProperty, value);
-            }
-            
-            if(Paint.class.isAssignableFrom(metaProperty.getType())) {
-                return doPaint(delegate, metaProperty, value);
-            }else if(Font.class.isAssignableFrom(metaProperty.getType())) {
-                return doFont(delegate, metaProperty, value);
-            }else if(ObservableList.class.isAssignableFrom(metaProperty.getType())) {
-                return doObservableList(delegate, metaProperty, value);
-            }else if(Sequence.class.isAssignableFrom(metaProperty.getType())) {
-                return doSequence(delegate, metaProperty, value);
-            }else if(Insets.class.isAssignableFrom(metaProperty.getType())) {
-                return doInsets(delegate, metaProperty, value);
-            }else if(BoundingBox.class.isAssignableFrom(metaProperty.getType())) {
-                return doBoundingBox(delegate, metaProperty, value);
-            }else if(Dimension2D.class.isAssignableFrom(metaProperty.getType())) {
-                return doDimension2D(delegate, metaProperty, value);
-            }else if(Point2D.class.isAssignableFrom(metaProperty.getType())) {
-                return doPoint2D(delegate, metaProperty, value);
-            }else if(Point3D.class.isAssignableFrom(metaProperty.getType())) {
-                return doPoint3D(delegate, metaProperty, value);
-            }else if(Rectangle2D.class.isAssignableFrom(metaProperty.getType())) {
-                return doRectangle2D(delegate, metaProperty, value);
-            }else if(Image.class.isAssignableFrom(metaProperty.getType())) {
-                return doImage(delegate, metaProperty, value);
-            }else if(Cursor.class.isAssignableFrom(metaProperty.getType())) {
-                return doCursor(delegate, metaProperty, value);
-            }else if(Orientation.class.isAssignableFrom(metaProperty.getType())) {
-                return doOrientation(delegate, metaProperty, value);
-            }else if(EventHandler.class.isAssignableFrom(metaProperty.getType())) {
-                return doEventHandler(delegate, metaProperty, value);
-            }else if(ToggleGroup.class.isAssignableFrom(metaProperty.getType())) {
-                return doToggleGroup(delegate, metaProperty, value);
-            }else if(BindingHolder.class.isAssignableFrom(metaProperty.getType())) {
-                return doBind(delegate, metaProperty, value);
-            }
+            return coercions.get(metaProperty.getType()).call(delegate, metaProperty, value);
         }
         
         return false;
@@ -611,6 +588,9 @@ class FXHelper {
         if (tryAttachListener(node, name, value)) {
             return
         }
+        if (AttributeSetterCache.set(node, name, value)) {
+            return
+        }
         if (node.metaClass.respondsTo(node, "set$name") || node.metaClass.hasProperty(node, name))
             node[name] = value
         else if (node.metaClass.respondsTo(node, name))
@@ -619,16 +599,20 @@ class FXHelper {
 
     static boolean tryAttachListener(Object bean, String name, Object value) {
         if (!(value instanceof ChangeListener) && !(value instanceof InvalidationListener)) return false
+        if (bean == null) return false
 
-        String propMethod = "${name}Property"
-
-        // respondTo expects example args (instances), not parameter Classes
-        if (!bean?.metaClass?.respondsTo(bean, propMethod)) return false
+        Method accessor = AttributeSetterCache.propertyAccessor(bean.getClass(), name)
+        if (accessor == null) return false
 
-        def propObj = bean."$propMethod"()
+        def propObj = accessor.invoke(bean)
         if (propObj == null) return false
 
         if (value instanceof ChangeListener) {
+            if (propObj instanceof ObservableValue) {
+                ((ObservableValue) propObj).addListener((ChangeListener) value)
+                return true
+            }
+            // respondTo expects example args (instances), not parameter Classes
             if (propObj.metaClass.respondsTo(propObj, "addListener", value)) {
                 propObj.addListener((ChangeListener) value)
                 return true
@@ -636,14 +620,14 @@ class FXHelper {
         }
 
         if (value instanceof InvalidationListener) {
-            if (propObj.metaClass.respondsTo(propObj, "addListener", value)) {
-                propObj.addListener((InvalidationListener) value)
-                return true
-            }
             if (propObj instanceof Observable) {
                 ((Observable) propObj).addListener((InvalidationListener) value)
                 return true
             }
+            if (propObj.metaClass.respondsTo(propObj, "addListener", value)) {
+                propObj.addListener((InvalidationListener) value)
+                return true
+            }
         }
 
         return false
@@ -17,6 +17,7 @@
  */
 package groovyx.javafx.factory
 
+import groovyx.javafx.SceneGraphBuilder
 import javafx.fxml.FXMLLoader
 import javafx.scene.Group
 import javafx.scene.Node
@@ -27,8 +28,6 @@ import javafx.scene.Node
  */
 class FXMLFactory extends AbstractNodeFactory {
 
-    private FXMLLoader loader
-
     FXMLFactory() {
         super(Node);
     }
@@ -39,8 +38,11 @@ class FXMLFactory extends AbstractNodeFactory {
     
     public Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes) throws InstantiationException, IllegalAccessException {
         Node result
+        // the loader is kept in the builder context, factories are shared between builders
+        FXMLLoader loader = new FXMLLoader()
+        builder.context.put(SceneGraphBuilder.CONTEXT_FXML_LOADER_KEY, loader)
         if(value != null) {
-            result = processValue(value);
+            result = processValue(loader, value);
             if(result == null)
                 throw new Exception("In $name value must be an instanceof InputStream or one of its subclasses, java.net.URL, java.net.URI or a String  to be used as embedded content.")
         } else if(attributes.containsKey("location") || attributes.containsKey("url")){
@@ -50,18 +52,18 @@ class FXMLFactory extends AbstractNodeFactory {
             }
             if(location instanceof String) 
                 location = new URL(location);
-            result = loadInput(location);
+            result = loadInput(loader, location);
         } else if(attributes.containsKey("uri")){
             def uri = attributes.remove("uri");
             if(uri instanceof String)
                 uri = new URI(uri);
-            result = loadInput(uri.toURL());
+            result = loadInput(loader, uri.toURL());
         } else if(attributes.containsKey("xml")) {
             def xml = attributes.remove("xml");
-            result = loadXML(xml)
+            result = loadXML(loader, xml)
         } else if(attributes.containsKey("input")) {
             def input = attributes.remove("input");
-            result = loadInput(input);
+            result = loadInput(loader, input);
         } else { // default case
             result = new Group();
         }
@@ -71,7 +73,7 @@ class FXMLFactory extends AbstractNodeFactory {
         
     }
     
-    private Node processValue(Object value) {
+    private Node processValue(FXMLLoader loader, Object value) {
         Node result = null;
         switch(value) {
             case Node:
@@ -80,27 +82,26 @@ class FXMLFactory extends AbstractNodeFactory {
             case CharSequence:
                 try {
                     URL url = new URL(value.toString());
-                    result = loadInput(url);
+                    result = loadInput(loader, url);
                 }catch(MalformedURLException mfe) {
-                    result = loadXML(value.toString());
+                    result = loadXML(loader, value.toString());
                 }
                 break
             case InputStream:
-                result = loadInput(value);
+                result = loadInput(loader, value);
                 break
             case URL:
-                result = loadInput(value);
+                result = loadInput(loader, value);
                 break
             case URI:
-                result = loadInput(value.toURL());
+                result = loadInput(loader, value.toURL());
                 break;
         }
         result;
     }
     
     
-    private Object loadXML(String xml) {
-        this.@loader = new FXMLLoader();
+    private Object loadXML(FXMLLoader loader, String xml) {
         def ins = new ByteArrayInputStream(xml.getBytes());
         try {
             return loader.load(ins);
@@ -109,14 +110,13 @@ class FXMLFactory extends AbstractNodeFactory {
         }
     }
 
-    private Object loadInput(input) {
-        this.@loader = new FXMLLoader();
+    private Object loadInput(FXMLLoader loader, input) {
         return loader.load(input);
     }
     
     @Override
     public void setChild(FactoryBuilderSupport builder, Object parent, Object child) {
-        Node childNode = processValue(child);
+        Node childNode = processValue(new FXMLLoader(), child);
         if(childNode != null) {
             parent.children.add(childNode);
         }else {
@@ -126,6 +126,7 @@ class FXMLFactory extends AbstractNodeFactory {
 
     @Override
     boolean onNodeChildren(FactoryBuilderSupport builder, Object node, Closure childContent) {
+        FXMLLoader loader = builder.context.get(SceneGraphBuilder.CONTEXT_FXML_LOADER_KEY)
         childContent.delegate = new FXMLDelegate(loader, node, childContent.delegate)
         childContent.call();
         return false
@@ -19,8 +19,21 @@ package groovyx.javafx.factory
 
 import groovyx.javafx.components.Icon
 
+/**
+ * icon('save', size: 16, fill: RED) is short for icon(iconName: 'save', ...).
+ */
 class IconFactory extends AbstractNodeFactory {
     IconFactory() {
         super(Icon)
     }
+
+    @Override
+    Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes)
+            throws InstantiationException, IllegalAccessException {
+        Icon icon = super.newInstance(builder, name, value, attributes)
+        if (value instanceof CharSequence) {
+            icon.iconName = value.toString()
+        }
+        return icon
+    }
 }
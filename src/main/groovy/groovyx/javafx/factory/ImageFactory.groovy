@@ -17,9 +17,14 @@
  */
 package groovyx.javafx.factory
 
+import groovyx.javafx.image.ImageCache
+import groovyx.javafx.image.ImageKey
 import javafx.scene.image.Image
 
 /**
+ * Images loaded from a URL are shared through {@link ImageCache#getDefault()}, so every
+ * image node with the same url, width, height, preserveRatio and smooth gets the same Image.
+ * Set cache: false for a private copy.
  *
  * @author jimclarke
  */
@@ -41,6 +46,7 @@ class ImageFactory extends AbstractFXBeanFactory {
         def preserveRatio = attributes.remove("preserveRatio");
         def smooth = attributes.remove("smooth");
         def backgroundLoading = attributes.remove("backgroundLoading");
+        def cache = attributes.remove("cache");
         if(widthA == null)  widthA = 0.0;
         if(heightA == null) heightA = 0.0;
         float width = widthA.floatValue();
@@ -57,7 +63,12 @@ class ImageFactory extends AbstractFXBeanFactory {
             if(url == null && value != null)
                 url = value;
             //println(url);
-            image = new Image(url.toString(), width, height, preserveRatio, smooth, backgroundLoading);
+            if (cache == false) {
+                image = new Image(url.toString(), width, height, preserveRatio, smooth, backgroundLoading);
+            } else {
+                def key = new ImageKey(url.toString(), width, height, preserveRatio as boolean, smooth as boolean)
+                image = backgroundLoading ? ImageCache.default.backgroundImage(key) : ImageCache.default.image(key)
+            }
         }
         return image;
     }
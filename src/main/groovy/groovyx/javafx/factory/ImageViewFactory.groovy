@@ -17,9 +17,21 @@
  */
 package groovyx.javafx.factory
 
+import groovyx.javafx.image.ImageCache
+import groovyx.javafx.image.ImageKey
 import javafx.scene.image.Image
 import javafx.scene.image.ImageView
 
+/**
+ * An imageView given a URL, File or URI loads it through {@link ImageCache#getDefault()}:
+ * views asking for the same image share one decode, sized by fitWidth, fitHeight,
+ * preserveRatio and smooth, and show the placeholder attribute (an Image or a URL) or the
+ * cache's placeholder until it is ready.
+ *
+ *      placeholder:        Shown while the image loads; loaded once and shared.
+ *      backgroundLoading:  false loads the image before the view is returned (default true).
+ *      cache:              false loads a private copy, synchronously.
+ */
 class ImageViewFactory extends AbstractNodeFactory {
 
     ImageViewFactory() {
@@ -34,10 +46,27 @@ class ImageViewFactory extends AbstractNodeFactory {
     Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes)
             throws InstantiationException, IllegalAccessException {
 
+        def placeholder = attributes.remove('placeholder')
+        def backgroundLoading = attributes.remove('backgroundLoading')
+        def cache = attributes.remove('cache')
+
         ImageView iv = super.newInstance(builder, name, value, attributes)
 
-        if (value != null) {
-            iv.image = coerceToImage(value)
+        if (value != null && !(value instanceof ImageView)) {
+            if (value instanceof Image || cache == false) {
+                iv.image = coerceToImage(value)
+            } else {
+                def url = toUrl(value)
+                if (url) {
+                    def key = new ImageKey(url, (attributes.fitWidth ?: 0) as double, (attributes.fitHeight ?: 0) as double,
+                            attributes.preserveRatio as boolean, attributes.smooth == null || attributes.smooth as boolean)
+                    if (backgroundLoading == false) {
+                        iv.image = ImageCache.default.image(key)
+                    } else {
+                        ImageCache.default.into(iv, key, placeholderImage(placeholder))
+                    }
+                }
+            }
         }
 
         return iv
@@ -48,33 +77,47 @@ class ImageViewFactory extends AbstractNodeFactory {
         if (child != null) {
             switch (child) {
                 case Image:
+                    ((ImageView) parent).image = (Image) child
+                    return
                 case File:
                 case URL:
                 case URI:
-                    ((ImageView) parent).image = coerceToImage(child)
+                    ImageCache.default.into((ImageView) parent, new ImageKey(toUrl(child)))
                     return
             }
         }
         super.setChild(builder, parent, child)
     }
 
+    private static Image placeholderImage(Object placeholder) {
+        if (placeholder == null || placeholder instanceof Image) return (Image) placeholder
+        def url = toUrl(placeholder)
+        return url ? ImageCache.default.image(new ImageKey(url)) : null
+    }
+
     /**
      * Convert supported value types into a JavaFX Image, with URL normalization.
      */
     static Image coerceToImage(Object v) {
-        switch (v) {
-            case Image:
-                return (Image) v
+        if (v instanceof Image) return (Image) v
+        def url = toUrl(v)
+        return url ? new Image(url) : null
+    }
 
+    /**
+     * The URL string for a File, URL, URI or string, or null if blank.
+     */
+    static String toUrl(Object v) {
+        switch (v) {
             case File:
-                return new Image(((File) v).toURI().toString())
+                return ((File) v).toURI().toString()
 
             case URL:
             case URI:
-                return new Image(v.toString())
+                return v.toString()
 
             default:
-                String s = v.toString()?.trim()
+                String s = v?.toString()?.trim()
                 if (!s) return null
 
                 // If it looks like a hostname/path and has no scheme, assume https.
@@ -83,7 +126,7 @@ class ImageViewFactory extends AbstractNodeFactory {
                     s = "https://" + s
                 }
 
-                return new Image(s)
+                return s
         }
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.factory
+
+import groovyx.javafx.collections.LazyTreeItem
+
+import java.util.concurrent.Executor
+
+/**
+ * Creates a LazyTreeItem, a tree item whose children are loaded on a background executor
+ * the first time it is expanded.
+ *
+ *      loader:       Closure called with the item, returning its children: TreeItems, or
+ *                    values that become lazy items with the same loader (required).
+ *      leaf:         Closure called with a child value, true if it has no children.
+ *      placeholder:  The value of the child shown while loading (default 'Loading…'), or
+ *                    null for none.
+ *      maxLoaded:    The most children kept loaded across the tree; collapsed branches
+ *                    beyond it are unloaded, least recently collapsed first.
+ *      executor:     The executor the loader runs on.
+ *
+ * Events and graphics work as for treeItem.
+ */
+class LazyTreeItemFactory extends TreeItemFactory {
+
+    LazyTreeItemFactory() {
+        super(LazyTreeItem)
+    }
+
+    @Override
+    Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes) {
+        if (checkValue(name, value)) {
+            return value
+        }
+        def loader = attributes.remove('loader')
+        if (!(loader instanceof Closure)) {
+            throw new IllegalArgumentException("In $name, loader: must be a Closure returning the children of an item")
+        }
+        def item = new LazyTreeItem(value, (Closure) loader)
+        if (attributes.containsKey('leaf')) {
+            item.leaf = attributes.remove('leaf') as Closure
+        }
+        if (attributes.containsKey('placeholder')) {
+            item.placeholder = attributes.remove('placeholder')
+        }
+        def maxLoaded = attributes.remove('maxLoaded')
+        if (maxLoaded != null) {
+            item.maxLoaded = maxLoaded as int
+        }
+        def executor = attributes.remove('executor')
+        if (executor != null) {
+            item.executor = executor as Executor
+        }
+        return item
+    }
+}
@@ -46,11 +46,17 @@ class ListViewFactory extends AbstractNodeFactory {
         }
 
         final def onSelect = attributes.remove("onSelect")
+        // With coalesceSelection: true only the latest selection of a burst is reported
+        final boolean coalesce = attributes.remove("coalesceSelection") as boolean
 
         if(onSelect != null) {
-             listView.selectionModel.selectedItemProperty().addChangeListener(new ChangeListener() {
+             listView.selectionModel.selectedItemProperty().addListener(new ChangeListener() {
                 public void changed(final ObservableValue observable, final Object oldValue, final Object newValue) {
-                    builder.defer({onSelect.call(newValue);});
+                    if(coalesce) {
+                        builder.defer(this, {onSelect.call(newValue);});
+                    } else {
+                        builder.defer({onSelect.call(newValue);});
+                    }
                 }
              });
         }
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.factory
+
+import groovyx.javafx.chart.LiveSeries
+import javafx.scene.chart.XYChart
+import javafx.util.Duration
+
+/**
+ * Creates a LiveSeries, a series that any thread may append to, and adds its
+ * XYChart.Series to the enclosing chart.  The node is the LiveSeries itself, so an id
+ * refers to the object to append to.
+ *
+ *      window:     How far back from the newest point to keep: a Duration for x values in
+ *                  milliseconds (as appended by append(y)), or a Number in x units.
+ *      capacity:   The most points shown and the most waiting for a pulse (default 10000).
+ *      name:       The series name.
+ *
+ * The enclosing chart's animation is turned off.
+ */
+class LiveSeriesFactory extends XYSeriesFactory {
+
+    LiveSeriesFactory() {
+        super(LiveSeries)
+    }
+
+    @Override
+    Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes) {
+        if (checkValue(name, value)) {
+            return value
+        }
+        def capacity = attributes.remove('capacity')
+        def live = capacity != null ? new LiveSeries(capacity as int) : new LiveSeries()
+        def window = attributes.remove('window')
+        if (window instanceof Duration) {
+            live.setWindow((Duration) window)
+        } else if (window != null) {
+            live.setWindow(window as double)
+        }
+        return live
+    }
+
+    @Override
+    void onNodeCompleted(FactoryBuilderSupport builder, Object parent, Object node) {
+        def seriesList = builder.parentContext.get(SERIES_LIST_PROPERTY, [])
+        seriesList << node.series
+
+        if (parent instanceof XYChart) {
+            node.attach(parent)
+        }
+    }
+}
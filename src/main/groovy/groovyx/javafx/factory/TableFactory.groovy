@@ -17,9 +17,13 @@
  */
 package groovyx.javafx.factory
 
+import groovy.transform.CompileStatic
+import groovyx.javafx.collections.ListRowProvider
+import groovyx.javafx.collections.RowProvider
+import groovyx.javafx.collections.TableDataSource
 import groovyx.javafx.event.GroovyCallback
-import javafx.beans.property.SimpleStringProperty
-import javafx.beans.property.StringProperty
+import javafx.beans.binding.StringBinding
+import javafx.beans.property.ReadOnlyObjectWrapper
 import javafx.beans.value.ChangeListener
 import javafx.beans.value.ObservableValue
 import javafx.collections.FXCollections
@@ -38,6 +42,8 @@ import javafx.scene.control.cell.MapValueFactory
 import javafx.scene.input.KeyCode
 import org.codehaus.groovy.runtime.InvokerHelper
 
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
 import java.lang.reflect.InvocationTargetException
 import java.lang.reflect.Method
 
@@ -200,37 +206,143 @@ class EnumEditingCell extends TableCell implements ChangeListener {
 }
 
 // creates a mapping between two different types of ObservableValues
-// For example String and Date
-class ConverterPropertyValueFactory extends PropertyValueFactory implements ChangeListener {
-    public Closure converter;
-    private StringProperty destination;
-    
-    public ConverterPropertyValueFactory(String property, Closure converter) {
-        super(property);
-        this.converter = converter; 
+// For example String and Date.
+// The converted value is kept per row item, so a recycled cell that shows a row again gets
+// the same value back, and it follows the row's property through a weak listener, so values
+// for rows scrolled away are never pinned by the property. At most cacheSize rows are kept,
+// least recently shown first out, and rows themselves are only weakly referenced. An evicted
+// value stops listening, so cacheSize must exceed the number of rows the table shows.
+@CompileStatic
+class ConverterPropertyValueFactory extends PropertyValueFactory {
+    static final int DEFAULT_CACHE_SIZE = 1024
+
+    public Closure converter
+    private final RowCache cache
+
+    public ConverterPropertyValueFactory(String property, Closure converter, int cacheSize = DEFAULT_CACHE_SIZE) {
+        super(property)
+        this.converter = converter
+        this.cache = new RowCache(cacheSize)
     }
-    
+
     public ObservableValue call(TableColumn.CellDataFeatures param) {
-        ObservableValue origin = super.call(param);
-        Object originValue = origin.getValue();
-        String result = originValue == null ? "" : converter.call(originValue);
-        destination = new SimpleStringProperty(result);
-        if(origin != null) {
-            origin.addListener(this);
-            return destination;
-        }else {
-            return destination;
+        ObservableValue origin = super.call(param)
+        Object row = param.value
+        boolean snapshot = origin == null || isSnapshot(origin)
+        ConvertedValue converted = row == null ? null : cache.get(row)
+        if (converted == null || !converted.follows(origin, snapshot)) {
+            converted?.dispose()
+            converted = new ConvertedValue(converter, origin, snapshot)
+            if (row != null) cache.put(row, converted)
         }
-        
+        return converted
     }
-    
-    public void changed(ObservableValue observable, Object oldValue, Object newValue) {
-        String result = "";
-        if(newValue != null) 
-             result = converter.call(newValue);
-        destination.setValue(result);
+
+    /** The number of rows with a converted value kept. */
+    int getCachedRows() {
+        return cache.size()
+    }
+
+    // PropertyValueFactory wraps the value of a plain getter in a new, unowned wrapper each time
+    private static boolean isSnapshot(ObservableValue origin) {
+        return origin.getClass() == ReadOnlyObjectWrapper && ((ReadOnlyObjectWrapper) origin).bean == null
+    }
+
+    static final class ConvertedValue extends StringBinding {
+        private final Closure converter
+        private final WeakReference<ObservableValue> origin
+        private final Object source
+
+        ConvertedValue(Closure converter, ObservableValue origin, boolean snapshot) {
+            this.converter = converter
+            if (snapshot) {
+                this.origin = null
+                this.source = origin?.value
+            } else {
+                // the row holds its property; bind() only observes it weakly
+                this.origin = new WeakReference<ObservableValue>(origin)
+                this.source = null
+                bind(origin)
+            }
+        }
+
+        boolean follows(ObservableValue current, boolean snapshot) {
+            if (snapshot) {
+                return origin == null && Objects.equals(source, current?.value)
+            }
+            return origin != null && origin.get().is(current)
+        }
+
+        @Override
+        void dispose() {
+            ObservableValue observed = origin?.get()
+            if (observed != null) unbind(observed)
+        }
+
+        @Override
+        protected String computeValue() {
+            Object value = origin == null ? source : origin.get()?.value
+            return value == null ? "" : String.valueOf(converter.call(value))
+        }
+    }
+
+    private static final class RowCache {
+        private final ReferenceQueue<Object> collected = new ReferenceQueue<Object>()
+        private final Map<RowKey, ConvertedValue> entries
+
+        RowCache(int maxRows) {
+            entries = new LinkedHashMap<RowKey, ConvertedValue>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<RowKey, ConvertedValue> eldest) {
+                    if (size() <= maxRows) return false
+                    eldest.value.dispose()
+                    return true
+                }
+            }
+        }
+
+        ConvertedValue get(Object row) {
+            expunge()
+            return entries.get(new RowKey(row, null))
+        }
+
+        void put(Object row, ConvertedValue converted) {
+            entries.put(new RowKey(row, collected), converted)
+        }
+
+        int size() {
+            expunge()
+            return entries.size()
+        }
+
+        private void expunge() {
+            for (def ref = collected.poll(); ref != null; ref = collected.poll()) {
+                entries.remove(ref)
+            }
+        }
+    }
+
+    private static final class RowKey extends WeakReference<Object> {
+        private final int hash
+
+        RowKey(Object row, ReferenceQueue<Object> queue) {
+            super(row, queue)
+            hash = System.identityHashCode(row)
+        }
+
+        @Override
+        int hashCode() {
+            return hash
+        }
+
+        @Override
+        boolean equals(Object other) {
+            if (this.is(other)) return true
+            if (!(other instanceof RowKey)) return false
+            Object row = get()
+            return row != null && row.is(((RowKey) other).get())
+        }
     }
-    
 }
 
 class TableFactory extends AbstractNodeFactory {
@@ -273,14 +385,30 @@ class TableFactory extends AbstractNodeFactory {
                 node.getSelectionModel().selectedItem = selectedItem;
             }
 
+            // paged rows: a TableDataSource, a RowProvider or a List
+            def dataSource = attributes.remove("dataSource")
+            if (dataSource != null) {
+                if (dataSource instanceof RowProvider) {
+                    dataSource = new TableDataSource(dataSource)
+                } else if (dataSource instanceof List) {
+                    dataSource = new TableDataSource(new ListRowProvider(dataSource))
+                }
+                dataSource.install(node)
+            }
+
             if (attributes.containsKey("autoColumns")) {
                 def items = attributes.remove("autoColumns")
+                if (items == true && dataSource != null) {
+                    // columns from the first row only, fetched here rather than paged in
+                    items = dataSource.sourceSize > 0 ? dataSource.provider.fetch(0, 1) : []
+                }
                 if (items instanceof List && !items.isEmpty()) {
                     def first = items[0]
                     if (first instanceof Map) {
                         first.keySet().each { key ->
                             def col = new TableColumn(key.toString().capitalize())
                             col.setCellValueFactory(new MapValueFactory(key.toString()))
+                            col.properties.put(TableDataSource.PROPERTY_KEY, key.toString())
                             node.columns.add(col)
                         }
                     } else if (first != null) {
@@ -289,6 +417,7 @@ class TableFactory extends AbstractNodeFactory {
                             if (key != "class" && key != "metaClass") {
                                 def col = new TableColumn(key.toString().capitalize())
                                 col.setCellValueFactory(new PropertyValueFactory(key.toString()))
+                                col.properties.put(TableDataSource.PROPERTY_KEY, key.toString())
                                 node.columns.add(col)
                             }
                         }
@@ -301,6 +430,7 @@ class TableFactory extends AbstractNodeFactory {
             def type = attributes.remove("type");
             def property = attributes.remove("property");
             if(property != null) {
+                node.properties.put(TableDataSource.PROPERTY_KEY, property)
                 if(converter != null) {
                     node.cellValueFactory  = new ConverterPropertyValueFactory(property, converter)
                 }else {
@@ -0,0 +1,72 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.factory
+
+import groovyx.javafx.canvas.CanvasOperation
+import groovyx.javafx.canvas.TiledCanvas
+
+/**
+ * Builds a {@link TiledCanvas}: collects the canvas operation children like
+ * {@link CanvasFactory} does and starts the first render when the node completes.
+ *
+ * <pre>
+ * tiledCanvas(width: 4096, height: 4096, tileSize: 512) {
+ *     fill(Color.STEELBLUE)
+ *     ...
+ * }
+ * </pre>
+ */
+class TiledCanvasFactory extends AbstractNodeFactory {
+
+    private static final String TILED_OPERATIONS_LIST_PROPERTY = "__tiledCanvasOperationsList"
+
+    TiledCanvasFactory() {
+        super(TiledCanvas)
+    }
+
+    TiledCanvasFactory(Class<TiledCanvas> beanClass) {
+        super(beanClass)
+    }
+
+    @Override
+    void setChild(FactoryBuilderSupport builder, Object parent, Object child) {
+        if (child instanceof CanvasOperation) {
+            // The child's context is current here; the list belongs to the tiled canvas
+            def ctx = builder.parentContext
+            def operations = ctx.get(TILED_OPERATIONS_LIST_PROPERTY)
+            if (!(operations instanceof List)) {
+                operations = []
+                ctx.put(TILED_OPERATIONS_LIST_PROPERTY, operations)
+            }
+            operations << child
+        } else {
+            super.setChild(builder, parent, child)
+        }
+    }
+
+    @Override
+    void onNodeCompleted(FactoryBuilderSupport builder, Object parent, Object node) {
+        def operations = builder.context.remove(TILED_OPERATIONS_LIST_PROPERTY)
+        TiledCanvas canvas = (TiledCanvas) node
+        if (operations instanceof List) {
+            canvas.operations = (List) operations
+        }
+        canvas.render()
+        super.onNodeCompleted(builder, parent, node)
+    }
+}
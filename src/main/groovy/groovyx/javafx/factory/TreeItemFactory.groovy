@@ -129,7 +129,7 @@ class TreeItemFactory extends AbstractFXBeanFactory {
 
     public boolean onHandleNodeAttributes( FactoryBuilderSupport builder, Object node,
             Map attributes ) {
-        for(v in treeItemEvents) {
+        for(v in treeItemEvents.keySet()) {
             if(attributes.containsKey(v)) {
                 def val = attributes.remove(v);
                 if(val instanceof Closure) {
@@ -17,6 +17,8 @@
  */
 package groovyx.javafx.factory
 
+import groovyx.javafx.chart.DownsampledSeries
+import groovyx.javafx.chart.XYBuffer
 import javafx.collections.FXCollections
 import javafx.collections.ObservableList
 import javafx.scene.chart.XYChart
@@ -30,10 +32,20 @@ import javafx.scene.chart.XYChart
  *            is used directly.  The list can also be in the format of [x1, y1, x2, y2, ...] or
  *            [[x1, y1], [x2, y2], ...] and it will be translated to an ObservableList<XYChart.Data>.
  *
+ * For millions of numeric points use source instead of data:
+ *
+ *      source:     A DownsampledSeries, an XYBuffer, or a List of points in either format above.
+ *                  The raw points are kept in primitive arrays and the series shows a downsampled
+ *                  view sized to the chart's x axis, see DownsampledSeries.
+ *      maxPoints:  The most points to show (default 2000).
+ *      capacity:   The most raw points kept when source is a List (default: the list's points).
+ *      downsample: 'minMax' (default) or 'lttb'.
+ *
  * @author Dean Iverson
  */
 class XYSeriesFactory extends AbstractFXBeanFactory {
     public static final String SERIES_LIST_PROPERTY = "__seriesList"
+    public static final String DOWNSAMPLED_PROPERTY = "__downsampledSeries"
 
     public XYSeriesFactory() {
         super(XYChart.Series)
@@ -72,6 +84,10 @@ class XYSeriesFactory extends AbstractFXBeanFactory {
     Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes) {
         if (checkValue(name, value)) {
             return value
+        } else if (attributes.containsKey('source')) {
+            def downsampled = createDownsampledSeries(attributes)
+            builder.context.put(DOWNSAMPLED_PROPERTY, downsampled)
+            return downsampled.series
         } else {
             def data = attributes.remove('data')
             return createSeriesForData(data)
@@ -82,6 +98,44 @@ class XYSeriesFactory extends AbstractFXBeanFactory {
     void onNodeCompleted(FactoryBuilderSupport builder, Object parent, Object node) {
         def seriesList = builder.parentContext.get(SERIES_LIST_PROPERTY, [])
         seriesList << node
+
+        def downsampled = builder.context.get(DOWNSAMPLED_PROPERTY)
+        if (downsampled && parent instanceof XYChart) {
+            downsampled.attach(parent)
+        }
+    }
+
+    /**
+     * Creates a downsampled series from the source, maxPoints, capacity and downsample attributes.
+     */
+    public static DownsampledSeries createDownsampledSeries(Map attributes) {
+        def source = attributes.remove('source')
+        def maxPoints = attributes.remove('maxPoints')
+        def capacity = attributes.remove('capacity')
+        def downsample = attributes.remove('downsample')
+
+        DownsampledSeries downsampled
+        if (source instanceof DownsampledSeries) {
+            downsampled = source
+        } else if (source instanceof XYBuffer) {
+            downsampled = new DownsampledSeries(source)
+        } else if (source instanceof List) {
+            def points = source[0] instanceof List ? source : source.collate(2)
+            downsampled = new DownsampledSeries(Math.max(1, (capacity ?: points.size()) as int))
+            points.each { point -> downsampled.buffer.append(point[0] as double, point.size() > 1 ? point[1] as double : 0d) }
+        } else {
+            throw new IllegalArgumentException("series source must be a DownsampledSeries, an XYBuffer or a List, got ${source?.getClass()?.name}")
+        }
+
+        if (maxPoints != null) {
+            downsampled.maxPoints = maxPoints as int
+        }
+        if (downsample != null) {
+            downsampled.mode = downsample instanceof DownsampledSeries.Mode ? downsample :
+                    (downsample.toString().equalsIgnoreCase('lttb') ? DownsampledSeries.Mode.LTTB : DownsampledSeries.Mode.MIN_MAX)
+        }
+        downsampled.update()
+        return downsampled
     }
 
     @Override
@@ -17,6 +17,7 @@
  */
 package groovyx.javafx.factory.animation
 
+import groovyx.javafx.SceneGraphBuilder
 import groovyx.javafx.event.GroovyEventHandler
 import groovyx.javafx.factory.AbstractFXBeanFactory
 import groovyx.javafx.factory.FXHelper
@@ -28,9 +29,6 @@ import javafx.animation.Timeline
  */
 class TimelineFactory extends AbstractFXBeanFactory {
 
-    public List<KeyFrameWrapper> frames;
-    public List<GroovyEventHandler> eventHandlers;
-
     TimelineFactory() {
         super(Timeline)
     }
@@ -40,7 +38,8 @@ class TimelineFactory extends AbstractFXBeanFactory {
 
     public Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes) throws InstantiationException, IllegalAccessException {
         Timeline timeline 
-        frames = new ArrayList<KeyFrameWrapper>();
+        // key frames are collected in the builder context, factories are shared between builders
+        builder.context.put(SceneGraphBuilder.CONTEXT_KEY_FRAMES_KEY, new ArrayList<KeyFrameWrapper>());
         def framerate = attributes.remove("framerate");
         if(framerate != null)
             timeline = new Timeline(framerate)
@@ -61,6 +60,7 @@ class TimelineFactory extends AbstractFXBeanFactory {
 
     public void setChild(FactoryBuilderSupport build, Object parent, Object child) {
         if(child instanceof KeyFrameWrapper) {
+            List<KeyFrameWrapper> frames = build.parentContext.get(SceneGraphBuilder.CONTEXT_KEY_FRAMES_KEY)
             frames.add(child);
         }else if(child instanceof GroovyEventHandler) {
             FXHelper.setPropertyOrMethod(parent, child.property, child)
@@ -73,6 +73,7 @@ class TimelineFactory extends AbstractFXBeanFactory {
      public void onNodeCompleted( FactoryBuilderSupport builder, Object parent, Object node )  {
         if(node instanceof Timeline) {
             Timeline tl = (Timeline) node;
+            List<KeyFrameWrapper> frames = builder.context.remove(SceneGraphBuilder.CONTEXT_KEY_FRAMES_KEY) ?: []
             for(KeyFrameWrapper w : frames) {
                 tl.getKeyFrames().add(w.createKeyFrame());
             }
@@ -0,0 +1,327 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.image
+
+import groovy.transform.CompileStatic
+import groovyx.javafx.FxDispatcher
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
+import javafx.scene.image.Image
+import javafx.scene.image.ImageView
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Decoded images shared by every {@code image} and {@code imageView} that asks for the same
+ * {@link ImageKey}.
+ *
+ * <p>Images are held in least recently used order until their decoded pixels, at four bytes a
+ * pixel, exceed {@link #getMaxBytes()}; views still showing an evicted image keep it alive.
+ * {@link #load(ImageKey)} decodes on {@link #executor}, a small pool of daemon threads by
+ * default, and callers asking for an image that is already being decoded share that decode.
+ * {@link #into(ImageView, ImageKey, Image)} shows a placeholder until the image is ready. An
+ * image that fails to load is not cached, so a later request tries again.</p>
+ */
+@CompileStatic
+class ImageCache {
+
+    static final long DEFAULT_MAX_BYTES = 128L * 1024 * 1024
+    static final int DEFAULT_DECODE_THREADS = Math.max(1, Math.min(4, Runtime.runtime.availableProcessors()))
+
+    /** View property holding the key a view last asked for, so late results are ignored. */
+    static final String REQUEST_KEY = 'groovyfx.imageRequest'
+
+    private static final ImageCache DEFAULT = new ImageCache()
+
+    /** Decodes images off the calling thread. */
+    Executor executor = decodePool()
+
+    /** Sets images on views on the FX thread. */
+    Executor fxExecutor = { Runnable work -> FxDispatcher.default.dispatch(work) } as Executor
+
+    /** Shown by a view while its image loads, when the request names no placeholder. */
+    volatile Image placeholder
+
+    private volatile long maxBytes
+    // access ordered; guarded by this, like bytes
+    private final LinkedHashMap<ImageKey, Image> entries = new LinkedHashMap<ImageKey, Image>(64, 0.75f, true)
+    private long bytes
+    private final ConcurrentHashMap<ImageKey, CompletableFuture<Image>> loading = new ConcurrentHashMap<ImageKey, CompletableFuture<Image>>()
+
+    private final LongAdder hits = new LongAdder()
+    private final LongAdder misses = new LongAdder()
+    private final LongAdder failures = new LongAdder()
+    private final LongAdder evictions = new LongAdder()
+    private final LongAdder decodes = new LongAdder()
+    private final LongAdder decodeNanos = new LongAdder()
+    private volatile long maxDecodeNanos
+
+    ImageCache() {
+        this(DEFAULT_MAX_BYTES)
+    }
+
+    ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes
+    }
+
+    /** The cache behind the {@code image} and {@code imageView} nodes. */
+    static ImageCache getDefault() {
+        return DEFAULT
+    }
+
+    long getMaxBytes() {
+        return maxBytes
+    }
+
+    void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes
+        synchronized (this) {
+            trim()
+        }
+    }
+
+    /** Decoded bytes of the images held. */
+    synchronized long getBytes() {
+        return bytes
+    }
+
+    /** The number of images held. */
+    synchronized int size() {
+        return entries.size()
+    }
+
+    /** The image if it is held, without loading it or counting a hit or miss. */
+    synchronized Image peek(ImageKey key) {
+        return entries.get(key)
+    }
+
+    /**
+     * The image, decoded on the calling thread if it is neither held nor being decoded. An
+     * image that failed to load is returned with its error set, as {@code new Image} would.
+     */
+    Image image(ImageKey key) {
+        Image image = peek(key)
+        if (image == null) {
+            CompletableFuture<Image> pending = loading.get(key)
+            if (pending != null) {
+                hits.increment()
+                try {
+                    return pending.join()
+                } catch (Exception ignored) {
+                    // the shared decode failed; decode again to return the error image
+                }
+            }
+            misses.increment()
+            image = decode(key)
+            store(key, image)
+            return image
+        }
+        hits.increment()
+        return image
+    }
+
+    /**
+     * The image if it is held, otherwise a new image loading in JavaFX's own background
+     * loader, as {@code new Image(url, ..., true)} returns, that is cached once it has loaded.
+     */
+    Image backgroundImage(ImageKey key) {
+        Image image = peek(key)
+        if (image != null) {
+            hits.increment()
+            return image
+        }
+        misses.increment()
+        image = new Image(key.url, key.requestedWidth, key.requestedHeight, key.preserveRatio, key.smooth, true)
+        if (image.progress >= 1d) {
+            store(key, image)
+        } else {
+            Image loadingImage = image
+            image.progressProperty().addListener(new InvalidationListener() {
+                @Override
+                void invalidated(Observable observable) {
+                    if (loadingImage.progress >= 1d) {
+                        loadingImage.progressProperty().removeListener(this)
+                        store(key, loadingImage)
+                    }
+                }
+            })
+        }
+        return image
+    }
+
+    /** The image, decoded on {@link #executor} unless it is held or already being decoded. */
+    CompletableFuture<Image> load(ImageKey key) {
+        Image image = peek(key)
+        if (image != null) {
+            hits.increment()
+            return CompletableFuture.completedFuture(image)
+        }
+        CompletableFuture<Image> created = new CompletableFuture<Image>()
+        CompletableFuture<Image> pending = loading.putIfAbsent(key, created)
+        if (pending != null) {
+            hits.increment()
+            return pending
+        }
+        misses.increment()
+        try {
+            executor.execute {
+                try {
+                    Image decoded = decode(key)
+                    store(key, decoded)
+                    if (decoded.error) {
+                        created.completeExceptionally(decoded.exception ?: new IllegalStateException("Could not load image $key"))
+                    } else {
+                        created.complete(decoded)
+                    }
+                } catch (Throwable t) {
+                    failures.increment()
+                    created.completeExceptionally(t)
+                } finally {
+                    loading.remove(key, created)
+                }
+            }
+        } catch (Throwable t) {
+            loading.remove(key, created)
+            created.completeExceptionally(t)
+        }
+        return created
+    }
+
+    /**
+     * Shows the image in the view: at once if it is held, otherwise the placeholder (or
+     * {@link #placeholder}) until it has been decoded. If the view asks for another image in
+     * the meantime, as recycled cells do, the late result is not shown.
+     */
+    void into(ImageView view, ImageKey key, Image placeholder = null) {
+        view.properties.put(REQUEST_KEY, key)
+        CompletableFuture<Image> result = load(key)
+        if (result.isDone() && !result.isCompletedExceptionally()) {
+            view.image = result.join()
+            return
+        }
+        view.image = placeholder ?: this.placeholder
+        result.thenAccept { Image image ->
+            fxExecutor.execute {
+                if (key == view.properties.get(REQUEST_KEY)) {
+                    view.image = image
+                }
+            }
+        }
+    }
+
+    /** Drops every image held. */
+    synchronized void clear() {
+        entries.clear()
+        bytes = 0
+    }
+
+    /** The share of requests served without a decode, between 0 and 1. */
+    double getHitRate() {
+        long hitCount = hits.sum()
+        long total = hitCount + misses.sum()
+        return total == 0L ? 0d : (double) hitCount / total
+    }
+
+    /**
+     * Counters since the last {@link #resetStatistics()}: {@code hits} (held or already being
+     * decoded), {@code misses}, {@code decodes}, {@code failures}, {@code evictions},
+     * {@code decodeNanos} (total), {@code averageDecodeNanos} and {@code maxDecodeNanos}, plus
+     * the current {@code entries}, {@code bytes}, {@code maxBytes} and {@code loading}.
+     */
+    Map<String, Long> statistics() {
+        long decodeCount = decodes.sum()
+        long totalNanos = decodeNanos.sum()
+        Map<String, Long> stats = new LinkedHashMap<String, Long>()
+        stats.put('hits', hits.sum())
+        stats.put('misses', misses.sum())
+        stats.put('decodes', decodeCount)
+        stats.put('failures', failures.sum())
+        stats.put('evictions', evictions.sum())
+        stats.put('decodeNanos', totalNanos)
+        stats.put('averageDecodeNanos', decodeCount == 0L ? 0L : totalNanos.intdiv(decodeCount).longValue())
+        stats.put('maxDecodeNanos', maxDecodeNanos)
+        synchronized (this) {
+            stats.put('entries', (long) entries.size())
+            stats.put('bytes', bytes)
+        }
+        stats.put('maxBytes', maxBytes)
+        stats.put('loading', (long) loading.size())
+        return stats
+    }
+
+    void resetStatistics() {
+        hits.reset()
+        misses.reset()
+        failures.reset()
+        evictions.reset()
+        decodes.reset()
+        decodeNanos.reset()
+        maxDecodeNanos = 0L
+    }
+
+    /** Decodes the image synchronously; called on the requesting or a decode thread. */
+    protected Image decode(ImageKey key) {
+        long start = System.nanoTime()
+        Image image = new Image(key.url, key.requestedWidth, key.requestedHeight, key.preserveRatio, key.smooth, false)
+        long elapsed = System.nanoTime() - start
+        decodes.increment()
+        decodeNanos.add(elapsed)
+        if (elapsed > maxDecodeNanos) maxDecodeNanos = elapsed
+        if (image.error) failures.increment()
+        return image
+    }
+
+    private void store(ImageKey key, Image image) {
+        if (image.error) return
+        long size = bytesOf(image)
+        synchronized (this) {
+            Image previous = entries.put(key, image)
+            if (previous != null) bytes -= bytesOf(previous)
+            bytes += size
+            trim()
+        }
+    }
+
+    /** Evicts the least recently used images until within budget; the newest always stays. */
+    private void trim() {
+        Iterator<Image> eldest = entries.values().iterator()
+        while (bytes > maxBytes && entries.size() > 1) {
+            bytes -= bytesOf(eldest.next())
+            eldest.remove()
+            evictions.increment()
+        }
+    }
+
+    private static long bytesOf(Image image) {
+        return 4L * (long) Math.ceil(image.width) * (long) Math.ceil(image.height)
+    }
+
+    private static Executor decodePool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(DEFAULT_DECODE_THREADS, DEFAULT_DECODE_THREADS,
+                5L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                Thread.ofPlatform().name('groovyfx-image-decode-', 0L).daemon(true).factory())
+        pool.allowCoreThreadTimeOut(true)
+        return pool
+    }
+}
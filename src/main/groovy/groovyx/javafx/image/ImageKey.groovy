@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.image
+
+import groovy.transform.CompileStatic
+
+/**
+ * What an {@link ImageCache} entry was decoded from: the URL and the arguments of the
+ * {@link javafx.scene.image.Image} constructor that change the decoded pixels.
+ */
+@CompileStatic
+final class ImageKey {
+
+    final String url
+    final double requestedWidth
+    final double requestedHeight
+    final boolean preserveRatio
+    final boolean smooth
+
+    ImageKey(String url) {
+        this(url, 0d, 0d, false, false)
+    }
+
+    ImageKey(String url, double requestedWidth, double requestedHeight, boolean preserveRatio, boolean smooth) {
+        if (url == null) throw new IllegalArgumentException('url must not be null')
+        this.url = url
+        this.requestedWidth = requestedWidth
+        this.requestedHeight = requestedHeight
+        this.preserveRatio = preserveRatio
+        this.smooth = smooth
+    }
+
+    @Override
+    boolean equals(Object other) {
+        if (!(other instanceof ImageKey)) return false
+        ImageKey that = (ImageKey) other
+        return url == that.url && requestedWidth == that.requestedWidth && requestedHeight == that.requestedHeight &&
+                preserveRatio == that.preserveRatio && smooth == that.smooth
+    }
+
+    @Override
+    int hashCode() {
+        int hash = url.hashCode()
+        hash = 31 * hash + Double.hashCode(requestedWidth)
+        hash = 31 * hash + Double.hashCode(requestedHeight)
+        hash = 31 * hash + (preserveRatio ? 1 : 0)
+        return 31 * hash + (smooth ? 1 : 0)
+    }
+
+    @Override
+    String toString() {
+        return "$url (${requestedWidth}x${requestedHeight}${preserveRatio ? ', preserveRatio' : ''}${smooth ? ', smooth' : ''})"
+    }
+}
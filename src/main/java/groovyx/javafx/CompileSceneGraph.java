@@ -0,0 +1,53 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx;
+
+import org.codehaus.groovy.transform.GroovyASTTransformationClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a class or method into compiled scene graph building.
+ *
+ * <p>Within the annotated code, {@link SceneGraphBuilder} calls for common layout panes,
+ * controls and shapes ({@code vbox}, {@code label}, {@code rectangle}, ...) whose
+ * attributes are known at compile time are turned into a statically compiled method
+ * that instantiates the nodes and calls their setters directly. The generated subtree
+ * is handed to the builder with a single {@code node(...)} call, so it still takes part
+ * in the surrounding dynamic build (parent attachment, {@code id} variables, layout
+ * constraints).</p>
+ *
+ * <p>Anything the transform cannot prove equivalent stays on the dynamic path: unknown
+ * node names, attributes without a setter or with special builder meaning, {@code bind(...)}
+ * and other method calls as values, builder variables, and child closures containing
+ * anything other than compilable node calls.</p>
+ *
+ * <p>Node names are matched against the built-in factories; builders that re-register
+ * one of those names with a different factory should not use this annotation.</p>
+ *
+ * @see CompileSceneGraphASTTransformation
+ */
+@java.lang.annotation.Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.CONSTRUCTOR})
+@GroovyASTTransformationClass("groovyx.javafx.CompileSceneGraphASTTransformation")
+public @interface CompileSceneGraph {
+}
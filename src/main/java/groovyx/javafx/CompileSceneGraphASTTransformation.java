@@ -0,0 +1,646 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx;
+
+import groovy.transform.CompilationUnitAware;
+import groovy.transform.CompileStatic;
+import org.apache.groovy.util.BeanUtils;
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassCodeExpressionTransformer;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.CodeVisitorSupport;
+import org.codehaus.groovy.ast.ConstructorNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.Variable;
+import org.codehaus.groovy.ast.VariableScope;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.GStringExpression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MapEntryExpression;
+import org.codehaus.groovy.ast.expr.MapExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.SpreadExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.TupleExpression;
+import org.codehaus.groovy.ast.expr.UnaryMinusExpression;
+import org.codehaus.groovy.ast.expr.UnaryPlusExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.EmptyStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.syntax.Types;
+import org.codehaus.groovy.transform.ASTTransformation;
+import org.codehaus.groovy.transform.GroovyASTTransformation;
+import org.codehaus.groovy.transform.sc.StaticCompileTransformation;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.codehaus.groovy.ast.tools.GeneralUtils.args;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.callX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.castX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.classX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.constX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ctorX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.declS;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ifElseS;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.isInstanceOfX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.localVarX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.propX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.returnS;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.stmt;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.varX;
+
+/**
+ * Handles generation of code for {@link CompileSceneGraph}.
+ * <p>
+ * Every builder call for a known node name whose attributes can be resolved at compile
+ * time is replaced by {@code node(<generated method>(...))}. The generated method is
+ * statically compiled: it instantiates the node (and any compilable children), calls
+ * the JavaFX setters directly and adds children to {@code getChildren()}. Attribute values
+ * are still evaluated at the original call site and passed in as arguments; values whose
+ * runtime type does not match the setter go through {@code CompiledSceneGraphSupport.apply},
+ * which performs the same coercion as the dynamic builder.
+ * <p>
+ * The outermost compiled call may keep attributes the transform does not understand
+ * (ids, layout constraints, bindings, ...): they are handed to {@code node(...)} and
+ * processed by the builder as before. Nested calls are only compiled when everything
+ * about them is compilable.
+ */
+@GroovyASTTransformation(phase = CompilePhase.INSTRUCTION_SELECTION)
+public class CompileSceneGraphASTTransformation implements ASTTransformation, CompilationUnitAware {
+
+    private static final String SUPPORT_CLASS = "groovyx.javafx.CompiledSceneGraphSupport";
+    private static final String COLOR_FACTORY_CLASS = "groovyx.javafx.factory.ColorFactory";
+    private static final String HELPER_PREFIX = "$sceneGraph$";
+
+    private static final Map<String, NodeType> NODE_TYPES = new HashMap<>();
+
+    static {
+        container("pane", "javafx.scene.layout.Pane");
+        container("flowPane", "javafx.scene.layout.FlowPane");
+        container("hbox", "javafx.scene.layout.HBox");
+        container("vbox", "javafx.scene.layout.VBox");
+        container("stackPane", "javafx.scene.layout.StackPane");
+        container("tilePane", "javafx.scene.layout.TilePane");
+        container("gridPane", "javafx.scene.layout.GridPane");
+        container("group", "javafx.scene.Group");
+
+        leaf("region", "javafx.scene.layout.Region", false);
+        leaf("label", "javafx.scene.control.Label", true);
+        leaf("button", "javafx.scene.control.Button", true);
+        leaf("checkBox", "javafx.scene.control.CheckBox", true);
+        leaf("hyperlink", "javafx.scene.control.Hyperlink", true);
+        leaf("radioButton", "javafx.scene.control.RadioButton", true);
+        leaf("toggleButton", "javafx.scene.control.ToggleButton", true);
+        leaf("textField", "javafx.scene.control.TextField", true);
+        leaf("textArea", "javafx.scene.control.TextArea", true);
+        leaf("passwordField", "javafx.scene.control.PasswordField", true);
+        leaf("slider", "javafx.scene.control.Slider", false);
+        leaf("separator", "javafx.scene.control.Separator", false);
+        leaf("progressBar", "javafx.scene.control.ProgressBar", false);
+        leaf("text", "javafx.scene.text.Text", true);
+        leaf("rectangle", "javafx.scene.shape.Rectangle", false);
+        leaf("circle", "javafx.scene.shape.Circle", false);
+        leaf("ellipse", "javafx.scene.shape.Ellipse", false);
+        leaf("line", "javafx.scene.shape.Line", false);
+    }
+
+    // attributes the builder interprets itself (FXHelper, AbstractNodeFactory layout
+    // constraints, idDelegate, FormLayout) rather than mapping onto a bean setter
+    private static final Set<String> BUILDER_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            "id", "label", "validate", "buttonData",
+            "anchor", "topAnchor", "bottomAnchor", "leftAnchor", "rightAnchor", "show",
+            "halignment", "valignment", "alignment", "margin", "hgrow", "vgrow",
+            "column", "columnIndex", "col", "row", "rowIndex",
+            "columnSpan", "colSpan", "colspan", "cols", "rowSpan", "rowspan", "rows", "span"
+    ));
+
+    private static final Map<Class<?>, Class<?>> BOXED_NUMBERS = new HashMap<>();
+
+    static {
+        BOXED_NUMBERS.put(Double.TYPE, Double.class);
+        BOXED_NUMBERS.put(Float.TYPE, Float.class);
+        BOXED_NUMBERS.put(Long.TYPE, Long.class);
+        BOXED_NUMBERS.put(Integer.TYPE, Integer.class);
+        BOXED_NUMBERS.put(Short.TYPE, Short.class);
+        BOXED_NUMBERS.put(Byte.TYPE, Byte.class);
+    }
+
+    private CompilationUnit compilationUnit;
+
+    private static void container(String name, String className) {
+        NODE_TYPES.put(name, new NodeType(className, true, false));
+    }
+
+    private static void leaf(String name, String className, boolean textValue) {
+        NODE_TYPES.put(name, new NodeType(className, false, textValue));
+    }
+
+    @Override
+    public void setCompilationUnit(CompilationUnit unit) {
+        this.compilationUnit = unit;
+    }
+
+    @Override
+    public void visit(ASTNode[] nodes, SourceUnit source) {
+        if (nodes.length != 2 || !(nodes[0] instanceof AnnotationNode) || !(nodes[1] instanceof AnnotatedNode)) {
+            throw new IllegalArgumentException("Internal error: wrong types: " + nodes.getClass() + " / " + nodes.length);
+        }
+        AnnotatedNode target = (AnnotatedNode) nodes[1];
+        ClassNode owner = target instanceof ClassNode ? (ClassNode) target : target.getDeclaringClass();
+
+        Rewriter rewriter = new Rewriter(source, owner);
+        if (target instanceof ClassNode) {
+            for (ConstructorNode constructor : new ArrayList<>(owner.getDeclaredConstructors())) {
+                rewriter.visitConstructor(constructor);
+            }
+            for (MethodNode method : new ArrayList<>(owner.getMethods())) {
+                rewriter.visitMethod(method);
+            }
+        } else if (target instanceof ConstructorNode) {
+            rewriter.visitConstructor((ConstructorNode) target);
+        } else if (target instanceof MethodNode) {
+            rewriter.visitMethod((MethodNode) target);
+        }
+
+        AnnotationNode compileStatic = new AnnotationNode(ClassHelper.make(CompileStatic.class));
+        for (MethodNode helper : rewriter.helpers) {
+            owner.addMethod(helper);
+            StaticCompileTransformation transformation = new StaticCompileTransformation();
+            transformation.setCompilationUnit(compilationUnit);
+            transformation.visit(new ASTNode[]{compileStatic, helper}, source);
+        }
+    }
+
+    private static final class NodeType {
+        final String className;
+        final boolean container;
+        final boolean textValue;
+
+        NodeType(String className, boolean container, boolean textValue) {
+            this.className = className;
+            this.container = container;
+            this.textValue = textValue;
+        }
+    }
+
+    private static final class NodeSpec {
+        final Class<?> beanClass;
+        final List<Attribute> attributes = new ArrayList<>();
+        final List<MapEntryExpression> passThrough = new ArrayList<>();
+        final List<NodeSpec> children = new ArrayList<>();
+        Expression value;
+
+        NodeSpec(Class<?> beanClass) {
+            this.beanClass = beanClass;
+        }
+    }
+
+    private static final class Attribute {
+        final String name;
+        final Method setter;
+        final Expression value;
+
+        Attribute(String name, Method setter, Expression value) {
+            this.name = name;
+            this.setter = setter;
+            this.value = value;
+        }
+    }
+
+    private final class Rewriter extends ClassCodeExpressionTransformer {
+        private final SourceUnit source;
+        private final ClassNode owner;
+        private final List<MethodNode> helpers = new ArrayList<>();
+
+        // per generated method
+        private List<Parameter> parameters;
+        private List<Expression> arguments;
+        private int nodeCount;
+
+        Rewriter(SourceUnit source, ClassNode owner) {
+            this.source = source;
+            this.owner = owner;
+        }
+
+        @Override
+        protected SourceUnit getSourceUnit() {
+            return source;
+        }
+
+        @Override
+        public Expression transform(Expression exp) {
+            if (exp instanceof MethodCallExpression) {
+                Expression compiled = compile((MethodCallExpression) exp);
+                if (compiled != null) return compiled;
+            }
+            if (exp instanceof ClosureExpression) {
+                ((ClosureExpression) exp).getCode().visit(this);
+                return exp;
+            }
+            return super.transform(exp);
+        }
+
+        private Expression compile(MethodCallExpression call) {
+            if (!isNodeCall(call, true)) return null;
+            NodeSpec spec = analyse(call, true);
+            if (spec == null || (spec.attributes.isEmpty() && spec.children.isEmpty() && spec.value == null)) {
+                return null;
+            }
+
+            parameters = new ArrayList<>();
+            arguments = new ArrayList<>();
+            nodeCount = 0;
+            BlockStatement body = new BlockStatement();
+            VariableExpression root = emit(spec, null, body);
+            body.addStatement(returnS(root));
+
+            String name = helperName();
+            MethodNode helper = new MethodNode(name, Modifier.PRIVATE | Modifier.STATIC,
+                    ClassHelper.make(spec.beanClass), parameters.toArray(Parameter.EMPTY_ARRAY),
+                    ClassNode.EMPTY_ARRAY, body);
+            helper.setVariableScope(new VariableScope());
+            helper.setSourcePosition(call);
+            helpers.add(helper);
+
+            Expression built = new StaticMethodCallExpression(owner, name, new ArgumentListExpression(arguments));
+            ArgumentListExpression nodeArgs = new ArgumentListExpression();
+            if (!spec.passThrough.isEmpty()) {
+                nodeArgs.addExpression(new MapExpression(spec.passThrough));
+            }
+            nodeArgs.addExpression(built);
+
+            MethodCallExpression replacement = new MethodCallExpression(call.getObjectExpression(), "node", nodeArgs);
+            replacement.setImplicitThis(call.isImplicitThis());
+            replacement.setSourcePosition(call);
+            return replacement;
+        }
+
+        private String helperName() {
+            int index = helpers.size();
+            String name;
+            do {
+                name = HELPER_PREFIX + index++;
+            } while (!owner.getMethods(name).isEmpty());
+            return name;
+        }
+
+        // --- analysis ---
+
+        private boolean isNodeCall(MethodCallExpression call, boolean root) {
+            if (call.isSafe() || call.isSpreadSafe() || !NODE_TYPES.containsKey(call.getMethodAsString())) {
+                return false;
+            }
+            if (call.isImplicitThis()) return true;
+            Expression receiver = call.getObjectExpression();
+            return root && receiver instanceof VariableExpression
+                    && !((VariableExpression) receiver).isThisExpression()
+                    && !((VariableExpression) receiver).isSuperExpression();
+        }
+
+        private NodeSpec analyse(MethodCallExpression call, boolean root) {
+            NodeType type = NODE_TYPES.get(call.getMethodAsString());
+            Class<?> beanClass = load(type.className);
+            if (beanClass == null) return null;
+            NodeSpec spec = new NodeSpec(beanClass);
+
+            List<Expression> args = call.getArguments() instanceof TupleExpression
+                    ? ((TupleExpression) call.getArguments()).getExpressions()
+                    : Collections.singletonList(call.getArguments());
+            ClosureExpression closure = null;
+            for (int i = 0; i < args.size(); i++) {
+                Expression arg = args.get(i);
+                if (arg instanceof MapExpression && i == 0) {
+                    for (MapEntryExpression entry : ((MapExpression) arg).getMapEntryExpressions()) {
+                        if (!attribute(spec, entry, root)) return null;
+                    }
+                } else if (arg instanceof ClosureExpression && i == args.size() - 1) {
+                    closure = (ClosureExpression) arg;
+                } else if (spec.value == null && type.textValue && isTextValue(arg, root)) {
+                    spec.value = arg;
+                } else {
+                    return null;
+                }
+            }
+
+            if (closure != null) {
+                if (!type.container || closure.isParameterSpecified()) return null;
+                for (Statement statement : statements(closure.getCode())) {
+                    if (statement instanceof EmptyStatement) continue;
+                    Expression expression = statement instanceof ExpressionStatement
+                            ? ((ExpressionStatement) statement).getExpression()
+                            : statement instanceof ReturnStatement ? ((ReturnStatement) statement).getExpression() : null;
+                    if (!(expression instanceof MethodCallExpression)) return null;
+                    MethodCallExpression childCall = (MethodCallExpression) expression;
+                    if (!isNodeCall(childCall, false)) return null;
+                    NodeSpec child = analyse(childCall, false);
+                    if (child == null) return null;
+                    spec.children.add(child);
+                }
+            }
+            return spec;
+        }
+
+        private boolean attribute(NodeSpec spec, MapEntryExpression entry, boolean root) {
+            Expression key = entry.getKeyExpression();
+            if (!(key instanceof ConstantExpression) || !(((ConstantExpression) key).getValue() instanceof String)) {
+                return false;
+            }
+            String name = (String) ((ConstantExpression) key).getValue();
+            Expression value = entry.getValueExpression();
+            Method setter = BUILDER_ATTRIBUTES.contains(name) ? null : setter(spec.beanClass, name);
+            // the outermost call is evaluated in place, so anything it cannot compile is
+            // simply left for the builder; nested calls must be fully compilable
+            if (root) {
+                if (setter != null) {
+                    spec.attributes.add(new Attribute(name, setter, value));
+                } else {
+                    spec.passThrough.add(entry);
+                }
+                return true;
+            }
+            if (setter == null || !isPortable(value)) return false;
+            spec.attributes.add(new Attribute(name, setter, value));
+            return true;
+        }
+
+        private Method setter(Class<?> beanClass, String name) {
+            String setterName = "set" + BeanUtils.capitalize(name);
+            Method found = null;
+            for (Method method : beanClass.getMethods()) {
+                if (!method.getName().equals(setterName) || method.getParameterCount() != 1
+                        || Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+                    continue;
+                }
+                if (found != null) return null; // overloaded: leave it to the metaclass
+                found = method;
+            }
+            if (found == null) return null;
+            Class<?> type = found.getParameterTypes()[0];
+            return type == Character.TYPE || type == Character.class ? null : found;
+        }
+
+        /**
+         * Node values become the text of the node, unless they are an {@code Action} or a node
+         * instance; only accept values statically known to be neither.
+         */
+        private boolean isTextValue(Expression value, boolean root) {
+            if (value instanceof ConstantExpression) return ((ConstantExpression) value).getValue() != null;
+            if (value instanceof GStringExpression) return root || isPortable(value);
+            if (value instanceof VariableExpression) {
+                ClassNode type = ClassHelper.getWrapper(value.getType());
+                return (root || isPortable(value)) && (type.equals(ClassHelper.STRING_TYPE)
+                        || type.equals(ClassHelper.GSTRING_TYPE) || ClassHelper.isNumberType(type));
+            }
+            return false;
+        }
+
+        /**
+         * Whether an attribute value of a nested call can be evaluated at the outermost call
+         * site instead of inside the (removed) child closure. Only lexically bound values
+         * qualify; anything the closure delegate could resolve differently does not.
+         */
+        private boolean isPortable(Expression value) {
+            if (value instanceof ConstantExpression || value instanceof ClassExpression) return true;
+            if (value instanceof VariableExpression) {
+                VariableExpression variable = (VariableExpression) value;
+                if (variable.isThisExpression() || variable.isSuperExpression()) return false;
+                Variable accessed = variable.getAccessedVariable();
+                // 'it' would now refer to the enclosing closure's parameter
+                if (accessed instanceof Parameter) return !"it".equals(accessed.getName());
+                return accessed instanceof VariableExpression;
+            }
+            if (value instanceof PropertyExpression) {
+                PropertyExpression property = (PropertyExpression) value;
+                return !property.isSpreadSafe() && property.getProperty() instanceof ConstantExpression
+                        && isPortable(property.getObjectExpression());
+            }
+            if (value instanceof GStringExpression) return allPortable(((GStringExpression) value).getValues());
+            if (value instanceof ListExpression) return allPortable(((ListExpression) value).getExpressions());
+            if (value instanceof UnaryMinusExpression) return isPortable(((UnaryMinusExpression) value).getExpression());
+            if (value instanceof UnaryPlusExpression) return isPortable(((UnaryPlusExpression) value).getExpression());
+            if (value instanceof CastExpression) return isPortable(((CastExpression) value).getExpression());
+            if (value instanceof ConstructorCallExpression) {
+                Expression ctorArgs = ((ConstructorCallExpression) value).getArguments();
+                return ctorArgs instanceof TupleExpression && allPortable(((TupleExpression) ctorArgs).getExpressions());
+            }
+            if (value instanceof BinaryExpression) {
+                BinaryExpression binary = (BinaryExpression) value;
+                return !Types.ofType(binary.getOperation().getType(), Types.ASSIGNMENT_OPERATOR)
+                        && isPortable(binary.getLeftExpression()) && isPortable(binary.getRightExpression());
+            }
+            if (value instanceof ClosureExpression) {
+                ClosureExpression closure = (ClosureExpression) value;
+                return (!closure.isParameterSpecified() || !referencesIt(closure)) && isLexical(closure);
+            }
+            return false;
+        }
+
+        private boolean allPortable(List<? extends Expression> values) {
+            for (Expression value : values) {
+                if (value instanceof SpreadExpression || !isPortable(value)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Whether a closure body only names lexically bound variables. Anything else, such as a
+         * builder variable, an id or an implicit-this call, resolves through the removed child
+         * closure's delegate and would fail once the closure is created at the outermost call.
+         */
+        private boolean isLexical(ClosureExpression closure) {
+            boolean[] lexical = {true};
+            closure.getCode().visit(new CodeVisitorSupport() {
+                @Override
+                public void visitVariableExpression(VariableExpression expression) {
+                    Variable accessed = expression.getAccessedVariable();
+                    if (expression.isThisExpression() || expression.isSuperExpression()
+                            || !(accessed instanceof Parameter || accessed instanceof VariableExpression)) {
+                        lexical[0] = false;
+                    }
+                }
+
+                @Override
+                public void visitMethodCallExpression(MethodCallExpression call) {
+                    if (call.isImplicitThis()) lexical[0] = false;
+                    super.visitMethodCallExpression(call);
+                }
+            });
+            return lexical[0];
+        }
+
+        private boolean referencesIt(ClosureExpression closure) {
+            boolean[] found = {false};
+            closure.getCode().visit(new CodeVisitorSupport() {
+                @Override
+                public void visitVariableExpression(VariableExpression expression) {
+                    if ("it".equals(expression.getName())) found[0] = true;
+                }
+            });
+            return found[0];
+        }
+
+        private List<Statement> statements(Statement code) {
+            return code instanceof BlockStatement
+                    ? ((BlockStatement) code).getStatements()
+                    : Collections.singletonList(code);
+        }
+
+        // --- code generation ---
+
+        private VariableExpression emit(NodeSpec spec, VariableExpression parent, BlockStatement body) {
+            ClassNode type = ClassHelper.make(spec.beanClass);
+            VariableExpression node = localVarX("node" + nodeCount++, type);
+            body.addStatement(declS(node, ctorX(type)));
+            if (spec.value != null) {
+                body.addStatement(stmt(callX(node, "setText", text(spec.value))));
+            }
+            for (Attribute attribute : spec.attributes) {
+                body.addStatement(set(node, attribute));
+            }
+            if (parent != null) {
+                body.addStatement(stmt(callX(callX(parent, "getChildren"), "add", node)));
+            }
+            for (NodeSpec child : spec.children) {
+                emit(child, node, body);
+            }
+            return node;
+        }
+
+        private Expression text(Expression value) {
+            if (value instanceof ConstantExpression) {
+                return constX(String.valueOf(((ConstantExpression) value).getValue()));
+            }
+            return callX(classX(ClassHelper.STRING_TYPE), "valueOf", args(castX(ClassHelper.OBJECT_TYPE, parameter(value))));
+        }
+
+        private Statement set(VariableExpression node, Attribute attribute) {
+            Class<?> type = attribute.setter.getParameterTypes()[0];
+            String setter = attribute.setter.getName();
+            if (attribute.value instanceof ConstantExpression) {
+                Expression direct = convertConstant(type, ((ConstantExpression) attribute.value).getValue());
+                if (direct != null) return stmt(callX(node, setter, direct));
+            }
+
+            Expression value = parameter(attribute.value);
+            ClassNode test;
+            Expression converted;
+            Class<?> number = type.isPrimitive() ? BOXED_NUMBERS.get(type) : (BOXED_NUMBERS.containsValue(type) ? type : null);
+            if (number != null) {
+                test = ClassHelper.Number_TYPE;
+                String primitive = ClassHelper.getUnwrapper(ClassHelper.make(number)).getName();
+                converted = callX(castX(ClassHelper.Number_TYPE, value), primitive + "Value");
+            } else if (type == Boolean.TYPE || type == Boolean.class) {
+                test = ClassHelper.Boolean_TYPE;
+                converted = callX(castX(ClassHelper.Boolean_TYPE, value), "booleanValue");
+            } else {
+                test = ClassHelper.make(type).getPlainNodeReference();
+                converted = castX(test, value);
+            }
+            return ifElseS(isInstanceOfX(value, test),
+                    stmt(callX(node, setter, converted)),
+                    stmt(callX(classX(support()), "apply", args(node, constX(attribute.name), value))));
+        }
+
+        private Expression convertConstant(Class<?> type, Object value) {
+            if (value == null) return null;
+            if (type == String.class) {
+                return value instanceof String ? constX(value) : null;
+            }
+            Class<?> number = type.isPrimitive() ? BOXED_NUMBERS.get(type) : null;
+            if (number != null || BOXED_NUMBERS.containsValue(type)) {
+                if (!(value instanceof Number)) return null;
+                Number n = (Number) value;
+                Class<?> boxed = number != null ? number : type;
+                Object converted = boxed == Double.class ? (Object) n.doubleValue()
+                        : boxed == Float.class ? (Object) n.floatValue()
+                        : boxed == Long.class ? (Object) n.longValue()
+                        : boxed == Integer.class ? (Object) n.intValue()
+                        : boxed == Short.class ? (Object) n.shortValue()
+                        : (Object) n.byteValue();
+                return new ConstantExpression(converted, type.isPrimitive());
+            }
+            if (type == Boolean.TYPE || type == Boolean.class) {
+                return value instanceof Boolean ? new ConstantExpression(value, type.isPrimitive()) : null;
+            }
+            if (type.isEnum() && value instanceof String) {
+                String constant = ((String) value).trim().toUpperCase();
+                for (Object e : type.getEnumConstants()) {
+                    if (((Enum<?>) e).name().equals(constant)) {
+                        return propX(classX(ClassHelper.make(type)), constant);
+                    }
+                }
+                return null;
+            }
+            if (type.getName().equals("javafx.scene.paint.Paint") && value instanceof String) {
+                Class<?> colors = load(COLOR_FACTORY_CLASS);
+                return colors == null ? null : callX(classX(ClassHelper.make(colors)), "get", args(constX(value)));
+            }
+            if (type.getName().equals("javafx.geometry.Insets") && value instanceof Number) {
+                return ctorX(ClassHelper.make(type), args(new ConstantExpression(((Number) value).doubleValue(), true)));
+            }
+            return null;
+        }
+
+        private VariableExpression parameter(Expression value) {
+            Parameter parameter = new Parameter(ClassHelper.OBJECT_TYPE.getPlainNodeReference(), "arg" + parameters.size());
+            parameters.add(parameter);
+            arguments.add(value);
+            return varX(parameter);
+        }
+
+        private ClassNode support() {
+            Class<?> support = load(SUPPORT_CLASS);
+            return support != null ? ClassHelper.make(support) : ClassHelper.make(SUPPORT_CLASS);
+        }
+
+        private Class<?> load(String className) {
+            try {
+                return Class.forName(className, false, source.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
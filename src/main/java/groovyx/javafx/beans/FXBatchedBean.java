@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.beans;
+
+import groovy.lang.Closure;
+
+/**
+ * Implemented by classes annotated with {@code @FXBindable(batch = true)}.
+ *
+ * <p>Between {@link #beginUpdate()} and the matching {@link #endUpdate()} the generated
+ * setters only record the new values; the getters already return them. When the outermost
+ * update ends each property that was set is written once, so its listeners see one change,
+ * and the bean's {@link FXBeanChangeListener}s are told once which properties were set.</p>
+ *
+ * <p>Updates are not thread safe; like the JavaFX properties themselves, a bean should only be
+ * updated from one thread at a time.</p>
+ */
+public interface FXBatchedBean {
+
+    /**
+     * Starts an update; updates nest.
+     */
+    void beginUpdate();
+
+    /**
+     * Ends an update, writing the recorded values if it is the outermost one.
+     *
+     * @throws IllegalStateException if no update was started
+     */
+    void endUpdate();
+
+    /**
+     * Runs the closure inside an update, with this bean as its delegate and argument.
+     *
+     * @param work the closure to run
+     * @return what the closure returned
+     */
+    Object batch(Closure<?> work);
+
+    /**
+     * Adds a listener told which properties were set, once per outermost update and once per
+     * setter call outside of updates.
+     *
+     * @param listener the listener to add
+     */
+    void addBeanChangeListener(FXBeanChangeListener listener);
+
+    /**
+     * Removes a listener added with {@link #addBeanChangeListener(FXBeanChangeListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    void removeBeanChangeListener(FXBeanChangeListener listener);
+
+    /**
+     * The bits of the named properties in the masks passed to {@link FXBeanChangeListener}s.
+     *
+     * @param names property names
+     * @return the mask with a bit set for each of the properties
+     */
+    long propertyMask(String... names);
+
+    /**
+     * Writes a recorded value through the setter of the property with the given index; called
+     * by {@link FXBeanUpdates} when an update ends.
+     *
+     * @param index the index of the property
+     * @param value the recorded value
+     */
+    void fxApplyDeferred(int index, Object value);
+}
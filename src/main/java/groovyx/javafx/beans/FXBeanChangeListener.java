@@ -0,0 +1,33 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.beans;
+
+/**
+ * Told which properties of an {@link FXBatchedBean} were set.
+ */
+@FunctionalInterface
+public interface FXBeanChangeListener {
+
+    /**
+     * Called after properties of the bean were set.
+     *
+     * @param bean        the bean
+     * @param changedMask a bit per property that was set, see {@link FXBatchedBean#propertyMask(String...)}
+     */
+    void beanChanged(Object bean, long changedMask);
+}
@@ -0,0 +1,221 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.beans;
+
+import groovy.lang.Closure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The update state of one {@link FXBatchedBean}, created by the bean the first time an update
+ * is started or a listener is added; the code generated for {@code @FXBindable(batch = true)}
+ * calls into it.
+ *
+ * <p>Properties are numbered in declaration order and the first 64 get a bit in the change
+ * masks. Properties past those are written straight away, even inside an update.</p>
+ */
+public final class FXBeanUpdates {
+
+    private static final FXBeanChangeListener[] NO_LISTENERS = new FXBeanChangeListener[0];
+
+    private final FXBatchedBean bean;
+    private final String[] names;
+    private final Object[] pending;
+    // Properties with a recorded value, and properties set since the outermost update began
+    private long deferred;
+    private long changed;
+    private int depth;
+    private boolean applying;
+    private FXBeanChangeListener[] listeners = NO_LISTENERS;
+
+    /**
+     * @param bean  the bean whose setters record into this
+     * @param names the names of the bean's properties, in index order
+     */
+    public FXBeanUpdates(FXBatchedBean bean, String[] names) {
+        this.bean = bean;
+        this.names = names;
+        this.pending = new Object[Math.min(names.length, Long.SIZE)];
+    }
+
+    /**
+     * Starts an update.
+     */
+    public void begin() {
+        depth++;
+    }
+
+    /**
+     * Ends an update; the outermost one writes each recorded value once and then tells the
+     * listeners which properties were set. A value that cannot be written, such as one for a
+     * bound property, does not stop the others: the first failure is thrown once all of them
+     * have been tried and the listeners told about the rest.
+     */
+    public void end() {
+        if (depth == 0) throw new IllegalStateException("endUpdate() called without beginUpdate()");
+        if (--depth > 0) return;
+        long values = deferred;
+        deferred = 0L;
+        RuntimeException failure = null;
+        long mask;
+        applying = true;
+        try {
+            for (long bits = values; bits != 0L; bits &= bits - 1) {
+                int index = Long.numberOfTrailingZeros(bits);
+                Object value = pending[index];
+                pending[index] = null;
+                try {
+                    bean.fxApplyDeferred(index, value);
+                } catch (RuntimeException e) {
+                    changed &= ~(1L << index);
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            applying = false;
+            Arrays.fill(pending, null);
+            mask = changed;
+            changed = 0L;
+        }
+        if (mask != 0L) {
+            try {
+                fire(mask);
+            } catch (RuntimeException e) {
+                if (failure == null) throw e;
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Runs the closure inside an update, with the bean as its delegate and argument.
+     */
+    public Object batch(Closure<?> work) {
+        Closure<?> body = (Closure<?>) work.clone();
+        body.setDelegate(bean);
+        body.setResolveStrategy(Closure.DELEGATE_FIRST);
+        begin();
+        try {
+            return body.getMaximumNumberOfParameters() == 0 ? body.call() : body.call(bean);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Called by a setter before it writes; records the value instead if an update is open.
+     *
+     * @return whether the value was recorded, in which case the setter returns
+     */
+    public boolean defer(int index, Object value) {
+        if (depth == 0 || applying || index >= pending.length) return false;
+        long bit = 1L << index;
+        pending[index] = value;
+        deferred |= bit;
+        changed |= bit;
+        return true;
+    }
+
+    /**
+     * Whether the property has a value recorded by the open update.
+     */
+    public boolean isDeferred(int index) {
+        return index < pending.length && (deferred & (1L << index)) != 0L;
+    }
+
+    /**
+     * The value recorded for the property.
+     */
+    public Object deferredValue(int index) {
+        return pending[index];
+    }
+
+    /**
+     * Called by a setter after it wrote the property.
+     */
+    public void changed(int index) {
+        if (index >= Long.SIZE) return;
+        long bit = 1L << index;
+        if (depth > 0 || applying) {
+            changed |= bit;
+        } else if (listeners.length > 0) {
+            fire(bit);
+        }
+    }
+
+    /**
+     * The bits of the named properties.
+     *
+     * @throws IllegalArgumentException for a name that is not a batched property
+     */
+    public long mask(String... propertyNames) {
+        long mask = 0L;
+        for (String name : propertyNames) {
+            int index = Arrays.asList(names).indexOf(name);
+            if (index < 0 || index >= Long.SIZE) {
+                throw new IllegalArgumentException("No batched property '" + name + "' in " + bean.getClass().getName());
+            }
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    /**
+     * The names of the properties whose bits are set in the mask.
+     */
+    public List<String> names(long mask) {
+        List<String> result = new ArrayList<>(Long.bitCount(mask));
+        for (long bits = mask; bits != 0L; bits &= bits - 1) {
+            int index = Long.numberOfTrailingZeros(bits);
+            if (index < names.length) result.add(names[index]);
+        }
+        return result;
+    }
+
+    public void addListener(FXBeanChangeListener listener) {
+        FXBeanChangeListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        listeners = copy;
+    }
+
+    public void removeListener(FXBeanChangeListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                FXBeanChangeListener[] copy = new FXBeanChangeListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, copy.length - i);
+                listeners = copy;
+                return;
+            }
+        }
+    }
+
+    private void fire(long mask) {
+        // A listener added or removed while firing takes effect on the next change
+        for (FXBeanChangeListener listener : listeners) {
+            listener.beanChanged(bean, mask);
+        }
+    }
+}
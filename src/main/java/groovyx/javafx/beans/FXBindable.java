@@ -42,6 +42,17 @@ import java.lang.annotation.Target;
  * <p>If a property with a user defined setter method is annotated the code
  * block is wrapped with the needed code to fire off the event.</p>
  *
+ * <p>With {@code lazy = true} the value is kept in a plain field, and the JavaFX
+ * property is only created the first time {@code xxxProperty()} is called; until
+ * then the getter and setter use the field. This saves a property object per
+ * property for instances that are never observed. List, map and set properties
+ * are always backed by their JavaFX property.</p>
+ *
+ * <p>With {@code batch = true} on a class, the class implements {@link FXBatchedBean}:
+ * properties set between {@code beginUpdate()} and {@code endUpdate()}, or inside
+ * {@code batch { }}, are written once when the update ends, and
+ * {@link FXBeanChangeListener}s get one event with a bit for each property that was set.</p>
+ *
  * @author jimclarke (inspired by Danno Ferrin (shemnon) and Chris Reeved)
  */
 @java.lang.annotation.Documented
@@ -49,4 +60,13 @@ import java.lang.annotation.Target;
 @Target({ElementType.FIELD, ElementType.TYPE})
 @GroovyASTTransformationClass("groovyx.javafx.beans.FXBindableASTTransformation")
 public @interface FXBindable {
+    /**
+     * Whether the JavaFX property is only created when it is first asked for.
+     */
+    boolean lazy() default false;
+
+    /**
+     * Whether the annotated class gets the {@link FXBatchedBean} update methods.
+     */
+    boolean batch() default false;
 }
@@ -79,6 +79,9 @@ import static org.codehaus.groovy.ast.ClassHelper.MAP_TYPE;
 @GroovyASTTransformation(phase = CompilePhase.CANONICALIZATION)
 public class FXBindableASTTransformation implements ASTTransformation {
     private static final ClassNode FXBINDABLE_CNODE = makeClassSafe(FXBindable.class);
+    private static final ClassNode BATCHED_BEAN_CNODE = makeClassSafe(FXBatchedBean.class);
+    private static final ClassNode BEAN_UPDATES_CNODE = makeClassSafe(FXBeanUpdates.class);
+    private static final ClassNode BEAN_CHANGE_LISTENER_CNODE = makeClassSafe(FXBeanChangeListener.class);
 
     private static final ClassNode OBJECT_PROPERTY_CNODE = makeClassSafe(ObjectProperty.class);
     private static final ClassNode BOOLEAN_PROPERTY_CNODE = makeClassSafe(BooleanProperty.class);
@@ -209,6 +212,8 @@ public class FXBindableASTTransformation implements ASTTransformation {
 
         AnnotationNode node = (AnnotationNode) nodes[0];
         AnnotatedNode parent = (AnnotatedNode) nodes[1];
+        boolean lazy = isEnabled(node, "lazy");
+        boolean batch = isEnabled(node, "batch");
 
         // Field-level annotation
         if (parent instanceof FieldNode) {
@@ -221,8 +226,16 @@ public class FXBindableASTTransformation implements ASTTransformation {
                 generateSyntaxErrorMessage(sourceUnit, node, msg);
                 return;
             }
+            if (batch && sourceUnit != null) {
+                sourceUnit.getErrorCollector().addWarning(
+                        WarningMessage.POSSIBLE_ERRORS,
+                        "@FXBindable(batch = true) only applies to classes; ignored on " + field.getName(),
+                        null,
+                        null
+                );
+            }
 
-            addJavaFXProperty(sourceUnit, node, declaringClass, field);
+            addJavaFXProperty(sourceUnit, node, declaringClass, field, lazy);
             return;
         }
 
@@ -241,7 +254,12 @@ public class FXBindableASTTransformation implements ASTTransformation {
             return;
         }
 
-        addJavaFXPropertyToClass(sourceUnit, node, (ClassNode) parent);
+        addJavaFXPropertyToClass(sourceUnit, node, (ClassNode) parent, lazy, batch);
+    }
+
+    private static boolean isEnabled(AnnotationNode node, String name) {
+        Expression member = node.getMember(name);
+        return member instanceof ConstantExpression && Boolean.TRUE.equals(((ConstantExpression) member).getValue());
     }
 
 
@@ -253,8 +271,10 @@ public class FXBindableASTTransformation implements ASTTransformation {
      * @param node           The node that was annotated
      * @param declaringClass The class in which the annotation was found
      * @param field          The field upon which the annotation was placed
+     * @param lazy           Whether the JavaFX property is created on first use
      */
-    private void addJavaFXProperty(SourceUnit source, AnnotationNode node, ClassNode declaringClass, FieldNode field) {
+    private void addJavaFXProperty(SourceUnit source, AnnotationNode node, ClassNode declaringClass, FieldNode field,
+                                   boolean lazy) {
         String fieldName = field.getName();
         for (PropertyNode propertyNode : declaringClass.getProperties()) {
             if (propertyNode.getName().equals(fieldName)) {
@@ -262,7 +282,7 @@ public class FXBindableASTTransformation implements ASTTransformation {
                     String message = "@griffon.transform.FXBindable cannot annotate a static property.";
                     generateSyntaxErrorMessage(source, node, message);
                 } else {
-                    createPropertyGetterSetter(declaringClass, propertyNode);
+                    createPropertyGetterSetter(declaringClass, propertyNode, lazy, null, -1);
                 }
                 return;
             }
@@ -279,8 +299,12 @@ public class FXBindableASTTransformation implements ASTTransformation {
      * @param source    The SourceUnit
      * @param node      The AnnotationNode
      * @param classNode The declaring class
+     * @param lazy      Whether the JavaFX properties are created on first use
+     * @param batch     Whether the class gets the {@link FXBatchedBean} update methods
      */
-    private void addJavaFXPropertyToClass(SourceUnit source, AnnotationNode node, ClassNode classNode) {
+    private void addJavaFXPropertyToClass(SourceUnit source, AnnotationNode node, ClassNode classNode, boolean lazy,
+                                          boolean batch) {
+        List<PropertyNode> properties = new ArrayList<>();
         for (PropertyNode propertyNode : classNode.getProperties()) {
             FieldNode field = propertyNode.getField();
             // look to see if per-field handlers will catch this one...
@@ -292,7 +316,13 @@ public class FXBindableASTTransformation implements ASTTransformation {
                 // don't transform static properties
                 continue;
             }
-            createPropertyGetterSetter(classNode, propertyNode);
+            properties.add(propertyNode);
+        }
+
+        // Batched properties are numbered in declaration order, which is also their bit in change masks
+        FieldNode updates = batch ? addBatchSupport(classNode, properties) : null;
+        for (int i = 0; i < properties.size(); i++) {
+            createPropertyGetterSetter(classNode, properties.get(i), lazy, updates, i);
         }
     }
 
@@ -310,8 +340,17 @@ public class FXBindableASTTransformation implements ASTTransformation {
      *
      * @param classNode    The declaring class in which the property will appear
      * @param originalProp The original Groovy property
+     * @param lazy         Whether the JavaFX property is created on first use
+     * @param updates      The bean's {@link FXBeanUpdates} field if the class is batched, otherwise null
+     * @param index        The index of the property in the batched class
      */
-    private void createPropertyGetterSetter(ClassNode classNode, PropertyNode originalProp) {
+    private void createPropertyGetterSetter(ClassNode classNode, PropertyNode originalProp, boolean lazy,
+                                            FieldNode updates, int index) {
+        if (lazy && isLazyCapable(createFXProperty(originalProp))) {
+            createLazyPropertyGetterSetter(classNode, originalProp, updates, index);
+            return;
+        }
+
         Expression initExp = originalProp.getInitialExpression();
         originalProp.getField().setInitialValueExpression(null);
 
@@ -319,20 +358,12 @@ public class FXBindableASTTransformation implements ASTTransformation {
 
         List<AnnotationNode> methodAnnotations = new ArrayList<>();
         List<AnnotationNode> fieldAnnotations = new ArrayList<>();
-        for (AnnotationNode annotation : originalProp.getField().getAnnotations()) {
-            if (FXBINDABLE_CNODE.equals(annotation.getClassNode())) continue;
-            Class annotationClass = annotation.getClassNode().getTypeClass();
-            Target target = (Target) annotationClass.getAnnotation(Target.class);
-            if (isTargetAllowed(target, ElementType.METHOD)) {
-                methodAnnotations.add(annotation);
-            } else if (isTargetAllowed(target, ElementType.FIELD)) {
-                fieldAnnotations.add(annotation);
-            }
-        }
+        splitAnnotations(originalProp.getField(), methodAnnotations, fieldAnnotations);
 
         String getterName = "get" + BeanUtils.capitalize(originalProp.getName());
         if (classNode.getMethods(getterName).isEmpty()) {
             Statement getterBlock = createGetterStatement(createFXProperty(originalProp));
+            getterBlock = deferringGetter(originalProp, getterBlock, updates, index);
             createGetterMethod(classNode, originalProp, getterName, getterBlock, methodAnnotations);
             methodAnnotations = null;
         } else {
@@ -343,6 +374,7 @@ public class FXBindableASTTransformation implements ASTTransformation {
         String setterName = "set" + BeanUtils.capitalize(originalProp.getName());
         if (classNode.getMethods(setterName).isEmpty()) {
             Statement setterBlock = createSetterStatement(createFXProperty(originalProp));
+            setterBlock = deferringSetter(setterBlock, updates, index);
             createSetterMethod(classNode, originalProp, setterName, setterBlock, methodAnnotations);
         } else {
             wrapSetterMethod(classNode, originalProp.getName(), methodAnnotations);
@@ -358,6 +390,268 @@ public class FXBindableASTTransformation implements ASTTransformation {
         fxFieldShortName.addAnnotations(fieldAnnotations);
     }
 
+    /**
+     * Like {@link #createPropertyGetterSetter(ClassNode, PropertyNode, boolean, FieldNode, int)}, but the value is kept in a
+     * plain field named "$" plus the property name, keeping the original initializer, and the JavaFX property
+     * is created the first time it is asked for.  For "int count" the generated code is:
+     * <p>
+     * public int getCount() { countProp == null ? $count : countProp.getValue() }
+     * public void setCount(int value) { if (countProp == null) $count = value else countProp.setValue(value) }
+     * public IntegerProperty getCountProperty() {
+     * if (countProp == null) { countProp = new SimpleIntegerProperty(); countProp.setValue($count) }
+     * return countProp
+     * }
+     *
+     * @param classNode    The declaring class in which the property will appear
+     * @param originalProp The original Groovy property
+     * @param updates      The bean's {@link FXBeanUpdates} field if the class is batched, otherwise null
+     * @param index        The index of the property in the batched class
+     */
+    private void createLazyPropertyGetterSetter(ClassNode classNode, PropertyNode originalProp, FieldNode updates,
+                                                int index) {
+        String name = originalProp.getName();
+        FieldNode original = originalProp.getField();
+        PropertyNode fxProperty = createFXProperty(originalProp);
+
+        List<AnnotationNode> methodAnnotations = new ArrayList<>();
+        List<AnnotationNode> fieldAnnotations = new ArrayList<>();
+        splitAnnotations(original, methodAnnotations, fieldAnnotations);
+
+        FieldNode valueField = createFieldNodeCopy("$" + name, null, original);
+        FieldNode fxField = createFieldNodeCopy(name + "Prop", null, fxProperty.getField());
+        fxField.setInitialValueExpression(null);
+        FieldExpression value = new FieldExpression(valueField);
+        FieldExpression fx = new FieldExpression(fxField);
+        BooleanExpression notCreated = new BooleanExpression(
+            new BinaryExpression(fx, Token.newSymbol(Types.COMPARE_EQUAL, 0, 0), ConstantExpression.NULL));
+
+        String getterName = "get" + BeanUtils.capitalize(name);
+        if (classNode.getMethods(getterName).isEmpty()) {
+            Statement getterBlock = new IfStatement(notCreated,
+                new ReturnStatement(value),
+                new ReturnStatement(new MethodCallExpression(fx, "getValue", ArgumentListExpression.EMPTY_ARGUMENTS)));
+            getterBlock = deferringGetter(originalProp, getterBlock, updates, index);
+            createGetterMethod(classNode, originalProp, getterName, getterBlock, methodAnnotations);
+        } else {
+            wrapGetterMethod(classNode, name, methodAnnotations);
+        }
+        methodAnnotations = null;
+
+        String setterName = "set" + BeanUtils.capitalize(name);
+        if (classNode.getMethods(setterName).isEmpty()) {
+            Statement setterBlock = new IfStatement(notCreated,
+                new ExpressionStatement(new BinaryExpression(value, Token.newSymbol(Types.EQUAL, 0, 0),
+                    new VariableExpression("value"))),
+                new ExpressionStatement(new MethodCallExpression(fx, "setValue",
+                    new ArgumentListExpression(new VariableExpression("value")))));
+            setterBlock = deferringSetter(setterBlock, updates, index);
+            createSetterMethod(classNode, originalProp, setterName, setterBlock, methodAnnotations);
+        } else {
+            wrapSetterMethod(classNode, name, methodAnnotations);
+        }
+
+        // The property starts from the field's value; a reference value is released once it has moved
+        BlockStatement create = new BlockStatement();
+        create.addStatement(new ExpressionStatement(new BinaryExpression(fx, Token.newSymbol(Types.EQUAL, 0, 0),
+            new ConstructorCallExpression(propertyImplementation(fxProperty), ArgumentListExpression.EMPTY_ARGUMENTS))));
+        create.addStatement(new ExpressionStatement(new MethodCallExpression(fx, "setValue",
+            new ArgumentListExpression(value))));
+        if (!ClassHelper.isPrimitiveType(original.getType())) {
+            create.addStatement(new ExpressionStatement(new BinaryExpression(value, Token.newSymbol(Types.EQUAL, 0, 0),
+                ConstantExpression.NULL)));
+        }
+        BlockStatement block = new BlockStatement();
+        block.addStatement(new IfStatement(notCreated, create, EmptyStatement.INSTANCE));
+        block.addStatement(new ReturnStatement(fx));
+        addPropertyAccessors(classNode, fxProperty, block);
+
+        classNode.removeField(name);
+        classNode.addField(valueField);
+        classNode.addField(fxField);
+        valueField.addAnnotations(fieldAnnotations);
+    }
+
+    /**
+     * Makes the class an {@link FXBatchedBean}: adds the field holding its {@link FXBeanUpdates}, created on
+     * first use, the names of the batched properties and the interface methods, which delegate to it.
+     * Methods the class already declares are left alone.
+     *
+     * @param classNode  The declaring class
+     * @param properties The properties that are batched, in index order
+     * @return the field holding the bean's {@link FXBeanUpdates}
+     */
+    private FieldNode addBatchSupport(ClassNode classNode, List<PropertyNode> properties) {
+        List<Expression> names = new ArrayList<>();
+        for (PropertyNode property : properties) {
+            names.add(new ConstantExpression(property.getName()));
+        }
+        FieldNode namesField = new FieldNode("$fxPropertyNames", Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL,
+            ClassHelper.STRING_TYPE.makeArray(), classNode, new ArrayExpression(ClassHelper.STRING_TYPE, names));
+        FieldNode updatesField = new FieldNode("$fxUpdates", Modifier.PRIVATE | Modifier.TRANSIENT,
+            BEAN_UPDATES_CNODE, classNode, null);
+        classNode.addField(namesField);
+        classNode.addField(updatesField);
+        if (!classNode.implementsInterface(BATCHED_BEAN_CNODE)) {
+            classNode.addInterface(BATCHED_BEAN_CNODE);
+        }
+
+        // private FXBeanUpdates fxUpdates() { if ($fxUpdates == null) $fxUpdates = new FXBeanUpdates(this, names); $fxUpdates }
+        FieldExpression field = new FieldExpression(updatesField);
+        BlockStatement create = new BlockStatement();
+        create.addStatement(new IfStatement(isNull(field),
+            new ExpressionStatement(new BinaryExpression(field, Token.newSymbol(Types.EQUAL, 0, 0),
+                new ConstructorCallExpression(BEAN_UPDATES_CNODE, new ArgumentListExpression(
+                    VariableExpression.THIS_EXPRESSION, new FieldExpression(namesField))))),
+            EmptyStatement.INSTANCE));
+        create.addStatement(new ReturnStatement(field));
+        addBatchMethod(classNode, "fxUpdates", Modifier.PRIVATE, BEAN_UPDATES_CNODE, Parameter.EMPTY_ARRAY, create);
+
+        Expression updates = new MethodCallExpression(VariableExpression.THIS_EXPRESSION, "fxUpdates",
+            ArgumentListExpression.EMPTY_ARGUMENTS);
+        addBatchMethod(classNode, "beginUpdate", Modifier.PUBLIC, ClassHelper.VOID_TYPE, Parameter.EMPTY_ARRAY,
+            new ExpressionStatement(new MethodCallExpression(updates, "begin", ArgumentListExpression.EMPTY_ARGUMENTS)));
+        addBatchMethod(classNode, "endUpdate", Modifier.PUBLIC, ClassHelper.VOID_TYPE, Parameter.EMPTY_ARRAY,
+            new ExpressionStatement(new MethodCallExpression(updates, "end", ArgumentListExpression.EMPTY_ARGUMENTS)));
+        addBatchMethod(classNode, "batch", Modifier.PUBLIC, ClassHelper.OBJECT_TYPE,
+            new Parameter[]{new Parameter(ClassHelper.CLOSURE_TYPE.getPlainNodeReference(), "work")},
+            new ReturnStatement(new MethodCallExpression(updates, "batch",
+                new ArgumentListExpression(new VariableExpression("work")))));
+        addBatchMethod(classNode, "addBeanChangeListener", Modifier.PUBLIC, ClassHelper.VOID_TYPE,
+            new Parameter[]{new Parameter(BEAN_CHANGE_LISTENER_CNODE, "listener")},
+            new ExpressionStatement(new MethodCallExpression(updates, "addListener",
+                new ArgumentListExpression(new VariableExpression("listener")))));
+        addBatchMethod(classNode, "removeBeanChangeListener", Modifier.PUBLIC, ClassHelper.VOID_TYPE,
+            new Parameter[]{new Parameter(BEAN_CHANGE_LISTENER_CNODE, "listener")},
+            new ExpressionStatement(new MethodCallExpression(updates, "removeListener",
+                new ArgumentListExpression(new VariableExpression("listener")))));
+        addBatchMethod(classNode, "propertyMask", Modifier.PUBLIC, ClassHelper.long_TYPE,
+            new Parameter[]{new Parameter(ClassHelper.STRING_TYPE.makeArray(), "names")},
+            new ReturnStatement(new MethodCallExpression(updates, "mask",
+                new ArgumentListExpression(new VariableExpression("names")))));
+
+        // if (index == 0) { setFirst((Type) value); return } ... for each property
+        BlockStatement apply = new BlockStatement();
+        VariableExpression index = new VariableExpression("index");
+        VariableExpression value = new VariableExpression("value");
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyNode property = properties.get(i);
+            BlockStatement set = new BlockStatement();
+            set.addStatement(new ExpressionStatement(new MethodCallExpression(VariableExpression.THIS_EXPRESSION,
+                "set" + BeanUtils.capitalize(property.getName()),
+                new ArgumentListExpression(new CastExpression(property.getType(), value)))));
+            set.addStatement(ReturnStatement.RETURN_NULL_OR_VOID);
+            apply.addStatement(new IfStatement(new BooleanExpression(new BinaryExpression(index,
+                Token.newSymbol(Types.COMPARE_EQUAL, 0, 0), new ConstantExpression(i, true))),
+                set, EmptyStatement.INSTANCE));
+        }
+        addBatchMethod(classNode, "fxApplyDeferred", Modifier.PUBLIC, ClassHelper.VOID_TYPE,
+            new Parameter[]{new Parameter(ClassHelper.int_TYPE, "index"), new Parameter(ClassHelper.OBJECT_TYPE, "value")},
+            apply);
+        return updatesField;
+    }
+
+    private void addBatchMethod(ClassNode classNode, String name, int modifiers, ClassNode returnType,
+                                Parameter[] parameters, Statement body) {
+        if (classNode.getDeclaredMethod(name, parameters) != null) return;
+        MethodNode method = new MethodNode(name, modifiers, returnType, parameters, ClassNode.EMPTY_ARRAY, body);
+        method.setSynthetic(true);
+        classNode.addMethod(method);
+    }
+
+    /**
+     * Puts a check for a value recorded by an open update in front of a generated getter:
+     * <p>
+     * if ($fxUpdates != null && $fxUpdates.isDeferred(index)) return (Type) $fxUpdates.deferredValue(index)
+     */
+    private Statement deferringGetter(PropertyNode originalProp, Statement getterBlock, FieldNode updates, int index) {
+        if (updates == null) return getterBlock;
+        FieldExpression field = new FieldExpression(updates);
+        ArgumentListExpression indexArg = new ArgumentListExpression(new ConstantExpression(index, true));
+        BooleanExpression deferred = new BooleanExpression(new BinaryExpression(notNull(field),
+            Token.newSymbol(Types.LOGICAL_AND, 0, 0), new MethodCallExpression(field, "isDeferred", indexArg)));
+        BlockStatement block = new BlockStatement();
+        block.addStatement(new IfStatement(deferred,
+            new ReturnStatement(new CastExpression(originalProp.getType(),
+                new MethodCallExpression(field, "deferredValue", indexArg))),
+            EmptyStatement.INSTANCE));
+        block.addStatement(getterBlock);
+        return block;
+    }
+
+    /**
+     * Lets an open update record the value instead of a generated setter writing it, and tells the
+     * bean's listeners about writes:
+     * <p>
+     * if ($fxUpdates != null && $fxUpdates.defer(index, value)) return
+     * ...write the value...
+     * if ($fxUpdates != null) $fxUpdates.changed(index)
+     */
+    private Statement deferringSetter(Statement setterBlock, FieldNode updates, int index) {
+        if (updates == null) return setterBlock;
+        FieldExpression field = new FieldExpression(updates);
+        ConstantExpression indexExpr = new ConstantExpression(index, true);
+        BooleanExpression deferred = new BooleanExpression(new BinaryExpression(notNull(field),
+            Token.newSymbol(Types.LOGICAL_AND, 0, 0), new MethodCallExpression(field, "defer",
+                new ArgumentListExpression(indexExpr, new VariableExpression("value")))));
+        BlockStatement block = new BlockStatement();
+        block.addStatement(new IfStatement(deferred, ReturnStatement.RETURN_NULL_OR_VOID, EmptyStatement.INSTANCE));
+        block.addStatement(setterBlock);
+        block.addStatement(new IfStatement(new BooleanExpression(notNull(field)),
+            new ExpressionStatement(new MethodCallExpression(field, "changed", new ArgumentListExpression(indexExpr))),
+            EmptyStatement.INSTANCE));
+        return block;
+    }
+
+    private static BooleanExpression isNull(Expression expr) {
+        return new BooleanExpression(new BinaryExpression(expr, Token.newSymbol(Types.COMPARE_EQUAL, 0, 0),
+            ConstantExpression.NULL));
+    }
+
+    private static BinaryExpression notNull(Expression expr) {
+        return new BinaryExpression(expr, Token.newSymbol(Types.COMPARE_NOT_EQUAL, 0, 0), ConstantExpression.NULL);
+    }
+
+    /**
+     * Only scalar properties can be lazy: list, map and set properties keep their value in the
+     * observable collection itself.
+     */
+    private boolean isLazyCapable(PropertyNode fxProperty) {
+        Class<?> type = fxProperty.getType().getTypeClass();
+        return type != SIMPLE_LIST_PROPERTY_CNODE.getTypeClass()
+            && type != SIMPLE_MAP_PROPERTY_CNODE.getTypeClass()
+            && type != SIMPLE_SET_PROPERTY_CNODE.getTypeClass();
+    }
+
+    /**
+     * The Simple*Property class created for a scalar JavaFX property type.
+     */
+    private ClassNode propertyImplementation(PropertyNode fxProperty) {
+        ClassNode implNode = PROPERTY_IMPL_MAP.get(fxProperty.getType());
+        if (implNode == null) {
+            implNode = makeClassSafe(SIMPLE_OBJECT_PROPERTY_CNODE);
+            implNode.setGenericsTypes(fxProperty.getType().getGenericsTypes());
+        }
+        return implNode;
+    }
+
+    /**
+     * Sorts the annotations of the original field, other than {@code @FXBindable}, into those that
+     * can go on the generated methods and those that can only go on a field.
+     */
+    private void splitAnnotations(FieldNode field, List<AnnotationNode> methodAnnotations,
+                                  List<AnnotationNode> fieldAnnotations) {
+        for (AnnotationNode annotation : field.getAnnotations()) {
+            if (FXBINDABLE_CNODE.equals(annotation.getClassNode())) continue;
+            Class annotationClass = annotation.getClassNode().getTypeClass();
+            Target target = (Target) annotationClass.getAnnotation(Target.class);
+            if (isTargetAllowed(target, ElementType.METHOD)) {
+                methodAnnotations.add(annotation);
+            } else if (isTargetAllowed(target, ElementType.FIELD)) {
+                fieldAnnotations.add(annotation);
+            }
+        }
+    }
+
     private boolean isTargetAllowed(Target target, ElementType elementType) {
         if (target == null) {
             return false;
@@ -597,7 +891,17 @@ public class FXBindableASTTransformation implements ASTTransformation {
         );
         block.addStatement(ifStmt);
         block.addStatement(new ReturnStatement(fieldExpression));
+        addPropertyAccessors(classNode, fxProperty, block);
+    }
 
+    /**
+     * Adds getXxxProperty() with the given body, and the xxxProperty() and xxx() methods that call it.
+     *
+     * @param classNode  The declaring class
+     * @param fxProperty The new JavaFX property
+     * @param block      The body of getXxxProperty()
+     */
+    private void addPropertyAccessors(ClassNode classNode, PropertyNode fxProperty, BlockStatement block) {
         String getterName = getFXPropertyGetterName(fxProperty);
         MethodNode accessor = new MethodNode(getterName, fxProperty.getModifiers(), fxProperty.getType(),
             Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, block);
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2011-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package groovyx.javafx.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Supplies the rows of a {@link TableDataSource} a window at a time.
+ *
+ * <p>{@link #fetch(int, int)} and {@link #fetchAt(int[])} run on a background executor,
+ * never on the FX thread, so they may block on a database or a remote service. Rows are
+ * addressed by their position in the source; the data source sorts and filters over an array
+ * of positions and never asks the provider to reorder anything.</p>
+ *
+ * @param <T> the row type
+ */
+public interface RowProvider<T> {
+
+    /** The number of rows; read when the data source is created and on each refresh. */
+    int getRowCount();
+
+    /**
+     * The rows at positions {@code offset} (inclusive) to {@code offset + count} (exclusive).
+     *
+     * @param offset the first position
+     * @param count  the number of rows
+     * @return the rows, in order
+     */
+    List<T> fetch(int offset, int count);
+
+    /**
+     * The rows at the positions, in the same order. A sorted or filtered table asks for its
+     * pages this way. The default fetches each run of consecutive positions with
+     * {@link #fetch(int, int)}; a provider that can look rows up by position in one query
+     * should override it.
+     *
+     * @param positions the positions
+     * @return the rows, in the order of the positions
+     */
+    default List<T> fetchAt(int[] positions) {
+        List<T> rows = new ArrayList<>(positions.length);
+        int start = 0;
+        for (int i = 1; i <= positions.length; i++) {
+            if (i == positions.length || positions[i] != positions[i - 1] + 1) {
+                rows.addAll(fetch(positions[start], i - start));
+                start = i;
+            }
+        }
+        return rows;
+    }
+}
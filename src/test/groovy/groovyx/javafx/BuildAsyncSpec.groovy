@@ -0,0 +1,118 @@
+package groovyx.javafx
+
+import groovyx.javafx.test.FxTestSupport
+import javafx.application.Platform
+import javafx.scene.control.Label
+import javafx.scene.layout.GridPane
+import javafx.scene.layout.StackPane
+import javafx.scene.layout.VBox
+import javafx.scene.web.WebView
+import javafx.stage.Stage
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class BuildAsyncSpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    def "the tree is built off the FX thread and attached on it"() {
+        given:
+        def sg = new SceneGraphBuilder()
+        VBox host = runFx { new VBox() }
+        def buildThread = null
+
+        when:
+        def future = sg.buildAsync(into: host) {
+            buildThread = Thread.currentThread()
+            vbox(spacing: 4) {
+                (1..50).each { label(text: "row $it") }
+            }
+        }
+        VBox node = (VBox) future.get(10, TimeUnit.SECONDS)
+
+        then:
+        buildThread != null
+        !buildThread.name.contains("JavaFX Application Thread")
+        node.children.size() == 50
+        (node.children[49] as Label).text == "row 50"
+        runFx { host.children.size() == 1 && host.children[0].is(node) }
+    }
+
+    def "deferred blocks run on the FX thread before the node is attached"() {
+        given:
+        def sg = new SceneGraphBuilder()
+        def calls = []
+
+        when:
+        def node = sg.buildAsync(into: { calls << "attached:${Platform.isFxApplicationThread()}".toString() }) {
+            def box = vbox()
+            defer { calls << Platform.isFxApplicationThread() }
+            defer { box.children.add(new Label("late")) }
+            calls << "built"
+            box
+        }.get(10, TimeUnit.SECONDS)
+
+        then:
+        calls == ["built", true, "attached:true"]
+        (node.children[0] as Label).text == "late"
+    }
+
+    def "windows are created on the FX thread when the subtree is attached"() {
+        given:
+        def sg = new SceneGraphBuilder()
+
+        when:
+        def node = sg.buildAsync {
+            stage(id: "window", title: "Async") {
+                scene { label("in window") }
+            }
+            label("root")
+        }.get(10, TimeUnit.SECONDS)
+
+        then:
+        (node as Label).text == "root"
+        sg.variables.window instanceof Stage
+        (sg.variables.window as Stage).title == "Async"
+        (sg.variables.window as Stage).scene.root instanceof Label
+    }
+
+    def "FX-thread-only nodes get a placeholder that keeps their layout constraints"() {
+        given:
+        def sg = new SceneGraphBuilder()
+
+        when:
+        GridPane grid = (GridPane) sg.buildAsync {
+            gridPane {
+                webView(id: "web", row: 1, column: 2, prefWidth: 320)
+            }
+        }.get(10, TimeUnit.SECONDS)
+        def placeholder = grid.children[0]
+
+        then:
+        placeholder instanceof StackPane
+        GridPane.getRowIndex(placeholder) == 1
+        GridPane.getColumnIndex(placeholder) == 2
+        (placeholder as StackPane).children[0].is(sg.variables.web)
+        (sg.variables.web as WebView).prefWidth == 320d
+    }
+
+    def "failures in the closure complete the future exceptionally"() {
+        given:
+        def sg = new SceneGraphBuilder()
+
+        when:
+        sg.buildAsync { throw new IllegalStateException("boom") }.get(10, TimeUnit.SECONDS)
+
+        then:
+        def e = thrown(java.util.concurrent.ExecutionException)
+        e.cause instanceof IllegalStateException
+        e.cause.message == "boom"
+    }
+}
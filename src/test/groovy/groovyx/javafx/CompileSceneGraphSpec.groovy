@@ -0,0 +1,180 @@
+package groovyx.javafx
+
+import groovyx.javafx.test.FxTestSupport
+import javafx.beans.property.SimpleStringProperty
+import javafx.geometry.Insets
+import javafx.scene.Node
+import javafx.scene.Parent
+import javafx.scene.control.Button
+import javafx.scene.control.CheckBox
+import javafx.scene.control.Label
+import javafx.scene.control.TextField
+import javafx.scene.layout.GridPane
+import javafx.scene.layout.Priority
+import javafx.scene.layout.VBox
+import javafx.scene.paint.Color
+import javafx.scene.shape.Rectangle
+import spock.lang.Specification
+
+import java.lang.reflect.Modifier
+
+class CompileSceneGraphSpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    def "compiled and dynamic builds produce the same scene graph"() {
+        given:
+        def compiledBuilder = new SceneGraphBuilder()
+        def dynamicBuilder = new SceneGraphBuilder()
+
+        when:
+        def compiled = runFx { CompiledScenes.form(compiledBuilder, "Login", 4) }
+        def dynamic = runFx { DynamicScenes.form(dynamicBuilder, "Login", 4) }
+
+        then:
+        describe(compiled) == describe(dynamic)
+
+        and:
+        compiled instanceof VBox
+        compiled.spacing == 4d
+        compiled.padding == new Insets(10)
+        (compiled.children[0] as Label).text == "Login"
+        (compiled.children[2] as Rectangle).fill == Color.RED
+        (compiled.children[3] as CheckBox).selected
+    }
+
+    def "statically known subtrees are moved into generated methods"() {
+        expect:
+        CompiledScenes.declaredMethods.findAll { it.name.startsWith('$sceneGraph$') }.every {
+            Modifier.isStatic(it.modifiers) && Modifier.isPrivate(it.modifiers)
+        }
+        CompiledScenes.declaredMethods.count { it.name.startsWith('$sceneGraph$') } >= 3
+        !DynamicScenes.declaredMethods.any { it.name.startsWith('$sceneGraph$') }
+    }
+
+    def "ids, layout constraints and bindings still go through the builder"() {
+        given:
+        def sg = new SceneGraphBuilder()
+        def name = new SimpleStringProperty("first")
+
+        when:
+        GridPane grid = runFx { CompiledScenes.mixed(sg, name) }
+
+        then:
+        sg.variables.title instanceof Label
+        grid.children[0].is(sg.variables.title)
+        GridPane.getRowIndex(grid.children[1]) == 1
+        GridPane.getColumnIndex(grid.children[1]) == 2
+        GridPane.getHgrow(grid.children[1]) == Priority.ALWAYS
+        (grid.children[1] as TextField).promptText == "value"
+
+        when:
+        runFx { name.set("second") }
+
+        then:
+        (grid.children[2] as Label).text == "second"
+    }
+
+    def "values of an unexpected type fall back to the dynamic coercions"() {
+        given:
+        def sg = new SceneGraphBuilder()
+        def clicks = []
+
+        when:
+        VBox box = runFx { CompiledScenes.coerced(sg, 7, "blue", "Clicks", clicks) }
+        runFx { (box.children[1] as Button).fire() }
+
+        then:
+        box.spacing == 7d
+        (box.children[0] as Rectangle).fill == Color.BLUE
+        (box.children[1] as Button).text == "Clicks"
+        clicks == ["Clicks"]
+    }
+
+    def "handlers that name builder variables keep the builder as their delegate"() {
+        given:
+        def sg = new SceneGraphBuilder()
+
+        when:
+        VBox box = runFx { CompiledScenes.handlers(sg) }
+        runFx { (box.children[1] as Button).fire() }
+
+        then:
+        (box.children[0] as Label).text == "clicked"
+    }
+
+    private static String describe(Node node) {
+        def attrs = [node.class.simpleName]
+        if (node.hasProperty('text')) attrs << "text=${node.text}"
+        if (node.hasProperty('spacing')) attrs << "spacing=${node.spacing}"
+        if (node.hasProperty('padding')) attrs << "padding=${node.padding}"
+        if (node.hasProperty('prefWidth')) attrs << "prefWidth=${node.prefWidth}"
+        if (node.hasProperty('promptText')) attrs << "promptText=${node.promptText}"
+        if (node.hasProperty('selected')) attrs << "selected=${node.selected}"
+        if (node.hasProperty('fill')) attrs << "fill=${node.fill}"
+        attrs << "style=${node.style}"
+        def children = node instanceof Parent ? (node as Parent).childrenUnmodifiable.collect { describe(it) } : []
+        "${attrs.join(' ')}${children ? " [${children.join(', ')}]" : ''}"
+    }
+}
+
+@CompileSceneGraph
+class CompiledScenes {
+
+    static Object form(SceneGraphBuilder sg, String title, double gap) {
+        sg.vbox(spacing: gap, padding: 10) {
+            label(title, style: "-fx-font-weight: bold")
+            hbox(spacing: 5) {
+                label(text: "Name", prefWidth: 80)
+                textField(promptText: "name", prefColumnCount: 20)
+            }
+            rectangle(width: 20, height: 10, fill: "red")
+            checkBox("Remember me", selected: true)
+        }
+    }
+
+    static Object mixed(SceneGraphBuilder sg, SimpleStringProperty name) {
+        sg.build {
+            gridPane {
+                label(id: "title", text: "Title")
+                textField(promptText: "value", row: 1, column: 2, hgrow: "always")
+                label(text: bind(name))
+            }
+        }
+    }
+
+    static Object coerced(SceneGraphBuilder sg, Object gap, Object color, String caption, List<String> clicks) {
+        sg.vbox(spacing: gap) {
+            rectangle(width: 5, height: 5, fill: color)
+            button(text: "$caption", onAction: { clicks << caption })
+        }
+    }
+
+    static Object handlers(SceneGraphBuilder sg) {
+        sg.vbox {
+            label(id: "status", text: "idle")
+            button(text: "Go", onAction: { status.text = "clicked" })
+        }
+    }
+}
+
+class DynamicScenes {
+
+    static Object form(SceneGraphBuilder sg, String title, double gap) {
+        sg.vbox(spacing: gap, padding: 10) {
+            label(title, style: "-fx-font-weight: bold")
+            hbox(spacing: 5) {
+                label(text: "Name", prefWidth: 80)
+                textField(promptText: "name", prefColumnCount: 20)
+            }
+            rectangle(width: 20, height: 10, fill: "red")
+            checkBox("Remember me", selected: true)
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package groovyx.javafx
+
+import groovyx.javafx.test.FxTestSupport
+import javafx.application.Platform
+import javafx.scene.control.ListView
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class FxDispatcherSpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    def "work from many threads runs on the FX thread in batches"() {
+        given:
+        def dispatcher = new FxDispatcher()
+        def seen = new CopyOnWriteArrayList()
+        def done = new CountDownLatch(4 * 500)
+
+        when:
+        def producers = (1..4).collect { p ->
+            Thread.start {
+                500.times { i ->
+                    dispatcher.dispatch {
+                        seen << [p, i, Platform.isFxApplicationThread()]
+                        done.countDown()
+                    }
+                }
+            }
+        }
+        producers*.join()
+
+        then:
+        done.await(5, TimeUnit.SECONDS)
+        seen.every { it[2] }
+        (1..4).every { p -> seen.findAll { it[0] == p }*.getAt(1) == (0..<500).toList() }
+
+        and:
+        def stats = dispatcher.statistics()
+        stats.dispatched == 2000L
+        stats.executed == 2000L
+        stats.drains < 2000L
+        stats.maxQueueDepth > 1L
+        stats.drainNanos > 0L
+        dispatcher.queueDepth == 0
+    }
+
+    def "keyed work is coalesced so only the latest update runs"() {
+        given:
+        def dispatcher = new FxDispatcher()
+        def applied = new CopyOnWriteArrayList()
+
+        when:
+        runFx {
+            100.times { i -> dispatcher.dispatch("price") { applied << "price=$i".toString() } }
+            dispatcher.dispatch("volume") { applied << "volume".toString() }
+            dispatcher.queueDepth
+        }
+        dispatcher.submit {}.get(5, TimeUnit.SECONDS)
+
+        then:
+        applied == ["price=99", "volume"]
+        dispatcher.statistics().coalesced == 99L
+        dispatcher.statistics().executed == 3L
+    }
+
+    def "submit completes the future with the outcome of the work"() {
+        given:
+        def dispatcher = new FxDispatcher()
+
+        when:
+        def ok = dispatcher.submit { assert Platform.isFxApplicationThread() }
+        def failed = dispatcher.submit { throw new IllegalStateException("boom") }
+        ok.get(5, TimeUnit.SECONDS)
+        failed.get(5, TimeUnit.SECONDS)
+
+        then:
+        def e = thrown(java.util.concurrent.ExecutionException)
+        e.cause.message == "boom"
+    }
+
+    def "runOnFxThread waits for the work and rethrows its failure"() {
+        given:
+        def ran = false
+
+        when:
+        GroovyFX.runOnFxThread { ran = Platform.isFxApplicationThread() }
+
+        then:
+        ran
+
+        when:
+        GroovyFX.runOnFxThread { throw new IllegalArgumentException("bad") }
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "bad"
+    }
+
+    def "listView onSelect reports every selection unless asked to coalesce"() {
+        given:
+        def sg = new SceneGraphBuilder()
+        def selected = new CopyOnWriteArrayList()
+
+        when:
+        ListView list = runFx {
+            sg.listView(items: ["a", "b", "c"], coalesceSelection: coalesce, onSelect: { selected << it })
+        }
+        runFx {
+            list.selectionModel.select(0)
+            list.selectionModel.select(1)
+            list.selectionModel.select(2)
+        }
+        FxDispatcher.default.submit {}.get(5, TimeUnit.SECONDS)
+
+        then:
+        selected == expected
+
+        where:
+        coalesce | expected
+        false    | ["a", "b", "c"]
+        true     | ["c"]
+    }
+}
@@ -0,0 +1,121 @@
+package groovyx.javafx
+
+import groovyx.javafx.factory.ControlFactory
+import groovyx.javafx.factory.LabeledFactory
+import groovyx.javafx.test.FxTestSupport
+import javafx.animation.Timeline
+import javafx.scene.control.Button
+import javafx.scene.control.Label
+import javafx.scene.control.TextField
+import javafx.scene.paint.Color
+import spock.lang.Specification
+
+class SceneGraphRegistrySpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    def "builders share one registry and the same built-in factory instances"() {
+        when:
+        def a = new SceneGraphBuilder()
+        def b = new SceneGraphBuilder()
+
+        then:
+        a.registry != null
+        a.registry.is(b.registry)
+        a.factories.button.is(b.factories.button)
+        a.localFactories.isEmpty()
+        a.registrationGroups.contains("Controls")
+        a.getRegistrationGroupItems("Controls").contains("button")
+    }
+
+    def "default variables are still available per builder"() {
+        when:
+        def sg = new SceneGraphBuilder()
+
+        then:
+        sg.red == Color.RED
+        sg.groovyblue == Color.rgb(99, 152, 170)
+        sg.center != null
+
+        when:
+        sg.setVariable("red", Color.BLUE)
+
+        then:
+        sg.red == Color.BLUE
+        new SceneGraphBuilder().red == Color.RED
+    }
+
+    def "register overrides a built-in on one builder only"() {
+        given:
+        def custom = new SceneGraphBuilder()
+        custom.register("button", new LabeledFactory(Label))
+
+        when:
+        def overridden = runFx { custom.button(text: "A") }
+        def standard = runFx { new SceneGraphBuilder().button(text: "B") }
+
+        then:
+        overridden instanceof Label
+        standard instanceof Button
+    }
+
+    def "subclass overriding a built-in registration registers its factories per instance"() {
+        when:
+        def sg = new CustomControlsBuilder()
+        def node = runFx { sg.button(text: "X") }
+
+        then:
+        sg.registry == null
+        node instanceof TextField
+        sg.factories.vbox != null
+    }
+
+    def "subclass registerXxx methods are auto registered"() {
+        when:
+        def sg = new ExtraNodesBuilder()
+        def node = runFx { sg.extraLabel(text: "extra") }
+
+        then:
+        sg.registry != null
+        node instanceof Label
+        sg.getRegistrationGroupItems("ExtraNodes") == ["extraLabel"] as Set
+    }
+
+    def "timelines built by different builders keep their own key frames"() {
+        when:
+        def (Timeline first, Timeline second) = runFx {
+            def t1 = new SceneGraphBuilder().timeline {
+                at(1000.ms) { change(new Label(), "opacity") to 0.5 }
+            }
+            def t2 = new SceneGraphBuilder().timeline {
+                at(1000.ms) { change(new Label(), "opacity") to 0.5 }
+                at(2000.ms) { change(new Label(), "opacity") to 1.0 }
+            }
+            [t1, t2]
+        }
+
+        then:
+        first.keyFrames.size() == 1
+        second.keyFrames.size() == 2
+    }
+}
+
+class CustomControlsBuilder extends SceneGraphBuilder {
+    @Override
+    void registerControls() {
+        super.registerControls()
+        registerFactory "button", new ControlFactory(TextField)
+    }
+}
+
+class ExtraNodesBuilder extends SceneGraphBuilder {
+    void registerExtraNodes() {
+        registerFactory "extraLabel", new LabeledFactory(Label)
+    }
+}
@@ -0,0 +1,220 @@
+package groovyx.javafx
+
+import groovyx.javafx.collections.PersistentMap
+import groovyx.javafx.test.FxTestSupport
+import javafx.application.Platform
+import javafx.beans.value.ChangeListener
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class StoreSpec extends Specification {
+
+    static class Quote {
+        final String symbol
+        final double price
+        final long volume
+
+        Quote(String symbol, double price, long volume) {
+            this.symbol = symbol
+            this.price = price
+            this.volume = volume
+        }
+
+        Quote withPrice(double p) { new Quote(symbol, p, volume) }
+
+        Quote withVolume(long v) { new Quote(symbol, price, v) }
+    }
+
+    def "a batch publishes its final state once"() {
+        given:
+        def store = new Store<Integer>(0)
+        def seen = []
+        store.subscribe { seen << it }
+
+        when:
+        def result = store.batch {
+            100.times { store.update { it + 1 } }
+            assert store.state == 100
+            'done'
+        }
+
+        then:
+        result == 'done'
+        seen == [0, 100]
+        store.state == 100
+    }
+
+    def "nested batches publish when the outermost ends"() {
+        given:
+        def store = new Store<Integer>(0)
+        def seen = []
+        store.subscribe { seen << it }
+
+        when:
+        store.batch { s ->
+            s.update { it + 1 }
+            s.batch { s.update { it + 1 } }
+            assert seen == [0]
+        }
+
+        then:
+        seen == [0, 2]
+    }
+
+    def "a failed transaction is rolled back, a failed batch is not"() {
+        given:
+        def store = new Store<Integer>(1)
+        def seen = []
+        store.subscribe { seen << it }
+
+        when:
+        store.transaction { store.state = 5; throw new IllegalStateException('boom') }
+
+        then:
+        thrown(IllegalStateException)
+        store.state == 1
+        seen == [1]
+
+        when:
+        store.batch { store.state = 5; throw new IllegalStateException('boom') }
+
+        then:
+        thrown(IllegalStateException)
+        store.state == 5
+        seen == [1, 5]
+    }
+
+    def "a selection only fires when its slice changes"() {
+        given:
+        def store = new Store<Quote>(new Quote('ACME', 10d, 100))
+        def price = store.select { it.price }
+        def prices = []
+        def runs = 0
+        def volume = store.select { runs++; it.volume }
+        price.addListener({ obs, o, n -> prices << n } as ChangeListener)
+
+        when:
+        store.update { it.withVolume(200) }
+        store.update { it.withPrice(11d) }
+        store.update { it.withVolume(300) }
+
+        then:
+        prices == [11d]
+        price.value == 11d
+        runs == 0
+        volume.value == 300L
+    }
+
+    def "dispatched updates from other threads are applied on the FX thread in one batch"() {
+        given:
+        FxTestSupport.ensureStarted()
+        def store = new Store<Integer>(0)
+        def seen = []
+        def onFx = []
+        FxTestSupport.runFx {
+            store.subscribe { seen << it; onFx << Platform.isFxApplicationThread() }
+        }
+
+        when:
+        def threads = (1..4).collect { Thread.start { 250.times { store.dispatch { it + 1 } } } }
+        threads*.join()
+        FxDispatcher.default.submit({} as Runnable).get(5, TimeUnit.SECONDS)
+
+        then:
+        store.state == 1000
+        seen.last() == 1000
+        seen.size() < 1000
+        onFx.drop(1).every()
+    }
+
+    def "a subscriber can wait for an update made on another thread"() {
+        given:
+        def store = new Store<Integer>(0, 10)
+        def seen = []
+        Thread updater = null
+        store.subscribe { value ->
+            seen << value
+            if (value == 1 && updater == null) {
+                updater = Thread.start { store.update { it + 1 } }
+                updater.join(5_000)
+            }
+        }
+
+        when:
+        store.state = 1
+
+        then:
+        !updater.alive
+        store.state == 2
+        seen == [0, 1, 2]
+        store.undo()
+        store.state == 1
+    }
+
+    def "undo and redo walk the history, a batch being one step"() {
+        given:
+        def store = new Store<Integer>(0, 10)
+
+        when:
+        store.state = 1
+        store.batch { store.state = 2; store.state = 3 }
+        store.update { it + 1 }
+
+        then:
+        store.state == 4
+        store.undo()
+        store.state == 3
+        store.undo()
+        store.state == 1
+        store.redo()
+        store.state == 3
+
+        when:
+        store.state = 10
+
+        then:
+        !store.canRedo()
+        store.undo()
+        store.state == 3
+    }
+
+    def "the oldest states are evicted at the history limit"() {
+        given:
+        def store = new Store<Integer>(0, 3)
+
+        when:
+        (1..10).each { store.state = it }
+        int undone = 0
+        while (store.undo()) undone++
+
+        then:
+        undone == 3
+        store.state == 7
+
+        when:
+        store.historyLimit = 1
+
+        then:
+        store.redo()
+        store.state == 8
+        !store.canRedo()
+        store.undo()
+        store.state == 7
+    }
+
+    def "persistent state shares structure between undo steps"() {
+        given:
+        def initial = PersistentMap.<Integer, Integer> empty().plus((0..<1000).collectEntries { [it, it] })
+        def store = new Store<PersistentMap<Integer, Integer>>(initial, 100)
+
+        when:
+        50.times { i -> store.update { it.plus(i, -i) } }
+        store.undo()
+
+        then:
+        store.state.get(49) == 49
+        store.state.get(48) == -48
+        initial.get(48) == 48
+    }
+}
@@ -26,7 +26,9 @@ import javafx.beans.property.LongProperty
 import javafx.beans.property.MapProperty
 import javafx.beans.property.ObjectProperty
 import javafx.beans.property.SetProperty
+import javafx.beans.property.SimpleStringProperty
 import javafx.beans.property.StringProperty
+import javafx.beans.value.ChangeListener
 import org.junit.Test
 
 class FXBindableTest {
@@ -138,9 +140,173 @@ class FXBindableTest {
         bean.theSetProperty() instanceof SetProperty
     }
 
+    @Test
+    void "Lazy properties use the plain field until the property is asked for"() {
+        given:
+        def bean = new LazyTestBean()
+
+        when:
+        bean.count = 3
+        bean.name = 'one'
+
+        then:
+        assert bean.count == 3
+        assert bean.name == 'one'
+        assert bean.ratio == 0.5d
+        assert LazyTestBean.getDeclaredField('countProp').tap { accessible = true }.get(bean) == null
+        assert LazyTestBean.getDeclaredField('nameProp').tap { accessible = true }.get(bean) == null
+
+        when:
+        IntegerProperty count = bean.countProperty()
+        count.value = 7
+
+        then:
+        assert bean.countProperty().is(count)
+        assert bean.count == 7
+        assert bean.ratioProperty().value == 0.5d
+
+        when:
+        bean.nameProperty().bind(new LazyTestBean(name: 'two').nameProperty())
+
+        then:
+        assert bean.name == 'two'
+        assert bean.tagsProperty() instanceof ListProperty
+    }
+
+    @Test
+    void "Lazy can be set per property"() {
+        given:
+        def bean = new MixedTestBean(eager: 'e', lazy: 'l')
+
+        expect:
+        assert MixedTestBean.getDeclaredField('eagerProp').tap { accessible = true }.get(bean) != null
+        assert MixedTestBean.getDeclaredField('lazyProp').tap { accessible = true }.get(bean) == null
+        assert bean.lazy == 'l'
+        assert bean.lazyProperty().value == 'l'
+    }
+
+    @Test
+    void "Batched updates write each property once when the update ends"() {
+        given:
+        def bean = new BatchTestBean()
+        List<String> names = []
+        List<Long> masks = []
+        bean.nameProperty().addListener({ obs, oldValue, newValue -> names << newValue } as ChangeListener)
+        bean.addBeanChangeListener({ b, mask -> masks << mask } as FXBeanChangeListener)
+
+        when:
+        bean.batch {
+            name = 'one'
+            count = 1
+            name = 'two'
+            assert name == 'two'
+            assert names.empty
+        }
+
+        then:
+        assert bean instanceof FXBatchedBean
+        assert names == ['two']
+        assert masks == [bean.propertyMask('name', 'count')]
+        assert bean.name == 'two'
+        assert bean.count == 1
+
+        when:
+        bean.count = 5
+
+        then:
+        assert masks[1] == bean.propertyMask('count')
+    }
+
+    @Test
+    void "Batched updates nest and work with lazy properties"() {
+        given:
+        def bean = new LazyBatchTestBean()
+        List<Long> masks = []
+        bean.addBeanChangeListener({ b, mask -> masks << mask } as FXBeanChangeListener)
+
+        when:
+        bean.beginUpdate()
+        bean.beginUpdate()
+        bean.ratio = 2d
+        bean.endUpdate()
+
+        then:
+        assert masks.empty
+        assert bean.ratio == 2d
+        assert bean.ratioProperty().value == 0.5d
+
+        when:
+        bean.endUpdate()
+
+        then:
+        assert bean.ratioProperty().value == 2d
+        assert masks == [bean.propertyMask('ratio')]
+    }
+
+    @Test
+    void "A value that cannot be written does not lose the others"() {
+        given:
+        def bean = new BatchTestBean()
+        List<Long> masks = []
+        bean.addBeanChangeListener({ b, mask -> masks << mask } as FXBeanChangeListener)
+        bean.nameProperty().bind(new SimpleStringProperty('bound'))
+
+        when:
+        RuntimeException failure = null
+        try {
+            bean.batch {
+                name = 'ignored'
+                count = 3
+            }
+        } catch (RuntimeException e) {
+            failure = e
+        }
+
+        then:
+        assert failure != null
+        assert bean.count == 3
+        assert bean.name == 'bound'
+        assert masks == [bean.propertyMask('count')]
+
+        when:
+        bean.batch { count = 4 }
+
+        then:
+        assert masks[1] == bean.propertyMask('count')
+    }
+
+    @Test(expected = IllegalStateException)
+    void "Ending an update that was not started fails"() {
+        new BatchTestBean().endUpdate()
+    }
 }
 
 @FXBindable
 class TestBean {
     String name
 }
+
+@FXBindable(lazy = true)
+class LazyTestBean {
+    int count
+    String name
+    double ratio = 0.5d
+    List<String> tags
+}
+
+@FXBindable(batch = true)
+class BatchTestBean {
+    String name
+    int count
+}
+
+@FXBindable(batch = true, lazy = true)
+class LazyBatchTestBean {
+    String label
+    double ratio = 0.5d
+}
+
+class MixedTestBean {
+    @FXBindable String eager
+    @FXBindable(lazy = true) String lazy
+}
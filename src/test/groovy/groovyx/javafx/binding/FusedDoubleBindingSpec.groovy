@@ -0,0 +1,98 @@
+package groovyx.javafx.binding
+
+import javafx.beans.InvalidationListener
+import javafx.beans.binding.DoubleBinding
+import javafx.beans.property.SimpleDoubleProperty
+import javafx.beans.property.SimpleIntegerProperty
+import spock.lang.Specification
+
+class FusedDoubleBindingSpec extends Specification {
+
+    def a = new SimpleDoubleProperty(1)
+    def b = new SimpleDoubleProperty(6)
+    def c = new SimpleDoubleProperty(3)
+    def d = new SimpleDoubleProperty(4)
+
+    def cleanup() {
+        FusedDoubleBinding.enabled = true
+    }
+
+    def "an operator chain becomes one binding over the leaves"() {
+        when:
+        DoubleBinding result = a * 2 + b / c - d
+
+        then:
+        result instanceof FusedDoubleBinding
+        result.get() == 0d
+        result.dependencies as List == [a, b, c, d]
+    }
+
+    def "* on a property fuses with a number or an observable"() {
+        expect:
+        (a * 2) instanceof FusedDoubleBinding
+        (b * 0.5) instanceof FusedDoubleBinding
+        (b * c).dependencies as List == [b, c]
+        (b * c).get() == 18d
+
+        when:
+        FusedDoubleBinding.enabled = false
+
+        then:
+        !((b * 2) instanceof FusedDoubleBinding)
+        (b * 2).get() == 12d
+        (b * c).get() == 18d
+    }
+
+    def "a fused binding invalidates once per change and recomputes in one pass"() {
+        given:
+        DoubleBinding result = -(b + c / d) / 2
+        int invalidations = 0
+        result.addListener({ invalidations++ } as InvalidationListener)
+
+        expect:
+        result.get() == -3.375d
+
+        when:
+        c.value = 1
+
+        then:
+        invalidations == 1
+        result.get() == -3.125d
+        result.dependencies as Set == [b, c, d] as Set
+    }
+
+    def "intermediate bindings stay correct when read later"() {
+        given:
+        DoubleBinding ratio = b / c
+        DoubleBinding total = ratio + d
+
+        expect:
+        ratio.get() == 2d
+
+        when:
+        b.value = 9
+
+        then:
+        ratio.get() == 3d
+        total.get() == 7d
+    }
+
+    def "numbers and other numeric observables mix in"() {
+        given:
+        def count = new SimpleIntegerProperty(2)
+
+        expect:
+        (10 - b).get() == 4d
+        (b + count).get() == 8d
+        (3 * c).get() == 9d
+    }
+
+    def "fusion can be turned off"() {
+        given:
+        FusedDoubleBinding.enabled = false
+
+        expect:
+        !((b / c) instanceof FusedDoubleBinding)
+        (b / c).get() == 2d
+    }
+}
@@ -0,0 +1,128 @@
+package groovyx.javafx.binding
+
+import javafx.beans.InvalidationListener
+import javafx.beans.property.SimpleBooleanProperty
+import javafx.beans.property.SimpleDoubleProperty
+import javafx.beans.value.ChangeListener
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.BiConsumer
+
+class GroovyClosurePropertySpec extends Specification {
+
+    def "primitive results are read unboxed and equal results are not reported"() {
+        given:
+        def a = new SimpleDoubleProperty(1.2)
+        def property = new GroovyClosureProperty({ Math.round(a.value) })
+        def changes = []
+        property.addListener({ obs, oldValue, newValue -> changes << newValue } as ChangeListener)
+
+        when:
+        a.value = 1.4
+        a.value = 2.6
+
+        then:
+        changes == [3L]
+        property.longValue() == 3L
+        property.intValue() == 3
+        property.doubleValue() == 3d
+    }
+
+    def "numbers and booleans keep their kind"() {
+        given:
+        def a = new SimpleDoubleProperty(2)
+        def b = new SimpleDoubleProperty(3)
+        def flag = new SimpleBooleanProperty(false)
+
+        expect:
+        new GroovyClosureProperty({ a.value * b.value }).doubleValue() == 6d
+        new GroovyClosureProperty({ !flag.value }).booleanValue()
+        !new GroovyClosureProperty({ flag.value }).booleanValue()
+        new GroovyClosureProperty({ "n=${a.value}" as String }).value == 'n=2.0'
+    }
+
+    def "without change listeners the closure is only evaluated when read"() {
+        given:
+        def a = new SimpleDoubleProperty(1)
+        def evaluations = new AtomicInteger()
+        def property = new GroovyClosureProperty({ evaluations.incrementAndGet(); a.value * 2 })
+        def invalidations = new AtomicInteger()
+        property.addListener({ invalidations.incrementAndGet() } as InvalidationListener)
+        property.value
+        int afterRead = evaluations.get()
+
+        when:
+        a.value = 2
+        a.value = 3
+        a.value = 4
+
+        then:
+        invalidations.get() == 1
+        evaluations.get() == afterRead
+
+        when:
+        def value = property.value
+        a.value = 5
+
+        then:
+        value == 8d
+        evaluations.get() == afterRead + 1
+        invalidations.get() == 2
+    }
+
+    def "listeners are held once and can be removed while firing"() {
+        given:
+        def a = new SimpleDoubleProperty(1)
+        def property = new GroovyClosureProperty({ a.value })
+        def calls = []
+        ChangeListener first
+        first = { obs, o, n -> calls << 'first'; property.removeListener(first) } as ChangeListener
+        ChangeListener second = { obs, o, n -> calls << 'second' } as ChangeListener
+
+        when:
+        property.addListener(first)
+        property.addListener(first)
+        property.addListener(second)
+        a.value = 2
+        a.value = 3
+
+        then:
+        calls == ['first', 'second', 'second']
+    }
+
+    private static Closure doubling(SimpleDoubleProperty source) {
+        return { source.value * 2 }
+    }
+
+    def "closure classes are snooped once and their paths reused"() {
+        given:
+        def sources = (1..20).collect { new SimpleDoubleProperty(it) }
+        Class closureClass = doubling(sources[0]).getClass()
+        GroovyClosureProperty.forgetBindingShape(closureClass)
+        GroovyClosureProperty.resetBindingStatistics()
+        def snooped = []
+        GroovyClosureProperty.setSnoopHook({ Class type, Long nanos -> snooped << type } as BiConsumer)
+
+        when:
+        def properties = sources.collect { new GroovyClosureProperty(doubling(it)) }
+        sources[3].value = 100
+
+        then:
+        properties[3].doubleValue() == 200d
+        properties[4].doubleValue() == 10d
+        snooped == [closureClass]
+        GroovyClosureProperty.bindingStatistics().bindings == 20L
+        GroovyClosureProperty.bindingStatistics().snoops == 1L
+
+        when:
+        GroovyClosureProperty.forgetBindingShape(closureClass)
+        new GroovyClosureProperty(doubling(sources[0]))
+
+        then:
+        snooped == [closureClass, closureClass]
+
+        cleanup:
+        GroovyClosureProperty.setSnoopHook(null)
+    }
+}
@@ -0,0 +1,114 @@
+package groovyx.javafx.binding
+
+import javafx.beans.property.Property
+import javafx.beans.property.ReadOnlyStringWrapper
+import javafx.beans.property.SimpleStringProperty
+import javafx.beans.property.StringProperty
+import spock.lang.Specification
+
+class PropertyResolverSpec extends Specification {
+
+    def setup() {
+        PropertyResolver.resetStatistics()
+    }
+
+    def "accessors and missing accessors are resolved once per class"() {
+        given:
+        def first = new ResolverFxBean()
+        def second = new ResolverFxBean()
+
+        when:
+        def name = Util.getJavaFXProperty(first, 'name')
+        def other = Util.getJavaFXProperty(second, 'name')
+        def missing = [Util.getJavaFXProperty(first, 'age'), Util.getJavaFXProperty(second, 'age')]
+        def stats = PropertyResolver.statistics()
+
+        then:
+        name.is(first.nameProperty())
+        other.is(second.nameProperty())
+        missing == [null, null]
+        stats.accessorMisses == 2L
+        stats.accessorHits == 2L
+    }
+
+    def "accessors only the metaclass knows are still found"() {
+        given:
+        def bean = new ResolverPlainBean(name: 'x')
+        def property = new SimpleStringProperty('meta')
+        bean.metaClass.titleProperty = { -> property }
+
+        expect:
+        Util.getJavaFXProperty(bean, 'title').is(property)
+        Util.getJavaFXProperty(new ResolverPlainBean(), 'title') == null
+    }
+
+    def "read-only JavaBean adapters are shared while in use"() {
+        given:
+        def bean = new ResolverPlainBean(name: 'one')
+
+        when:
+        def adapter = Util.getJavaBeanFXProperty(bean, 'title')
+        def again = Util.getJavaBeanFXProperty(bean, 'title')
+        def otherBean = Util.getJavaBeanFXProperty(new ResolverPlainBean(name: 'one'), 'title')
+
+        then:
+        !(adapter instanceof Property)
+        again.is(adapter)
+        !otherBean.is(adapter)
+        adapter.value == 'one!'
+        PropertyResolver.statistics().adaptersReused == 1L
+    }
+
+    def "writable JavaBean adapters are not shared"() {
+        given:
+        def bean = new ResolverPlainBean(name: 'one')
+
+        when:
+        def adapter = Util.getJavaBeanFXProperty(bean, 'name')
+
+        then:
+        adapter instanceof Property
+        !Util.getJavaBeanFXProperty(bean, 'name').is(adapter)
+    }
+
+    def "two bindings to one bean property are independent"() {
+        given:
+        def target = new ResolverPlainBean(name: 'none')
+        def first = new ReadOnlyStringWrapper('first')
+        def second = new ReadOnlyStringWrapper('second')
+
+        when:
+        def firstHolder = new BindingHolder([target, 'name']).to(first.readOnlyProperty)
+        def secondHolder = new BindingHolder([target, 'name']).to(second.readOnlyProperty)
+        secondHolder.unbind()
+
+        then:
+        !firstHolder.observable.is(secondHolder.observable)
+        firstHolder.observable.bound
+        !secondHolder.observable.bound
+    }
+
+    def "bind to a property resolves both sides"() {
+        given:
+        def target = new ResolverFxBean()
+        def source = new ResolverPlainBean(name: 'bound')
+
+        when:
+        new BindingHolder([target, 'name']).to(source, 'name')
+
+        then:
+        target.name.value == 'bound'
+    }
+}
+
+class ResolverFxBean {
+    final StringProperty name = new SimpleStringProperty(this, 'name', 'fx')
+
+    StringProperty nameProperty() { name }
+}
+
+class ResolverPlainBean {
+    String name
+
+    String getTitle() { name + '!' }
+}
@@ -0,0 +1,82 @@
+package groovyx.javafx.binding
+
+import groovyx.javafx.FxDispatcher
+import groovyx.javafx.test.FxTestSupport
+import javafx.beans.property.IntegerProperty
+import javafx.beans.value.ChangeListener
+import spock.lang.Specification
+
+import java.lang.ref.WeakReference
+import java.util.concurrent.TimeUnit
+
+class ScriptVariablePropertySpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    def "a variable keeps one property, updated when it changes on the FX thread"() {
+        given:
+        def script = new GroovyShell(new Binding(count: 1)).parse('count * 2')
+        def property = ScriptVariableProperty.getProperty(script, 'count')
+
+        when:
+        FxTestSupport.runFx { script.setProperty('count', 5) }
+
+        then:
+        property instanceof IntegerProperty
+        ScriptVariableProperty.getProperty(script, 'count').is(property)
+        property.value == 5
+        script.run() == 10
+    }
+
+    def "changes from other threads reach the property on the FX thread, coalesced"() {
+        given:
+        def script = new GroovyShell(new Binding(count: 0)).parse('count')
+        def property = ScriptVariableProperty.getProperty(script, 'count')
+        def seen = Collections.synchronizedList([])
+        property.addListener({ obs, oldValue, newValue -> seen << newValue } as ChangeListener)
+
+        when:
+        for (int i = 1; i <= 1000; i++) {
+            script.setProperty('count', i)
+        }
+        FxDispatcher.default.submit({} as Runnable).get(5, TimeUnit.SECONDS)
+
+        then:
+        property.value == 1000
+        seen.last() == 1000
+        seen.size() < 1000
+    }
+
+    def "scripts and their properties are collected after 100k evaluations"() {
+        given:
+        Class<? extends Script> scriptClass = new GroovyShell().parse('count * 2').getClass()
+        List<WeakReference<Script>> samples = []
+        Runtime runtime = Runtime.runtime
+
+        when:
+        long baseline = 0L
+        for (int i = 0; i < 100_000; i++) {
+            Script script = scriptClass.getDeclaredConstructor().newInstance()
+            script.binding = new Binding(count: i)
+            ScriptVariableProperty.getProperty(script, 'count')
+            assert script.run() == i * 2
+            if (i % 10_000 == 0) samples << new WeakReference<Script>(script)
+            if (i == 10_000) baseline = usedAfterGc(runtime)
+        }
+        long used = usedAfterGc(runtime)
+
+        then:
+        samples.every { it.get() == null }
+        used - baseline < 32L * 1024 * 1024
+    }
+
+    private static long usedAfterGc(Runtime runtime) {
+        for (int i = 0; i < 5; i++) {
+            System.gc()
+            Thread.sleep(20)
+        }
+        return runtime.totalMemory() - runtime.freeMemory()
+    }
+}
@@ -0,0 +1,141 @@
+package groovyx.javafx.canvas
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.scene.canvas.Canvas
+import javafx.scene.effect.Glow
+import javafx.scene.paint.Color
+import javafx.scene.shape.ArcType
+import javafx.scene.shape.StrokeLineCap
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Path
+
+class DisplayListSpec extends Specification {
+
+    @TempDir
+    Path tempDir
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    private static Color pixel(Canvas canvas, int x, int y) {
+        runFx { canvas.snapshot(null, null).pixelReader.getColor(x, y) }
+    }
+
+    private static List<CanvasOperation> sampleOperations() {
+        [
+                new SetFillOperation(fill: Color.RED),
+                new FillRectOperation(x: 10, y: 10, w: 20, h: 20),
+                new SetStrokeOperation(stroke: Color.BLUE),
+                new SetLineWidthOperation(lw: 3),
+                new SetLineCapOperation(cap: StrokeLineCap.ROUND),
+                new StrokeLineOperation(x1: 50, y1: 10, x2: 90, y2: 10),
+                new SetFillOperation(fill: Color.GREEN),
+                new FillPolygonOperation(xPoints: [60, 90, 60] as double[], yPoints: [40, 40, 70] as double[], nPoints: 3),
+                new FillArcOperation(x: 10, y: 60, w: 30, h: 30, startAngle: 0, arcExtent: 360, closure: ArcType.ROUND)
+        ]
+    }
+
+    def "packed operations paint the same as the operation objects"() {
+        given:
+        def ops = sampleOperations()
+        def list = DisplayList.of(ops)
+        def plain = runFx { new Canvas(100, 100) }
+        def packed = runFx { new Canvas(100, 100) }
+
+        when:
+        runFx {
+            ops.each { it.execute(plain.graphicsContext2D) }
+            list.execute(packed.graphicsContext2D)
+        }
+
+        then:
+        list.size() == ops.size()
+        [[20, 20], [70, 10], [65, 50], [25, 75], [95, 95]].every { int x, int y ->
+            pixel(plain, x, y) == pixel(packed, x, y)
+        }
+        pixel(packed, 20, 20) == Color.RED
+    }
+
+    def "operations without a packed form are kept and invoked in order"() {
+        given:
+        def calls = []
+        def list = new DisplayList()
+                .fillRect(0, 0, 1, 1)
+                .add(new ClosureOperation(closure: { gc -> calls << 'closure' }))
+                .add(new SetEffectOperation(effect: new Glow()))
+
+        when:
+        runFx { list.execute(new Canvas(10, 10).graphicsContext2D) }
+
+        then:
+        list.size() == 3
+        calls == ['closure']
+    }
+
+    def "a saved display list loads back with the same commands"() {
+        given:
+        def file = tempDir.resolve('diagram.gfxd')
+        def list = DisplayList.of(sampleOperations())
+                .fillText('hello', 5, 95)
+        list.save(file)
+
+        when:
+        def loaded = DisplayList.load(file)
+        def canvas = runFx { new Canvas(100, 100) }
+        runFx { loaded.execute(canvas.graphicsContext2D) }
+
+        then:
+        loaded.size() == list.size()
+        pixel(canvas, 20, 20) == Color.RED
+        pixel(canvas, 65, 50) == Color.GREEN
+    }
+
+    def "a loaded file can be saved over and missing points record an empty polyline"() {
+        given:
+        def file = tempDir.resolve('polyline.gfxd')
+        new DisplayList().fillRect(0, 0, 1, 1).save(file)
+
+        when:
+        def loaded = DisplayList.load(file)
+        loaded.strokePolyline(null, null, 0).save(file)
+
+        then:
+        DisplayList.load(file).size() == 2
+    }
+
+    def "effects and closures cannot be saved"() {
+        when:
+        new DisplayList().setEffect(new Glow()).save(tempDir.resolve('effect.gfxd'))
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "canvas(compact: true) draws from a single display list"() {
+        given:
+        def sg = new SceneGraphBuilder()
+
+        when:
+        Canvas canvas = runFx {
+            sg.canvas(width: 50, height: 50, compact: true) {
+                fill(Color.ORANGE)
+                operation { gc -> gc.fillRect(0, 0, 20, 20) }
+            }
+        }
+        DrawOperations dop = canvas.userData as DrawOperations
+
+        then:
+        dop.operations.size() == 1
+        dop.operations[0] instanceof DisplayList
+        (dop.operations[0] as DisplayList).size() == 2
+        pixel(canvas, 10, 10) == Color.ORANGE
+    }
+}
@@ -0,0 +1,61 @@
+package groovyx.javafx.canvas
+
+import groovyx.javafx.binding.BindingHolder
+import javafx.beans.property.SimpleDoubleProperty
+import javafx.beans.property.SimpleObjectProperty
+import spock.lang.Specification
+
+class OpParamCoercionSpec extends Specification {
+
+    static class Holder {
+        Object value
+    }
+
+    def op = new SetLineWidthOperation()
+
+    def "unwraps properties, bind holders, closures and value holders"() {
+        given:
+        def width = new SimpleDoubleProperty(4d)
+
+        expect:
+        op.unwrap(width) == 4d
+        op.unwrap(new BindingHolder(width)) == 4d
+        op.unwrap({ -> width }) == 4d
+        op.unwrap(new Holder(value: new SimpleObjectProperty('x'))) == 'x'
+        op.unwrap([value: 1]) == [value: 1]
+        op.unwrap(null) == null
+    }
+
+    def "numeric coercion reads numbers, observables and strings"() {
+        expect:
+        op.coerceDouble(3, 0d) == 3d
+        op.coerceDouble(new SimpleDoubleProperty(1.5d), 0d) == 1.5d
+        op.coerceDouble(' 2.5 ', 0d) == 2.5d
+        op.coerceDouble(null, 7d) == 7d
+        op.coerceInt(new BindingHolder(new SimpleDoubleProperty(9.9d)), 0) == 9
+        op.coerce('1.25', Double) == 1.25d
+        op.coerce(null, Double) == null
+    }
+
+    def "numeric operations take bound parameters"() {
+        given:
+        def rotate = new RotateOperation()
+        def scale = new ScaleOperation()
+        def translate = new TranslateOperation()
+        def alpha = new SetGlobalAlphaOperation()
+
+        when:
+        rotate.initParams([angle: new SimpleDoubleProperty(45d)])
+        scale.initParams(2)
+        translate.initParams([3, 4])
+        alpha.initParams([value: new BindingHolder(new SimpleDoubleProperty(0.5d))])
+        op.initParams([lineWidth: 3])
+
+        then:
+        rotate.degrees == 45d
+        scale.x == 2d && scale.y == 2d
+        translate.x == 3d && translate.y == 4d
+        alpha.alpha == 0.5d
+        op.lw == 3d
+    }
+}
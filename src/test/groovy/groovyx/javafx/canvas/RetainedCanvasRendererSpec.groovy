@@ -0,0 +1,133 @@
+package groovyx.javafx.canvas
+
+import groovyx.javafx.FxDispatcher
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.collections.FXCollections
+import javafx.scene.canvas.Canvas
+import javafx.scene.paint.Color
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class RetainedCanvasRendererSpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    // Waits for the pulse that runs scheduled redraws
+    private static void nextPulse() {
+        FxDispatcher.default.submit {}.get(5, TimeUnit.SECONDS)
+    }
+
+    private static Color pixel(Canvas canvas, int x, int y) {
+        runFx { canvas.snapshot(null, null).pixelReader.getColor(x, y) }
+    }
+
+    def "moving an operation repaints only its old and new area, once per pulse"() {
+        given:
+        def canvas = runFx { new Canvas(400, 400) }
+        def red = new FillRectOperation(x: 10, y: 10, w: 20, h: 20)
+        def ops = FXCollections.observableArrayList(
+                new SetFillOperation(fill: Color.RED), red,
+                new FillRectOperation(x: 300, y: 300, w: 50, h: 50))
+        def renderer = runFx { new RetainedCanvasRenderer(canvas, ops) }
+
+        expect:
+        renderer.redrawCount == 1
+        pixel(canvas, 20, 20) == Color.RED
+
+        when:
+        runFx {
+            red.x = 100
+            red.y = 120
+        }
+        nextPulse()
+
+        then:
+        renderer.redrawCount == 2
+        renderer.partialRedrawCount == 1
+        renderer.lastRedrawRegion.minX < 10
+        renderer.lastRedrawRegion.maxX > 120
+        renderer.lastRedrawRegion.maxX < 300
+        pixel(canvas, 20, 20) == Color.WHITE
+        pixel(canvas, 110, 130) == Color.RED
+        pixel(canvas, 320, 320) == Color.RED
+    }
+
+    def "list changes mark the bounds of added and removed operations"() {
+        given:
+        def canvas = runFx { new Canvas(400, 400) }
+        def ops = FXCollections.observableArrayList(new FillRectOperation(x: 10, y: 10, w: 20, h: 20))
+        def renderer = runFx { new RetainedCanvasRenderer(canvas, ops) }
+
+        when:
+        runFx {
+            ops.add(new FillRectOperation(x: 200, y: 200, w: 10, h: 10))
+            ops.remove(0)
+        }
+        nextPulse()
+
+        then:
+        renderer.partialRedrawCount == 1
+        pixel(canvas, 20, 20) == Color.WHITE
+        pixel(canvas, 205, 205) == Color.BLACK
+    }
+
+    def "state operations and transforms fall back to full repaints"() {
+        given:
+        def canvas = runFx { new Canvas(200, 200) }
+        def fill = new SetFillOperation(fill: Color.RED)
+        def rect = new FillRectOperation(x: 10, y: 10, w: 20, h: 20)
+        def ops = FXCollections.observableArrayList(fill, rect)
+        def renderer = runFx { new RetainedCanvasRenderer(canvas, ops) }
+
+        when:
+        runFx { fill.fill = Color.BLUE }
+        nextPulse()
+
+        then:
+        renderer.partialRedrawCount == 0
+        renderer.lastRedrawRegion.width == 200d
+        pixel(canvas, 20, 20) == Color.BLUE
+
+        when:
+        runFx {
+            ops.add(0, new TranslateOperation(x: 5, y: 5))
+            rect.x = 50
+        }
+        nextPulse()
+        runFx { rect.x = 100 }
+        nextPulse()
+
+        then:
+        renderer.partialRedrawCount == 0
+        pixel(canvas, 110, 20) == Color.BLUE
+    }
+
+    def "canvas(retained: true) keeps the operations live"() {
+        given:
+        def sg = new SceneGraphBuilder()
+        def rect = new FillRectOperation(x: 0, y: 0, w: 10, h: 10)
+
+        when:
+        Canvas canvas = runFx {
+            sg.canvas(width: 100, height: 100, retained: true) {
+                fill(Color.GREEN)
+            }
+        }
+        DrawOperations dop = canvas.userData as DrawOperations
+        runFx { dop.operations.add(rect) }
+        nextPulse()
+
+        then:
+        dop.renderer != null
+        dop.renderer.redrawCount == 2
+        pixel(canvas, 5, 5) == Color.GREEN
+    }
+}
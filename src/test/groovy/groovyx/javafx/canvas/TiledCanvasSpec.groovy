@@ -0,0 +1,89 @@
+package groovyx.javafx.canvas
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.scene.image.WritableImage
+import javafx.scene.paint.Color
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class TiledCanvasSpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    private static WritableImage rendered(TiledCanvas canvas) {
+        runFx { canvas.render() }.get(10, TimeUnit.SECONDS)
+    }
+
+    def "tiles are rasterized and written into the image"() {
+        given:
+        def canvas = new TiledCanvas(300, 200)
+        canvas.tileSize = 64
+        canvas.operations.setAll(
+                new SetFillOperation(fill: Color.RED),
+                new FillRectOperation(x: 50, y: 50, w: 100, h: 100),
+                new SetStrokeOperation(stroke: Color.BLUE),
+                new SetLineWidthOperation(lw: 4),
+                new StrokeLineOperation(x1: 200, y1: 20, x2: 290, y2: 20),
+                new SetFillOperation(fill: Color.LIME),
+                new FillPolygonOperation(xPoints: [200, 290, 200] as double[], yPoints: [100, 100, 190] as double[], nPoints: 3))
+
+        when:
+        def image = rendered(canvas)
+        def reader = image.pixelReader
+
+        then:
+        canvas.image.is(image)
+        image.width == 300d
+        reader.getColor(100, 100) == Color.RED
+        reader.getColor(64, 64) == Color.RED
+        reader.getColor(250, 20) == Color.BLUE
+        reader.getColor(210, 120) == Color.LIME
+        reader.getColor(10, 10).opacity == 0d
+    }
+
+    def "state is kept across save, restore and transforms"() {
+        given:
+        def canvas = new TiledCanvas(100, 100)
+        canvas.operations.setAll(
+                new SetFillOperation(fill: Color.RED),
+                new SaveOperation(),
+                new SetFillOperation(fill: Color.BLUE),
+                new TranslateOperation(x: 50, y: 50),
+                new FillRectOperation(x: 0, y: 0, w: 20, h: 20),
+                new RestoreOperation(),
+                new FillRectOperation(x: 0, y: 0, w: 20, h: 20))
+
+        when:
+        def reader = rendered(canvas).pixelReader
+
+        then:
+        reader.getColor(60, 60) == Color.BLUE
+        reader.getColor(10, 10) == Color.RED
+    }
+
+    def "tiledCanvas collects canvas operations"() {
+        given:
+        def sg = new SceneGraphBuilder()
+
+        when:
+        TiledCanvas canvas = runFx {
+            sg.tiledCanvas(width: 128, height: 128, tileSize: 32) {
+                fill(Color.ORANGE)
+            }
+        }
+        canvas.operations << new FillRectOperation(x: 0, y: 0, w: 128, h: 128)
+        def reader = rendered(canvas).pixelReader
+
+        then:
+        canvas.operations.size() == 2
+        reader.getColor(100, 20) == Color.ORANGE
+    }
+}
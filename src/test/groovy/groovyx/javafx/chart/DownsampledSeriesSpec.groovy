@@ -0,0 +1,173 @@
+package groovyx.javafx.chart
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.scene.chart.LineChart
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+class DownsampledSeriesSpec extends Specification {
+
+    List<Runnable> pulses = []
+
+    private DownsampledSeries series(int capacity, int maxPoints) {
+        def ds = new DownsampledSeries(capacity)
+        ds.fxExecutor = { Runnable work -> pulses << work } as Executor
+        ds.maxPoints = maxPoints
+        return ds
+    }
+
+    private void pulse() {
+        def pending = new ArrayList<Runnable>(pulses)
+        pulses.clear()
+        pending*.run()
+    }
+
+    private static List<List<Double>> points(DownsampledSeries ds) {
+        ds.series.data.collect { [it.XValue.doubleValue(), it.YValue.doubleValue()] }
+    }
+
+    def "the buffer keeps the newest points and rejects x going back"() {
+        given:
+        def buffer = new XYBuffer(4)
+
+        when:
+        (0..5).each { buffer.append(it, it * 10) }
+
+        then:
+        buffer.size() == 4
+        buffer.x(buffer.firstSequence) == 2d
+        buffer.y(buffer.endSequence - 1) == 50d
+        buffer.sequenceOf(3.5d) == buffer.firstSequence + 2
+
+        when:
+        buffer.append(4, 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "appends update the chart once per pulse and keep every spike"() {
+        given:
+        def ds = series(100_000, 200)
+        def random = new Random(7)
+
+        when:
+        for (int i = 0; i < 50_000; i++) {
+            ds.append(i, random.nextGaussian())
+        }
+        ds.append(50_000, 100)
+        ds.append(50_001, -100)
+
+        then:
+        pulses.size() == 1
+
+        when:
+        pulse()
+
+        then:
+        ds.pointCount <= 200
+        ds.pointCount > 100
+        points(ds).contains([50_000d, 100d])
+        points(ds).contains([50_001d, -100d])
+        points(ds)*.get(0) == points(ds)*.get(0).sort(false)
+    }
+
+    def "incremental appends match a series built from the same points at once"() {
+        given:
+        def incremental = series(20_000, 300)
+        def whole = series(20_000, 300)
+        def random = new Random(11)
+        double x = 0
+
+        when:
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                x += random.nextDouble()
+                double y = random.nextGaussian()
+                incremental.append(x, y)
+                whole.buffer.append(x, y)
+            }
+            pulse()
+        }
+        whole.update()
+
+        then:
+        incremental.buffer.firstSequence > 0
+        points(incremental) == points(whole)
+    }
+
+    def "data items are updated in place"() {
+        given:
+        def ds = series(1_000, 100)
+        (0..<1_000).each { ds.append(it, it % 7) }
+        pulse()
+        def first = ds.series.data[0]
+
+        when:
+        (1_000..<1_500).each { ds.append(it, it % 7) }
+        pulse()
+
+        then:
+        ds.series.data[0].is(first)
+        ds.series.data[0].XValue.doubleValue() >= 500d
+    }
+
+    def "a range shows only its points and showAll brings back the rest"() {
+        given:
+        def ds = series(100_000, 100)
+        (0..<100_000).each { ds.buffer.append(it, Math.sin(it / 100d)) }
+
+        when:
+        ds.showRange(1_000, 2_000)
+        pulse()
+
+        then:
+        points(ds).every { it[0] >= 1_000d && it[0] <= 2_000d }
+        points(ds).first()[0] == 1_000d
+
+        when:
+        ds.showAll()
+        pulse()
+
+        then:
+        ds.pointCount <= 100
+        points(ds).last()[0] > 90_000d
+    }
+
+    def "largest triangle three buckets keeps the ends and the point budget"() {
+        given:
+        def ds = series(10_000, 50)
+        ds.mode = DownsampledSeries.Mode.LTTB
+        (0..<10_000).each { ds.append(it, it == 5_000 ? 1_000 : Math.sin(it / 50d)) }
+
+        when:
+        pulse()
+
+        then:
+        ds.pointCount == 50
+        points(ds).first() == [0d, 0d]
+        points(ds).last()[0] == 9_999d
+        points(ds).contains([5_000d, 1_000d])
+    }
+
+    def "series(source:) builds a downsampled series in a chart"() {
+        given:
+        FxTestSupport.ensureStarted()
+        def values = (0..<10_000).collect { [it, Math.cos(it / 30d)] }
+
+        when:
+        LineChart chart = FxTestSupport.runFx {
+            new SceneGraphBuilder().lineChart {
+                series(name: 'signal', source: values, maxPoints: 200)
+            }
+        }
+
+        then:
+        chart.data.size() == 1
+        chart.data[0].name == 'signal'
+        chart.data[0].data.size() <= 200
+        chart.data[0].data.size() > 0
+    }
+}
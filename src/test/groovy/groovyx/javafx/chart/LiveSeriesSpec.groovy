@@ -0,0 +1,141 @@
+package groovyx.javafx.chart
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.collections.ListChangeListener
+import javafx.scene.chart.LineChart
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+
+class LiveSeriesSpec extends Specification {
+
+    Queue<Runnable> pulses = new ConcurrentLinkedQueue<Runnable>()
+
+    private LiveSeries live(int capacity) {
+        def series = new LiveSeries(capacity)
+        series.fxExecutor = { Runnable work -> pulses << work } as Executor
+        return series
+    }
+
+    private void pulse() {
+        Runnable work
+        while ((work = pulses.poll()) != null) {
+            work.run()
+        }
+    }
+
+    def "appends between pulses reach the chart in one change"() {
+        given:
+        def series = live(1_000)
+        int changes = 0
+        series.series.data.addListener({ changes++ } as ListChangeListener)
+
+        when:
+        (0..<500).each { series.append(it, it * 2) }
+
+        then:
+        pulses.size() == 1
+        series.size() == 0
+
+        when:
+        pulse()
+
+        then:
+        changes == 1
+        series.size() == 500
+        series.series.data[499].YValue == 998d
+        series.statistics().applied == 500L
+        series.statistics().flushes == 1L
+    }
+
+    def "old points are evicted by capacity and by window"() {
+        given:
+        def series = live(100)
+
+        when:
+        (0..<100).each { series.append(it, 0) }
+        pulse()
+        (100..<150).each { series.append(it, 0) }
+        pulse()
+
+        then:
+        series.size() == 100
+        series.series.data[0].XValue == 50d
+        series.statistics().evicted == 50L
+
+        when:
+        series.window = 10
+        series.append(150, 0)
+        pulse()
+
+        then:
+        series.series.data*.XValue == (140..150)*.doubleValue()
+        series.statistics().evicted == 50L + 90L
+    }
+
+    def "a full pending ring drops new points instead of blocking"() {
+        given:
+        def series = live(10)
+
+        when:
+        def accepted = (0..<15).collect { series.append(it, it) }
+
+        then:
+        accepted.count(true) == 10
+        series.statistics().dropped == 5L
+        series.statistics().pending == 10L
+
+        when:
+        pulse()
+
+        then:
+        series.series.data*.XValue == (0..<10)*.doubleValue()
+        series.append(15, 15)
+    }
+
+    def "points appended from several threads all arrive"() {
+        given:
+        def series = live(100_000)
+
+        when:
+        def writers = (0..<4).collect { int t ->
+            Thread.start {
+                for (int i = 0; i < 10_000; i++) {
+                    series.append(t * 100_000 + i, i)
+                }
+            }
+        }
+        writers*.join()
+        pulse()
+
+        then:
+        series.size() == 40_000
+        series.statistics().appended == 40_000L
+        series.statistics().dropped == 0L
+        series.series.data*.XValue as Set == (0..<4).collectMany { int t -> (0..<10_000).collect { t * 100_000d + it } } as Set
+    }
+
+    def "liveSeries adds its series to the chart and turns animation off"() {
+        given:
+        FxTestSupport.ensureStarted()
+
+        when:
+        def builder = new SceneGraphBuilder()
+        LineChart chart = FxTestSupport.runFx {
+            builder.lineChart(animated: true) {
+                liveSeries(id: 'cpu', name: 'CPU', window: 5.minutes, capacity: 1_000)
+            }
+        }
+        LiveSeries cpu = builder.cpu
+
+        then:
+        !chart.animated
+        chart.data.size() == 1
+        chart.data[0].is(cpu.series)
+        cpu.name == 'CPU'
+        cpu.window == 300_000d
+        cpu.capacity == 1_000
+    }
+}
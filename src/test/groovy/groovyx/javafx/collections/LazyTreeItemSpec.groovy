@@ -0,0 +1,200 @@
+package groovyx.javafx.collections
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.collections.ListChangeListener
+import javafx.scene.control.TreeItem
+import javafx.scene.control.TreeView
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+class LazyTreeItemSpec extends Specification {
+
+    List<Runnable> loads = []
+    List<Runnable> pulses = []
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private LazyTreeItem<Object> lazy(Object value, Closure loader) {
+        def item = new LazyTreeItem<Object>(value, loader)
+        item.executor = { Runnable work -> loads << work } as Executor
+        item.fxExecutor = { Runnable work -> pulses << work } as Executor
+        return item
+    }
+
+    private void run() {
+        def pending = new ArrayList<Runnable>(loads)
+        loads.clear()
+        pending*.run()
+        pending = new ArrayList<Runnable>(pulses)
+        pulses.clear()
+        pending*.run()
+    }
+
+    private static Closure children(int count) {
+        return { TreeItem item -> (0..<count).collect { "${item.value}/$it".toString() } }
+    }
+
+    def "children are loaded once on first expand and attached in one change"() {
+        given:
+        int calls = 0
+        def root = lazy('root') { item -> calls++; children(1_000).call(item) }
+        int changes = 0
+        root.children.addListener({ changes++ } as ListChangeListener)
+
+        expect:
+        !root.leaf
+        root.children.empty
+
+        when:
+        root.expanded = true
+
+        then:
+        root.children*.value == [LazyTreeItem.DEFAULT_PLACEHOLDER]
+        loads.size() == 1
+
+        when:
+        run()
+        root.expanded = false
+        root.expanded = true
+
+        then:
+        root.loaded
+        calls == 1
+        changes == 2
+        root.children.size() == 1_000
+        root.children[999].value == 'root/999'
+        root.children.every { it instanceof LazyTreeItem && !it.loaded }
+    }
+
+    def "leaf values become plain items and empty results make a leaf"() {
+        given:
+        def root = lazy('root') { item -> item.value == 'root' ? [1, 'dir'] : [] }
+        root.leaf = { it instanceof Integer }
+
+        when:
+        root.expanded = true
+        run()
+        def dir = root.children[1] as LazyTreeItem
+        dir.expanded = true
+        run()
+
+        then:
+        root.children[0].class == TreeItem
+        dir.loaded
+        dir.leaf
+        dir.children.empty
+    }
+
+    def "a failed load is reported and tried again on the next expand"() {
+        given:
+        boolean failing = true
+        def root = lazy('root') { item -> if (failing) throw new IOException('offline'); ['a'] }
+        def errors = []
+        def previous = Thread.currentThread().uncaughtExceptionHandler
+        Thread.currentThread().uncaughtExceptionHandler = { t, e -> errors << e } as Thread.UncaughtExceptionHandler
+
+        when:
+        root.expanded = true
+        run()
+
+        then:
+        errors.size() == 1
+        !root.loaded
+        root.children.empty
+
+        when:
+        failing = false
+        root.expanded = false
+        root.expanded = true
+        run()
+
+        then:
+        root.children*.value == ['a']
+
+        cleanup:
+        Thread.currentThread().uncaughtExceptionHandler = previous
+    }
+
+    def "a refresh discards the load it replaces"() {
+        given:
+        int version = 0
+        def root = lazy('root') { item -> ["v${++version}".toString()] }
+
+        when:
+        root.expanded = true
+        root.refresh()
+        run()
+
+        then:
+        loads.empty
+        root.children*.value == ['v2']
+    }
+
+    def "collapsed branches are unloaded past maxLoaded, least recently collapsed first"() {
+        given:
+        def root = lazy('root', children(10))
+        root.maxLoaded = 25
+        root.expanded = true
+        run()
+        def first = root.children[0] as LazyTreeItem
+        def second = root.children[1] as LazyTreeItem
+
+        when:
+        first.expanded = true
+        run()
+        first.expanded = false
+
+        then:
+        first.loaded
+
+        when:
+        second.expanded = true
+        run()
+        second.expanded = false
+
+        then:
+        !first.loaded
+        first.children.empty
+        second.loaded
+        root.loaded
+
+        when:
+        first.expanded = true
+        run()
+
+        then:
+        first.children.size() == 10
+    }
+
+    def "lazyTreeItem builds a lazy root with its options and events"() {
+        given:
+        def expanded = []
+
+        when:
+        TreeView tree = FxTestSupport.runFx {
+            new SceneGraphBuilder().treeView {
+                lazyTreeItem('root', loader: children(3), placeholder: null, maxLoaded: 100,
+                        executor: { Runnable work -> work.run() } as Executor,
+                        onBranchExpand: { event -> expanded << event.treeItem.value })
+            }
+        }
+        def root = tree.root as LazyTreeItem
+
+        then:
+        root.value == 'root'
+        root.placeholder == null
+        root.maxLoaded == 100
+
+        when:
+        root.fxExecutor = { Runnable work -> work.run() } as Executor
+        FxTestSupport.runFx { root.expanded = true }
+
+        then:
+        expanded == ['root']
+        root.children*.value == ['root/0', 'root/1', 'root/2']
+    }
+}
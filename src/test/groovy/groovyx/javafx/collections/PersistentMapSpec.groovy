@@ -0,0 +1,89 @@
+package groovyx.javafx.collections
+
+import spock.lang.Specification
+
+class PersistentMapSpec extends Specification {
+
+    // Equal hash codes for every key, so all entries collide
+    static class Colliding {
+        final String name
+
+        Colliding(String name) { this.name = name }
+
+        @Override
+        int hashCode() { 42 }
+
+        @Override
+        boolean equals(Object o) { o instanceof Colliding && ((Colliding) o).name == name }
+    }
+
+    def "behaves like a HashMap through many puts and removes"() {
+        given:
+        def random = new Random(7)
+        def expected = [:]
+        def map = PersistentMap.<Integer, String> empty()
+
+        when:
+        20000.times {
+            int key = random.nextInt(5000)
+            if (random.nextInt(4) == 0) {
+                expected.remove(key)
+                map = map - key
+            } else {
+                expected[key] = "v$it".toString()
+                map = map.plus(key, "v$it".toString())
+            }
+        }
+
+        then:
+        map.size() == expected.size()
+        map == expected
+        expected.every { k, v -> map.get(k) == v && map.containsKey(k) }
+        map.entrySet().size() == expected.size()
+        map.keySet() == expected.keySet()
+    }
+
+    def "older versions are unchanged"() {
+        given:
+        def v1 = PersistentMap.of(a: 1, b: 2)
+
+        when:
+        def v2 = v1.plus('c', 3)
+        def v3 = v2 - 'a'
+
+        then:
+        v1 == [a: 1, b: 2]
+        v2 == [a: 1, b: 2, c: 3]
+        v3 == [b: 2, c: 3]
+        v1.plus('a', 1).is(v1)
+        (v1 - 'missing').is(v1)
+    }
+
+    def "null keys, null values and colliding keys are kept apart"() {
+        given:
+        def one = new Colliding('one')
+        def two = new Colliding('two')
+        def three = new Colliding('three')
+
+        when:
+        def map = PersistentMap.empty().plus(null, 'nothing').plus('x', null)
+                .plus(one, 1).plus(two, 2).plus(three, 3)
+
+        then:
+        map.size() == 5
+        map.get(null) == 'nothing'
+        map.containsKey('x') && map.get('x') == null
+        map.get(two) == 2
+        (map - two).get(three) == 3
+        !(map - two).containsKey(two)
+        (map - one - two - three - 'x') == [(null): 'nothing']
+    }
+
+    def "mutators are not supported"() {
+        when:
+        PersistentMap.of(a: 1).put('b', 2)
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+}
@@ -0,0 +1,64 @@
+package groovyx.javafx.collections
+
+import spock.lang.Specification
+
+class PersistentVectorSpec extends Specification {
+
+    def "appends, replaces and pops across trie levels"() {
+        given:
+        int n = 40000
+        def vector = PersistentVector.<Integer> empty()
+
+        when:
+        n.times { vector = vector + it }
+
+        then:
+        vector.size() == n
+        (0..<n).every { vector[it] == it }
+
+        when:
+        def replaced = vector.replace(5, -5).replace(n - 1, -1).replace(33000, 0)
+
+        then:
+        replaced[5] == -5
+        replaced[n - 1] == -1
+        replaced[33000] == 0
+        vector[5] == 5
+
+        when:
+        def popped = vector
+        (n - 10).times { popped = popped.pop() }
+
+        then:
+        popped == (0..<10).toList()
+        vector.size() == n
+    }
+
+    def "older versions are unchanged"() {
+        given:
+        def v1 = PersistentVector.of([1, 2, 3])
+
+        when:
+        def v2 = v1 + 4
+        def v3 = v2.replace(0, 9)
+
+        then:
+        v1 == [1, 2, 3]
+        v2 == [1, 2, 3, 4]
+        v3 == [9, 2, 3, 4]
+    }
+
+    def "out of range access fails"() {
+        when:
+        PersistentVector.of([1])[1]
+
+        then:
+        thrown(IndexOutOfBoundsException)
+
+        when:
+        PersistentVector.empty().pop()
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,141 @@
+package groovyx.javafx.collections
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.collections.ListChangeListener
+import javafx.scene.control.TableColumn
+import javafx.scene.control.TableView
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+class TableDataSourceSpec extends Specification {
+
+    static final Executor DIRECT = { Runnable work -> work.run() } as Executor
+
+    List<Integer> fetched = []
+    RowProvider provider = [
+            getRowCount: { 10_000 },
+            fetch      : { int offset, int count ->
+                fetched << offset
+                (offset..<offset + count).collect { [id: it, group: it % 7] }
+            }
+    ] as RowProvider
+
+    private TableDataSource direct(int pageSize = 100, int maxPages = 3) {
+        def source = new TableDataSource(provider, pageSize, maxPages)
+        source.executor = DIRECT
+        source.fxExecutor = DIRECT
+        source
+    }
+
+    def "rows are fetched a page at a time and the least recently used pages evicted"() {
+        given:
+        def source = direct()
+
+        expect:
+        source.rows.size() == 10_000
+        source.rows[5].id == 5
+        source.rows[99].id == 99
+        source.rows[250].id == 250
+        source.rows[350].id == 350
+        source.rows[450].id == 450
+        fetched == [0, 200, 300, 400]
+        source.cachedPages == 3
+    }
+
+    def "a row whose page is loading reads as null until the page arrives"() {
+        given:
+        List<Runnable> background = []
+        def source = new TableDataSource(provider, 100, 3)
+        source.executor = { Runnable work -> background << work } as Executor
+        source.fxExecutor = DIRECT
+        List<String> changes = []
+        source.rows.addListener({ ListChangeListener.Change change ->
+            while (change.next()) changes << "${change.from}..${change.to}"
+        } as ListChangeListener)
+
+        when:
+        def first = source.rows[120]
+        def second = source.rows[130]
+
+        then:
+        first == null
+        second == null
+        background.size() == 1
+
+        when:
+        background.remove(0).run()
+
+        then:
+        changes == ['100..200']
+        source.rows[130].id == 130
+    }
+
+    def "sorting and filtering reorder positions, not the provider"() {
+        given:
+        def source = direct()
+
+        when:
+        source.sortBy([new TableDataSource.SortKey('group', false)])
+
+        then:
+        source.rows[0].group == 6
+        (0..<50).collect { source.rows[it].id } == (0..<50).collect { 6 + it * 7 }
+
+        when:
+        source.sortBy([new TableDataSource.SortKey('group', true, { a, b -> a <=> b } as Comparator)])
+
+        then:
+        (0..<50).collect { source.rows[it].id } == (0..<50).collect { it * 7 }
+
+        when:
+        source.filter { it.group == 3 }
+
+        then:
+        source.rows.size() == (0..<10_000).count { it % 7 == 3 }
+        source.rows[0].id == 3
+
+        when:
+        source.sortBy([])
+        source.filter(null)
+
+        then:
+        source.rows.size() == 10_000
+        source.rows[9_999].id == 9_999
+    }
+
+    def "tableView(dataSource:) installs the rows and sorts through the data source"() {
+        given:
+        FxTestSupport.ensureStarted()
+
+        when:
+        def table = FxTestSupport.runFx {
+            new SceneGraphBuilder().build {
+                tableView(dataSource: (0..<1_000).collect { [id: it, group: it % 7] }) {
+                    tableColumn('Id', property: 'id')
+                    tableColumn('Group', property: 'group')
+                }
+            } as TableView
+        }
+
+        then:
+        table.items.size() == 1_000
+        table.columns*.properties*.get(TableDataSource.PROPERTY_KEY) == ['id', 'group']
+
+        when:
+        FxTestSupport.runFx {
+            TableColumn group = table.columns[1]
+            group.sortType = TableColumn.SortType.DESCENDING
+            table.sortOrder.setAll(group)
+        }
+        def first = null
+        for (int i = 0; i < 100 && first?.group != 6; i++) {
+            Thread.sleep(20)
+            first = FxTestSupport.runFx { table.items[0] }
+        }
+
+        then:
+        first.group == 6
+    }
+}
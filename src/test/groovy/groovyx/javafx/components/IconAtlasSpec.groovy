@@ -0,0 +1,117 @@
+package groovyx.javafx.components
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.animation.KeyFrame
+import javafx.animation.KeyValue
+import javafx.animation.Timeline
+import javafx.beans.property.SimpleObjectProperty
+import javafx.scene.Group
+import javafx.scene.image.ImageView
+import javafx.scene.paint.Color
+import javafx.util.Duration
+import spock.lang.Specification
+
+class IconAtlasSpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    def setup() {
+        FxTestSupport.runFx { IconAtlas.default.clear() }
+    }
+
+    private static Icon laidOut(Icon icon) {
+        icon.layout()
+        return icon
+    }
+
+    def "icons with the same name, size and fill share one rasterized viewport"() {
+        when:
+        List<Icon> icons = FxTestSupport.runFx {
+            (0..<1_000).collect { laidOut(new Icon(iconName: 'save', size: 16, fill: Color.RED)) }
+        }
+        List<ImageView> views = icons.collect { it.children[0] as ImageView }
+        def stats = IconAtlas.default.statistics()
+
+        then:
+        views.every { it.image.is(views[0].image) && it.viewport == views[0].viewport }
+        views[0].fitWidth == 16d
+        stats.misses == 1L
+        stats.hits == 999L
+        stats.pages == 1L
+    }
+
+    def "different fills and sizes get their own place on the same page"() {
+        when:
+        List<Icon> icons = FxTestSupport.runFx {
+            [laidOut(new Icon(iconName: 'add', fill: Color.RED)),
+             laidOut(new Icon(iconName: 'add', fill: Color.BLUE)),
+             laidOut(new Icon(iconName: 'add', fill: Color.BLUE, size: 48))]
+        }
+        List<ImageView> views = icons.collect { it.children[0] as ImageView }
+
+        then:
+        views*.image.unique { System.identityHashCode(it) }.size() == 1
+        views*.viewport.unique().size() == 3
+        views[2].fitWidth == 48d
+        IconAtlas.default.statistics().entries == 3L
+    }
+
+    def "bound fills and unrasterized icons draw the path"() {
+        when:
+        List<Icon> icons = FxTestSupport.runFx {
+            def bound = new Icon(iconName: 'check')
+            bound.fillProperty().bind(new SimpleObjectProperty(Color.GREEN))
+            [laidOut(bound), laidOut(new Icon(iconName: 'check', rasterized: false))]
+        }
+
+        then:
+        icons.every { it.children[0] instanceof Group }
+        IconAtlas.default.statistics().entries == 0L
+    }
+
+    def "an animated fill draws the path and is rasterized once it settles"() {
+        given:
+        def icon = FxTestSupport.runFx { laidOut(new Icon(iconName: 'info', fill: Color.RED)) }
+        def timeline = new Timeline(new KeyFrame(Duration.seconds(1), new KeyValue(icon.fillProperty(), Color.BLUE)))
+        long before = IconAtlas.default.statistics().misses
+
+        when:
+        FxTestSupport.runFx {
+            (1..60).each { frame ->
+                timeline.jumpTo(Duration.millis(frame * 1000 / 60))
+                icon.layout()
+            }
+        }
+
+        then:
+        icon.children[0] instanceof Group
+        IconAtlas.default.statistics().misses - before <= Icon.ANIMATED_FILL_CHANGES
+
+        when:
+        Thread.sleep((long) Icon.SETTLE_DELAY.toMillis() + 500)
+        FxTestSupport.runFx { icon.layout() }
+
+        then:
+        icon.children[0] instanceof ImageView
+        IconAtlas.default.statistics().misses - before <= Icon.ANIMATED_FILL_CHANGES + 1
+    }
+
+    def "icon sets can be registered in bulk"() {
+        given:
+        Icon.registerAll('test', [home: 'M10 20v-6h4v6h5v-8h3L12 3 2 12h3v8z', dot: 'M12 8a4 4 0 1 0 0 8a4 4 0 1 0 0-8z'])
+
+        when:
+        Icon icon = FxTestSupport.runFx {
+            laidOut(new SceneGraphBuilder().icon('test:home', size: 32))
+        }
+
+        then:
+        Icon.isRegistered('test:dot')
+        icon.iconName == 'test:home'
+        icon.children[0] instanceof ImageView
+        (icon.children[0] as ImageView).fitHeight == 32d
+    }
+}
@@ -81,4 +81,15 @@ class NumberExtensionSpec extends Specification {
         42 as BigInteger | BigInteger   || Duration.millis(42)
         42 as BigDecimal | BigDecimal   || Duration.millis(42)
     }
+
+    def "long names #number"() {
+        expect:
+        number.millis == Duration.millis(number)
+        number.seconds == Duration.seconds(number)
+        number.minutes == Duration.minutes(number)
+        number.hours == Duration.hours(number)
+
+        where:
+        number << [5 as int, 5 as long, 2.5 as double, 5 as BigDecimal]
+    }
 }
@@ -0,0 +1,92 @@
+package groovyx.javafx.factory
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.geometry.Pos
+import javafx.scene.control.Label
+import javafx.scene.layout.HBox
+import javafx.scene.layout.Priority
+import javafx.scene.layout.VBox
+import spock.lang.Specification
+
+class AttributeSetterCacheSpec extends Specification {
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private static <T> T runFx(Closure<T> c) {
+        FxTestSupport.runFx(c)
+    }
+
+    def "plain values are set through the cached setter"() {
+        given:
+        def label = runFx { new Label() }
+        def suffix = "there"
+
+        expect:
+        AttributeSetterCache.set(label, "text", "hello")
+        label.text == "hello"
+        AttributeSetterCache.set(label, "text", "hi $suffix")
+        label.text == "hi there"
+        AttributeSetterCache.set(label, "prefWidth", 80)
+        label.prefWidth == 80d
+        AttributeSetterCache.set(label, "wrapText", true)
+        label.wrapText
+    }
+
+    def "values that need Groovy coercion are left to the caller"() {
+        given:
+        def label = runFx { new Label() }
+
+        expect:
+        !AttributeSetterCache.set(label, "prefWidth", "80")
+        !AttributeSetterCache.set(label, "prefWidth", null)
+        !AttributeSetterCache.set(label, "noSuchAttribute", 1)
+        AttributeSetterCache.setter(Label, "noSuchAttribute").metaProperty == null
+        AttributeSetterCache.setter(Label, "alignment").type == Pos
+    }
+
+    def "building the same node again only hits the cache"() {
+        given:
+        def sg = new SceneGraphBuilder()
+        runFx { sg.hbox { label(text: "warm", prefWidth: 10, hgrow: "always", alignment: "center") } }
+        AttributeSetterCache.resetStatistics()
+
+        when:
+        HBox box = runFx {
+            sg.hbox {
+                100.times { label(text: "cell $it", prefWidth: 10, hgrow: "always", alignment: "center") }
+            }
+        }
+
+        then:
+        box.children.size() == 100
+        HBox.getHgrow(box.children[99]) == Priority.ALWAYS
+        (box.children[99] as Label).alignment == Pos.CENTER
+        AttributeSetterCache.misses == 0
+        AttributeSetterCache.hits >= 400
+        AttributeSetterCache.statistics() == [hits: AttributeSetterCache.hits, misses: 0L]
+    }
+
+    def "layout constraints the parent does not support are ignored"() {
+        when:
+        VBox box = runFx {
+            new SceneGraphBuilder().vbox {
+                label(text: "a", hgrow: "always", vgrow: "always")
+            }
+        }
+
+        then:
+        VBox.getVgrow(box.children[0]) == Priority.ALWAYS
+        HBox.getHgrow(box.children[0]) == Priority.ALWAYS
+    }
+
+    def "enum constants are parsed once per string"() {
+        expect:
+        AttributeSetterCache.enumConstant(Pos, " top_left ") == Pos.TOP_LEFT
+        AttributeSetterCache.enumConstant(Pos, "center") == Pos.CENTER
+        AttributeSetterCache.enumConstant(Priority, "sometimes").is(Priority.SOMETIMES)
+        AttributeSetterCache.uniformInsets(4).is(AttributeSetterCache.uniformInsets(4d))
+    }
+}
@@ -0,0 +1,125 @@
+package groovyx.javafx.factory
+
+import javafx.beans.InvalidationListener
+import javafx.beans.property.SimpleStringProperty
+import javafx.scene.control.TableColumn
+import spock.lang.Specification
+
+class ConverterPropertyValueFactorySpec extends Specification {
+
+    def factory = new ConverterPropertyValueFactory('name', { it.toUpperCase() })
+
+    private cell(row) {
+        cell(factory, row)
+    }
+
+    private static cell(ConverterPropertyValueFactory valueFactory, row) {
+        valueFactory.call(new TableColumn.CellDataFeatures(null, null, row))
+    }
+
+    def "each row keeps its own converted value, which follows the row's property"() {
+        given:
+        def first = new ConverterFxRow('a')
+        def second = new ConverterFxRow('b')
+        def firstValue = cell(first)
+        def secondValue = cell(second)
+
+        when:
+        first.name.value = 'x'
+
+        then:
+        firstValue.value == 'X'
+        secondValue.value == 'B'
+        cell(first).is(firstValue)
+        cell(second).is(secondValue)
+    }
+
+    def "plain getters are converted again only when their value changes"() {
+        given:
+        def row = new ConverterPlainRow(name: 'p')
+        def value = cell(row)
+
+        expect:
+        value.value == 'P'
+        cell(row).is(value)
+
+        when:
+        row.name = 'q'
+
+        then:
+        !cell(row).is(value)
+        cell(row).value == 'Q'
+    }
+
+    def "scrolling back and forth adds one listener per row and keeps a bounded cache"() {
+        given:
+        def rows = (0..<500).collect { new ConverterFxRow("row $it") }
+        def small = new ConverterPropertyValueFactory('name', { it }, 64)
+
+        when:
+        for (int pass = 0; pass < 10; pass++) {
+            for (int top = 0; top + 30 <= rows.size(); top += 2) {
+                for (int i = top; i < top + 30; i++) {
+                    cell(rows[i]).value
+                    cell(small, rows[i]).value
+                }
+            }
+        }
+
+        then:
+        rows.every { it.name.listeners in [1, 2] }
+        rows.sum { it.name.listeners } == 500 + 64
+        factory.cachedRows == 500
+        small.cachedRows == 64
+    }
+
+    def "rows that are dropped are dropped from the cache"() {
+        given:
+        def rows = (0..<100).collect { new ConverterFxRow("row $it") }
+        rows.each { cell(it).value }
+
+        when:
+        rows = null
+        for (int i = 0; i < 5 && factory.cachedRows > 0; i++) {
+            System.gc()
+            Thread.sleep(20)
+        }
+
+        then:
+        factory.cachedRows == 0
+    }
+}
+
+class ConverterFxRow {
+    final CountingStringProperty name
+
+    ConverterFxRow(String name) {
+        this.name = new CountingStringProperty(this, 'name', name)
+    }
+
+    CountingStringProperty nameProperty() { name }
+}
+
+class ConverterPlainRow {
+    String name
+}
+
+class CountingStringProperty extends SimpleStringProperty {
+    int listeners
+
+    CountingStringProperty(Object bean, String name, String value) {
+        super(bean, name, value)
+    }
+
+    @Override
+    void addListener(InvalidationListener listener) {
+        listeners++
+        super.addListener(listener)
+    }
+
+    @Override
+    void removeListener(InvalidationListener listener) {
+        listeners--
+        super.removeListener(listener)
+    }
+}
@@ -0,0 +1,162 @@
+package groovyx.javafx.image
+
+import groovyx.javafx.SceneGraphBuilder
+import groovyx.javafx.test.FxTestSupport
+import javafx.scene.image.Image
+import javafx.scene.image.ImageView
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import javax.imageio.ImageIO
+import java.awt.image.BufferedImage
+import java.nio.file.Path
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+
+class ImageCacheSpec extends Specification {
+
+    @TempDir
+    Path dir
+
+    List<Runnable> decodeQueue = []
+
+    def setupSpec() {
+        FxTestSupport.ensureStarted()
+    }
+
+    private String png(String name, int width, int height) {
+        def file = dir.resolve(name + '.png').toFile()
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), 'png', file)
+        return file.toURI().toString()
+    }
+
+    private ImageCache cache(long maxBytes = ImageCache.DEFAULT_MAX_BYTES) {
+        def cache = new ImageCache(maxBytes)
+        cache.executor = { Runnable work -> decodeQueue << work } as Executor
+        cache.fxExecutor = { Runnable work -> work.run() } as Executor
+        return cache
+    }
+
+    private void decode() {
+        def pending = new ArrayList<Runnable>(decodeQueue)
+        decodeQueue.clear()
+        pending*.run()
+    }
+
+    def "requests with the same key share one image"() {
+        given:
+        def cache = cache()
+        def url = png('a', 40, 20)
+
+        when:
+        def first = cache.image(new ImageKey(url))
+        def second = cache.image(new ImageKey(url))
+        def small = cache.image(new ImageKey(url, 10, 10, true, true))
+        def stats = cache.statistics()
+
+        then:
+        second.is(first)
+        !small.is(first)
+        small.width == 10d
+        stats.hits == 1L
+        stats.misses == 2L
+        stats.decodes == 2L
+        stats.bytes == 40L * 20 * 4 + 10L * 5 * 4
+        cache.hitRate == 1d / 3
+    }
+
+    def "the least recently used images are evicted past the byte budget"() {
+        given:
+        def cache = cache(3 * 10 * 10 * 4)
+        def urls = (0..<4).collect { png("i$it", 10, 10) }
+
+        when:
+        urls[0..2].each { cache.image(new ImageKey(it)) }
+        cache.image(new ImageKey(urls[0]))
+        cache.image(new ImageKey(urls[3]))
+
+        then:
+        cache.size() == 3
+        cache.bytes == 3 * 10 * 10 * 4L
+        cache.peek(new ImageKey(urls[0])) != null
+        cache.peek(new ImageKey(urls[1])) == null
+        cache.statistics().evictions == 1L
+    }
+
+    def "views asking for the same image share the placeholder and one decode"() {
+        given:
+        def cache = cache()
+        def key = new ImageKey(png('thumb', 16, 16))
+        def placeholder = cache.image(new ImageKey(png('loading', 1, 1)))
+        def views = (0..<2_000).collect { new ImageView() }
+
+        when:
+        views.each { cache.into(it, key, placeholder) }
+
+        then:
+        decodeQueue.size() == 1
+        views.every { it.image.is(placeholder) }
+
+        when:
+        decode()
+
+        then:
+        views*.image.unique { System.identityHashCode(it) }.size() == 1
+        views[0].image.width == 16d
+        cache.statistics().decodes == 2L
+        cache.statistics().hits == 1_999L
+    }
+
+    def "a view that moved on ignores the image it asked for before"() {
+        given:
+        def cache = cache()
+        def view = new ImageView()
+        def first = new ImageKey(png('first', 4, 4))
+        def second = new ImageKey(png('second', 8, 8))
+
+        when:
+        cache.into(view, first)
+        cache.into(view, second)
+        decode()
+
+        then:
+        view.image.width == 8d
+        cache.peek(first) != null
+    }
+
+    def "images that fail to load are not cached"() {
+        given:
+        def cache = cache()
+        def key = new ImageKey(dir.resolve('missing.png').toUri().toString())
+
+        when:
+        def result = cache.load(key)
+        decode()
+        result.get()
+
+        then:
+        thrown(ExecutionException)
+        cache.peek(key) == null
+        cache.statistics().failures == 1L
+        cache.statistics().loading == 0L
+    }
+
+    def "image and imageView nodes go through the shared cache"() {
+        given:
+        def url = png('node', 30, 30)
+        def builder = new SceneGraphBuilder()
+
+        when:
+        def nodes = FxTestSupport.runFx {
+            [builder.image(url), builder.image(url: url),
+             builder.imageView(url, fitWidth: 15, preserveRatio: true, backgroundLoading: false),
+             builder.imageView(url, fitWidth: 15, preserveRatio: true, backgroundLoading: false)]
+        }
+
+        then:
+        nodes[0] instanceof Image
+        nodes[1].is(nodes[0])
+        nodes[2].image.is(nodes[3].image)
+        nodes[2].image.width == 15d
+    }
+}